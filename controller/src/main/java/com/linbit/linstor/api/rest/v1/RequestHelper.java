@@ -211,10 +211,11 @@ public class RequestHelper
     {
         AccessContext accCtx = subscriberContext.get(AccessContext.class);
         Peer peer = subscriberContext.getOrDefault(Peer.class, null);
+        String apiCallName = subscriberContext.getOrDefault(ApiModule.API_CALL_NAME, null);
 
         Response ret;
 
-        TransactionMgr transMgr = transactional ? transactionMgrGenerator.startTransaction() : null;
+        TransactionMgr transMgr = transactional ? transactionMgrGenerator.startTransaction(apiCallName) : null;
 
         apiCallScope.enter();
         try
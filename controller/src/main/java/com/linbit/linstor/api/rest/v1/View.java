@@ -274,4 +274,38 @@ public class View
             return response;
         }, false);
     }
+
+    @GET
+    @Path("snapshot-shipping-queue")
+    public Response listQueuedSnapshotShippings(
+        @Context Request request,
+        @QueryParam("nodes") List<String> nodes,
+        @QueryParam("resources") List<String> resources,
+        @DefaultValue("0") @QueryParam("limit") int limit,
+        @DefaultValue("0") @QueryParam("offset") int offset
+    )
+    {
+        return requestHelper.doInScope(ApiConsts.API_LST_SNAPSHOT_SHIPPINGS, request, () ->
+        {
+            List<String> nodesFilter = nodes != null ? nodes : Collections.emptyList();
+            List<String> resourcesFilter = resources != null ? resources : Collections.emptyList();
+
+            Stream<JsonGenTypes.SnapshotShippingQueueItem> queueStream = ctrlApiCallHandler
+                .listQueuedSnapshotShippings(nodesFilter, resourcesFilter).stream()
+                .map(Json::queueEntryToSnapshotShippingQueueItem);
+
+            if (limit > 0)
+            {
+                queueStream = queueStream.skip(offset).limit(limit);
+            }
+
+            return RequestHelper.queryRequestResponse(
+                objectMapper,
+                ApiConsts.FAIL_NOT_FOUND_SNAPSHOT,
+                "Queued snapshot shipments",
+                null,
+                queueStream.collect(Collectors.toList())
+            );
+        }, false);
+    }
 }
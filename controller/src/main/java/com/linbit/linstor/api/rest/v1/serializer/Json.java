@@ -22,6 +22,7 @@ import com.linbit.linstor.api.pojo.StorageRscPojo;
 import com.linbit.linstor.api.pojo.VlmDfnPojo;
 import com.linbit.linstor.api.pojo.WritecacheRscPojo;
 import com.linbit.linstor.api.rest.v1.serializer.JsonGenTypes.AutoSelectFilter;
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue;
 import com.linbit.linstor.core.apis.NetInterfaceApi;
 import com.linbit.linstor.core.apis.NodeApi;
 import com.linbit.linstor.core.apis.ResourceApi;
@@ -854,6 +855,19 @@ public class Json
         return shippingStatus;
     }
 
+    public static JsonGenTypes.SnapshotShippingQueueItem queueEntryToSnapshotShippingQueueItem(
+        SnapshotShippingQueue.Entry entry
+    )
+    {
+        JsonGenTypes.SnapshotShippingQueueItem queueItem = new JsonGenTypes.SnapshotShippingQueueItem();
+        queueItem.resource_name = entry.rscName;
+        queueItem.from_node_name = entry.fromNodeName;
+        queueItem.to_node_name = entry.toNodeName;
+        queueItem.priority = entry.priority.name().toLowerCase();
+        queueItem.queued_since = entry.queuedAt;
+        return queueItem;
+    }
+
     public static JsonGenTypes.ResourceConnection apiToResourceConnection(
         ResourceConnectionApi rscConnApi
     )
@@ -995,6 +995,22 @@ public class JsonGenTypes
         public String status;
     }
 
+    /**
+     * Snapshot shipping waiting for a free slot on its nodes
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public static class SnapshotShippingQueueItem
+    {
+        public String resource_name;
+        public String from_node_name;
+        public String to_node_name;
+        public String priority;
+        /**
+         * milliseconds since unix epoch in UTC
+         */
+        public Long queued_since;
+    }
+
     /**
      * Actual snapshot data from a node
      */
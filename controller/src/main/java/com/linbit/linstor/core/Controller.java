@@ -19,6 +19,7 @@ import com.linbit.linstor.api.protobuf.ProtobufApiCall;
 import com.linbit.linstor.api.protobuf.ProtobufApiType;
 import com.linbit.linstor.core.apicallhandler.ApiCallHandlerModule;
 import com.linbit.linstor.core.apicallhandler.controller.CtrlApiCallHandlerModule;
+import com.linbit.linstor.core.apicallhandler.controller.CtrlSnapshotShippingScheduler;
 import com.linbit.linstor.core.cfg.CtrlConfig;
 import com.linbit.linstor.core.cfg.CtrlConfigModule;
 import com.linbit.linstor.dbcp.DbInitializer;
@@ -60,6 +61,7 @@ import com.linbit.linstor.systemstarter.ServiceStarter;
 import com.linbit.linstor.systemstarter.StartupInitializer;
 import com.linbit.linstor.tasks.AutoDiskfulTask;
 import com.linbit.linstor.tasks.AutoSnapshotTask;
+import com.linbit.linstor.tasks.DbCheckpointTask;
 import com.linbit.linstor.tasks.LogArchiveTask;
 import com.linbit.linstor.tasks.PingTask;
 import com.linbit.linstor.tasks.ReconnectorTask;
@@ -138,6 +140,8 @@ public final class Controller
     private final LogArchiveTask logArchiveTask;
     private final AutoSnapshotTask autoSnapshotTask;
     private final AutoDiskfulTask autoDiskfulTask;
+    private final CtrlSnapshotShippingScheduler snapshotShippingScheduler;
+    private final DbCheckpointTask dbCheckpointTask;
 
     private final DebugConsoleCreator debugConsoleCreator;
     private final ControllerNetComInitializer controllerNetComInitializer;
@@ -178,6 +182,8 @@ public final class Controller
         LogArchiveTask logArchiveTaskRef,
         AutoSnapshotTask autoSnapshotTaskRef,
         AutoDiskfulTask autoDiskfulTaskRef,
+        CtrlSnapshotShippingScheduler snapshotShippingSchedulerRef,
+        DbCheckpointTask dbCheckpointTaskRef,
         DebugConsoleCreator debugConsoleCreatorRef,
         ControllerNetComInitializer controllerNetComInitializerRef,
         OpenFlexTargetProcessManager openFlexTargetProcessManagerRef,
@@ -208,6 +214,8 @@ public final class Controller
         retryResourcesTask = retryResourcesTaskRef;
         autoSnapshotTask = autoSnapshotTaskRef;
         autoDiskfulTask = autoDiskfulTaskRef;
+        snapshotShippingScheduler = snapshotShippingSchedulerRef;
+        dbCheckpointTask = dbCheckpointTaskRef;
         debugConsoleCreator = debugConsoleCreatorRef;
         controllerNetComInitializer = controllerNetComInitializerRef;
         openflexTargetProcessManager = openFlexTargetProcessManagerRef;
@@ -266,6 +274,8 @@ public final class Controller
             taskScheduleService.addTask(logArchiveTask);
             taskScheduleService.addTask(autoSnapshotTask);
             taskScheduleService.addTask(autoDiskfulTask);
+            taskScheduleService.addTask(snapshotShippingScheduler);
+            taskScheduleService.addTask(dbCheckpointTask);
 
             systemServicesMap.put(controllerDb.getInstanceName(), controllerDb);
             systemServicesMap.put(taskScheduleService.getInstanceName(), taskScheduleService);
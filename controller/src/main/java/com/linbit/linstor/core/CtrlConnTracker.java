@@ -3,6 +3,8 @@ package com.linbit.linstor.core;
 import java.io.IOException;
 
 import com.linbit.linstor.ControllerPeerCtx;
+import com.linbit.linstor.core.apicallhandler.controller.FreeCapacityCache;
+import com.linbit.linstor.core.objects.Node;
 import com.linbit.linstor.event.EventBroker;
 import com.linbit.linstor.event.EventProcessor;
 import com.linbit.linstor.netcom.ConnectionObserver;
@@ -19,19 +21,22 @@ class CtrlConnTracker implements ConnectionObserver
     private final ReconnectorTask reconnectorTask;
     private final EventBroker eventBroker;
     private final EventProcessor eventProcessor;
+    private final FreeCapacityCache freeCapacityCache;
 
     @Inject
     CtrlConnTracker(
         CoreModule.PeerMap peerMapRef,
         ReconnectorTask reconnectorTaskRef,
         EventBroker eventBrokerRef,
-        EventProcessor eventProcessorRef
+        EventProcessor eventProcessorRef,
+        FreeCapacityCache freeCapacityCacheRef
     )
     {
         peerMap = peerMapRef;
         reconnectorTask = reconnectorTaskRef;
         eventBroker = eventBrokerRef;
         eventProcessor = eventProcessorRef;
+        freeCapacityCache = freeCapacityCacheRef;
     }
 
     @Override
@@ -85,6 +90,13 @@ class CtrlConnTracker implements ConnectionObserver
         {
             eventBroker.connectionClosed(connPeer);
 
+            // a disconnected satellite does not push free space updates anymore
+            Node node = connPeer.getNode();
+            if (node != null)
+            {
+                freeCapacityCache.evictNode(node.getName());
+            }
+
             if (!shuttingDown)
             {
                 eventProcessor.connectionClosed(connPeer);
@@ -1148,6 +1148,14 @@ public class CtrlApiCallHandler
         return listSnapshotShippings;
     }
 
+    public List<SnapshotShippingQueue.Entry> listQueuedSnapshotShippings(
+        List<String> nodeNames,
+        List<String> resourceNames
+    )
+    {
+        return snapshotShippingApiCallHandler.listQueuedSnapshotShippings(nodeNames, resourceNames);
+    }
+
     public ApiCallRc setMasterPassphrase(String newPassphrase, String oldPassphrase)
     {
         ApiCallRc apiCallRc;
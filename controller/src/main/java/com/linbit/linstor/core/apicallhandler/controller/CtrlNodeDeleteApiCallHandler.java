@@ -70,6 +70,7 @@ public class CtrlNodeDeleteApiCallHandler implements CtrlSatelliteConnectionList
     private final Provider<AccessContext> peerAccCtx;
     private final LockGuardFactory lockGuardFactory;
     private final CtrlSnapshotDeleteApiCallHandler ctrlSnapshotDeleteApiCallHandler;
+    private final FreeCapacityCache freeCapacityCache;
 
     @Inject
     public CtrlNodeDeleteApiCallHandler(
@@ -83,7 +84,8 @@ public class CtrlNodeDeleteApiCallHandler implements CtrlSatelliteConnectionList
         ResponseConverter responseConverterRef,
         LockGuardFactory lockGuardFactoryRef,
         @PeerContext Provider<AccessContext> peerAccCtxRef,
-        CtrlSnapshotDeleteApiCallHandler ctrlSnapshotDeleteApiCallHandlerRef
+        CtrlSnapshotDeleteApiCallHandler ctrlSnapshotDeleteApiCallHandlerRef,
+        FreeCapacityCache freeCapacityCacheRef
     )
     {
         apiCtx = apiCtxRef;
@@ -97,6 +99,7 @@ public class CtrlNodeDeleteApiCallHandler implements CtrlSatelliteConnectionList
         lockGuardFactory = lockGuardFactoryRef;
         peerAccCtx = peerAccCtxRef;
         ctrlSnapshotDeleteApiCallHandler = ctrlSnapshotDeleteApiCallHandlerRef;
+        freeCapacityCache = freeCapacityCacheRef;
     }
 
     @Override
@@ -565,6 +568,7 @@ public class CtrlNodeDeleteApiCallHandler implements CtrlSatelliteConnectionList
     {
         try
         {
+            freeCapacityCache.evict(new StorPool.Key(storPool));
             storPool.delete(apiCtx);
         }
         catch (AccessDeniedException accDeniedExc)
@@ -72,6 +72,7 @@ public class CtrlNodeLostApiCallHandler
     private final ResponseConverter responseConverter;
     private final ReadWriteLock nodesMapLock;
     private final Provider<AccessContext> peerAccCtx;
+    private final FreeCapacityCache freeCapacityCache;
 
     @Inject
     public CtrlNodeLostApiCallHandler(
@@ -86,7 +87,8 @@ public class CtrlNodeLostApiCallHandler
         CtrlSatelliteUpdateCaller ctrlSatelliteUpdateCallerRef,
         ResponseConverter responseConverterRef,
         @Named(CoreModule.NODES_MAP_LOCK) ReadWriteLock nodesMapLockRef,
-        @PeerContext Provider<AccessContext> peerAccCtxRef
+        @PeerContext Provider<AccessContext> peerAccCtxRef,
+        FreeCapacityCache freeCapacityCacheRef
     )
     {
         apiCtx = apiCtxRef;
@@ -101,6 +103,7 @@ public class CtrlNodeLostApiCallHandler
         responseConverter = responseConverterRef;
         nodesMapLock = nodesMapLockRef;
         peerAccCtx = peerAccCtxRef;
+        freeCapacityCache = freeCapacityCacheRef;
     }
 
     /**
@@ -426,6 +429,7 @@ public class CtrlNodeLostApiCallHandler
     {
         try
         {
+            freeCapacityCache.evict(new StorPool.Key(storPool));
             storPool.delete(apiCtx);
         }
         catch (AccessDeniedException accDeniedExc)
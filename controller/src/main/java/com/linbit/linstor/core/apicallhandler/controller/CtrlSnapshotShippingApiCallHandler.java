@@ -13,6 +13,8 @@ import com.linbit.linstor.api.ApiCallRcImpl;
 import com.linbit.linstor.api.ApiConsts;
 import com.linbit.linstor.api.pojo.SnapshotShippingListItemPojo;
 import com.linbit.linstor.core.apicallhandler.ScopeRunner;
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue.Entry;
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue.Priority;
 import com.linbit.linstor.core.apicallhandler.response.ApiAccessDeniedException;
 import com.linbit.linstor.core.apicallhandler.response.ApiDatabaseException;
 import com.linbit.linstor.core.apicallhandler.response.ApiOperation;
@@ -87,6 +89,7 @@ public class CtrlSnapshotShippingApiCallHandler
     private final CtrlSnapshotCrtHelper snapCrtHelper;
     private final CtrlSnapshotCrtApiCallHandler snapCrtHandler;
     private final DynamicNumberPool snapshotShippingPortPool;
+    private final CtrlSnapshotShippingScheduler shippingScheduler;
 
     @Inject
     public CtrlSnapshotShippingApiCallHandler(
@@ -102,7 +105,8 @@ public class CtrlSnapshotShippingApiCallHandler
         CtrlSnapshotCrtHelper snapCrtHelperRef,
         CtrlSnapshotCrtApiCallHandler snapCrtHandlerRef,
         CtrlPropsHelper propsHelperRef,
-        @Named(NumberPoolModule.SNAPSHOPT_SHIPPING_PORT_POOL) DynamicNumberPool snapshotShippingPortPoolRef
+        @Named(NumberPoolModule.SNAPSHOPT_SHIPPING_PORT_POOL) DynamicNumberPool snapshotShippingPortPoolRef,
+        CtrlSnapshotShippingScheduler shippingSchedulerRef
     )
     {
         apiCtx = apiCtxRef;
@@ -118,6 +122,7 @@ public class CtrlSnapshotShippingApiCallHandler
         snapCrtHandler = snapCrtHandlerRef;
         propsHelper = propsHelperRef;
         snapshotShippingPortPool = snapshotShippingPortPoolRef;
+        shippingScheduler = shippingSchedulerRef;
     }
 
     public Flux<ApiCallRc> autoShipSnapshot(String rscNameRef)
@@ -244,6 +249,49 @@ public class CtrlSnapshotShippingApiCallHandler
             .transform(responses -> responseConverter.reportingExceptions(context, responses));
     }
 
+    /**
+     * Starts a shipment that was admitted by {@link CtrlSnapshotShippingScheduler} after waiting in its queue
+     */
+    Flux<ApiCallRc> shipQueuedSnapshot(Entry entry)
+    {
+        ResponseContext context = makeSnapshotContext(
+            ApiOperation.makeModifyOperation(),
+            Collections.emptyList(),
+            entry.rscName,
+            DUMMY_SNAPSHOT_SHIPPING_NAME
+        );
+
+        return scopeRunner
+            .fluxInTransactionalScope(
+                "Ship queued snapshot",
+                lockGuardFactory.create()
+                    .read(LockObj.NODES_MAP)
+                    .write(LockObj.RSC_DFN_MAP)
+                    .buildDeferred(),
+                () -> shipQueuedSnapshotInTransaction(entry)
+            )
+            .transform(responses -> responseConverter.reportingExceptions(context, responses));
+    }
+
+    private Flux<ApiCallRc> shipQueuedSnapshotInTransaction(Entry entry)
+    {
+        ResourceConnection rscConn;
+        try
+        {
+            rscConn = checkShippingPreconditions(entry);
+        }
+        catch (ApiRcException exc)
+        {
+            // the shipment is dropped from the queue, so it must not be restored after a restart either
+            ctrlTransactionHelper.rollback();
+            shippingScheduler.removePersistedQueued(entry);
+            ctrlTransactionHelper.commit();
+            throw exc;
+        }
+        shippingScheduler.removePersistedQueued(entry);
+        return startShippingInTransaction(entry, rscConn);
+    }
+
     private Flux<ApiCallRc> shipSnapshotInTransaction(
         String rscNameRef,
         String fromNodeNameRef,
@@ -253,46 +301,107 @@ public class CtrlSnapshotShippingApiCallHandler
         boolean autoShipping
     )
     {
-        ResourceConnection rscConn = rscConnHelper.loadOrCreateRscConn(
-            null,
+        if (shippingScheduler.isQueued(rscNameRef, fromNodeNameRef, toNodeNameRef))
+        {
+            throw new ApiRcException(
+                ApiCallRcImpl.simpleEntry(
+                    ApiConsts.FAIL_EXISTS_SNAPSHOT_SHIPPING,
+                    "Snapshot shipping of resource '" + rscNameRef + "' from node '" + fromNodeNameRef + "' to node '" +
+                        toNodeNameRef + "' already queued"
+                )
+            );
+        }
+        Entry entry = new Entry(
+            rscNameRef,
             fromNodeNameRef,
+            fromNicRef,
             toNodeNameRef,
-            rscNameRef
+            toNicRef,
+            shippingScheduler.getPriority(
+                ctrlApiDataLoader.loadRscDfn(rscNameRef, true),
+                // a manually requested shipment is most likely awaited by someone
+                autoShipping ? Priority.NORMAL : Priority.HIGH
+            )
+        );
+
+        // fail early instead of when the shipment is dequeued
+        ResourceConnection rscConn = checkShippingPreconditions(entry);
+
+        Flux<ApiCallRc> flux;
+        if (shippingScheduler.canStartImmediately(entry))
+        {
+            flux = startShippingInTransaction(entry, rscConn);
+        }
+        else
+        {
+            shippingScheduler.persistQueued(rscConn, entry);
+            ctrlTransactionHelper.commit();
+            shippingScheduler.enqueue(entry);
+
+            flux = Flux.just(
+                ApiCallRcImpl.singleApiCallRc(
+                    ApiConsts.MASK_INFO,
+                    "Snapshot shipping of resource '" + rscNameRef + "' from node '" + fromNodeNameRef +
+                        "' to node '" + toNodeNameRef + "' queued, the nodes or the link between them are busy"
+                )
+            );
+        }
+        return flux;
+    }
+
+    private ResourceConnection checkShippingPreconditions(Entry entry)
+    {
+        ResourceConnection rscConn = rscConnHelper.loadOrCreateRscConn(
+            null,
+            entry.fromNodeName,
+            entry.toNodeName,
+            entry.rscName
+        );
+        SnapshotDefinition snapDfn = loadInProgressShipping(
+            rscConn,
+            entry.rscName,
+            entry.fromNodeName,
+            entry.toNodeName
         );
-        SnapshotDefinition snapDfn = loadInProgressShipping(rscConn, rscNameRef, fromNodeNameRef, toNodeNameRef);
         if (snapDfn != null)
         {
             throw new ApiRcException(
                 ApiCallRcImpl.simpleEntry(
                     ApiConsts.FAIL_EXISTS_SNAPSHOT_SHIPPING,
-                    "Snapshot shipping of resource '" + rscNameRef + "' from node '" + fromNodeNameRef + "' to node '" +
-                        toNodeNameRef + "' already in progress"
+                    "Snapshot shipping of resource '" + entry.rscName + "' from node '" + entry.fromNodeName +
+                        "' to node '" + entry.toNodeName + "' already in progress"
                 )
             );
         }
 
-        Resource fromRsc = ctrlApiDataLoader.loadRsc(fromNodeNameRef, rscNameRef, true);
-        Resource toRsc = ctrlApiDataLoader.loadRsc(toNodeNameRef, rscNameRef, true);
+        Resource fromRsc = ctrlApiDataLoader.loadRsc(entry.fromNodeName, entry.rscName, true);
+        Resource toRsc = ctrlApiDataLoader.loadRsc(entry.toNodeName, entry.rscName, true);
 
         checkIfSnapshotShippingIsSupported(fromRsc, true);
         checkIfSnapshotShippingIsSupported(toRsc, false);
+        return rscConn;
+    }
+
+    private Flux<ApiCallRc> startShippingInTransaction(Entry entry, ResourceConnection rscConn)
+    {
+        long bandwidthKib = shippingScheduler.getBandwidthBudgetKib(entry);
 
         ApiCallRcImpl responses = new ApiCallRcImpl();
         String snapShipName = getSnapshotNameForNextShipping(rscConn, responses);
 
-        snapDfn = snapCrtHelper.createSnapshots(
-            Arrays.asList(fromNodeNameRef, toNodeNameRef),
-            rscNameRef,
+        SnapshotDefinition snapDfn = snapCrtHelper.createSnapshots(
+            Arrays.asList(entry.fromNodeName, entry.toNodeName),
+            entry.rscName,
             snapShipName,
             responses
         );
 
         // TODO: delete "old enough" snapshots created by snapshot shipping
 
-        Snapshot snapCurrentSource = getSnapshot(snapDfn, fromNodeNameRef);
+        Snapshot snapCurrentSource = getSnapshot(snapDfn, entry.fromNodeName);
         Snapshot snapPreviousSource = getPrevious(snapCurrentSource);
-        Snapshot snapTarget = getSnapshot(snapDfn, toNodeNameRef);
-        setShippingPropsAndFlags(snapPreviousSource, snapCurrentSource, snapTarget);
+        Snapshot snapTarget = getSnapshot(snapDfn, entry.toNodeName);
+        setShippingPropsAndFlags(snapPreviousSource, snapCurrentSource, snapTarget, bandwidthKib);
 
         enableFlags(snapDfn, SnapshotDefinition.Flags.SHIPPING);
 
@@ -586,7 +695,12 @@ public class CtrlSnapshotShippingApiCallHandler
         return prevSourceSnapshot;
     }
 
-    private void setShippingPropsAndFlags(@Nullable Snapshot prevSnapSource, Snapshot snapSource, Snapshot snapTarget)
+    private void setShippingPropsAndFlags(
+        @Nullable Snapshot prevSnapSource,
+        Snapshot snapSource,
+        Snapshot snapTarget,
+        long bandwidthKib
+    )
     {
         try
         {
@@ -609,6 +723,13 @@ public class CtrlSnapshotShippingApiCallHandler
                 InternalApiConsts.KEY_SNAPSHOT_SHIPPING_PORT,
                 Integer.toString(snapshotShippingPortPool.autoAllocate())
             );
+            if (bandwidthKib > 0)
+            {
+                snapDfnProps.setProp(
+                    InternalApiConsts.KEY_SNAPSHOT_SHIPPING_BANDWIDTH_KIB,
+                    Long.toString(bandwidthKib)
+                );
+            }
         }
         catch (InvalidKeyException | InvalidValueException exc)
         {
@@ -736,6 +857,27 @@ public class CtrlSnapshotShippingApiCallHandler
         return ret;
     }
 
+    /**
+     * @return the queued shipments in the order they are going to be started
+     */
+    public List<Entry> listQueuedSnapshotShippings(List<String> nodeNamesRef, List<String> resourceNamesRef)
+    {
+        Predicate<String> nodeNameFilter = createFilter(nodeNamesRef, String::toUpperCase);
+        Predicate<String> rscNameFilter = createFilter(resourceNamesRef, String::toUpperCase);
+
+        List<Entry> ret = new ArrayList<>();
+        for (Entry entry : shippingScheduler.getQueuedEntries())
+        {
+            if (rscNameFilter.test(entry.rscName.toUpperCase()) &&
+                (nodeNameFilter.test(entry.fromNodeName.toUpperCase()) ||
+                    nodeNameFilter.test(entry.toNodeName.toUpperCase())))
+            {
+                ret.add(entry);
+            }
+        }
+        return ret;
+    }
+
     private <T> Predicate<T> createFilter(List<String> list, Function<String, T> mappingFkt)
     {
         Predicate<T> predicate;
@@ -0,0 +1,610 @@
+package com.linbit.linstor.core.apicallhandler.controller;
+
+import com.linbit.ImplementationError;
+import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.LinstorParsingUtils;
+import com.linbit.linstor.PriorityProps;
+import com.linbit.linstor.annotation.ApiContext;
+import com.linbit.linstor.annotation.SystemContext;
+import com.linbit.linstor.api.ApiCallRc;
+import com.linbit.linstor.api.ApiConsts;
+import com.linbit.linstor.api.ApiModule;
+import com.linbit.linstor.core.apicallhandler.ScopeRunner;
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue.Entry;
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue.Limits;
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue.Load;
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue.Priority;
+import com.linbit.linstor.core.apicallhandler.response.ApiDatabaseException;
+import com.linbit.linstor.core.objects.Node;
+import com.linbit.linstor.core.objects.NodeConnection;
+import com.linbit.linstor.core.objects.Resource;
+import com.linbit.linstor.core.objects.ResourceConnection;
+import com.linbit.linstor.core.objects.ResourceDefinition;
+import com.linbit.linstor.core.objects.SnapshotDefinition;
+import com.linbit.linstor.core.repository.NodeRepository;
+import com.linbit.linstor.core.repository.ResourceDefinitionRepository;
+import com.linbit.linstor.dbdrivers.DatabaseException;
+import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.netcom.Peer;
+import com.linbit.linstor.netcom.PeerController;
+import com.linbit.linstor.propscon.InvalidKeyException;
+import com.linbit.linstor.propscon.InvalidValueException;
+import com.linbit.linstor.propscon.Props;
+import com.linbit.linstor.security.AccessContext;
+import com.linbit.linstor.security.AccessDeniedException;
+import com.linbit.linstor.tasks.TaskScheduleService;
+import com.linbit.locks.LockGuard;
+import com.linbit.locks.LockGuardFactory;
+import com.linbit.locks.LockGuardFactory.LockObj;
+import com.linbit.locks.LockGuardFactory.LockType;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import reactor.core.publisher.Flux;
+import reactor.util.context.Context;
+
+/**
+ * Limits the number of concurrent snapshot shipments per node and per node pair ("link") and splits the configured
+ * replication bandwidth among them. Shipments that do not fit are kept in a {@link SnapshotShippingQueue} and
+ * started as soon as a running shipment finished.
+ *
+ * The limits are looked up with the usual priority of properties:
+ * <ul>
+ *   <li>per node: node, controller</li>
+ *   <li>per link: node connection, controller</li>
+ *   <li>priority class: resource definition, controller</li>
+ * </ul>
+ *
+ * All limits are disabled by default (0), i.e. shipments are only queued once a limit is configured.
+ *
+ * Running shipments are not tracked separately but counted from the {@link SnapshotDefinition.Flags#SHIPPING} flags,
+ * so an aborted or deleted shipment can never leak a slot. The periodic {@link #run()} only serves as a fallback
+ * for such cases, a regularly finished shipment dispatches the queue immediately.
+ *
+ * Queued shipments are persisted in the properties of their resource connection and restored by the first
+ * {@link #run()} after the controller started.
+ */
+@Singleton
+public class CtrlSnapshotShippingScheduler implements TaskScheduleService.Task
+{
+    public static final String KEY_MAX_CONCURRENT_PER_NODE = "MaxConcurrentPerNode";
+    public static final String KEY_MAX_CONCURRENT_PER_LINK = "MaxConcurrentPerLink";
+    public static final String KEY_BANDWIDTH_KIB_PER_NODE = "BandwidthKibPerNode";
+    public static final String KEY_BANDWIDTH_KIB_PER_LINK = "BandwidthKibPerLink";
+    public static final String KEY_PRIORITY = "Priority";
+
+    public static final int DFLT_MAX_CONCURRENT_PER_NODE = 0;
+    public static final int DFLT_MAX_CONCURRENT_PER_LINK = 0;
+
+    private static final String KEY_QUEUED_PRIORITY = "Priority";
+    private static final String KEY_QUEUED_SOURCE_NIC = "SourceNic";
+    private static final String KEY_QUEUED_TARGET_NIC = "TargetNic";
+    private static final String KEY_QUEUED_SINCE = "Since";
+
+    private static final long TASK_INTERVAL = 10_000;
+    private static final String DISPATCH_API_NAME = "DispatchSnapshotShipping";
+
+    private final AccessContext apiCtx;
+    private final AccessContext sysCtx;
+    private final ErrorReporter errorReporter;
+    private final ScopeRunner scopeRunner;
+    private final LockGuardFactory lockGuardFactory;
+    private final NodeRepository nodeRepository;
+    private final ResourceDefinitionRepository rscDfnRepository;
+    private final CtrlPropsHelper propsHelper;
+    private final Provider<CtrlSnapshotShippingApiCallHandler> shippingApiCallHandlerProvider;
+
+    private final SnapshotShippingQueue queue = new SnapshotShippingQueue();
+    /**
+     * Entries taken from the queue whose snapshots are not created yet. They are not visible in the
+     * snapshot definitions so they have to be counted separately.
+     */
+    private final List<Entry> starting = new ArrayList<>();
+    private boolean restored = false;
+
+    @Inject
+    public CtrlSnapshotShippingScheduler(
+        @ApiContext AccessContext apiCtxRef,
+        @SystemContext AccessContext sysCtxRef,
+        ErrorReporter errorReporterRef,
+        ScopeRunner scopeRunnerRef,
+        LockGuardFactory lockGuardFactoryRef,
+        NodeRepository nodeRepositoryRef,
+        ResourceDefinitionRepository rscDfnRepositoryRef,
+        CtrlPropsHelper propsHelperRef,
+        Provider<CtrlSnapshotShippingApiCallHandler> shippingApiCallHandlerProviderRef
+    )
+    {
+        apiCtx = apiCtxRef;
+        sysCtx = sysCtxRef;
+        errorReporter = errorReporterRef;
+        scopeRunner = scopeRunnerRef;
+        lockGuardFactory = lockGuardFactoryRef;
+        nodeRepository = nodeRepositoryRef;
+        rscDfnRepository = rscDfnRepositoryRef;
+        propsHelper = propsHelperRef;
+        shippingApiCallHandlerProvider = shippingApiCallHandlerProviderRef;
+    }
+
+    /**
+     * Has to be called while holding at least the read locks of the nodes- and resource-definition map.
+     *
+     * @return true if the shipment can be started right away, false if it has to be queued
+     */
+    public boolean canStartImmediately(Entry entry)
+    {
+        synchronized (queue)
+        {
+            return queue.canStartImmediately(entry, getLoad(null), new PropsLimits());
+        }
+    }
+
+    /**
+     * Queues a shipment that cannot start right away. Has to be called only after the transaction persisting it
+     * by {@link #persistQueued(ResourceConnection, Entry)} was committed, so that a failed commit does not leave
+     * a shipment in the queue that would be gone after a restart.
+     */
+    public void enqueue(Entry entry)
+    {
+        synchronized (queue)
+        {
+            queue.add(entry);
+        }
+        errorReporter.logInfo("Snapshot shipping of %s queued", entry);
+    }
+
+    public boolean isQueued(String rscName, String fromNodeName, String toNodeName)
+    {
+        synchronized (queue)
+        {
+            return queue.contains(rscName, fromNodeName, toNodeName);
+        }
+    }
+
+    /**
+     * @return all queued shipments in the order they are going to be started
+     */
+    public List<Entry> getQueuedEntries()
+    {
+        synchronized (queue)
+        {
+            return queue.getEntries();
+        }
+    }
+
+    /**
+     * Stores the given queued shipment in the properties of its resource connection, so that it can be restored
+     * after a restart. Has to be called within the transaction that queued the shipment.
+     */
+    public void persistQueued(ResourceConnection rscConn, Entry entry)
+    {
+        try
+        {
+            Props rscConnProps = rscConn.getProps(apiCtx);
+            String namespace = getQueuedNamespace(entry);
+            rscConnProps.setProp(KEY_QUEUED_PRIORITY, entry.priority.name(), namespace);
+            rscConnProps.setProp(KEY_QUEUED_SINCE, Long.toString(entry.queuedAt), namespace);
+            if (entry.fromNic != null)
+            {
+                rscConnProps.setProp(KEY_QUEUED_SOURCE_NIC, entry.fromNic, namespace);
+            }
+            if (entry.toNic != null)
+            {
+                rscConnProps.setProp(KEY_QUEUED_TARGET_NIC, entry.toNic, namespace);
+            }
+        }
+        catch (AccessDeniedException | InvalidKeyException | InvalidValueException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        catch (DatabaseException dbExc)
+        {
+            throw new ApiDatabaseException(dbExc);
+        }
+    }
+
+    /**
+     * Removes the persisted state of a shipment taken from the queue, if its resource connection still exists
+     */
+    public void removePersistedQueued(Entry entry)
+    {
+        try
+        {
+            Node fromNode = nodeRepository.get(apiCtx, LinstorParsingUtils.asNodeName(entry.fromNodeName));
+            Node toNode = nodeRepository.get(apiCtx, LinstorParsingUtils.asNodeName(entry.toNodeName));
+            Resource fromRsc = fromNode == null ?
+                null :
+                fromNode.getResource(apiCtx, LinstorParsingUtils.asRscName(entry.rscName));
+            Resource toRsc = toNode == null ?
+                null :
+                toNode.getResource(apiCtx, LinstorParsingUtils.asRscName(entry.rscName));
+            ResourceConnection rscConn = fromRsc == null || toRsc == null ?
+                null :
+                ResourceConnection.get(apiCtx, fromRsc, toRsc);
+            if (rscConn != null)
+            {
+                rscConn.getProps(apiCtx).removeNamespace(getQueuedNamespace(entry));
+            }
+        }
+        catch (AccessDeniedException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        catch (DatabaseException dbExc)
+        {
+            throw new ApiDatabaseException(dbExc);
+        }
+    }
+
+    private static String getQueuedNamespace(Entry entry)
+    {
+        return InternalApiConsts.NAMESPC_SNAPSHOT_SHIPPING_QUEUED + "/" + entry.fromNodeName;
+    }
+
+    public Priority getPriority(ResourceDefinition rscDfn, Priority dfltPriority)
+    {
+        try
+        {
+            return Priority.valueOfIgnoreCase(
+                new PriorityProps(
+                    propsHelper.getProps(apiCtx, rscDfn),
+                    propsHelper.getCtrlPropsForView(apiCtx)
+                ).getProp(KEY_PRIORITY, ApiConsts.NAMESPC_SNAPSHOT_SHIPPING),
+                dfltPriority
+            );
+        }
+        catch (InvalidKeyException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+    }
+
+    /**
+     * The bandwidth of the source node, the target node and the link between them is shared equally among the
+     * shipments running on them. Shipments that are already running keep the share they were started with.
+     *
+     * Has to be called while holding at least the read locks of the nodes- and resource-definition map, before the
+     * given shipment is marked as {@link SnapshotDefinition.Flags#SHIPPING}.
+     *
+     * @return the bandwidth in KiB/s the given shipment may use, 0 for unlimited
+     */
+    public long getBandwidthBudgetKib(Entry entry)
+    {
+        Load load;
+        synchronized (queue)
+        {
+            load = getLoad(entry);
+        }
+        long budget = 0;
+        budget = share(
+            budget,
+            getLongProp(getNodePrioProps(entry.fromNodeName), KEY_BANDWIDTH_KIB_PER_NODE, 0),
+            load.getNodeCount(entry.fromNodeName)
+        );
+        budget = share(
+            budget,
+            getLongProp(getNodePrioProps(entry.toNodeName), KEY_BANDWIDTH_KIB_PER_NODE, 0),
+            load.getNodeCount(entry.toNodeName)
+        );
+        budget = share(
+            budget,
+            getLongProp(getLinkPrioProps(entry.fromNodeName, entry.toNodeName), KEY_BANDWIDTH_KIB_PER_LINK, 0),
+            load.getLinkCount(entry.fromNodeName, entry.toNodeName)
+        );
+        return budget;
+    }
+
+    private static long share(long currentBudget, long bandwidthKib, int runningCount)
+    {
+        long ret = currentBudget;
+        if (bandwidthKib > 0)
+        {
+            long share = Math.max(1, bandwidthKib / (runningCount + 1));
+            ret = currentBudget == 0 ? share : Math.min(currentBudget, share);
+        }
+        return ret;
+    }
+
+    /**
+     * Starts all queued shipments that fit into the current limits.
+     */
+    public Flux<ApiCallRc> dispatch()
+    {
+        return scopeRunner
+            .fluxInTransactionlessScope(
+                "Dispatch queued snapshot shipments",
+                lockGuardFactory.create()
+                    .read(LockObj.NODES_MAP)
+                    .read(LockObj.RSC_DFN_MAP)
+                    .buildDeferred(),
+                this::dispatchInScope
+            )
+            // queued shipments are started on behalf of the controller, not of whoever finished the last one
+            .subscriberContext(
+                Context.of(
+                    ApiModule.API_CALL_NAME, DISPATCH_API_NAME,
+                    AccessContext.class, sysCtx,
+                    Peer.class, new PeerController(DISPATCH_API_NAME, null, true)
+                )
+            );
+    }
+
+    private Flux<ApiCallRc> dispatchInScope()
+    {
+        List<Entry> runnable;
+        synchronized (queue)
+        {
+            if (queue.isEmpty())
+            {
+                runnable = Collections.emptyList();
+            }
+            else
+            {
+                runnable = queue.pollRunnable(getLoad(null), new PropsLimits());
+                starting.addAll(runnable);
+            }
+        }
+
+        List<Flux<ApiCallRc>> fluxes = new ArrayList<>();
+        for (Entry entry : runnable)
+        {
+            errorReporter.logInfo("Starting queued snapshot shipping of %s", entry);
+            fluxes.add(
+                shippingApiCallHandlerProvider.get().shipQueuedSnapshot(entry)
+                    .doFinally(ignored -> startingFinished(entry))
+            );
+        }
+        return Flux.merge(fluxes);
+    }
+
+    private void startingFinished(Entry entry)
+    {
+        synchronized (queue)
+        {
+            starting.remove(entry);
+        }
+    }
+
+    @Override
+    public long run()
+    {
+        if (!restored)
+        {
+            restoreQueue();
+            restored = true;
+        }
+        boolean hasQueued;
+        synchronized (queue)
+        {
+            hasQueued = !queue.isEmpty();
+        }
+        if (hasQueued)
+        {
+            dispatch().subscribe(
+                ignoredRc ->
+                {
+                },
+                errorReporter::reportError
+            );
+        }
+        return TASK_INTERVAL;
+    }
+
+    private void restoreQueue()
+    {
+        List<Entry> persisted = new ArrayList<>();
+        try (LockGuard ignored = lockGuardFactory.build(LockType.READ, LockObj.NODES_MAP, LockObj.RSC_DFN_MAP))
+        {
+            for (ResourceDefinition rscDfn : rscDfnRepository.getMapForView(apiCtx).values())
+            {
+                Iterator<Resource> rscIt = rscDfn.iterateResource(apiCtx);
+                while (rscIt.hasNext())
+                {
+                    Resource rsc = rscIt.next();
+                    Iterator<ResourceConnection> rscConnIt = rsc.streamAbsResourceConnections(apiCtx).iterator();
+                    while (rscConnIt.hasNext())
+                    {
+                        ResourceConnection rscConn = rscConnIt.next();
+                        // every resource connection is known by both of its resources
+                        if (rscConn.getSourceResource(apiCtx) == rsc)
+                        {
+                            addPersistedEntries(persisted, rscConn);
+                        }
+                    }
+                }
+            }
+        }
+        catch (AccessDeniedException | InvalidKeyException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+
+        persisted.sort(Comparator.comparingLong(entry -> entry.queuedAt));
+        synchronized (queue)
+        {
+            for (Entry entry : persisted)
+            {
+                if (!queue.contains(entry.rscName, entry.fromNodeName, entry.toNodeName))
+                {
+                    queue.add(entry);
+                    errorReporter.logInfo("Snapshot shipping of %s restored to the queue", entry);
+                }
+            }
+        }
+    }
+
+    private void addPersistedEntries(List<Entry> entries, ResourceConnection rscConn)
+        throws AccessDeniedException, InvalidKeyException
+    {
+        Props rscConnProps = rscConn.getProps(apiCtx);
+        Optional<Props> queuedNamespace = rscConnProps.getNamespace(InternalApiConsts.NAMESPC_SNAPSHOT_SHIPPING_QUEUED);
+        if (queuedNamespace.isPresent())
+        {
+            String rscName = rscConn.getSourceResource(apiCtx).getResourceDefinition().getName().displayValue;
+            String sourceNodeName = rscConn.getSourceResource(apiCtx).getNode().getName().displayValue;
+            String targetNodeName = rscConn.getTargetResource(apiCtx).getNode().getName().displayValue;
+
+            Iterator<String> fromNodeNameIt = queuedNamespace.get().iterateNamespaces();
+            while (fromNodeNameIt.hasNext())
+            {
+                String fromNodeName = fromNodeNameIt.next();
+                String namespace = InternalApiConsts.NAMESPC_SNAPSHOT_SHIPPING_QUEUED + "/" + fromNodeName;
+                String since = rscConnProps.getProp(KEY_QUEUED_SINCE, namespace);
+                Priority priority = Priority.valueOfIgnoreCase(
+                    rscConnProps.getProp(KEY_QUEUED_PRIORITY, namespace),
+                    Priority.NORMAL
+                );
+                entries.add(
+                    new Entry(
+                        rscName,
+                        fromNodeName,
+                        rscConnProps.getProp(KEY_QUEUED_SOURCE_NIC, namespace),
+                        fromNodeName.equalsIgnoreCase(sourceNodeName) ? targetNodeName : sourceNodeName,
+                        rscConnProps.getProp(KEY_QUEUED_TARGET_NIC, namespace),
+                        priority,
+                        since == null ? System.currentTimeMillis() : Long.parseLong(since)
+                    )
+                );
+            }
+        }
+    }
+
+    /**
+     * @param exclude
+     *     a starting entry that should not be counted, may be null
+     */
+    private Load getLoad(Entry exclude)
+    {
+        Load load = new Load();
+        try
+        {
+            for (ResourceDefinition rscDfn : rscDfnRepository.getMapForView(apiCtx).values())
+            {
+                for (SnapshotDefinition snapDfn : rscDfn.getSnapshotDfns(apiCtx))
+                {
+                    if (snapDfn.getFlags().isSet(apiCtx, SnapshotDefinition.Flags.SHIPPING))
+                    {
+                        Props snapDfnProps = snapDfn.getProps(apiCtx);
+                        String sourceNode = snapDfnProps.getProp(InternalApiConsts.KEY_SNAPSHOT_SHIPPING_SOURCE_NODE);
+                        String targetNode = snapDfnProps.getProp(InternalApiConsts.KEY_SNAPSHOT_SHIPPING_TARGET_NODE);
+                        if (sourceNode != null && targetNode != null)
+                        {
+                            load.add(sourceNode, targetNode);
+                        }
+                    }
+                }
+            }
+        }
+        catch (AccessDeniedException | InvalidKeyException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        for (Entry entry : starting)
+        {
+            if (entry != exclude)
+            {
+                load.add(entry.fromNodeName, entry.toNodeName);
+            }
+        }
+        return load;
+    }
+
+    private PriorityProps getNodePrioProps(String nodeNameStr)
+    {
+        PriorityProps prioProps;
+        try
+        {
+            Node node = nodeRepository.get(apiCtx, LinstorParsingUtils.asNodeName(nodeNameStr));
+            Props ctrlProps = propsHelper.getCtrlPropsForView(apiCtx);
+            prioProps = node == null ?
+                new PriorityProps(ctrlProps) :
+                new PriorityProps(node.getProps(apiCtx), ctrlProps);
+        }
+        catch (AccessDeniedException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        return prioProps;
+    }
+
+    private PriorityProps getLinkPrioProps(String nodeNameStrA, String nodeNameStrB)
+    {
+        PriorityProps prioProps;
+        try
+        {
+            Node nodeA = nodeRepository.get(apiCtx, LinstorParsingUtils.asNodeName(nodeNameStrA));
+            Node nodeB = nodeRepository.get(apiCtx, LinstorParsingUtils.asNodeName(nodeNameStrB));
+            NodeConnection nodeConn = nodeA == null || nodeB == null ?
+                null :
+                nodeA.getNodeConnection(apiCtx, nodeB);
+            Props ctrlProps = propsHelper.getCtrlPropsForView(apiCtx);
+            prioProps = nodeConn == null ?
+                new PriorityProps(ctrlProps) :
+                new PriorityProps(nodeConn.getProps(apiCtx), ctrlProps);
+        }
+        catch (AccessDeniedException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        return prioProps;
+    }
+
+    private long getLongProp(PriorityProps prioProps, String key, long dflt)
+    {
+        long ret = dflt;
+        try
+        {
+            String val = prioProps.getProp(key, ApiConsts.NAMESPC_SNAPSHOT_SHIPPING);
+            if (val != null)
+            {
+                ret = Long.parseLong(val.trim());
+            }
+        }
+        catch (NumberFormatException nfExc)
+        {
+            errorReporter.logWarning(
+                "Ignoring invalid value of property %s/%s, using %d instead",
+                ApiConsts.NAMESPC_SNAPSHOT_SHIPPING,
+                key,
+                dflt
+            );
+        }
+        catch (InvalidKeyException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        return ret;
+    }
+
+    private class PropsLimits implements Limits
+    {
+        @Override
+        public int getMaxPerNode(String nodeName)
+        {
+            return (int) getLongProp(
+                getNodePrioProps(nodeName),
+                KEY_MAX_CONCURRENT_PER_NODE,
+                DFLT_MAX_CONCURRENT_PER_NODE
+            );
+        }
+
+        @Override
+        public int getMaxPerLink(String nodeNameA, String nodeNameB)
+        {
+            return (int) getLongProp(
+                getLinkPrioProps(nodeNameA, nodeNameB),
+                KEY_MAX_CONCURRENT_PER_LINK,
+                DFLT_MAX_CONCURRENT_PER_LINK
+            );
+        }
+    }
+}
@@ -60,6 +60,7 @@ public class CtrlStorPoolApiCallHandler
     private final Provider<AccessContext> peerAccCtx;
     private final ScopeRunner scopeRunner;
     private final LockGuardFactory lockGuardFactory;
+    private final FreeCapacityCache freeCapacityCache;
 
     @Inject
     public CtrlStorPoolApiCallHandler(
@@ -71,7 +72,8 @@ public class CtrlStorPoolApiCallHandler
         Provider<Peer> peerRef,
         @PeerContext Provider<AccessContext> peerAccCtxRef,
         ScopeRunner scopeRunnerRef,
-        LockGuardFactory lockGuardFactoryRef
+        LockGuardFactory lockGuardFactoryRef,
+        FreeCapacityCache freeCapacityCacheRef
     )
     {
         ctrlTransactionHelper = ctrlTransactionHelperRef;
@@ -83,6 +85,7 @@ public class CtrlStorPoolApiCallHandler
         peerAccCtx = peerAccCtxRef;
         scopeRunner = scopeRunnerRef;
         lockGuardFactory = lockGuardFactoryRef;
+        freeCapacityCache = freeCapacityCacheRef;
     }
 
     public Flux<ApiCallRc> modify(
@@ -361,6 +364,7 @@ public class CtrlStorPoolApiCallHandler
     {
         try
         {
+            freeCapacityCache.evict(new StorPool.Key(storPool));
             storPool.delete(peerAccCtx.get());
         }
         catch (AccessDeniedException accDeniedExc)
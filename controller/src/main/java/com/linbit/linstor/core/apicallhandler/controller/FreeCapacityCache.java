@@ -0,0 +1,107 @@
+package com.linbit.linstor.core.apicallhandler.controller;
+
+import com.linbit.linstor.api.ApiCallRc;
+import com.linbit.linstor.api.SpaceInfo;
+import com.linbit.linstor.core.identifier.NodeName;
+import com.linbit.linstor.core.objects.StorPool;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+/**
+ * Last known free space of thin storage pools, together with the time it was reported.
+ *
+ * The cache is fed by the free space updates the satellites push after their device manager runs and by the
+ * answers to explicit requests, so that {@link FreeCapacityFetcherProto} only has to ask satellites whose
+ * information is missing or too old.
+ *
+ * A satellite only pushes the free space of storage pools its device manager touched and whose free space changed
+ * since its last report. The entries of all other storage pools are not refreshed by pushes and expire after the
+ * TTL, after which they are fetched again. That is intended, as the usage of a thin pool also grows with writes
+ * that LINSTOR does not know about.
+ *
+ * Entries are evicted when their storage pool or node is deleted and when the connection to the satellite is lost,
+ * as nothing would update them in the meantime.
+ */
+@Singleton
+public class FreeCapacityCache
+{
+    private final Map<StorPool.Key, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    @Inject
+    public FreeCapacityCache()
+    {
+        this(System::currentTimeMillis);
+    }
+
+    FreeCapacityCache(LongSupplier clockRef)
+    {
+        clock = clockRef;
+    }
+
+    public void update(StorPool.Key key, SpaceInfo spaceInfo, List<ApiCallRc> apiCallRcs)
+    {
+        cache.put(key, new CacheEntry(spaceInfo, apiCallRcs, clock.getAsLong()));
+    }
+
+    public void evict(StorPool.Key key)
+    {
+        cache.remove(key);
+    }
+
+    public void evictNode(NodeName nodeName)
+    {
+        cache.keySet().removeIf(key -> key.getNodeName().equals(nodeName));
+    }
+
+    /**
+     * @param maxAgeMs
+     *     entries older than that are ignored, negative for no limit
+     *
+     * @return the cached entries of all given storage pools, or null if at least one of them is missing or too old
+     */
+    public List<Tuple2<StorPool.Key, Tuple2<SpaceInfo, List<ApiCallRc>>>> get(
+        Collection<StorPool.Key> keys,
+        long maxAgeMs
+    )
+    {
+        List<Tuple2<StorPool.Key, Tuple2<SpaceInfo, List<ApiCallRc>>>> ret = new ArrayList<>();
+        long now = clock.getAsLong();
+        for (StorPool.Key key : keys)
+        {
+            CacheEntry entry = cache.get(key);
+            if (entry == null || (maxAgeMs >= 0 && now - entry.timestamp > maxAgeMs))
+            {
+                ret = null;
+                break;
+            }
+            ret.add(Tuples.of(key, Tuples.of(entry.spaceInfo, entry.apiCallRcs)));
+        }
+        return ret;
+    }
+
+    private static class CacheEntry
+    {
+        private final SpaceInfo spaceInfo;
+        private final List<ApiCallRc> apiCallRcs;
+        private final long timestamp;
+
+        private CacheEntry(SpaceInfo spaceInfoRef, List<ApiCallRc> apiCallRcsRef, long timestampRef)
+        {
+            spaceInfo = spaceInfoRef;
+            apiCallRcs = apiCallRcsRef;
+            timestamp = timestampRef;
+        }
+    }
+}
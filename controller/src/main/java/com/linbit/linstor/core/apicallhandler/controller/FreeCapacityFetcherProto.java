@@ -18,6 +18,7 @@ import com.linbit.linstor.core.objects.Node;
 import com.linbit.linstor.core.objects.StorPool;
 import com.linbit.linstor.core.objects.StorPool.Key;
 import com.linbit.linstor.core.repository.NodeRepository;
+import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.linstor.netcom.Peer;
 import com.linbit.linstor.netcom.PeerNotConnectedException;
 import com.linbit.linstor.proto.common.ApiCallResponseOuterClass.ApiCallResponse;
@@ -25,7 +26,6 @@ import com.linbit.linstor.proto.common.StorPoolFreeSpaceOuterClass.StorPoolFreeS
 import com.linbit.linstor.proto.javainternal.s2c.MsgIntFreeSpaceOuterClass.MsgIntFreeSpace;
 import com.linbit.linstor.security.AccessContext;
 import com.linbit.linstor.security.AccessDeniedException;
-import com.linbit.linstor.storage.kinds.DeviceProviderKind;
 import com.linbit.locks.LockGuardFactory;
 import com.linbit.locks.LockGuardFactory.LockObj;
 import com.linbit.locks.LockGuardFactory.LockType;
@@ -41,16 +41,28 @@ import javax.inject.Singleton;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Singleton
 public class FreeCapacityFetcherProto implements FreeCapacityFetcher
 {
+    /**
+     * Controller property: maximum age in milliseconds of cached free space information that is still used instead
+     * of asking the satellite. 0 always asks the satellites.
+     */
+    public static final String KEY_CACHE_TTL_MS = "FreeCapacity/CacheTtlMs";
+    private static final long DFLT_CACHE_TTL_MS = 30_000;
+
+    // a satellite that does not answer in time does not stall the whole request, its last known values are used
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(10);
+
     private final AccessContext apiCtx;
     private final ScopeRunner scopeRunner;
     private final CtrlTransactionHelper ctrlTransactionHelper;
@@ -58,6 +70,9 @@ public class FreeCapacityFetcherProto implements FreeCapacityFetcher
     private final CtrlApiDataLoader ctrlApiDataLoader;
     private final NodeRepository nodeRepository;
     private final Provider<AccessContext> peerAccCtx;
+    private final CtrlPropsHelper propsHelper;
+    private final FreeCapacityCache freeCapacityCache;
+    private final ErrorReporter errorReporter;
 
     @Inject
     public FreeCapacityFetcherProto(
@@ -67,7 +82,10 @@ public class FreeCapacityFetcherProto implements FreeCapacityFetcher
         LockGuardFactory lockGuardFactoryRef,
         CtrlApiDataLoader ctrlApiDataLoaderRef,
         NodeRepository nodeRepositoryRef,
-        @PeerContext Provider<AccessContext> peerAccCtxRef
+        @PeerContext Provider<AccessContext> peerAccCtxRef,
+        CtrlPropsHelper propsHelperRef,
+        FreeCapacityCache freeCapacityCacheRef,
+        ErrorReporter errorReporterRef
     )
     {
         apiCtx = apiCtxRef;
@@ -77,6 +95,9 @@ public class FreeCapacityFetcherProto implements FreeCapacityFetcher
         ctrlApiDataLoader = ctrlApiDataLoaderRef;
         nodeRepository = nodeRepositoryRef;
         peerAccCtx = peerAccCtxRef;
+        propsHelper = propsHelperRef;
+        freeCapacityCache = freeCapacityCacheRef;
+        errorReporter = errorReporterRef;
     }
 
     @Override
@@ -96,7 +117,7 @@ public class FreeCapacityFetcherProto implements FreeCapacityFetcher
         return scopeRunner.fluxInTransactionalScope(
             "Fetch thin capacity info",
             lockGuardFactory.buildDeferred(LockType.READ, LockObj.NODES_MAP, LockObj.STOR_POOL_DFN_MAP),
-            () -> assembleRequests(nodesFilter).flatMap(this::parseFreeSpaces)
+            () -> assembleRequests(nodesFilter)
         )
             .collectMap(
             t -> t.getT1(),
@@ -104,31 +125,87 @@ public class FreeCapacityFetcherProto implements FreeCapacityFetcher
         );
     }
 
-    private Flux<Tuple2<NodeName, ByteArrayInputStream>> assembleRequests(Set<NodeName> nodesFilter)
+    private Flux<Tuple2<StorPool.Key, Tuple2<SpaceInfo, List<ApiCallRc>>>> assembleRequests(
+        Set<NodeName> nodesFilter
+    )
         throws AccessDeniedException
     {
         Stream<Node> nodeStream = nodesFilter.isEmpty() ?
             nodeRepository.getMapForView(peerAccCtx.get()).values().stream() :
             nodesFilter.stream().map(nodeName -> ctrlApiDataLoader.loadNode(nodeName, true));
 
-        Stream<Node> nodeWithThinStream = nodeStream.filter(this::hasThinPools);
+        long cacheTtlMs = getCacheTtlMs();
+        List<Tuple2<StorPool.Key, Tuple2<SpaceInfo, List<ApiCallRc>>>> cached = new ArrayList<>();
+        List<Flux<Tuple2<StorPool.Key, Tuple2<SpaceInfo, List<ApiCallRc>>>>> requests = new ArrayList<>();
+        for (Node node : nodeStream.collect(Collectors.toList()))
+        {
+            List<StorPool.Key> thinStorPoolKeys = getThinStorPoolKeys(node);
+            if (!thinStorPoolKeys.isEmpty())
+            {
+                List<Tuple2<StorPool.Key, Tuple2<SpaceInfo, List<ApiCallRc>>>> cachedNodeInfo = cacheTtlMs > 0 ?
+                    freeCapacityCache.get(thinStorPoolKeys, cacheTtlMs) :
+                    null;
+                if (cachedNodeInfo != null)
+                {
+                    cached.addAll(cachedNodeInfo);
+                }
+                else
+                {
+                    requests.add(fetchFreeSpaces(node.getName(), thinStorPoolKeys, prepareFreeSpaceApiCall(node)));
+                }
+            }
+        }
 
-        List<Tuple2<NodeName, Flux<ByteArrayInputStream>>> nameAndRequests = nodeWithThinStream
-            .map(node -> Tuples.of(node.getName(), prepareFreeSpaceApiCall(node)))
-            .collect(Collectors.toList());
+        return Flux.merge(requests).concatWith(Flux.fromIterable(cached));
+    }
 
-        return Flux
-            .fromIterable(nameAndRequests)
-            .flatMap(nameAndRequest -> nameAndRequest.getT2()
-                .map(byteStream -> Tuples.of(nameAndRequest.getT1(), byteStream))
+    private Flux<Tuple2<StorPool.Key, Tuple2<SpaceInfo, List<ApiCallRc>>>> fetchFreeSpaces(
+        NodeName nodeName,
+        List<StorPool.Key> thinStorPoolKeys,
+        Flux<ByteArrayInputStream> request
+    )
+    {
+        return request
+            .flatMap(byteStream -> parseFreeSpaces(Tuples.of(nodeName, byteStream)))
+            .timeout(FETCH_TIMEOUT)
+            .onErrorResume(
+                TimeoutException.class,
+                ignored ->
+                {
+                    List<Tuple2<StorPool.Key, Tuple2<SpaceInfo, List<ApiCallRc>>>> stale =
+                        freeCapacityCache.get(thinStorPoolKeys, -1);
+                    errorReporter.logWarning(
+                        "Node '%s' did not report its free space in time, %s",
+                        nodeName.displayValue,
+                        stale == null ? "no free space information available" : "using the last known values"
+                    );
+                    return stale == null ? Flux.empty() : Flux.fromIterable(stale);
+                }
             );
     }
 
-    private boolean hasThinPools(Node node)
+    private List<StorPool.Key> getThinStorPoolKeys(Node node)
     {
         return streamStorPools(node)
-            .map(StorPool::getDeviceProviderKind)
-            .anyMatch(DeviceProviderKind::usesThinProvisioning);
+            .filter(storPool -> storPool.getDeviceProviderKind().usesThinProvisioning())
+            .map(StorPool.Key::new)
+            .collect(Collectors.toList());
+    }
+
+    private long getCacheTtlMs()
+    {
+        long ttl;
+        try
+        {
+            String ttlStr = propsHelper.getCtrlPropsForView(apiCtx).getProp(KEY_CACHE_TTL_MS);
+            ttl = ttlStr == null ? DFLT_CACHE_TTL_MS : Long.parseLong(ttlStr);
+        }
+        catch (NumberFormatException exc)
+        {
+            errorReporter.logWarning("Ignoring invalid value of controller property %s", KEY_CACHE_TTL_MS);
+            ttl = DFLT_CACHE_TTL_MS;
+        }
+        return ttl;
     }
 
     private Flux<ByteArrayInputStream> prepareFreeSpaceApiCall(Node node)
@@ -225,15 +302,10 @@ public class FreeCapacityFetcherProto implements FreeCapacityFetcher
                 long freeCapacity = freeSpaceInfo.getFreeCapacity();
                 long totalCapacity = freeSpaceInfo.getTotalCapacity();
 
-                ret.add(
-                    Tuples.of(
-                        new StorPool.Key(nodeName, storPoolName),
-                        Tuples.of(
-                            new SpaceInfo(totalCapacity, freeCapacity),
-                            apiCallRcs
-                        )
-                    )
-                );
+                StorPool.Key storPoolKey = new StorPool.Key(nodeName, storPoolName);
+                SpaceInfo spaceInfo = new SpaceInfo(totalCapacity, freeCapacity);
+                ret.add(Tuples.of(storPoolKey, Tuples.of(spaceInfo, apiCallRcs)));
+                freeCapacityCache.update(storPoolKey, spaceInfo, apiCallRcs);
 
                 // also update storage pool's freespacemanager
                 StorPool storPool = nodeRepository.get(apiCtx, nodeName).getStorPool(apiCtx, storPoolName);
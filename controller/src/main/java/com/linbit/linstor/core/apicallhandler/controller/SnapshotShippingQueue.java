@@ -0,0 +1,338 @@
+package com.linbit.linstor.core.apicallhandler.controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot shipments waiting for a free slot on their nodes and their link.
+ *
+ * Entries are served by priority class first. Within a priority class the resource definitions are served round
+ * robin, so that a resource definition with many pending shipments cannot starve the others. Shipments of the same
+ * resource definition are started in the order they were requested.
+ *
+ * Not thread safe, {@link CtrlSnapshotShippingScheduler} synchronizes all accesses.
+ */
+public class SnapshotShippingQueue
+{
+    public enum Priority
+    {
+        // declaration order is the order in which the classes are served
+        HIGH, NORMAL, LOW;
+
+        public static Priority valueOfIgnoreCase(String str, Priority dflt)
+        {
+            Priority ret = dflt;
+            if (str != null)
+            {
+                for (Priority prio : values())
+                {
+                    if (prio.name().equalsIgnoreCase(str))
+                    {
+                        ret = prio;
+                        break;
+                    }
+                }
+            }
+            return ret;
+        }
+    }
+
+    public interface Limits
+    {
+        /**
+         * @return the maximum number of concurrent shipments from or to the given node, 0 for unlimited
+         */
+        int getMaxPerNode(String nodeName);
+
+        /**
+         * @return the maximum number of concurrent shipments between the two given nodes, 0 for unlimited
+         */
+        int getMaxPerLink(String nodeNameA, String nodeNameB);
+    }
+
+    /**
+     * Number of shipments currently running per node and per link
+     */
+    public static class Load
+    {
+        private final Map<String, Integer> perNode = new HashMap<>();
+        private final Map<String, Integer> perLink = new HashMap<>();
+
+        public void add(String fromNodeName, String toNodeName)
+        {
+            perNode.merge(fromNodeName.toUpperCase(), 1, Integer::sum);
+            perNode.merge(toNodeName.toUpperCase(), 1, Integer::sum);
+            perLink.merge(linkKey(fromNodeName, toNodeName), 1, Integer::sum);
+        }
+
+        public int getNodeCount(String nodeName)
+        {
+            return perNode.getOrDefault(nodeName.toUpperCase(), 0);
+        }
+
+        public int getLinkCount(String nodeNameA, String nodeNameB)
+        {
+            return perLink.getOrDefault(linkKey(nodeNameA, nodeNameB), 0);
+        }
+
+        public boolean fits(Entry entry, Limits limits)
+        {
+            return below(getNodeCount(entry.fromNodeName), limits.getMaxPerNode(entry.fromNodeName)) &&
+                below(getNodeCount(entry.toNodeName), limits.getMaxPerNode(entry.toNodeName)) &&
+                below(
+                    getLinkCount(entry.fromNodeName, entry.toNodeName),
+                    limits.getMaxPerLink(entry.fromNodeName, entry.toNodeName)
+                );
+        }
+
+        private static boolean below(int count, int max)
+        {
+            return max <= 0 || count < max;
+        }
+
+        private static String linkKey(String nodeNameA, String nodeNameB)
+        {
+            String upperA = nodeNameA.toUpperCase();
+            String upperB = nodeNameB.toUpperCase();
+            return upperA.compareTo(upperB) <= 0 ? upperA + "/" + upperB : upperB + "/" + upperA;
+        }
+    }
+
+    public static class Entry
+    {
+        public final String rscName;
+        public final String fromNodeName;
+        public final String fromNic;
+        public final String toNodeName;
+        public final String toNic;
+        public final Priority priority;
+        public final long queuedAt;
+
+        public Entry(
+            String rscNameRef,
+            String fromNodeNameRef,
+            String fromNicRef,
+            String toNodeNameRef,
+            String toNicRef,
+            Priority priorityRef
+        )
+        {
+            this(
+                rscNameRef,
+                fromNodeNameRef,
+                fromNicRef,
+                toNodeNameRef,
+                toNicRef,
+                priorityRef,
+                System.currentTimeMillis()
+            );
+        }
+
+        public Entry(
+            String rscNameRef,
+            String fromNodeNameRef,
+            String fromNicRef,
+            String toNodeNameRef,
+            String toNicRef,
+            Priority priorityRef,
+            long queuedAtRef
+        )
+        {
+            rscName = rscNameRef;
+            fromNodeName = fromNodeNameRef;
+            fromNic = fromNicRef;
+            toNodeName = toNodeNameRef;
+            toNic = toNicRef;
+            priority = priorityRef;
+            queuedAt = queuedAtRef;
+        }
+
+        boolean sharesNode(Entry other)
+        {
+            return fromNodeName.equalsIgnoreCase(other.fromNodeName) ||
+                fromNodeName.equalsIgnoreCase(other.toNodeName) ||
+                toNodeName.equalsIgnoreCase(other.fromNodeName) ||
+                toNodeName.equalsIgnoreCase(other.toNodeName);
+        }
+
+        boolean isSameShipping(String rscNameRef, String fromNodeNameRef, String toNodeNameRef)
+        {
+            return rscName.equalsIgnoreCase(rscNameRef) &&
+                fromNodeName.equalsIgnoreCase(fromNodeNameRef) &&
+                toNodeName.equalsIgnoreCase(toNodeNameRef);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format(
+                "%s from '%s' to '%s' (priority %s)",
+                rscName,
+                fromNodeName,
+                toNodeName,
+                priority
+            );
+        }
+    }
+
+    /**
+     * Per priority class: resource name (upper case) -> pending shipments of that resource definition.
+     * The iteration order of the inner map is the round robin order, a served resource definition is moved to its
+     * end.
+     */
+    private final Map<Priority, LinkedHashMap<String, ArrayDeque<Entry>>> queues = new EnumMap<>(Priority.class);
+
+    public SnapshotShippingQueue()
+    {
+        for (Priority prio : Priority.values())
+        {
+            queues.put(prio, new LinkedHashMap<>());
+        }
+    }
+
+    public void add(Entry entry)
+    {
+        queues.get(entry.priority)
+            .computeIfAbsent(entry.rscName.toUpperCase(), ignored -> new ArrayDeque<>())
+            .add(entry);
+    }
+
+    public boolean isEmpty()
+    {
+        boolean empty = true;
+        for (LinkedHashMap<String, ArrayDeque<Entry>> rrQueues : queues.values())
+        {
+            if (!rrQueues.isEmpty())
+            {
+                empty = false;
+                break;
+            }
+        }
+        return empty;
+    }
+
+    public boolean contains(String rscName, String fromNodeName, String toNodeName)
+    {
+        boolean found = false;
+        for (Entry entry : getEntries())
+        {
+            if (entry.isSameShipping(rscName, fromNodeName, toNodeName))
+            {
+                found = true;
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * A new shipment may bypass the queue only if it fits into the current limits and no queued shipment of the
+     * same or a higher priority class is waiting for one of its nodes.
+     */
+    public boolean canStartImmediately(Entry entry, Load load, Limits limits)
+    {
+        boolean ret = load.fits(entry, limits);
+        if (ret)
+        {
+            for (Entry queued : getEntries())
+            {
+                if (queued.priority.compareTo(entry.priority) <= 0 && queued.sharesNode(entry))
+                {
+                    ret = false;
+                    break;
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Removes and returns all entries that can be started within the given limits. The returned entries are
+     * already added to the given load.
+     *
+     * An entry that does not fit blocks its nodes for all entries of lower priority classes, otherwise a steady
+     * stream of low priority shipments on a node could starve a high priority shipment that also needs a slot on
+     * a second, busier node.
+     */
+    public List<Entry> pollRunnable(Load load, Limits limits)
+    {
+        List<Entry> ret = new ArrayList<>();
+        Set<String> blockedNodes = new HashSet<>();
+        for (Priority prio : Priority.values())
+        {
+            LinkedHashMap<String, ArrayDeque<Entry>> rrQueues = queues.get(prio);
+            Set<String> newlyBlockedNodes = new HashSet<>();
+            boolean progress = true;
+            while (progress)
+            {
+                progress = false;
+                for (String key : new ArrayList<>(rrQueues.keySet()))
+                {
+                    ArrayDeque<Entry> rscQueue = rrQueues.get(key);
+                    Entry head = rscQueue.peek();
+                    boolean blocked = blockedNodes.contains(head.fromNodeName.toUpperCase()) ||
+                        blockedNodes.contains(head.toNodeName.toUpperCase());
+                    if (!blocked && load.fits(head, limits))
+                    {
+                        rscQueue.poll();
+                        load.add(head.fromNodeName, head.toNodeName);
+                        ret.add(head);
+                        progress = true;
+
+                        // move the served resource definition to the end of the round robin order
+                        rrQueues.remove(key);
+                        if (!rscQueue.isEmpty())
+                        {
+                            rrQueues.put(key, rscQueue);
+                        }
+                    }
+                    else
+                    {
+                        newlyBlockedNodes.add(head.fromNodeName.toUpperCase());
+                        newlyBlockedNodes.add(head.toNodeName.toUpperCase());
+                    }
+                }
+            }
+            blockedNodes.addAll(newlyBlockedNodes);
+        }
+        return ret;
+    }
+
+    /**
+     * @return all queued entries in the order they would be started if all limits were lifted at once
+     */
+    public List<Entry> getEntries()
+    {
+        List<Entry> ret = new ArrayList<>();
+        for (Priority prio : Priority.values())
+        {
+            List<Iterator<Entry>> iterators = new ArrayList<>();
+            for (ArrayDeque<Entry> rscQueue : queues.get(prio).values())
+            {
+                iterators.add(rscQueue.iterator());
+            }
+            boolean added = true;
+            while (added)
+            {
+                added = false;
+                for (Iterator<Entry> it : iterators)
+                {
+                    if (it.hasNext())
+                    {
+                        ret.add(it.next());
+                        added = true;
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+}
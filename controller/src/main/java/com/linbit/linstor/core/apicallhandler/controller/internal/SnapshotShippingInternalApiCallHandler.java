@@ -4,12 +4,16 @@ import com.linbit.ImplementationError;
 import com.linbit.InvalidNameException;
 import com.linbit.linstor.InternalApiConsts;
 import com.linbit.linstor.LinstorParsingUtils;
+import com.linbit.linstor.PriorityProps;
 import com.linbit.linstor.annotation.ApiContext;
 import com.linbit.linstor.api.ApiCallRc;
+import com.linbit.linstor.api.ApiConsts;
 import com.linbit.linstor.core.apicallhandler.ScopeRunner;
 import com.linbit.linstor.core.apicallhandler.controller.CtrlApiDataLoader;
+import com.linbit.linstor.core.apicallhandler.controller.CtrlPropsHelper;
 import com.linbit.linstor.core.apicallhandler.controller.CtrlSnapshotApiCallHandler;
 import com.linbit.linstor.core.apicallhandler.controller.CtrlSnapshotDeleteApiCallHandler;
+import com.linbit.linstor.core.apicallhandler.controller.CtrlSnapshotShippingScheduler;
 import com.linbit.linstor.core.apicallhandler.controller.CtrlTransactionHelper;
 import com.linbit.linstor.core.apicallhandler.response.ApiDatabaseException;
 import com.linbit.linstor.core.apicallhandler.response.CtrlResponseUtils;
@@ -52,6 +56,14 @@ import reactor.core.publisher.Flux;
 @Singleton
 public class SnapshotShippingInternalApiCallHandler
 {
+    /**
+     * Set on the resource definition or the controller, within {@link ApiConsts#NAMESPC_SNAPSHOT_SHIPPING}. 0
+     * disables resuming, a failed shipping is then always started over.
+     */
+    public static final String KEY_MAX_RESUME_ATTEMPTS = "MaxResumeAttempts";
+
+    public static final int DFLT_MAX_RESUME_ATTEMPTS = 5;
+
     private final AccessContext apiCtx;
     private final ScopeRunner scopeRunner;
     private final ErrorReporter errorReporter;
@@ -62,6 +74,8 @@ public class SnapshotShippingInternalApiCallHandler
     private final CtrlTransactionHelper ctrlTransactionHelper;
     private final DynamicNumberPool snapshotShippingPortPool;
     private final CtrlSnapshotDeleteApiCallHandler snapshotDeleteApiCallHandler;
+    private final CtrlSnapshotShippingScheduler shippingScheduler;
+    private final CtrlPropsHelper propsHelper;
 
     @Inject
     public SnapshotShippingInternalApiCallHandler(
@@ -74,7 +88,9 @@ public class SnapshotShippingInternalApiCallHandler
         CtrlTransactionHelper ctrlTransactionHelperRef,
         CtrlSatelliteUpdateCaller ctrlSatelliteUpdateCallerRef,
         @Named(NumberPoolModule.SNAPSHOPT_SHIPPING_PORT_POOL) DynamicNumberPool snapshotShippingPortPoolRef,
-        CtrlSnapshotDeleteApiCallHandler snapshotDeleteApiCallHandlerRef
+        CtrlSnapshotDeleteApiCallHandler snapshotDeleteApiCallHandlerRef,
+        CtrlSnapshotShippingScheduler shippingSchedulerRef,
+        CtrlPropsHelper propsHelperRef
     )
     {
         apiCtx = apiCtxRef;
@@ -87,6 +103,8 @@ public class SnapshotShippingInternalApiCallHandler
         ctrlSatelliteUpdateCaller = ctrlSatelliteUpdateCallerRef;
         snapshotShippingPortPool = snapshotShippingPortPoolRef;
         snapshotDeleteApiCallHandler = snapshotDeleteApiCallHandlerRef;
+        shippingScheduler = shippingSchedulerRef;
+        propsHelper = propsHelperRef;
     }
 
     public boolean startShipping(Snapshot targetSnapRef)
@@ -129,7 +147,17 @@ public class SnapshotShippingInternalApiCallHandler
         return updateSatellite;
     }
 
-    public Flux<ApiCallRc> shippingReceived(String rscNameRef, String snapNameRef, boolean successRef)
+    /**
+     * @param resumeTokensRef
+     *     only set if the shipping failed, but the receiving satellite kept the already received data. In that case
+     *     the shipping is resumed instead of started over, up to {@link #KEY_MAX_RESUME_ATTEMPTS} times.
+     */
+    public Flux<ApiCallRc> shippingReceived(
+        String rscNameRef,
+        String snapNameRef,
+        boolean successRef,
+        Map<String, String> resumeTokensRef
+    )
     {
         return scopeRunner
             .fluxInTransactionalScope(
@@ -137,17 +165,67 @@ public class SnapshotShippingInternalApiCallHandler
                 lockGuardFactory.create()
                     .read(LockObj.NODES_MAP)
                     .write(LockObj.RSC_DFN_MAP).buildDeferred(),
-                () -> shippingReceivedInTransaction(rscNameRef, snapNameRef, successRef)
+                () -> shippingReceivedInTransaction(rscNameRef, snapNameRef, successRef, resumeTokensRef)
             );
     }
 
-    private Flux<ApiCallRc> shippingReceivedInTransaction(String rscNameRef, String snapNameRef, boolean successRef)
+    private Flux<ApiCallRc> shippingReceivedInTransaction(
+        String rscNameRef,
+        String snapNameRef,
+        boolean successRef,
+        Map<String, String> resumeTokensRef
+    )
     {
         Peer stltPeer = peerProvider.get();
         SnapshotDefinition snapDfn = ctrlApiDataLoader.loadSnapshotDfn(rscNameRef, snapNameRef, true);
         Snapshot snapTarget = ctrlApiDataLoader.loadSnapshot(stltPeer.getNode(), snapDfn);
         Snapshot snapSource = getSnapshotShippingSource(snapDfn);
 
+        Flux<ApiCallRc> flux;
+        int resumeAttempt = getResumeAttempt(snapDfn) + 1;
+        int maxResumeAttempts = getMaxResumeAttempts(snapDfn);
+        if (!successRef && !resumeTokensRef.isEmpty() && resumeAttempt <= maxResumeAttempts)
+        {
+            // keep the snapshots, the shipping flags and the shipping in progress of the resource connection
+            setResumeState(snapDfn, resumeAttempt, resumeTokensRef);
+
+            ctrlTransactionHelper.commit();
+
+            errorReporter.logWarning(
+                "Snapshot-shipping of %s failed. Resuming (attempt %d of %d)",
+                CtrlSnapshotApiCallHandler.getSnapshotDfnDescriptionInline(snapDfn),
+                resumeAttempt,
+                maxResumeAttempts
+            );
+
+            flux = ctrlSatelliteUpdateCaller.updateSatellites(
+                snapDfn,
+                CtrlSatelliteUpdateCaller.notConnectedWarn()
+            ).transform(
+                responses -> CtrlResponseUtils.combineResponses(
+                    responses,
+                    LinstorParsingUtils.asRscName(rscNameRef),
+                    "Resuming shipping of snapshot ''" + snapNameRef + "'' of {1} on {0}"
+                )
+            );
+        }
+        else
+        {
+            flux = shippingFinished(snapDfn, snapSource, snapTarget, successRef);
+        }
+        return flux;
+    }
+
+    private Flux<ApiCallRc> shippingFinished(
+        SnapshotDefinition snapDfn,
+        Snapshot snapSource,
+        Snapshot snapTarget,
+        boolean successRef
+    )
+    {
+        String rscName = snapDfn.getResourceName().displayValue;
+        String snapName = snapDfn.getName().displayValue;
+
         updateRscConPropsAfterReceived(snapSource, snapTarget, successRef);
 
         disableFlags(snapDfn, SnapshotDefinition.Flags.SHIPPING);
@@ -165,12 +243,15 @@ public class SnapshotShippingInternalApiCallHandler
             );
 
             // deletes the whole snapshotDfn
-            flux = snapshotDeleteApiCallHandler.deleteSnapshot(rscNameRef, snapNameRef);
+            flux = snapshotDeleteApiCallHandler.deleteSnapshot(rscName, snapName)
+                .mergeWith(shippingScheduler.dispatch());
         }
         else
         {
             enableFlags(snapDfn, SnapshotDefinition.Flags.SHIPPING_CLEANUP);
 
+            clearResumeState(snapDfn);
+
             copyLuksKeysIfNeeded(snapSource, snapTarget);
 
             ctrlTransactionHelper.commit();
@@ -181,10 +262,12 @@ public class SnapshotShippingInternalApiCallHandler
             ).transform(
                 responses -> CtrlResponseUtils.combineResponses(
                     responses,
-                    LinstorParsingUtils.asRscName(rscNameRef),
-                    "Finishing shpipping of snapshot''" + snapNameRef + "'' of {1} on {0}"
+                    LinstorParsingUtils.asRscName(rscName),
+                    "Finishing shpipping of snapshot''" + snapName + "'' of {1} on {0}"
                 )
-            ).concatWith(shippingMerged(rscNameRef, snapNameRef, successRef));
+            ).concatWith(shippingMerged(rscName, snapName, successRef))
+                // the data is transferred, queued shipments do not have to wait for the cleanup
+                .mergeWith(shippingScheduler.dispatch());
         }
 
         return flux;
@@ -245,6 +328,99 @@ public class SnapshotShippingInternalApiCallHandler
         return flux;
     }
 
+    private int getMaxResumeAttempts(SnapshotDefinition snapDfnRef)
+    {
+        int ret = DFLT_MAX_RESUME_ATTEMPTS;
+        try
+        {
+            String val = new PriorityProps(
+                propsHelper.getProps(apiCtx, snapDfnRef.getResourceDefinition()),
+                propsHelper.getCtrlPropsForView(apiCtx)
+            ).getProp(KEY_MAX_RESUME_ATTEMPTS, ApiConsts.NAMESPC_SNAPSHOT_SHIPPING);
+            if (val != null)
+            {
+                ret = Integer.parseInt(val.trim());
+            }
+        }
+        catch (NumberFormatException nfExc)
+        {
+            errorReporter.logWarning(
+                "Ignoring invalid value of property %s/%s, using %d instead",
+                ApiConsts.NAMESPC_SNAPSHOT_SHIPPING,
+                KEY_MAX_RESUME_ATTEMPTS,
+                DFLT_MAX_RESUME_ATTEMPTS
+            );
+        }
+        catch (InvalidKeyException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        return ret;
+    }
+
+    private int getResumeAttempt(SnapshotDefinition snapDfnRef)
+    {
+        try
+        {
+            String attempt = snapDfnRef.getProps(apiCtx).getProp(
+                InternalApiConsts.KEY_SNAPSHOT_SHIPPING_RESUME_ATTEMPT
+            );
+            return attempt == null ? 0 : Integer.parseInt(attempt);
+        }
+        catch (NumberFormatException | InvalidKeyException | AccessDeniedException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+    }
+
+    /**
+     * The satellites restart the shipping of all volumes that have a resume token whenever the resume attempt
+     * changes
+     */
+    private void setResumeState(SnapshotDefinition snapDfnRef, int attempt, Map<String, String> resumeTokens)
+    {
+        try
+        {
+            Props snapDfnProps = snapDfnRef.getProps(apiCtx);
+            snapDfnProps.removeNamespace(InternalApiConsts.NAMESPC_SNAPSHOT_SHIPPING_RESUME_TOKEN);
+            for (Map.Entry<String, String> entry : resumeTokens.entrySet())
+            {
+                snapDfnProps.setProp(
+                    entry.getKey(),
+                    entry.getValue(),
+                    InternalApiConsts.NAMESPC_SNAPSHOT_SHIPPING_RESUME_TOKEN
+                );
+            }
+            snapDfnProps.setProp(InternalApiConsts.KEY_SNAPSHOT_SHIPPING_RESUME_ATTEMPT, Integer.toString(attempt));
+        }
+        catch (AccessDeniedException | InvalidKeyException | InvalidValueException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        catch (DatabaseException exc)
+        {
+            throw new ApiDatabaseException(exc);
+        }
+    }
+
+    private void clearResumeState(SnapshotDefinition snapDfnRef)
+    {
+        try
+        {
+            Props snapDfnProps = snapDfnRef.getProps(apiCtx);
+            snapDfnProps.removeNamespace(InternalApiConsts.NAMESPC_SNAPSHOT_SHIPPING_RESUME_TOKEN);
+            snapDfnProps.removeProp(InternalApiConsts.KEY_SNAPSHOT_SHIPPING_RESUME_ATTEMPT);
+        }
+        catch (AccessDeniedException | InvalidKeyException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        catch (DatabaseException exc)
+        {
+            throw new ApiDatabaseException(exc);
+        }
+    }
+
     private Snapshot getSnapshotShippingSource(SnapshotDefinition snapDfnRef)
     {
         Snapshot snapShipSource;
@@ -8,12 +8,14 @@ import com.linbit.linstor.annotation.PeerContext;
 import com.linbit.linstor.api.ApiCallRc;
 import com.linbit.linstor.api.ApiCallRcImpl;
 import com.linbit.linstor.api.ApiConsts;
+import com.linbit.linstor.api.SpaceInfo;
 import com.linbit.linstor.api.interfaces.serializer.CtrlStltSerializer;
 import com.linbit.linstor.api.pojo.CapacityInfoPojo;
 import com.linbit.linstor.core.CoreModule;
 import com.linbit.linstor.core.apicallhandler.controller.CtrlApiDataLoader;
 import com.linbit.linstor.core.apicallhandler.controller.CtrlStorPoolApiCallHandler;
 import com.linbit.linstor.core.apicallhandler.controller.CtrlTransactionHelper;
+import com.linbit.linstor.core.apicallhandler.controller.FreeCapacityCache;
 import com.linbit.linstor.core.apicallhandler.response.ApiAccessDeniedException;
 import com.linbit.linstor.core.apicallhandler.response.ApiOperation;
 import com.linbit.linstor.core.apicallhandler.response.ApiRcException;
@@ -52,6 +54,7 @@ public class StorPoolInternalCallHandler
 
     private final ReadWriteLock nodesMapLock;
     private final ReadWriteLock storPoolDfnMapLock;
+    private final FreeCapacityCache freeCapacityCache;
 
     @Inject
     public StorPoolInternalCallHandler(
@@ -64,7 +67,8 @@ public class StorPoolInternalCallHandler
         Provider<Peer> peerRef,
         @PeerContext Provider<AccessContext> peerAccCtxRef,
         @Named(CoreModule.NODES_MAP_LOCK) ReadWriteLock nodesMapLockRef,
-        @Named(CoreModule.STOR_POOL_DFN_MAP_LOCK) ReadWriteLock storPoolDfnMapLockRef
+        @Named(CoreModule.STOR_POOL_DFN_MAP_LOCK) ReadWriteLock storPoolDfnMapLockRef,
+        FreeCapacityCache freeCapacityCacheRef
     )
     {
         errorReporter = errorReporterRef;
@@ -77,6 +81,7 @@ public class StorPoolInternalCallHandler
         peerAccCtx = peerAccCtxRef;
         nodesMapLock = nodesMapLockRef;
         storPoolDfnMapLock = storPoolDfnMapLockRef;
+        freeCapacityCache = freeCapacityCacheRef;
     }
 
     public void handleStorPoolRequest(UUID storPoolUuid, String storPoolNameStr)
@@ -200,6 +205,16 @@ public class StorPoolInternalCallHandler
                                     capacityInfoPojo.getFreeCapacity(),
                                     capacityInfoPojo.getTotalCapacity()
                                 );
+                                freeCapacityCache.update(
+                                    new StorPool.Key(storPool),
+                                    new SpaceInfo(
+                                        capacityInfoPojo.getTotalCapacity(),
+                                        capacityInfoPojo.getFreeCapacity()
+                                    ),
+                                    capacityInfoPojo.getErrors().isEmpty() ?
+                                        Collections.emptyList() :
+                                        Collections.singletonList(capacityInfoPojo.getErrors())
+                                );
                             }
                             else
                             {
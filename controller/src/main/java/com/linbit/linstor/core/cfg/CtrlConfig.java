@@ -28,11 +28,14 @@ public class CtrlConfig extends LinstorConfig
 
     private String dbInMemory;
     private boolean dbDisableVersionCheck;
+    private boolean dbGroupCommit;
 
     /*
      * Database.ETCD
      */
     private int etcdOperationsPerTransaction = 128;
+    private String etcdCheckpointFile;
+    private boolean etcdWarmStandby;
 
     /*
      * Logging
@@ -210,6 +213,14 @@ public class CtrlConfig extends LinstorConfig
         }
     }
 
+    public void setDbGroupCommit(Boolean dbGroupCommitRef)
+    {
+        if (dbGroupCommitRef != null)
+        {
+            dbGroupCommit = dbGroupCommitRef;
+        }
+    }
+
     public void setEtcdOperationsPerTransaction(Integer etcdOperationsPerTransactionRef)
     {
         if (etcdOperationsPerTransactionRef != null)
@@ -218,6 +229,22 @@ public class CtrlConfig extends LinstorConfig
         }
     }
 
+    public void setEtcdCheckpointFile(String etcdCheckpointFileRef)
+    {
+        if (etcdCheckpointFileRef != null)
+        {
+            etcdCheckpointFile = etcdCheckpointFileRef;
+        }
+    }
+
+    public void setEtcdWarmStandby(Boolean etcdWarmStandbyRef)
+    {
+        if (etcdWarmStandbyRef != null)
+        {
+            etcdWarmStandby = etcdWarmStandbyRef;
+        }
+    }
+
     public void setLogRestAccessLogPath(String logRestAccessLogPathRef)
     {
         if (logRestAccessLogPathRef != null)
@@ -415,11 +442,26 @@ public class CtrlConfig extends LinstorConfig
         return dbDisableVersionCheck;
     }
 
+    public boolean isDbGroupCommitEnabled()
+    {
+        return dbGroupCommit;
+    }
+
     public int getEtcdOperationsPerTransaction()
     {
         return etcdOperationsPerTransaction;
     }
 
+    public String getEtcdCheckpointFile()
+    {
+        return etcdCheckpointFile;
+    }
+
+    public boolean isEtcdWarmStandbyEnabled()
+    {
+        return etcdWarmStandby;
+    }
+
     public String getLogRestAccessLogPath()
     {
         return logRestAccessLogPath;
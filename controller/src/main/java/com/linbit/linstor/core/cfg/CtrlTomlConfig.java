@@ -75,6 +75,7 @@ public class CtrlTomlConfig
         private String client_key_pcks8_pem;
         private String client_key_pkcs8_pem;
         private String client_key_password;
+        private Boolean group_commit;
 
         private Etcd etcd = new Etcd();
 
@@ -87,6 +88,7 @@ public class CtrlTomlConfig
             cfg.setDbClientCertificate(client_certificate);
             cfg.setDbClientKeyPkcs8Pem(client_key_pkcs8_pem != null ? client_key_pkcs8_pem : client_key_pcks8_pem);
             cfg.setDbClientKeyPassword(client_key_password);
+            cfg.setDbGroupCommit(group_commit);
 
             etcd.applyTo(cfg);
         }
@@ -145,10 +147,14 @@ public class CtrlTomlConfig
     static class Etcd
     {
         private Integer ops_per_transaction;
+        private String checkpoint_file;
+        private Boolean warm_standby;
 
         public void applyTo(CtrlConfig cfg)
         {
             cfg.setEtcdOperationsPerTransaction(ops_per_transaction);
+            cfg.setEtcdCheckpointFile(checkpoint_file);
+            cfg.setEtcdWarmStandby(warm_standby);
         }
     }
 
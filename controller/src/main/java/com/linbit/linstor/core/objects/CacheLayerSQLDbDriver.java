@@ -18,6 +18,7 @@ import com.linbit.linstor.storage.data.adapter.nvme.NvmeRscData;
 import com.linbit.linstor.storage.data.adapter.nvme.NvmeVlmData;
 import com.linbit.linstor.storage.interfaces.categories.resource.AbsRscLayerObject;
 import com.linbit.linstor.transaction.TransactionObjectFactory;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
 import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
 import com.linbit.utils.Pair;
 import com.linbit.utils.StringUtils;
@@ -204,24 +205,17 @@ public class CacheLayerSQLDbDriver implements CacheLayerCtrlDatabaseDriver
     public void persist(CacheVlmData<?> cacheVlmDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Creating CacheVlmData %s", getId(cacheVlmDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(INSERT_VLM))
-        {
-            stmt.setInt(1, cacheVlmDataRef.getRscLayerId());
-            stmt.setInt(2, cacheVlmDataRef.getVlmNr().value);
-
-            StorPool cacheStorPool = cacheVlmDataRef.getCacheStorPool();
-            StorPool metaStorPool = cacheVlmDataRef.getMetaStorPool();
-            stmt.setString(3, cacheStorPool.getNode().getName().value);
-            stmt.setString(4, cacheStorPool.getName().value);
-            stmt.setString(5, metaStorPool.getName().value);
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, cacheVlmDataRef.getRscLayerId());
+        params.setInt(2, cacheVlmDataRef.getVlmNr().value);
 
-            stmt.executeUpdate();
-            errorReporter.logTrace("CacheVlmData created %s", getId(cacheVlmDataRef));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        StorPool cacheStorPool = cacheVlmDataRef.getCacheStorPool();
+        StorPool metaStorPool = cacheVlmDataRef.getMetaStorPool();
+        params.setString(3, cacheStorPool.getNode().getName().value);
+        params.setString(4, cacheStorPool.getName().value);
+        params.setString(5, metaStorPool.getName().value);
+        getBatch().add(INSERT_VLM, params);
+        errorReporter.logTrace("CacheVlmData created %s", getId(cacheVlmDataRef));
     }
 
     @Override
@@ -235,18 +229,11 @@ public class CacheLayerSQLDbDriver implements CacheLayerCtrlDatabaseDriver
     public void delete(CacheVlmData<?> cacheVlmDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Deleting CacheVlmData %s", getId(cacheVlmDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE_VLM))
-        {
-            stmt.setInt(1, cacheVlmDataRef.getRscLayerId());
-            stmt.setInt(2, cacheVlmDataRef.getVlmNr().value);
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("CacheVlmData deleted %s", getId(cacheVlmDataRef));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, cacheVlmDataRef.getRscLayerId());
+        params.setInt(2, cacheVlmDataRef.getVlmNr().value);
+        getBatch().add(DELETE_VLM, params);
+        errorReporter.logTrace("CacheVlmData deleted %s", getId(cacheVlmDataRef));
     }
 
     @Override
@@ -260,6 +247,11 @@ public class CacheLayerSQLDbDriver implements CacheLayerCtrlDatabaseDriver
         return transMgrProvider.get().getConnection();
     }
 
+    private SQLStatementBatch getBatch()
+    {
+        return transMgrProvider.get().getBatch();
+    }
+
     private String getId(CacheRscData<?> cacheRscData)
     {
         return "(LayerRscId=" + cacheRscData.getRscLayerId() +
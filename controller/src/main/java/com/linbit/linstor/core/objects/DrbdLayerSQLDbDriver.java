@@ -36,6 +36,7 @@ import com.linbit.linstor.storage.interfaces.layers.drbd.DrbdRscDfnObject.Transp
 import com.linbit.linstor.storage.interfaces.layers.drbd.DrbdRscObject;
 import com.linbit.linstor.storage.kinds.DeviceLayerKind;
 import com.linbit.linstor.transaction.TransactionObjectFactory;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
 import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
 import com.linbit.utils.Pair;
 import com.linbit.utils.StringUtils;
@@ -827,26 +828,19 @@ public class DrbdLayerSQLDbDriver implements DrbdLayerCtrlDatabaseDriver
     @Override
     public void create(DrbdRscData<?> drbdRscDataRef) throws DatabaseException
     {
-        @SuppressWarnings("resource") // will be done in DbConnectionPool#returnConnection
-        Connection connection = getConnection();
-
         errorReporter.logTrace("Creating DrbdRscData %s", getId(drbdRscDataRef));
-        try (PreparedStatement stmt = connection.prepareStatement(INSERT_RSC))
+        try
         {
-            stmt.setInt(1, drbdRscDataRef.getRscLayerId());
-            stmt.setShort(2, drbdRscDataRef.getPeerSlots());
-            stmt.setInt(3, drbdRscDataRef.getAlStripes());
-            stmt.setLong(4, drbdRscDataRef.getAlStripeSize());
-            stmt.setLong(5, drbdRscDataRef.getFlags().getFlagsBits(dbCtx));
-            stmt.setInt(6, drbdRscDataRef.getNodeId().value);
-
-            stmt.executeUpdate();
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setInt(1, drbdRscDataRef.getRscLayerId());
+            params.setShort(2, drbdRscDataRef.getPeerSlots());
+            params.setInt(3, drbdRscDataRef.getAlStripes());
+            params.setLong(4, drbdRscDataRef.getAlStripeSize());
+            params.setLong(5, drbdRscDataRef.getFlags().getFlagsBits(dbCtx));
+            params.setInt(6, drbdRscDataRef.getNodeId().value);
+            getBatch().add(INSERT_RSC, params);
             errorReporter.logTrace("DrbdRscData created %s", getId(drbdRscDataRef));
         }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
         catch (AccessDeniedException accessDeniedExc)
         {
             DatabaseLoader.handleAccessDeniedException(accessDeniedExc);
@@ -857,204 +851,155 @@ public class DrbdLayerSQLDbDriver implements DrbdLayerCtrlDatabaseDriver
     public void persist(DrbdRscDfnData<?> drbdRscDfnDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Creating DrbdRscDfnData %s", getId(drbdRscDfnDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(INSERT_RSC_DFN))
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, drbdRscDfnDataRef.getResourceName().value);
+        params.setString(2, drbdRscDfnDataRef.getRscNameSuffix());
+        SnapshotName snapName = drbdRscDfnDataRef.getSnapshotName();
+        if (snapName == null)
         {
-            stmt.setString(1, drbdRscDfnDataRef.getResourceName().value);
-            stmt.setString(2, drbdRscDfnDataRef.getRscNameSuffix());
-            SnapshotName snapName = drbdRscDfnDataRef.getSnapshotName();
-            if (snapName == null)
-            {
-                stmt.setString(3, DFLT_SNAP_NAME_FOR_RSC);
-            }
-            else
-            {
-                stmt.setString(3, snapName.value);
-            }
-            stmt.setShort(4, drbdRscDfnDataRef.getPeerSlots());
-            stmt.setInt(5, drbdRscDfnDataRef.getAlStripes());
-            stmt.setLong(6, drbdRscDfnDataRef.getAlStripeSize());
-            TcpPortNumber tcpPort = drbdRscDfnDataRef.getTcpPort();
-            if (tcpPort == null)
-            {
-                stmt.setNull(7, Types.INTEGER);
-            }
-            else
-            {
-                stmt.setInt(7, tcpPort.value);
-            }
-            stmt.setString(8, drbdRscDfnDataRef.getTransportType().name());
-            if (drbdRscDfnDataRef.getSecret() != null)
-            {
-                stmt.setString(9, drbdRscDfnDataRef.getSecret());
-            }
-            else
-            {
-                stmt.setNull(9, Types.VARCHAR);
-            }
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("DrbdRscDfnData created %s", getId(drbdRscDfnDataRef));
+            params.setString(3, DFLT_SNAP_NAME_FOR_RSC);
         }
-        catch (SQLException sqlExc)
+        else
         {
-            throw new DatabaseException(sqlExc);
+            params.setString(3, snapName.value);
         }
+        params.setShort(4, drbdRscDfnDataRef.getPeerSlots());
+        params.setInt(5, drbdRscDfnDataRef.getAlStripes());
+        params.setLong(6, drbdRscDfnDataRef.getAlStripeSize());
+        TcpPortNumber tcpPort = drbdRscDfnDataRef.getTcpPort();
+        if (tcpPort == null)
+        {
+            params.setNull(7, Types.INTEGER);
+        }
+        else
+        {
+            params.setInt(7, tcpPort.value);
+        }
+        params.setString(8, drbdRscDfnDataRef.getTransportType().name());
+        if (drbdRscDfnDataRef.getSecret() != null)
+        {
+            params.setString(9, drbdRscDfnDataRef.getSecret());
+        }
+        else
+        {
+            params.setNull(9, Types.VARCHAR);
+        }
+        getBatch().add(INSERT_RSC_DFN, params);
+        errorReporter.logTrace("DrbdRscDfnData created %s", getId(drbdRscDfnDataRef));
     }
 
     @Override
     public void persist(DrbdVlmData<?> drbdVlmDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Creating DrbdVlmData %s", getId(drbdVlmDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(INSERT_VLM))
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, drbdVlmDataRef.getRscLayerId());
+        params.setInt(2, drbdVlmDataRef.getVlmNr().value);
+        StorPool externalMetaDataStorPool = drbdVlmDataRef.getExternalMetaDataStorPool();
+        if (externalMetaDataStorPool != null)
         {
-            stmt.setInt(1, drbdVlmDataRef.getRscLayerId());
-            stmt.setInt(2, drbdVlmDataRef.getVlmNr().value);
-            StorPool externalMetaDataStorPool = drbdVlmDataRef.getExternalMetaDataStorPool();
-            if (externalMetaDataStorPool != null)
-            {
-                stmt.setString(3, externalMetaDataStorPool.getNode().getName().value);
-                stmt.setString(4, externalMetaDataStorPool.getName().value);
-            }
-            else
-            {
-                stmt.setNull(3, Types.VARCHAR);
-                stmt.setNull(4, Types.VARCHAR);
-            }
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("DrbdVlmData created %s", getId(drbdVlmDataRef));
+            params.setString(3, externalMetaDataStorPool.getNode().getName().value);
+            params.setString(4, externalMetaDataStorPool.getName().value);
         }
-        catch (SQLException sqlExc)
+        else
         {
-            throw new DatabaseException(sqlExc);
+            params.setNull(3, Types.VARCHAR);
+            params.setNull(4, Types.VARCHAR);
         }
+        getBatch().add(INSERT_VLM, params);
+        errorReporter.logTrace("DrbdVlmData created %s", getId(drbdVlmDataRef));
     }
 
     @Override
     public void persist(DrbdVlmDfnData<?> drbdVlmDfnDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Creating DrbdVlmDfnData %s", getId(drbdVlmDfnDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(INSERT_VLM_DFN))
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, drbdVlmDfnDataRef.getResourceName().value);
+        params.setString(2, drbdVlmDfnDataRef.getRscNameSuffix());
+        SnapshotName snapName = drbdVlmDfnDataRef.getSnapshotName();
+        if (snapName == null)
         {
-            stmt.setString(1, drbdVlmDfnDataRef.getResourceName().value);
-            stmt.setString(2, drbdVlmDfnDataRef.getRscNameSuffix());
-            SnapshotName snapName = drbdVlmDfnDataRef.getSnapshotName();
-            if (snapName == null)
-            {
-                stmt.setString(3, DFLT_SNAP_NAME_FOR_RSC);
-            }
-            else
-            {
-                stmt.setString(3, snapName.value);
-            }
-            stmt.setInt(4, drbdVlmDfnDataRef.getVolumeNumber().value);
-            MinorNumber minorNr = drbdVlmDfnDataRef.getMinorNr();
-            if (minorNr == null)
-            {
-                stmt.setNull(5, Types.INTEGER);
-            }
-            else
-            {
-                stmt.setInt(5, minorNr.value);
-            }
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("DrbdVlmDfnData created %s", getId(drbdVlmDfnDataRef));
+            params.setString(3, DFLT_SNAP_NAME_FOR_RSC);
         }
-        catch (SQLException sqlExc)
+        else
         {
-            throw new DatabaseException(sqlExc);
+            params.setString(3, snapName.value);
         }
+        params.setInt(4, drbdVlmDfnDataRef.getVolumeNumber().value);
+        MinorNumber minorNr = drbdVlmDfnDataRef.getMinorNr();
+        if (minorNr == null)
+        {
+            params.setNull(5, Types.INTEGER);
+        }
+        else
+        {
+            params.setInt(5, minorNr.value);
+        }
+        getBatch().add(INSERT_VLM_DFN, params);
+        errorReporter.logTrace("DrbdVlmDfnData created %s", getId(drbdVlmDfnDataRef));
     }
 
     @Override
     public void delete(DrbdRscData<?> drbdRscDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Deleting DrbdRscDataRef %s", getId(drbdRscDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE_RSC))
-        {
-            stmt.setInt(1, drbdRscDataRef.getRscLayerId());
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("DrbdRscDataRef deleted %s", getId(drbdRscDataRef));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, drbdRscDataRef.getRscLayerId());
+        getBatch().add(DELETE_RSC, params);
+        errorReporter.logTrace("DrbdRscDataRef deleted %s", getId(drbdRscDataRef));
     }
 
     @Override
     public void delete(DrbdRscDfnData<?> drbdRscDfnDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Deleting DrbdRscDfnData %s", getId(drbdRscDfnDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE_RSC_DFN))
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, drbdRscDfnDataRef.getResourceName().value);
+        params.setString(2, drbdRscDfnDataRef.getRscNameSuffix());
+        SnapshotName snapName = drbdRscDfnDataRef.getSnapshotName();
+        if (snapName == null)
         {
-            stmt.setString(1, drbdRscDfnDataRef.getResourceName().value);
-            stmt.setString(2, drbdRscDfnDataRef.getRscNameSuffix());
-            SnapshotName snapName = drbdRscDfnDataRef.getSnapshotName();
-            if (snapName == null)
-            {
-                stmt.setString(3, DFLT_SNAP_NAME_FOR_RSC);
-            }
-            else
-            {
-                stmt.setString(3, snapName.value);
-            }
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("DrbdRscDfnData deleted %s", getId(drbdRscDfnDataRef));
+            params.setString(3, DFLT_SNAP_NAME_FOR_RSC);
         }
-        catch (SQLException sqlExc)
+        else
         {
-            throw new DatabaseException(sqlExc);
+            params.setString(3, snapName.value);
         }
+        getBatch().add(DELETE_RSC_DFN, params);
+        errorReporter.logTrace("DrbdRscDfnData deleted %s", getId(drbdRscDfnDataRef));
     }
 
     @Override
     public void delete(DrbdVlmData<?> drbdVlmDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Deleting DrbdVlmData %s", getId(drbdVlmDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE_VLM))
-        {
-            stmt.setInt(1, drbdVlmDataRef.getRscLayerId());
-            stmt.setInt(2, drbdVlmDataRef.getVlmNr().value);
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("DrbdVlmData deleted %s", getId(drbdVlmDataRef));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, drbdVlmDataRef.getRscLayerId());
+        params.setInt(2, drbdVlmDataRef.getVlmNr().value);
+        getBatch().add(DELETE_VLM, params);
+        errorReporter.logTrace("DrbdVlmData deleted %s", getId(drbdVlmDataRef));
     }
 
     @Override
     public void delete(DrbdVlmDfnData<?> drbdVlmDfnDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Deleting DrbdVlmDfnData %s", getId(drbdVlmDfnDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE_VLM_DFN))
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, drbdVlmDfnDataRef.getResourceName().value);
+        params.setString(2, drbdVlmDfnDataRef.getRscNameSuffix());
+        SnapshotName snapName = drbdVlmDfnDataRef.getSnapshotName();
+        if (snapName == null)
         {
-            stmt.setString(1, drbdVlmDfnDataRef.getResourceName().value);
-            stmt.setString(2, drbdVlmDfnDataRef.getRscNameSuffix());
-            SnapshotName snapName = drbdVlmDfnDataRef.getSnapshotName();
-            if (snapName == null)
-            {
-                stmt.setString(3, DFLT_SNAP_NAME_FOR_RSC);
-            }
-            else
-            {
-                stmt.setString(3, snapName.value);
-            }
-            stmt.setInt(4, drbdVlmDfnDataRef.getVolumeNumber().value);
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("DrbdVlmDfnData deleted %s", getId(drbdVlmDfnDataRef));
+            params.setString(3, DFLT_SNAP_NAME_FOR_RSC);
         }
-        catch (SQLException sqlExc)
+        else
         {
-            throw new DatabaseException(sqlExc);
+            params.setString(3, snapName.value);
         }
+        params.setInt(4, drbdVlmDfnDataRef.getVolumeNumber().value);
+        getBatch().add(DELETE_VLM_DFN, params);
+        errorReporter.logTrace("DrbdVlmDfnData deleted %s", getId(drbdVlmDfnDataRef));
     }
 
     @Override
@@ -1104,6 +1049,11 @@ public class DrbdLayerSQLDbDriver implements DrbdLayerCtrlDatabaseDriver
         return transMgrProvider.get().getConnection();
     }
 
+    private SQLStatementBatch getBatch()
+    {
+        return transMgrProvider.get().getBatch();
+    }
+
     private String getId(DrbdVlmData<?> drbdVlmData)
     {
         return "(LayerRscId=" + drbdVlmData.getRscLayerId() +
@@ -1157,16 +1107,10 @@ public class DrbdLayerSQLDbDriver implements DrbdLayerCtrlDatabaseDriver
                     toFlags,
                     getId(drbdRscData)
                 );
-                try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_RSC_FLAGS))
-                {
-                    stmt.setLong(1, flags);
-                    stmt.setLong(2, drbdRscData.getRscLayerId());
-                    stmt.executeUpdate();
-                }
-                catch (SQLException sqlExc)
-                {
-                    throw new DatabaseException(sqlExc);
-                }
+                SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+                params.setLong(1, flags);
+                params.setLong(2, drbdRscData.getRscLayerId());
+                getBatch().add(UPDATE_RSC_FLAGS, params);
                 errorReporter.logTrace(
                     "DrbdRscData's flags updated from [%s] to [%s] %s",
                     fromFlags,
@@ -1202,28 +1146,21 @@ public class DrbdLayerSQLDbDriver implements DrbdLayerCtrlDatabaseDriver
                 toStr,
                 getId(drbdVlmData)
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_VLM_EXT_STOR_POOL))
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            if (storPool == null)
             {
-                if (storPool == null)
-                {
-                    stmt.setNull(1, Types.VARCHAR);
-                    stmt.setNull(2, Types.VARCHAR);
-                }
-                else
-                {
-                    stmt.setString(1, storPool.getNode().getName().value);
-                    stmt.setString(2, storPool.getName().value);
-                }
-
-                stmt.setLong(3, drbdVlmData.getRscLayerId());
-                stmt.setInt(4, drbdVlmData.getVlmNr().value);
-
-                stmt.executeUpdate();
+                params.setNull(1, Types.VARCHAR);
+                params.setNull(2, Types.VARCHAR);
             }
-            catch (SQLException sqlExc)
+            else
             {
-                throw new DatabaseException(sqlExc);
+                params.setString(1, storPool.getNode().getName().value);
+                params.setString(2, storPool.getName().value);
             }
+
+            params.setLong(3, drbdVlmData.getRscLayerId());
+            params.setInt(4, drbdVlmData.getVlmNr().value);
+            getBatch().add(UPDATE_VLM_EXT_STOR_POOL, params);
             errorReporter.logTrace(
                 "DrbdVlmData's external storage pool updated from [%s] to [%s] %s",
                 fromStr,
@@ -1245,26 +1182,20 @@ public class DrbdLayerSQLDbDriver implements DrbdLayerCtrlDatabaseDriver
                 secretRef,
                 getId(drbdRscDfnData)
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_RSC_DFN_SECRET))
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setString(1, secretRef);
+            params.setString(2, drbdRscDfnData.getResourceName().value);
+            params.setString(3, drbdRscDfnData.getRscNameSuffix());
+            SnapshotName snapName = drbdRscDfnData.getSnapshotName();
+            if (snapName == null)
             {
-                stmt.setString(1, secretRef);
-                stmt.setString(2, drbdRscDfnData.getResourceName().value);
-                stmt.setString(3, drbdRscDfnData.getRscNameSuffix());
-                SnapshotName snapName = drbdRscDfnData.getSnapshotName();
-                if (snapName == null)
-                {
-                    stmt.setString(4, DFLT_SNAP_NAME_FOR_RSC);
-                }
-                else
-                {
-                    stmt.setString(4, snapName.displayValue);
-                }
-                stmt.executeUpdate();
+                params.setString(4, DFLT_SNAP_NAME_FOR_RSC);
             }
-            catch (SQLException sqlExc)
+            else
             {
-                throw new DatabaseException(sqlExc);
+                params.setString(4, snapName.displayValue);
             }
+            getBatch().add(UPDATE_RSC_DFN_SECRET, params);
             errorReporter.logTrace(
                 "DrbdRscDfnData's secret updated from [%s] to [%s] %s",
                 drbdRscDfnData.getSecret(),
@@ -1287,26 +1218,20 @@ public class DrbdLayerSQLDbDriver implements DrbdLayerCtrlDatabaseDriver
                 port,
                 getId(drbdRscDfnData)
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_RSC_DFN_TCP_PORT))
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setInt(1, port.value);
+            params.setString(2, drbdRscDfnData.getResourceName().value);
+            params.setString(3, drbdRscDfnData.getRscNameSuffix());
+            SnapshotName snapName = drbdRscDfnData.getSnapshotName();
+            if (snapName == null)
             {
-                stmt.setInt(1, port.value);
-                stmt.setString(2, drbdRscDfnData.getResourceName().value);
-                stmt.setString(3, drbdRscDfnData.getRscNameSuffix());
-                SnapshotName snapName = drbdRscDfnData.getSnapshotName();
-                if (snapName == null)
-                {
-                    stmt.setString(4, DFLT_SNAP_NAME_FOR_RSC);
-                }
-                else
-                {
-                    stmt.setString(4, snapName.displayValue);
-                }
-                stmt.executeUpdate();
+                params.setString(4, DFLT_SNAP_NAME_FOR_RSC);
             }
-            catch (SQLException sqlExc)
+            else
             {
-                throw new DatabaseException(sqlExc);
+                params.setString(4, snapName.displayValue);
             }
+            getBatch().add(UPDATE_RSC_DFN_TCP_PORT, params);
             errorReporter.logTrace(
                 "DrbdRscDfnData's port updated from [%d] to [%d] %s",
                 drbdRscDfnData.getTcpPort(),
@@ -1328,26 +1253,20 @@ public class DrbdLayerSQLDbDriver implements DrbdLayerCtrlDatabaseDriver
                 transportType.name(),
                 getId(drbdRscDfnData)
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_RSC_DFN_TRANSPORT_TYPE))
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setString(1, transportType.name());
+            params.setString(2, drbdRscDfnData.getResourceName().value);
+            params.setString(3, drbdRscDfnData.getRscNameSuffix());
+            SnapshotName snapName = drbdRscDfnData.getSnapshotName();
+            if (snapName == null)
             {
-                stmt.setString(1, transportType.name());
-                stmt.setString(2, drbdRscDfnData.getResourceName().value);
-                stmt.setString(3, drbdRscDfnData.getRscNameSuffix());
-                SnapshotName snapName = drbdRscDfnData.getSnapshotName();
-                if (snapName == null)
-                {
-                    stmt.setString(4, DFLT_SNAP_NAME_FOR_RSC);
-                }
-                else
-                {
-                    stmt.setString(4, snapName.displayValue);
-                }
-                stmt.executeUpdate();
+                params.setString(4, DFLT_SNAP_NAME_FOR_RSC);
             }
-            catch (SQLException sqlExc)
+            else
             {
-                throw new DatabaseException(sqlExc);
+                params.setString(4, snapName.displayValue);
             }
+            getBatch().add(UPDATE_RSC_DFN_TRANSPORT_TYPE, params);
             errorReporter.logTrace(
                 "DrbdRscDfnData's transport type updated from [%d] to [%d] %s",
                 drbdRscDfnData.getTransportType().name(),
@@ -1370,26 +1289,20 @@ public class DrbdLayerSQLDbDriver implements DrbdLayerCtrlDatabaseDriver
                 peerSlots,
                 getId(drbdRscDfnData)
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_RSC_DFN_PEER_SLOTS))
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setShort(1, peerSlots);
+            params.setString(2, drbdRscDfnData.getResourceName().value);
+            params.setString(3, drbdRscDfnData.getRscNameSuffix());
+            SnapshotName snapName = drbdRscDfnData.getSnapshotName();
+            if (snapName == null)
             {
-                stmt.setShort(1, peerSlots);
-                stmt.setString(2, drbdRscDfnData.getResourceName().value);
-                stmt.setString(3, drbdRscDfnData.getRscNameSuffix());
-                SnapshotName snapName = drbdRscDfnData.getSnapshotName();
-                if (snapName == null)
-                {
-                    stmt.setString(4, DFLT_SNAP_NAME_FOR_RSC);
-                }
-                else
-                {
-                    stmt.setString(4, snapName.displayValue);
-                }
-                stmt.executeUpdate();
+                params.setString(4, DFLT_SNAP_NAME_FOR_RSC);
             }
-            catch (SQLException sqlExc)
+            else
             {
-                throw new DatabaseException(sqlExc);
+                params.setString(4, snapName.displayValue);
             }
+            getBatch().add(UPDATE_RSC_DFN_PEER_SLOTS, params);
             errorReporter.logTrace(
                 "DrbdRscDfnData's peer slots updated from [%d] to [%d] %s",
                 oldPeerSlots,
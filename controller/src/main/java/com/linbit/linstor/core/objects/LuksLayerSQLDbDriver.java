@@ -14,6 +14,7 @@ import com.linbit.linstor.storage.data.adapter.luks.LuksRscData;
 import com.linbit.linstor.storage.data.adapter.luks.LuksVlmData;
 import com.linbit.linstor.storage.interfaces.categories.resource.AbsRscLayerObject;
 import com.linbit.linstor.transaction.TransactionObjectFactory;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
 import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
 import com.linbit.utils.Pair;
 
@@ -167,19 +168,12 @@ public class LuksLayerSQLDbDriver implements LuksLayerCtrlDatabaseDriver
     public void persist(LuksVlmData<?> luksVlmDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Creating LuksVlmData %s", getId(luksVlmDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(INSERT_VLM))
-        {
-            stmt.setInt(1, luksVlmDataRef.getRscLayerObject().getRscLayerId());
-            stmt.setInt(2, luksVlmDataRef.getVlmNr().value);
-            stmt.setBytes(3, luksVlmDataRef.getEncryptedKey());
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("LuksVlmData created %s", getId(luksVlmDataRef));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, luksVlmDataRef.getRscLayerObject().getRscLayerId());
+        params.setInt(2, luksVlmDataRef.getVlmNr().value);
+        params.setBytes(3, luksVlmDataRef.getEncryptedKey());
+        getBatch().add(INSERT_VLM, params);
+        errorReporter.logTrace("LuksVlmData created %s", getId(luksVlmDataRef));
     }
 
     @Override
@@ -193,18 +187,11 @@ public class LuksLayerSQLDbDriver implements LuksLayerCtrlDatabaseDriver
     public void delete(LuksVlmData<?> luksVlmDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Deleting LuksVlmData %s", getId(luksVlmDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE_VLM))
-        {
-            stmt.setInt(1, luksVlmDataRef.getRscLayerObject().getRscLayerId());
-            stmt.setInt(2, luksVlmDataRef.getVlmNr().value);
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("LuksVlmData deleted %s", getId(luksVlmDataRef));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, luksVlmDataRef.getRscLayerObject().getRscLayerId());
+        params.setInt(2, luksVlmDataRef.getVlmNr().value);
+        getBatch().add(DELETE_VLM, params);
+        errorReporter.logTrace("LuksVlmData deleted %s", getId(luksVlmDataRef));
     }
 
     @Override
@@ -224,6 +211,11 @@ public class LuksLayerSQLDbDriver implements LuksLayerCtrlDatabaseDriver
         return transMgrProvider.get().getConnection();
     }
 
+    private SQLStatementBatch getBatch()
+    {
+        return transMgrProvider.get().getBatch();
+    }
+
     private String getId(LuksVlmData<?> luksVlmDataRef)
     {
         return "(LayerRscId=" + luksVlmDataRef.getRscLayerId() +
@@ -242,18 +234,11 @@ public class LuksLayerSQLDbDriver implements LuksLayerCtrlDatabaseDriver
                 "Updating LuksVlmData's encrypted password %s",
                 getId(luksVlmDataRef)
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_VLM_PW))
-            {
-                stmt.setBytes(1, encryptedPassword);
-                stmt.setInt(2, luksVlmDataRef.getRscLayerObject().getRscLayerId());
-                stmt.setInt(3, luksVlmDataRef.getVlmNr().value);
-
-                stmt.executeUpdate();
-            }
-            catch (SQLException sqlExc)
-            {
-                throw new DatabaseException(sqlExc);
-            }
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setBytes(1, encryptedPassword);
+            params.setInt(2, luksVlmDataRef.getRscLayerObject().getRscLayerId());
+            params.setInt(3, luksVlmDataRef.getVlmNr().value);
+            getBatch().add(UPDATE_VLM_PW, params);
             errorReporter.logTrace(
                 "LuksVlmData's secret updated %s",
                 getId(luksVlmDataRef)
@@ -25,6 +25,7 @@ import com.linbit.linstor.storage.data.adapter.nvme.OpenflexVlmData;
 import com.linbit.linstor.storage.interfaces.categories.resource.AbsRscLayerObject;
 import com.linbit.linstor.storage.kinds.DeviceLayerKind;
 import com.linbit.linstor.transaction.TransactionObjectFactory;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
 import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
 import com.linbit.utils.Pair;
 import com.linbit.utils.StringUtils;
@@ -351,42 +352,28 @@ public class OpenflexLayerSQLDbDriver implements OpenflexLayerCtrlDatabaseDriver
     public void create(OpenflexRscDfnData<?> ofRscDfnData) throws DatabaseException
     {
         errorReporter.logTrace("Creating OpenflexRscData %s", getId(ofRscDfnData));
-        try (PreparedStatement stmt = getConnection().prepareStatement(INSERT_RSC_DFN))
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, ofRscDfnData.getResourceName().value);
+        params.setString(2, ofRscDfnData.getRscNameSuffix());
+        if (ofRscDfnData.getNqn() == null)
         {
-            stmt.setString(1, ofRscDfnData.getResourceName().value);
-            stmt.setString(2, ofRscDfnData.getRscNameSuffix());
-            if (ofRscDfnData.getNqn() == null)
-            {
-                stmt.setNull(3, Types.VARCHAR);
-            }
-            else
-            {
-                stmt.setString(3, ofRscDfnData.getNqn());
-            }
-
-            stmt.executeUpdate();
+            params.setNull(3, Types.VARCHAR);
         }
-        catch (SQLException sqlExc)
+        else
         {
-            throw new DatabaseException(sqlExc);
+            params.setString(3, ofRscDfnData.getNqn());
         }
+        getBatch().add(INSERT_RSC_DFN, params);
     }
 
     @Override
     public void delete(OpenflexRscDfnData<?> ofRscDfnData) throws DatabaseException
     {
         errorReporter.logTrace("Deleting OpenflexRscDfnData %s", getId(ofRscDfnData));
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE_RSC_DFN))
-        {
-            stmt.setString(1, ofRscDfnData.getResourceName().value);
-            stmt.setString(2, ofRscDfnData.getRscNameSuffix());
-
-            stmt.executeUpdate();
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, ofRscDfnData.getResourceName().value);
+        params.setString(2, ofRscDfnData.getRscNameSuffix());
+        getBatch().add(DELETE_RSC_DFN, params);
     }
 
     @Override
@@ -407,20 +394,13 @@ public class OpenflexLayerSQLDbDriver implements OpenflexLayerCtrlDatabaseDriver
     public void persist(OpenflexVlmData<?> ofVlmData) throws DatabaseException
     {
         errorReporter.logTrace("Creating OpenflexVlmData %s", getId(ofVlmData));
-        try (PreparedStatement stmt = getConnection().prepareStatement(INSERT_VLM))
-        {
-            stmt.setInt(1, ofVlmData.getRscLayerId());
-            stmt.setInt(2, ofVlmData.getVlmNr().value);
-            StorPool storPool = ofVlmData.getStorPool();
-            stmt.setString(3, storPool.getNode().getName().value);
-            stmt.setString(4, storPool.getName().value);
-
-            stmt.executeUpdate();
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, ofVlmData.getRscLayerId());
+        params.setInt(2, ofVlmData.getVlmNr().value);
+        StorPool storPool = ofVlmData.getStorPool();
+        params.setString(3, storPool.getNode().getName().value);
+        params.setString(4, storPool.getName().value);
+        getBatch().add(INSERT_VLM, params);
     }
 
 
@@ -428,17 +408,10 @@ public class OpenflexLayerSQLDbDriver implements OpenflexLayerCtrlDatabaseDriver
     public void delete(OpenflexVlmData<?> ofVlmData) throws DatabaseException
     {
         errorReporter.logTrace("Deleting OpenflexVlmData %s", getId(ofVlmData));
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE_VLM))
-        {
-            stmt.setInt(1, ofVlmData.getRscLayerId());
-            stmt.setInt(2, ofVlmData.getVlmNr().value);
-
-            stmt.executeUpdate();
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, ofVlmData.getRscLayerId());
+        params.setInt(2, ofVlmData.getVlmNr().value);
+        getBatch().add(DELETE_VLM, params);
     }
 
     private Connection getConnection()
@@ -446,6 +419,11 @@ public class OpenflexLayerSQLDbDriver implements OpenflexLayerCtrlDatabaseDriver
         return transMgrProvider.get().getConnection();
     }
 
+    private SQLStatementBatch getBatch()
+    {
+        return transMgrProvider.get().getBatch();
+    }
+
     private String getId(OpenflexRscDfnData<?> openflexRscDfnData)
     {
         return "(ResName=" + openflexRscDfnData.getResourceName() +
@@ -497,19 +475,12 @@ public class OpenflexLayerSQLDbDriver implements OpenflexLayerCtrlDatabaseDriver
                 nqn,
                 getId(ofRscDfnData)
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_NQN))
-            {
-                stmt.setString(1, nqn);
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setString(1, nqn);
 
-                stmt.setString(2, ofRscDfnData.getResourceName().value);
-                stmt.setString(3, ofRscDfnData.getRscNameSuffix());
-
-                stmt.executeUpdate();
-            }
-            catch (SQLException exc)
-            {
-                throw new DatabaseException(exc);
-            }
+            params.setString(2, ofRscDfnData.getResourceName().value);
+            params.setString(3, ofRscDfnData.getRscNameSuffix());
+            getBatch().add(UPDATE_NQN, params);
         }
     }
 }
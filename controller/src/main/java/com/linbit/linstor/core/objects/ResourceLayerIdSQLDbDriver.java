@@ -13,6 +13,7 @@ import com.linbit.linstor.storage.AbsRscData;
 import com.linbit.linstor.storage.interfaces.categories.resource.AbsRscLayerObject;
 import com.linbit.linstor.storage.interfaces.categories.resource.VlmProviderObject;
 import com.linbit.linstor.storage.kinds.DeviceLayerKind;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
 import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
 
 import static com.linbit.linstor.core.objects.ResourceDefinitionDbDriver.DFLT_SNAP_NAME_FOR_RSC;
@@ -147,39 +148,32 @@ public class ResourceLayerIdSQLDbDriver implements ResourceLayerIdCtrlDatabaseDr
     public void persist(AbsRscLayerObject<?> rscData) throws DatabaseException
     {
         errorReporter.logTrace("Creating LayerResourceId %s", getId(rscData));
-        try (PreparedStatement stmt = getConnection().prepareStatement(INSERT))
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        AbsResource<?> absRsc = rscData.getAbsResource();
+        params.setInt(1, rscData.getRscLayerId());
+        params.setString(2, absRsc.getNode().getName().value);
+        params.setString(3, rscData.getResourceName().value);
+        if (absRsc instanceof Resource)
         {
-            AbsResource<?> absRsc = rscData.getAbsResource();
-            stmt.setInt(1, rscData.getRscLayerId());
-            stmt.setString(2, absRsc.getNode().getName().value);
-            stmt.setString(3, rscData.getResourceName().value);
-            if (absRsc instanceof Resource)
-            {
-                stmt.setString(4, DFLT_SNAP_NAME_FOR_RSC);
-            }
-            else
-            {
-                stmt.setString(4, ((Snapshot) absRsc).getSnapshotName().value);
-            }
-            if (rscData.getParent() != null)
-            {
-                stmt.setInt(5, rscData.getParent().getRscLayerId());
-            }
-            else
-            {
-                stmt.setNull(5, Types.INTEGER);
-            }
-            stmt.setString(6, rscData.getLayerKind().name());
-            stmt.setString(7, rscData.getResourceNameSuffix());
-            stmt.setBoolean(8, rscData.getSuspendIo());
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("LayerResourceId created %s", getId(rscData));
+            params.setString(4, DFLT_SNAP_NAME_FOR_RSC);
         }
-        catch (SQLException sqlExc)
+        else
         {
-            throw new DatabaseException(sqlExc);
+            params.setString(4, ((Snapshot) absRsc).getSnapshotName().value);
+        }
+        if (rscData.getParent() != null)
+        {
+            params.setInt(5, rscData.getParent().getRscLayerId());
         }
+        else
+        {
+            params.setNull(5, Types.INTEGER);
+        }
+        params.setString(6, rscData.getLayerKind().name());
+        params.setString(7, rscData.getResourceNameSuffix());
+        params.setBoolean(8, rscData.getSuspendIo());
+        getBatch().add(INSERT, params);
+        errorReporter.logTrace("LayerResourceId created %s", getId(rscData));
     }
 
     @Override
@@ -187,18 +181,11 @@ public class ResourceLayerIdSQLDbDriver implements ResourceLayerIdCtrlDatabaseDr
     public void delete(AbsRscLayerObject<?> rscData) throws DatabaseException
     {
         errorReporter.logTrace("Deleting LayerResourceId %s", getId(rscData));
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE))
-        {
-            AbsResource<?> absRsc = rscData.getAbsResource();
-            stmt.setInt(1, rscData.getRscLayerId());
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("LayerResourceId deleting %s", getId(rscData));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        AbsResource<?> absRsc = rscData.getAbsResource();
+        params.setInt(1, rscData.getRscLayerId());
+        getBatch().add(DELETE, params);
+        errorReporter.logTrace("LayerResourceId deleting %s", getId(rscData));
     }
 
     @SuppressWarnings("unchecked")
@@ -228,6 +215,11 @@ public class ResourceLayerIdSQLDbDriver implements ResourceLayerIdCtrlDatabaseDr
         return transMgrProvider.get().getConnection();
     }
 
+    private SQLStatementBatch getBatch()
+    {
+        return transMgrProvider.get().getBatch();
+    }
+
     private String getId(AbsRscLayerObject<?> rscData)
     {
         return rscData.getLayerKind().name() +
@@ -269,25 +261,18 @@ public class ResourceLayerIdSQLDbDriver implements ResourceLayerIdCtrlDatabaseDr
                 newParentData == null ? null : newParentData.getRscLayerId(),
                 getId(rscData)
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_PARENT_ID))
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            if (newParentData == null)
             {
-                if (newParentData == null)
-                {
-                    stmt.setNull(1, Types.INTEGER);
-                }
-                else
-                {
-                    stmt.setInt(1, newParentData.getRscLayerId());
-                }
-
-                stmt.setInt(2, rscData.getRscLayerId());
-
-                stmt.executeUpdate();
+                params.setNull(1, Types.INTEGER);
             }
-            catch (SQLException sqlExc)
+            else
             {
-                throw new DatabaseException(sqlExc);
+                params.setInt(1, newParentData.getRscLayerId());
             }
+
+            params.setInt(2, rscData.getRscLayerId());
+            getBatch().add(UPDATE_PARENT_ID, params);
             errorReporter.logTrace(
                 "%s's parent resource id updated from [%d] to [%d] %s",
                 rscData.getClass().getSimpleName(),
@@ -313,17 +298,10 @@ public class ResourceLayerIdSQLDbDriver implements ResourceLayerIdCtrlDatabaseDr
                 newSuspend,
                 getId(rscData)
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_SUSPENDED))
-            {
-                stmt.setBoolean(1, newSuspend);
-                stmt.setInt(2, rscData.getRscLayerId());
-
-                stmt.executeUpdate();
-            }
-            catch (SQLException sqlExc)
-            {
-                throw new DatabaseException(sqlExc);
-            }
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setBoolean(1, newSuspend);
+            params.setInt(2, rscData.getRscLayerId());
+            getBatch().add(UPDATE_SUSPENDED, params);
             errorReporter.logTrace(
                 "%s's suspended io updated from [%s] to [%s] %s",
                 rscData.getClass().getSimpleName(),
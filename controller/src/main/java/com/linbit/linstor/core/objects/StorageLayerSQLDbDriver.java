@@ -30,6 +30,7 @@ import com.linbit.linstor.storage.interfaces.categories.resource.AbsRscLayerObje
 import com.linbit.linstor.storage.interfaces.categories.resource.VlmProviderObject;
 import com.linbit.linstor.storage.kinds.DeviceProviderKind;
 import com.linbit.linstor.transaction.TransactionObjectFactory;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
 import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
 import com.linbit.utils.Pair;
 import com.linbit.utils.StringUtils;
@@ -389,21 +390,14 @@ public class StorageLayerSQLDbDriver implements StorageLayerCtrlDatabaseDriver
                     "! Use appropriate database driver"
             );
         }
-        try (PreparedStatement stmt = getConnection().prepareStatement(INSERT_VLM))
-        {
-            stmt.setInt(1, vlmDataRef.getRscLayerObject().getRscLayerId());
-            stmt.setInt(2, vlmDataRef.getVlmNr().value);
-            stmt.setString(3, providerKind.name());
-            stmt.setString(4, vlmDataRef.getStorPool().getNode().getName().value);
-            stmt.setString(5, vlmDataRef.getStorPool().getName().value);
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("StorageVolume created %s", getId(vlmDataRef));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, vlmDataRef.getRscLayerObject().getRscLayerId());
+        params.setInt(2, vlmDataRef.getVlmNr().value);
+        params.setString(3, providerKind.name());
+        params.setString(4, vlmDataRef.getStorPool().getNode().getName().value);
+        params.setString(5, vlmDataRef.getStorPool().getName().value);
+        getBatch().add(INSERT_VLM, params);
+        errorReporter.logTrace("StorageVolume created %s", getId(vlmDataRef));
     }
 
     @Override
@@ -411,18 +405,11 @@ public class StorageLayerSQLDbDriver implements StorageLayerCtrlDatabaseDriver
     {
         errorReporter.logTrace("Deleting StorageVolume %s", getId(vlmDataRef));
 
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE_VLM))
-        {
-            stmt.setInt(1, vlmDataRef.getRscLayerObject().getRscLayerId());
-            stmt.setInt(2, vlmDataRef.getVlmNr().value);
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("StorageVolume deleted %s", getId(vlmDataRef));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, vlmDataRef.getRscLayerObject().getRscLayerId());
+        params.setInt(2, vlmDataRef.getVlmNr().value);
+        getBatch().add(DELETE_VLM, params);
+        errorReporter.logTrace("StorageVolume deleted %s", getId(vlmDataRef));
     }
 
     @Override
@@ -436,6 +423,11 @@ public class StorageLayerSQLDbDriver implements StorageLayerCtrlDatabaseDriver
         return transMgrProvider.get().getConnection();
     }
 
+    private SQLStatementBatch getBatch()
+    {
+        return transMgrProvider.get().getBatch();
+    }
+
     private String getId(VlmProviderObject<?> vlmData)
     {
         return vlmData.getProviderKind().name() +
@@ -454,18 +446,11 @@ public class StorageLayerSQLDbDriver implements StorageLayerCtrlDatabaseDriver
                 storPool.getName().displayValue,
                 getId(parent)
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_STOR_POOL))
-            {
-                stmt.setString(1, storPool.getName().value);
-                stmt.setInt(2, parent.getRscLayerObject().getRscLayerId());
-                stmt.setInt(3, parent.getVlmNr().value);
-
-                stmt.executeUpdate();
-            }
-            catch (SQLException sqlExc)
-            {
-                throw new DatabaseException(sqlExc);
-            }
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setString(1, storPool.getName().value);
+            params.setInt(2, parent.getRscLayerObject().getRscLayerId());
+            params.setInt(3, parent.getVlmNr().value);
+            getBatch().add(UPDATE_STOR_POOL, params);
             errorReporter.logTrace("VlmProviderObject's StorPool updated from [%s] to [%s] %s",
                 parent.getStorPool().getName().displayValue,
                 storPool.getName().displayValue,
@@ -18,6 +18,7 @@ import com.linbit.linstor.storage.data.adapter.writecache.WritecacheRscData;
 import com.linbit.linstor.storage.data.adapter.writecache.WritecacheVlmData;
 import com.linbit.linstor.storage.interfaces.categories.resource.AbsRscLayerObject;
 import com.linbit.linstor.transaction.TransactionObjectFactory;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
 import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
 import com.linbit.utils.Pair;
 import com.linbit.utils.StringUtils;
@@ -195,22 +196,15 @@ public class WritecacheLayerSQLDbDriver implements WritecacheLayerCtrlDatabaseDr
     public void persist(WritecacheVlmData<?> writecacheVlmDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Creating WritecacheVlmData %s", getId(writecacheVlmDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(INSERT_VLM))
-        {
-            stmt.setInt(1, writecacheVlmDataRef.getRscLayerId());
-            stmt.setInt(2, writecacheVlmDataRef.getVlmNr().value);
-
-            StorPool cacheStorPool = writecacheVlmDataRef.getCacheStorPool();
-            stmt.setString(3, cacheStorPool.getNode().getName().value);
-            stmt.setString(4, cacheStorPool.getName().value);
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, writecacheVlmDataRef.getRscLayerId());
+        params.setInt(2, writecacheVlmDataRef.getVlmNr().value);
 
-            stmt.executeUpdate();
-            errorReporter.logTrace("WritecacheVlmData created %s", getId(writecacheVlmDataRef));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        StorPool cacheStorPool = writecacheVlmDataRef.getCacheStorPool();
+        params.setString(3, cacheStorPool.getNode().getName().value);
+        params.setString(4, cacheStorPool.getName().value);
+        getBatch().add(INSERT_VLM, params);
+        errorReporter.logTrace("WritecacheVlmData created %s", getId(writecacheVlmDataRef));
     }
 
     @Override
@@ -224,18 +218,11 @@ public class WritecacheLayerSQLDbDriver implements WritecacheLayerCtrlDatabaseDr
     public void delete(WritecacheVlmData<?> writecacheVlmDataRef) throws DatabaseException
     {
         errorReporter.logTrace("Deleting WritecacheVlmData %s", getId(writecacheVlmDataRef));
-        try (PreparedStatement stmt = getConnection().prepareStatement(DELETE_VLM))
-        {
-            stmt.setInt(1, writecacheVlmDataRef.getRscLayerId());
-            stmt.setInt(2, writecacheVlmDataRef.getVlmNr().value);
-
-            stmt.executeUpdate();
-            errorReporter.logTrace("WritecacheVlmData deleted %s", getId(writecacheVlmDataRef));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setInt(1, writecacheVlmDataRef.getRscLayerId());
+        params.setInt(2, writecacheVlmDataRef.getVlmNr().value);
+        getBatch().add(DELETE_VLM, params);
+        errorReporter.logTrace("WritecacheVlmData deleted %s", getId(writecacheVlmDataRef));
     }
 
     @Override
@@ -249,6 +236,11 @@ public class WritecacheLayerSQLDbDriver implements WritecacheLayerCtrlDatabaseDr
         return transMgrProvider.get().getConnection();
     }
 
+    private SQLStatementBatch getBatch()
+    {
+        return transMgrProvider.get().getBatch();
+    }
+
     private String getId(WritecacheRscData<?> writecacheRscData)
     {
         return "(LayerRscId=" + writecacheRscData.getRscLayerId() +
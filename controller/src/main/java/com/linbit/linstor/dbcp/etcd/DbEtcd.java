@@ -7,8 +7,10 @@ import com.linbit.SystemServiceStartException;
 import com.linbit.linstor.ControllerDatabase;
 import com.linbit.linstor.ControllerETCDDatabase;
 import com.linbit.linstor.InitializationException;
+import com.linbit.linstor.InternalApiConsts;
 import com.linbit.linstor.LinStorDBRuntimeException;
 import com.linbit.linstor.core.ClassPathLoader;
+import com.linbit.linstor.core.LinStor;
 import com.linbit.linstor.core.cfg.CtrlConfig;
 import com.linbit.linstor.dbcp.migration.etcd.BaseEtcdMigration;
 import com.linbit.linstor.dbcp.migration.etcd.EtcdMigration;
@@ -17,6 +19,7 @@ import com.linbit.linstor.dbdrivers.etcd.EtcdUtils;
 import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.linstor.transaction.ControllerETCDTransactionMgr;
 import com.linbit.linstor.transaction.ControllerETCDTransactionMgrGenerator;
+import com.linbit.linstor.transaction.EtcdCheckpoint;
 import com.linbit.linstor.transaction.EtcdTransaction;
 
 import javax.inject.Inject;
@@ -24,12 +27,15 @@ import javax.inject.Singleton;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import com.google.common.io.Files;
 import com.ibm.etcd.client.EtcdClient;
@@ -53,6 +59,14 @@ public class DbEtcd implements ControllerETCDDatabase
     private int dbTimeout = ControllerDatabase.DEFAULT_TIMEOUT;
     private KvStoreClient etcdClient;
 
+    // only set while the controller loads its data, see loadCheckpoint()
+    private volatile EtcdCheckpoint loadedCheckpoint;
+    private final Object checkpointSync = new Object();
+    // state of the last loaded or written checkpoint, so that unchanged data is not read and written again
+    private EtcdCheckpoint.State checkpointState;
+    // only set if warm standby is enabled
+    private EtcdControllerStandby standby;
+
     static
     {
         try
@@ -177,15 +191,195 @@ public class DbEtcd implements ControllerETCDDatabase
         }
     }
 
+    /**
+     * If warm standby is enabled, returns once no other controller is active anymore. Until then, the entries
+     * of the ETCD server are kept current, so that they do not have to be read again by
+     * {@link #loadCheckpoint()}.
+     */
+    public void awaitLeadership() throws DatabaseException
+    {
+        if (standby != null)
+        {
+            standby.awaitLeadership();
+        }
+    }
+
     @Override
     public boolean closeAllThreadLocalConnections()
     {
         return true;
     }
 
+    @Override
+    public boolean loadCheckpoint()
+    {
+        boolean loaded = false;
+        String checkpointFile = ctrlCfg.getEtcdCheckpointFile();
+        EtcdCheckpoint standbyCheckpoint = standby == null ? null : standby.takeCheckpoint();
+        if (standbyCheckpoint != null)
+        {
+            loadedCheckpoint = standbyCheckpoint;
+            loaded = true;
+            errorReporter.logInfo(
+                "Loading data from the entries kept as warm standby (revision %d)",
+                standbyCheckpoint.getRevision()
+            );
+        }
+        else
+        if (checkpointFile != null)
+        {
+            EtcdCheckpoint checkpoint = readCheckpoint(
+                errorReporter,
+                Paths.get(checkpointFile),
+                () -> new EtcdTransaction(this).getState(EtcdUtils.LINSTOR_PREFIX)
+            );
+            if (checkpoint != null)
+            {
+                synchronized (checkpointSync)
+                {
+                    checkpointState = checkpoint.getState();
+                }
+                loadedCheckpoint = checkpoint;
+                loaded = true;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the checkpoint stored in the given file if it contains the current entries below
+     * {@link EtcdUtils#LINSTOR_PREFIX}, otherwise null. A missing, unreadable, corrupt or outdated file is no
+     * error, as the data is then loaded from the ETCD server.
+     *
+     * @param currentStateSupplier
+     *     queries the current state of the entries from the ETCD server
+     */
+    static EtcdCheckpoint readCheckpoint(
+        ErrorReporter errorReporter,
+        Path checkpointPath,
+        Supplier<EtcdCheckpoint.State> currentStateSupplier
+    )
+    {
+        EtcdCheckpoint checkpoint = null;
+        if (checkpointPath.toFile().exists())
+        {
+            try
+            {
+                checkpoint = EtcdCheckpoint.read(checkpointPath);
+            }
+            catch (IOException exc)
+            {
+                errorReporter.logWarning(
+                    "Failed to read ETCD checkpoint %s, loading data from ETCD: %s",
+                    checkpointPath,
+                    exc.getMessage()
+                );
+            }
+        }
+        if (checkpoint != null)
+        {
+            EtcdCheckpoint.State currentState = currentStateSupplier.get();
+            if (checkpoint.getPrefix().equals(EtcdUtils.LINSTOR_PREFIX) && checkpoint.getState().equals(currentState))
+            {
+                errorReporter.logInfo(
+                    "Loading data from ETCD checkpoint %s (revision %d)",
+                    checkpointPath,
+                    checkpoint.getRevision()
+                );
+            }
+            else
+            {
+                errorReporter.logInfo(
+                    "ETCD checkpoint %s is outdated (%s, current %s), loading data from ETCD",
+                    checkpointPath,
+                    checkpoint.getState(),
+                    currentState
+                );
+                checkpoint = null;
+            }
+        }
+        return checkpoint;
+    }
+
+    @Override
+    public EtcdCheckpoint getLoadedCheckpoint()
+    {
+        return loadedCheckpoint;
+    }
+
+    @Override
+    public void dropCheckpoint()
+    {
+        loadedCheckpoint = null;
+    }
+
+    /**
+     * Writes all entries below {@link EtcdUtils#LINSTOR_PREFIX} to the configured checkpoint file, unless they
+     * were not modified since the last checkpoint was written or loaded. That is checked before any entry is read.
+     */
+    @Override
+    public void writeCheckpoint() throws DatabaseException
+    {
+        String checkpointFile = ctrlCfg.getEtcdCheckpointFile();
+        if (checkpointFile != null)
+        {
+            synchronized (checkpointSync)
+            {
+                try
+                {
+                    EtcdTransaction etcdTx = new EtcdTransaction(this);
+                    if (!etcdTx.getState(EtcdUtils.LINSTOR_PREFIX).equals(checkpointState))
+                    {
+                        EtcdCheckpoint checkpoint = etcdTx.createCheckpoint(EtcdUtils.LINSTOR_PREFIX);
+                        checkpoint.write(Paths.get(checkpointFile));
+                        // entries might have been modified since their state was queried
+                        checkpointState = checkpoint.getState();
+                        errorReporter.logDebug(
+                            "Wrote ETCD checkpoint %s (revision %d, %d entries)",
+                            checkpointFile,
+                            checkpoint.getRevision(),
+                            checkpoint.size()
+                        );
+                    }
+                }
+                catch (io.grpc.StatusRuntimeException grpcExc)
+                {
+                    throw new DatabaseException(grpcExc);
+                }
+                catch (IOException ioExc)
+                {
+                    throw new DatabaseException("Failed to write ETCD checkpoint " + checkpointFile, ioExc);
+                }
+            }
+        }
+    }
+
     @Override
     public void shutdown()
     {
+        if (atomicStarted.get())
+        {
+            try
+            {
+                writeCheckpoint();
+            }
+            catch (Exception exc)
+            {
+                errorReporter.reportError(exc);
+            }
+        }
+        if (standby != null)
+        {
+            try
+            {
+                // lets a standby take over right away instead of once the lease expired
+                standby.close();
+            }
+            catch (Exception exc)
+            {
+                errorReporter.reportError(exc);
+            }
+        }
         try
         {
             if (atomicStarted.compareAndSet(true, false))
@@ -257,6 +451,16 @@ public class DbEtcd implements ControllerETCDDatabase
         }
 
         etcdClient = builder.build();
+        if (ctrlCfg.isEtcdWarmStandbyEnabled())
+        {
+            standby = new EtcdControllerStandby(
+                errorReporter,
+                new EtcdStandbyClientImpl(this, etcdClient, dbTimeout),
+                LinStor.getUname("-n"),
+                // continuing could overwrite the modifications of the now active controller
+                () -> System.exit(InternalApiConsts.EXIT_CODE_IMPL_ERROR)
+            );
+        }
         atomicStarted.set(true);
     }
 
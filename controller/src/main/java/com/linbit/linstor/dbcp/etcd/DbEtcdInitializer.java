@@ -37,6 +37,8 @@ public class DbEtcdInitializer implements DbInitializer
         try
         {
             dbEtcd.initializeDataSource(ctrlCfg.getDbConnectionUrl());
+            // a standby controller must not migrate the database while another controller is still active
+            dbEtcd.awaitLeadership();
 
             dbEtcd.migrate("etcd");
         }
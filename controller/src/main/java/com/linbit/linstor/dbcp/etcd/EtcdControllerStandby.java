@@ -0,0 +1,272 @@
+package com.linbit.linstor.dbcp.etcd;
+
+import com.linbit.linstor.dbdrivers.DatabaseException;
+import com.linbit.linstor.dbdrivers.etcd.EtcdUtils;
+import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.transaction.EtcdCheckpoint;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.ibm.etcd.api.Event;
+import com.ibm.etcd.api.KeyValue;
+
+/**
+ * Lets only one of the controllers sharing an ETCD server be active. The active controller holds
+ * {@link #LEADER_KEY}, which is bound to a lease of the controller and is therefore deleted by the ETCD server
+ * once that controller is gone. If the lease of the active controller expires anyways, for example because it
+ * could not reach the ETCD server in time, the given callback has to stop the controller, as another controller
+ * might already be active. On a clean shutdown, the lease is revoked, so that a standby does not have to wait for
+ * it to expire.
+ *
+ * A controller that cannot take the key waits as warm standby. It keeps a copy of all LINSTOR entries current by
+ * watching the ETCD server and tries to take the key whenever it is deleted. Once promoted, the copy is used as
+ * checkpoint when loading the data, so the entries do not have to be read from the ETCD server again. The objects
+ * are still created from the entries, and the satellites are still connected, as on every start.
+ */
+class EtcdControllerStandby
+{
+    /**
+     * Outside of {@link EtcdUtils#LINSTOR_PREFIX}, otherwise taking the key on every start would modify the entries
+     * below it and a checkpoint file could never be used. The key is sorted right before the prefix, so that a
+     * single watch covers both.
+     */
+    static final String LEADER_KEY = "/LINSTOR-CONTROLLER/LEADER";
+
+    private static final long NO_LEASE = 0;
+
+    private final ErrorReporter errorReporter;
+    private final EtcdStandbyClient client;
+    private final String hostName;
+    private final Runnable onLeaseLost;
+
+    private volatile long leaseId = NO_LEASE;
+    private volatile boolean leaseExpired;
+    private volatile boolean leader;
+    private volatile boolean closed;
+    private final AtomicBoolean leaseLost = new AtomicBoolean();
+
+    // only set while waiting as standby and after the promotion until takeCheckpoint() is called
+    private EtcdStandbyClient.Watch watch;
+    private TreeMap<String, String> entries;
+    private long revision;
+
+    /**
+     * @param hostNameRef
+     *     stored as value of the leader key, so that the standby controllers can report the active one
+     * @param onLeaseLostRef
+     *     called once if the lease expires while this controller is active
+     */
+    EtcdControllerStandby(
+        ErrorReporter errorReporterRef,
+        EtcdStandbyClient clientRef,
+        String hostNameRef,
+        Runnable onLeaseLostRef
+    )
+    {
+        errorReporter = errorReporterRef;
+        client = clientRef;
+        hostName = hostNameRef;
+        onLeaseLost = onLeaseLostRef;
+    }
+
+    /**
+     * Returns once this controller holds the leader key, waiting as warm standby as long as another controller
+     * holds it
+     */
+    void awaitLeadership() throws DatabaseException
+    {
+        boolean taken = false;
+        while (!taken)
+        {
+            if (leaseId == NO_LEASE || leaseExpired)
+            {
+                // a standby might lose its lease as well, but it cannot take the leader key with it anymore
+                leaseExpired = false;
+                leaseId = client.grantLease(this::leaseExpired);
+            }
+            try
+            {
+                taken = tryTakeLeaderKey();
+                if (!taken)
+                {
+                    KeyValue leaderKv = client.get(LEADER_KEY);
+                    errorReporter.logInfo(
+                        "Controller on '%s' is active, waiting as warm standby",
+                        leaderKv == null ? "" : leaderKv.getValue().toStringUtf8()
+                    );
+                    taken = follow();
+                }
+            }
+            catch (RuntimeException exc)
+            {
+                // for example if the revision to continue watching from was already compacted
+                errorReporter.logWarning(
+                    "Watching the ETCD server failed, reading all entries again: %s",
+                    exc.getMessage()
+                );
+                closeWatch();
+            }
+        }
+        leader = true;
+        if (leaseExpired)
+        {
+            // expired before leader was set
+            leaseLost();
+        }
+        errorReporter.logInfo("Controller is active");
+    }
+
+    /**
+     * Reads all entries and keeps them current until the leader key could be taken
+     *
+     * @return true once this controller holds the leader key
+     */
+    private boolean follow()
+    {
+        EtcdCheckpoint initial = client.readAll(EtcdUtils.LINSTOR_PREFIX);
+        entries = new TreeMap<>(initial.get(EtcdUtils.LINSTOR_PREFIX, true));
+        revision = initial.getRevision();
+        watch = client.watch(LEADER_KEY, EtcdUtils.LINSTOR_PREFIX, revision + 1);
+
+        // the leader might have been gone before the watch was started
+        boolean taken = tryTakeLeaderKey();
+        while (!taken)
+        {
+            if (applyUpdate(watch.next()))
+            {
+                taken = tryTakeLeaderKey();
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * @return true if the update deleted the leader key
+     */
+    private boolean applyUpdate(List<Event> events)
+    {
+        boolean leaderDeleted = false;
+        for (Event event : events)
+        {
+            KeyValue keyValue = event.getKv();
+            String key = keyValue.getKey().toStringUtf8();
+            boolean deleted = event.getType() == Event.EventType.DELETE;
+            if (key.equals(LEADER_KEY))
+            {
+                leaderDeleted |= deleted;
+            }
+            else
+            if (key.startsWith(EtcdUtils.LINSTOR_PREFIX))
+            {
+                if (deleted)
+                {
+                    entries.remove(key);
+                }
+                else
+                {
+                    entries.put(key, keyValue.getValue().toStringUtf8());
+                }
+            }
+            revision = Math.max(revision, keyValue.getModRevision());
+        }
+        return leaderDeleted;
+    }
+
+    private boolean tryTakeLeaderKey()
+    {
+        boolean taken = client.putIfAbsent(LEADER_KEY, hostName, leaseId);
+        if (!taken)
+        {
+            // the request might have been retried after it already succeeded
+            KeyValue leaderKv = client.get(LEADER_KEY);
+            taken = leaderKv != null && leaderKv.getLease() == leaseId;
+        }
+        return taken;
+    }
+
+    private void leaseExpired()
+    {
+        leaseExpired = true;
+        if (leader)
+        {
+            leaseLost();
+        }
+    }
+
+    private void leaseLost()
+    {
+        if (!closed && leaseLost.compareAndSet(false, true))
+        {
+            errorReporter.logError(
+                "The ETCD lease of the active controller expired, another controller might be active already"
+            );
+            onLeaseLost.run();
+        }
+    }
+
+    /**
+     * Returns the entries kept current while waiting as standby and stops watching the ETCD server, or null if
+     * this controller did not wait as standby or the entries could not be brought up to date
+     */
+    EtcdCheckpoint takeCheckpoint()
+    {
+        EtcdCheckpoint checkpoint = null;
+        if (watch != null)
+        {
+            try
+            {
+                // the watch delivers all modifications in order, so once this put is received, all entries are
+                // current up to its revision
+                long syncRevision = client.put(LEADER_KEY, hostName, leaseId);
+                while (revision < syncRevision)
+                {
+                    applyUpdate(watch.next());
+                }
+                // the modification revisions of the entries are not kept
+                checkpoint = new EtcdCheckpoint(
+                    syncRevision,
+                    EtcdCheckpoint.State.UNKNOWN_MOD_REVISION,
+                    EtcdUtils.LINSTOR_PREFIX,
+                    entries
+                );
+            }
+            catch (RuntimeException exc)
+            {
+                errorReporter.logWarning(
+                    "Failed to update the entries kept as warm standby, loading data from ETCD: %s",
+                    exc.getMessage()
+                );
+            }
+            finally
+            {
+                closeWatch();
+            }
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Revokes the lease, which deletes the leader key if this controller holds it
+     */
+    void close() throws DatabaseException
+    {
+        closed = true;
+        closeWatch();
+        if (leaseId != NO_LEASE && !leaseExpired)
+        {
+            client.revokeLease(leaseId);
+        }
+    }
+
+    private void closeWatch()
+    {
+        if (watch != null)
+        {
+            watch.close();
+            watch = null;
+        }
+        entries = null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.linbit.linstor.dbcp.etcd;
+
+import com.linbit.linstor.dbdrivers.DatabaseException;
+import com.linbit.linstor.transaction.EtcdCheckpoint;
+
+import java.util.List;
+
+import com.ibm.etcd.api.Event;
+import com.ibm.etcd.api.KeyValue;
+
+/**
+ * The requests {@link EtcdControllerStandby} sends to the ETCD server
+ */
+interface EtcdStandbyClient
+{
+    /**
+     * Creates a lease that is kept alive until it is revoked
+     *
+     * @param onExpired
+     *     called if the lease expired anyways, for example because the ETCD server could not be reached for longer
+     *     than the TTL of the lease
+     */
+    long grantLease(Runnable onExpired) throws DatabaseException;
+
+    void revokeLease(long leaseId) throws DatabaseException;
+
+    /**
+     * Puts the entry bound to the given lease, unless the key already exists
+     *
+     * @return true if the entry was put
+     */
+    boolean putIfAbsent(String key, String value, long leaseId);
+
+    /**
+     * Puts the entry bound to the given lease
+     *
+     * @return the revision of the ETCD server after the put
+     */
+    long put(String key, String value, long leaseId);
+
+    /**
+     * @return the entry of the given key or null if it does not exist
+     */
+    KeyValue get(String key);
+
+    /**
+     * Same as {@link com.linbit.linstor.transaction.EtcdTransaction#createCheckpoint(String)}
+     */
+    EtcdCheckpoint readAll(String keyPrefix);
+
+    /**
+     * Watches all keys from the given key up to and including all keys starting with the given prefix
+     */
+    Watch watch(String fromKey, String toKeyPrefix, long startRevision);
+
+    interface Watch
+    {
+        /**
+         * Waits for the next modifications of the watched keys, which are returned in the order of their revision
+         */
+        List<Event> next();
+
+        void close();
+    }
+}
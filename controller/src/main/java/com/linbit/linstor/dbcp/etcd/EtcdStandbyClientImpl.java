@@ -0,0 +1,178 @@
+package com.linbit.linstor.dbcp.etcd;
+
+import com.linbit.linstor.ControllerETCDDatabase;
+import com.linbit.linstor.dbdrivers.DatabaseException;
+import com.linbit.linstor.transaction.EtcdCheckpoint;
+import com.linbit.linstor.transaction.EtcdTransaction;
+
+import static com.ibm.etcd.client.KeyUtils.bs;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.ibm.etcd.api.Event;
+import com.ibm.etcd.api.KeyValue;
+import com.ibm.etcd.api.PutRequest;
+import com.ibm.etcd.api.RangeResponse;
+import com.ibm.etcd.client.KeyUtils;
+import com.ibm.etcd.client.KvStoreClient;
+import com.ibm.etcd.client.kv.KvClient;
+import com.ibm.etcd.client.lease.PersistentLease;
+import com.ibm.etcd.client.lease.PersistentLease.LeaseState;
+import io.grpc.stub.StreamObserver;
+
+class EtcdStandbyClientImpl implements EtcdStandbyClient
+{
+    private final ControllerETCDDatabase etcdDb;
+    private final KvStoreClient etcdClient;
+    private final int timeoutMs;
+
+    private PersistentLease lease;
+
+    EtcdStandbyClientImpl(ControllerETCDDatabase etcdDbRef, KvStoreClient etcdClientRef, int timeoutMsRef)
+    {
+        etcdDb = etcdDbRef;
+        etcdClient = etcdClientRef;
+        timeoutMs = timeoutMsRef;
+    }
+
+    @Override
+    public synchronized long grantLease(Runnable onExpired) throws DatabaseException
+    {
+        if (lease != null)
+        {
+            // an expired lease is not kept alive anymore
+            lease.close();
+        }
+        long leaseId;
+        try
+        {
+            lease = etcdClient.getLeaseClient().maintain().start();
+            leaseId = lease.get(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException exc)
+        {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while creating the ETCD lease of the controller", exc);
+        }
+        catch (ExecutionException | TimeoutException exc)
+        {
+            throw new DatabaseException("Failed to create the ETCD lease of the controller", exc);
+        }
+        lease.addStateObserver(
+            new StreamObserver<LeaseState>()
+            {
+                @Override
+                public void onNext(LeaseState state)
+                {
+                    if (state == LeaseState.EXPIRED)
+                    {
+                        onExpired.run();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable)
+                {
+                    // expiry is only reported through onNext
+                }
+
+                @Override
+                public void onCompleted()
+                {
+                    // the lease was closed by revokeLease or grantLease
+                }
+            },
+            // reports an expiry before the observer was added as well
+            true
+        );
+        return leaseId;
+    }
+
+    @Override
+    public synchronized void revokeLease(long leaseId) throws DatabaseException
+    {
+        try
+        {
+            // stop the keep-alive first, otherwise it might report the revoked lease as expired
+            lease.close();
+            etcdClient.getLeaseClient().revoke(leaseId).get(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException exc)
+        {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while revoking the ETCD lease of the controller", exc);
+        }
+        catch (ExecutionException | TimeoutException exc)
+        {
+            throw new DatabaseException("Failed to revoke the ETCD lease of the controller", exc);
+        }
+    }
+
+    @Override
+    public boolean putIfAbsent(String key, String value, long leaseId)
+    {
+        return EtcdTransaction.requestWithRetry(
+            etcdClient.getKvClient().txnIf()
+                .cmpEqual(bs(key)).version(0)
+                .then()
+                .put(putRequest(key, value, leaseId))
+        ).getSucceeded();
+    }
+
+    @Override
+    public long put(String key, String value, long leaseId)
+    {
+        return EtcdTransaction.requestWithRetry(
+            etcdClient.getKvClient().batch().put(putRequest(key, value, leaseId))
+        ).getHeader().getRevision();
+    }
+
+    private static PutRequest putRequest(String key, String value, long leaseId)
+    {
+        return PutRequest.newBuilder()
+            .setKey(bs(key))
+            .setValue(bs(value))
+            .setLease(leaseId)
+            .build();
+    }
+
+    @Override
+    public KeyValue get(String key)
+    {
+        RangeResponse rsp = EtcdTransaction.requestWithRetry(etcdClient.getKvClient().get(bs(key)));
+        return rsp.getKvsCount() == 0 ? null : rsp.getKvs(0);
+    }
+
+    @Override
+    public EtcdCheckpoint readAll(String keyPrefix)
+    {
+        return new EtcdTransaction(etcdDb).createCheckpoint(keyPrefix);
+    }
+
+    @Override
+    public Watch watch(String fromKey, String toKeyPrefix, long startRevision)
+    {
+        KvClient.WatchIterator watchIt = etcdClient.getKvClient()
+            .watch(bs(fromKey))
+            .rangeEnd(KeyUtils.plusOne(bs(toKeyPrefix)))
+            .startRevision(startRevision)
+            .start();
+        return new Watch()
+        {
+            @Override
+            public List<Event> next()
+            {
+                return watchIt.next().getEvents();
+            }
+
+            @Override
+            public void close()
+            {
+                watchIt.close();
+            }
+        };
+    }
+}
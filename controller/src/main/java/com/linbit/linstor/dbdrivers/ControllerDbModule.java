@@ -2,6 +2,7 @@ package com.linbit.linstor.dbdrivers;
 
 import com.linbit.linstor.ControllerDatabase;
 import com.linbit.linstor.ControllerETCDDatabase;
+import com.linbit.linstor.ControllerSQLDatabase;
 import com.linbit.linstor.core.objects.DrbdLayerETCDDriver;
 import com.linbit.linstor.core.objects.DrbdLayerSQLDbDriver;
 import com.linbit.linstor.core.objects.KeyValueStoreDbDriver;
@@ -160,6 +161,7 @@ public class ControllerDbModule extends AbstractModule
         {
             case SQL:
                 bind(ControllerDatabase.class).to(DbConnectionPool.class);
+                bind(ControllerSQLDatabase.class).to(DbConnectionPool.class);
                 bind(DbEngine.class).to(SQLEngine.class);
 
                 bind(DbInitializer.class).to(DbConnectionPoolInitializer.class);
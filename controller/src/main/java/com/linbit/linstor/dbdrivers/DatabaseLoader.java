@@ -44,6 +44,7 @@ import com.linbit.linstor.dbdrivers.interfaces.NodeConnectionCtrlDatabaseDriver;
 import com.linbit.linstor.dbdrivers.interfaces.NodeCtrlDatabaseDriver;
 import com.linbit.linstor.dbdrivers.interfaces.NvmeLayerCtrlDatabaseDriver;
 import com.linbit.linstor.dbdrivers.interfaces.OpenflexLayerCtrlDatabaseDriver;
+import com.linbit.linstor.dbdrivers.interfaces.PropsConDatabaseDriver;
 import com.linbit.linstor.dbdrivers.interfaces.ResourceConnectionCtrlDatabaseDriver;
 import com.linbit.linstor.dbdrivers.interfaces.ResourceCtrlDatabaseDriver;
 import com.linbit.linstor.dbdrivers.interfaces.ResourceDefinitionCtrlDatabaseDriver;
@@ -81,6 +82,7 @@ import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -102,6 +104,29 @@ public class DatabaseLoader implements DatabaseDriver
 {
     public static final ServiceName DFLT_SERVICE_INSTANCE_NAME;
 
+    /**
+     * The tables read by the generated drivers. They do not depend on each other until their rows are turned into
+     * objects, which still happens one table after the other.
+     */
+    static final List<DatabaseTable> PRELOADED_TABLES = Collections.unmodifiableList(
+        Arrays.asList(
+            GeneratedDatabaseTables.RESOURCE_GROUPS,
+            GeneratedDatabaseTables.VOLUME_GROUPS,
+            GeneratedDatabaseTables.NODES,
+            GeneratedDatabaseTables.NODE_NET_INTERFACES,
+            GeneratedDatabaseTables.NODE_CONNECTIONS,
+            GeneratedDatabaseTables.RESOURCE_DEFINITIONS,
+            GeneratedDatabaseTables.STOR_POOL_DEFINITIONS,
+            GeneratedDatabaseTables.NODE_STOR_POOL,
+            GeneratedDatabaseTables.RESOURCES,
+            GeneratedDatabaseTables.RESOURCE_CONNECTIONS,
+            GeneratedDatabaseTables.VOLUME_DEFINITIONS,
+            GeneratedDatabaseTables.VOLUMES,
+            GeneratedDatabaseTables.VOLUME_CONNECTIONS,
+            GeneratedDatabaseTables.KEY_VALUE_STORE
+        )
+    );
+
     static
     {
         try
@@ -154,6 +179,8 @@ public class DatabaseLoader implements DatabaseDriver
     private final ControllerCoreModule.FreeSpaceMgrMap freeSpaceMgrMap;
     private final CoreModule.KeyValueStoreMap keyValueStoreMap;
     private final VolumeGroupCtrlDatabaseDriver vlmGrpDriver;
+    private final PropsConDatabaseDriver propsDriver;
+    private final DbEngine dbEngine;
 
     @Inject
     public DatabaseLoader(
@@ -192,7 +219,9 @@ public class DatabaseLoader implements DatabaseDriver
         CoreModule.ResourceDefinitionMapExtName rscDfnMapExtNameRef,
         CoreModule.StorPoolDefinitionMap storPoolDfnMapRef,
         ControllerCoreModule.FreeSpaceMgrMap freeSpaceMgrMapRef,
-        CoreModule.KeyValueStoreMap keyValueStoreMapRef
+        CoreModule.KeyValueStoreMap keyValueStoreMapRef,
+        PropsConDatabaseDriver propsDriverRef,
+        DbEngine dbEngineRef
     )
     {
         dbCtx = privCtx;
@@ -232,6 +261,8 @@ public class DatabaseLoader implements DatabaseDriver
         storPoolDfnMap = storPoolDfnMapRef;
         freeSpaceMgrMap = freeSpaceMgrMapRef;
         keyValueStoreMap = keyValueStoreMapRef;
+        propsDriver = propsDriverRef;
+        dbEngine = dbEngineRef;
     }
 
     /**
@@ -242,6 +273,10 @@ public class DatabaseLoader implements DatabaseDriver
     {
         try
         {
+            dbEngine.preloadTables(PRELOADED_TABLES);
+            // every loaded object needs its properties, read them all at once instead of one query per object
+            propsDriver.preloadAll();
+
             // load the resource groups
             Map<ResourceGroup, ResourceGroup.InitMaps> loadedRscGroupsMap =
                 Collections.unmodifiableMap(rscGrpDriver.loadAll(null));
@@ -560,6 +595,11 @@ public class DatabaseLoader implements DatabaseDriver
         {
             throw new ImplementationError("Invalid hardcoded props key", exc);
         }
+        finally
+        {
+            dbEngine.clearPreloadedTables();
+            propsDriver.clearPreloaded();
+        }
     }
 
     private <NAME, DATA> TreeMap<NAME, DATA> mapByName(
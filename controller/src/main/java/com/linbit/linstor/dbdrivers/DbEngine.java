@@ -317,5 +317,28 @@ public interface DbEngine
         throws DatabaseException, AccessDeniedException, InvalidNameException, InvalidIpAddressException,
         ValueOutOfRangeException, MdException;
 
+    /**
+     * Reads the given tables ahead of the calls to
+     * {@link #loadAll(DatabaseTable, Object, DataLoader)}, which answer from the preloaded rows until
+     * {@link #clearPreloadedTables()} is called. Engines may read the tables concurrently.
+     * <br/>
+     * The default implementation does not preload anything.
+     *
+     * @param tables
+     *     The tables to read, only tables that are not modified until the preloaded rows are cleared
+     */
+    default void preloadTables(Collection<DatabaseTable> tables) throws DatabaseException
+    {
+        // no-op
+    }
+
+    /**
+     * Drops the rows read by {@link #preloadTables(Collection)}
+     */
+    default void clearPreloadedTables()
+    {
+        // no-op
+    }
+
     String getDbDump() throws DatabaseException;
 }
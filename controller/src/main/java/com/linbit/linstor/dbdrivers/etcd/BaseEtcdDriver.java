@@ -8,6 +8,7 @@ import com.linbit.linstor.transaction.manager.TransactionMgrETCD;
 
 import javax.inject.Provider;
 
+import java.util.Iterator;
 import java.util.Map;
 
 public abstract class BaseEtcdDriver
@@ -103,5 +104,13 @@ public abstract class BaseEtcdDriver
                 throw new DatabaseException(grpcExc);
             }
         }
+
+        /**
+         * Iterates over all entries starting with the base key, see {@link EtcdTransaction#getPaged(String)}
+         */
+        public Iterator<Map.Entry<String, String>> getPaged()
+        {
+            return tx.getPaged(currentBaseKey);
+        }
     }
 }
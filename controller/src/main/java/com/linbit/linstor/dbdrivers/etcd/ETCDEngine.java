@@ -4,6 +4,7 @@ import com.linbit.InvalidIpAddressException;
 import com.linbit.InvalidNameException;
 import com.linbit.ValueOutOfRangeException;
 import com.linbit.drbd.md.MdException;
+import com.linbit.linstor.ControllerETCDDatabase;
 import com.linbit.linstor.LinStorDBRuntimeException;
 import com.linbit.linstor.dbdrivers.AbsDatabaseDriver.RawParameters;
 import com.linbit.linstor.dbdrivers.DatabaseDriverInfo.DatabaseType;
@@ -29,11 +30,14 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.Function;
 
@@ -43,15 +47,18 @@ import com.google.inject.Provider;
 public class ETCDEngine extends BaseEtcdDriver implements DbEngine
 {
     private final ErrorReporter errorReporter;
+    private final ControllerETCDDatabase etcdDb;
 
     @Inject
     public ETCDEngine(
         ErrorReporter errorReporterRef,
-        Provider<TransactionMgrETCD> transMgrProviderRef
+        Provider<TransactionMgrETCD> transMgrProviderRef,
+        ControllerETCDDatabase etcdDbRef
     )
     {
         super(transMgrProviderRef);
         errorReporter = errorReporterRef;
+        etcdDb = etcdDbRef;
     }
 
     @Override
@@ -113,45 +120,121 @@ public class ETCDEngine extends BaseEtcdDriver implements DbEngine
         ValueOutOfRangeException, MdException
     {
         Map<DATA, INIT_MAPS> loadedObjectsMap = new TreeMap<>();
-        final Column[] columns = table.values();
 
-        Map<String, String> dataMap = new TreeMap<>(namespace(table).get(true));
-        Set<String> composedPkList = EtcdUtils.getComposedPkList(dataMap);
-        for (String composedPk : composedPkList)
+        /*
+         * The table is read in pages and every row is loaded as soon as all of its keys were read, so the table
+         * never has to be kept in memory as a whole.
+         * The keys of a row are contiguous, as they all start with $tablePrefix$composedPk/. Only if a composed
+         * primary key starts with another one followed by the PATH_DELIMITER, keys of both rows can be mixed.
+         * Therefore rows are kept open until a key is read that does not start with their prefix anymore.
+         */
+        Map<String, Map<String, String>> openRows = new LinkedHashMap<>();
+        try
         {
-            Map<String, Object> rawObjects = new TreeMap<>();
-            String[] pks = EtcdUtils.splitPks(composedPk, false);
+            Iterator<Entry<String, String>> entryIt = namespace(table).getPaged();
+            while (entryIt.hasNext())
+            {
+                Entry<String, String> entry = entryIt.next();
+                String key = entry.getKey();
+                loadCompletedRows(table, parents, dataLoader, loadedObjectsMap, openRows, key);
+                openRows.computeIfAbsent(EtcdUtils.extractPrimaryKey(key), ignored -> new HashMap<>())
+                    .put(key, entry.getValue());
+            }
+        }
+        catch (io.grpc.StatusRuntimeException grpcExc)
+        {
+            throw new DatabaseException(grpcExc);
+        }
+        loadCompletedRows(table, parents, dataLoader, loadedObjectsMap, openRows, null);
 
-            int pkIdx = 0;
+        return loadedObjectsMap;
+    }
 
-            for (Column col : columns)
+    /**
+     * Loads and removes all rows of the given openRows whose keys cannot follow the given nextKey anymore.
+     * If nextKey is null, all open rows are loaded.
+     */
+    private <DATA, INIT_MAPS, LOAD_ALL> void loadCompletedRows(
+        DatabaseTable table,
+        LOAD_ALL parents,
+        DataLoader<DATA, INIT_MAPS, LOAD_ALL> dataLoader,
+        Map<DATA, INIT_MAPS> loadedObjectsMap,
+        Map<String, Map<String, String>> openRows,
+        String nextKey
+    )
+        throws DatabaseException, AccessDeniedException, InvalidNameException, InvalidIpAddressException,
+        ValueOutOfRangeException, MdException
+    {
+        Iterator<Entry<String, Map<String, String>>> openRowIt = openRows.entrySet().iterator();
+        while (openRowIt.hasNext())
+        {
+            Entry<String, Map<String, String>> openRow = openRowIt.next();
+            String composedPk = openRow.getKey();
+            if (nextKey == null || !nextKey.startsWith(EtcdUtils.buildKey(table, composedPk)))
             {
-                if (col.isPk())
-                {
-                    rawObjects.put(col.getName(), pks[pkIdx++]);
-                }
-                else
-                {
-                    String colKey = EtcdUtils.buildKey(col, pks);
-                    String colData = dataMap.get(colKey);
-                    if (colData == null && !col.isNullable())
-                    {
-                        throw new LinStorDBRuntimeException("Column was unexpectedly null. " + colKey);
-                    }
-                    rawObjects.put(col.getName(), colData);
-                }
+                openRowIt.remove();
+                loadRow(table, parents, dataLoader, loadedObjectsMap, composedPk, openRow.getValue());
             }
-            Pair<DATA, INIT_MAPS> pair = dataLoader.loadImpl(new RawParameters(table, rawObjects), parents);
-            // pair might be null when loading objects sharing the same table.
-            // For example SnapshotDbDriver will return null when finding a Resource entry
-            // and vice versa.
-            if (pair != null)
+        }
+    }
+
+    private <DATA, INIT_MAPS, LOAD_ALL> void loadRow(
+        DatabaseTable table,
+        LOAD_ALL parents,
+        DataLoader<DATA, INIT_MAPS, LOAD_ALL> dataLoader,
+        Map<DATA, INIT_MAPS> loadedObjectsMap,
+        String composedPk,
+        Map<String, String> rowData
+    )
+        throws DatabaseException, AccessDeniedException, InvalidNameException, InvalidIpAddressException,
+        ValueOutOfRangeException, MdException
+    {
+        Map<String, Object> rawObjects = new TreeMap<>();
+        String[] pks = EtcdUtils.splitPks(composedPk, false);
+
+        int pkIdx = 0;
+
+        for (Column col : table.values())
+        {
+            if (col.isPk())
             {
-                loadedObjectsMap.put(pair.objA, pair.objB);
+                rawObjects.put(col.getName(), pks[pkIdx++]);
             }
+            else
+            {
+                String colKey = EtcdUtils.buildKey(col, pks);
+                String colData = rowData.get(colKey);
+                if (colData == null && !col.isNullable())
+                {
+                    throw new LinStorDBRuntimeException("Column was unexpectedly null. " + colKey);
+                }
+                rawObjects.put(col.getName(), colData);
+            }
+        }
+        Pair<DATA, INIT_MAPS> pair = dataLoader.loadImpl(new RawParameters(table, rawObjects), parents);
+        // pair might be null when loading objects sharing the same table.
+        // For example SnapshotDbDriver will return null when finding a Resource entry
+        // and vice versa.
+        if (pair != null)
+        {
+            loadedObjectsMap.put(pair.objA, pair.objB);
         }
+    }
 
-        return loadedObjectsMap;
+    /**
+     * Does not read the tables ahead, but answers all reads from the checkpoint of the ETCD data until
+     * {@link #clearPreloadedTables()} is called, as long as the checkpoint is up to date
+     */
+    @Override
+    public void preloadTables(Collection<DatabaseTable> tables)
+    {
+        etcdDb.loadCheckpoint();
+    }
+
+    @Override
+    public void clearPreloadedTables()
+    {
+        etcdDb.dropCheckpoint();
     }
 
     private <DATA> String getPk(
@@ -4,6 +4,7 @@ import com.linbit.InvalidIpAddressException;
 import com.linbit.InvalidNameException;
 import com.linbit.ValueOutOfRangeException;
 import com.linbit.drbd.md.MdException;
+import com.linbit.linstor.ControllerSQLDatabase;
 import com.linbit.linstor.LinStorDBRuntimeException;
 import com.linbit.linstor.dbdrivers.AbsDatabaseDriver.RawParameters;
 import com.linbit.linstor.dbdrivers.DatabaseDriverInfo.DatabaseType;
@@ -20,6 +21,7 @@ import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.linstor.security.AccessDeniedException;
 import com.linbit.linstor.stateflags.Flags;
 import com.linbit.linstor.stateflags.StateFlagsPersistence;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch.Parameters;
 import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
 import com.linbit.utils.ExceptionThrowingFunction;
 import com.linbit.utils.Pair;
@@ -33,9 +35,17 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -48,21 +58,28 @@ public class SQLEngine implements DbEngine
     private static final String DELIMITER_EQUALS_AND = " = ? " + DELIMITER_AND;
     private static final String DELIMITER_LIST = ", ";
     private static final String DELIMITER_VALUES = "?" + DELIMITER_LIST;
+    private static final int MAX_PRELOAD_THREADS = 4;
 
     private final ErrorReporter errorReporter;
     private final Provider<TransactionMgrSQL> transMgrProvider;
+    private final ControllerSQLDatabase controllerDatabase;
     private final HashMap<DatabaseTable, String> selectStatements;
     private final HashMap<DatabaseTable, String> insertStatements;
     private final HashMap<DatabaseTable, String> deleteStatements;
 
+    // table -> rows (column name -> value), only set while all objects are loaded
+    private volatile Map<DatabaseTable, List<Map<String, Object>>> preloadedRows;
+
     @Inject
     public SQLEngine(
         ErrorReporter errorReporterRef,
-        Provider<TransactionMgrSQL> transMgrProviderRef
+        Provider<TransactionMgrSQL> transMgrProviderRef,
+        ControllerSQLDatabase controllerDatabaseRef
     )
     {
         errorReporter = errorReporterRef;
         transMgrProvider = transMgrProviderRef;
+        controllerDatabase = controllerDatabaseRef;
 
         selectStatements = new HashMap<>();
         insertStatements = new HashMap<>();
@@ -85,19 +102,15 @@ public class SQLEngine implements DbEngine
     )
         throws DatabaseException
     {
-        try (PreparedStatement stmt = getConnection().prepareStatement(getInsertStatement(table)))
+        try
         {
             errorReporter.logTrace("Creating %s %s", table.getName(), dataToString.toString(data));
 
-            setValues(setters, stmt, 1, table, ignored -> true, data);
+            Parameters params = new Parameters();
+            setValues(setters, params, 1, table, ignored -> true, data);
+            addBatched(getInsertStatement(table), params);
 
-            stmt.executeUpdate();
-
-            errorReporter.logTrace("%s created %s", table.getName(), dataToString.toString(data));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
+            errorReporter.logTrace("%s creation queued %s", table.getName(), dataToString.toString(data));
         }
         catch (AccessDeniedException exc)
         {
@@ -158,19 +171,15 @@ public class SQLEngine implements DbEngine
     )
         throws DatabaseException
     {
-        try (PreparedStatement stmt = getConnection().prepareStatement(getDeleteStatement(table)))
+        try
         {
             errorReporter.logTrace("Deleting %s %s", table.getName(), dataToString.toString(data));
 
-            setPrimaryValues(setters, stmt, 1, table, data);
-
-            stmt.executeUpdate();
+            Parameters params = new Parameters();
+            setPrimaryValues(setters, params, 1, table, data);
+            addBatched(getDeleteStatement(table), params);
 
-            errorReporter.logTrace("%s deleted %s", table.getName(), dataToString.toString(data));
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
+            errorReporter.logTrace("%s deletion queued %s", table.getName(), dataToString.toString(data));
         }
         catch (AccessDeniedException exc)
         {
@@ -270,22 +279,127 @@ public class SQLEngine implements DbEngine
         throws DatabaseException, AccessDeniedException, MdException
     {
         Map<DATA, INIT_MAPS> loadedObjectsMap = new TreeMap<>();
-        try (PreparedStatement stmt = getConnection().prepareStatement(getSelectStatement(table)))
+        Map<DatabaseTable, List<Map<String, Object>>> preloaded = preloadedRows;
+        List<Map<String, Object>> rows = preloaded == null ? null : preloaded.get(table);
+        if (rows == null)
+        {
+            rows = readRows(getConnection(), table, getSelectStatement(table));
+        }
+        for (Map<String, Object> row : rows)
+        {
+            Pair<DATA, INIT_MAPS> pair = restoreData(
+                table, row, parentsRef, dataLoaderRef
+            );
+            // pair might be null when loading objects sharing the same table.
+            // For example SnapshotDbDriver will return null when finding a Resource entry
+            // and vice versa.
+            if (pair != null)
+            {
+                loadedObjectsMap.put(pair.objA, pair.objB);
+            }
+        }
+        return loadedObjectsMap;
+    }
+
+    /**
+     * Reads the given tables concurrently, each on its own connection of the pool. As the tables are read in
+     * separate transactions, this is only safe as long as no one else writes to the database, i.e. while the
+     * controller loads its data.
+     */
+    @Override
+    public void preloadTables(Collection<DatabaseTable> tables) throws DatabaseException
+    {
+        // the statement cache is not thread safe
+        Map<DatabaseTable, String> selectStmts = new HashMap<>();
+        for (DatabaseTable table : tables)
+        {
+            selectStmts.put(table, getSelectStatement(table));
+        }
+
+        AtomicInteger threadIdx = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(tables.size(), MAX_PRELOAD_THREADS)),
+            runnable -> new Thread(runnable, "DbPreload-" + threadIdx.incrementAndGet())
+        );
+        try
+        {
+            Map<DatabaseTable, Future<List<Map<String, Object>>>> futures = new HashMap<>();
+            for (Map.Entry<DatabaseTable, String> entry : selectStmts.entrySet())
+            {
+                futures.put(
+                    entry.getKey(),
+                    executor.submit(() -> readRowsOnOwnConnection(entry.getKey(), entry.getValue()))
+                );
+            }
+
+            Map<DatabaseTable, List<Map<String, Object>>> preloaded = new HashMap<>();
+            for (Map.Entry<DatabaseTable, Future<List<Map<String, Object>>>> entry : futures.entrySet())
+            {
+                preloaded.put(entry.getKey(), entry.getValue().get());
+            }
+            preloadedRows = preloaded;
+        }
+        catch (InterruptedException exc)
+        {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while preloading database tables", exc);
+        }
+        catch (ExecutionException exc)
+        {
+            Throwable cause = exc.getCause();
+            if (cause instanceof DatabaseException)
+            {
+                throw (DatabaseException) cause;
+            }
+            throw new DatabaseException("Failed to preload database tables", cause);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void clearPreloadedTables()
+    {
+        preloadedRows = null;
+    }
+
+    private List<Map<String, Object>> readRowsOnOwnConnection(DatabaseTable table, String selectStmt)
+        throws DatabaseException
+    {
+        List<Map<String, Object>> rows;
+        Connection con = null;
+        try
+        {
+            con = controllerDatabase.getConnection();
+            rows = readRows(con, table, selectStmt);
+            // nothing to commit, just end the transaction
+            con.rollback();
+        }
+        catch (SQLException exc)
+        {
+            throw new DatabaseException(exc);
+        }
+        finally
+        {
+            controllerDatabase.returnConnection(con);
+        }
+        errorReporter.logTrace("Preloaded %d rows of table %s", rows.size(), table.getName());
+        return rows;
+    }
+
+    private List<Map<String, Object>> readRows(Connection con, DatabaseTable table, String selectStmt)
+        throws DatabaseException
+    {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (PreparedStatement stmt = con.prepareStatement(selectStmt))
         {
             try (ResultSet resultSet = stmt.executeQuery())
             {
                 while (resultSet.next())
                 {
-                    Pair<DATA, INIT_MAPS> pair = restoreData(
-                        table, resultSet, parentsRef, dataLoaderRef
-                    );
-                    // pair might be null when loading objects sharing the same table.
-                    // For example SnapshotDbDriver will return null when finding a Resource entry
-                    // and vice versa.
-                    if (pair != null)
-                    {
-                        loadedObjectsMap.put(pair.objA, pair.objB);
-                    }
+                    rows.add(readRow(table, resultSet));
                 }
             }
         }
@@ -293,43 +407,41 @@ public class SQLEngine implements DbEngine
         {
             throw new DatabaseException(exc);
         }
-        return loadedObjectsMap;
+        return rows;
+    }
+
+    private Map<String, Object> readRow(DatabaseTable table, ResultSet resultSet) throws SQLException
+    {
+        Map<String, Object> objects = new TreeMap<>();
+        for (Column column : table.values())
+        {
+            Object data;
+            if (column.getSqlType() == Types.BLOB)
+            {
+                data = resultSet.getBytes(column.getName());
+            }
+            else
+            {
+                data = resultSet.getObject(column.getName());
+            }
+            if (resultSet.wasNull())
+            {
+                data = null;
+            }
+            objects.put(column.getName(), data);
+        }
+        return objects;
     }
 
     private <DATA, INIT_MAPS, LOAD_ALL> Pair<DATA, INIT_MAPS> restoreData(
         DatabaseTable table,
-        ResultSet resultSet,
+        Map<String, Object> objects,
         LOAD_ALL parents,
         DataLoader<DATA, INIT_MAPS, LOAD_ALL> dataLoader
     )
         throws DatabaseException, MdException
     {
         Column[] columns = table.values();
-        Map<String, Object> objects = new TreeMap<>();
-        try
-        {
-            for (Column column : columns)
-            {
-                Object data;
-                if (column.getSqlType() == Types.BLOB)
-                {
-                    data = resultSet.getBytes(column.getName());
-                }
-                else
-                {
-                    data = resultSet.getObject(column.getName());
-                }
-                if (resultSet.wasNull())
-                {
-                    data = null;
-                }
-                objects.put(column.getName(), data);
-            }
-        }
-        catch (SQLException exc)
-        {
-            throw new DatabaseException(exc);
-        }
 
         Pair<DATA, INIT_MAPS> pair;
         try
@@ -367,6 +479,15 @@ public class SQLEngine implements DbEngine
         return transMgrProvider.get().getConnection();
     }
 
+    /**
+     * Queues the given row modification in the current transaction. It is sent to the database together with
+     * the other queued modifications, at the latest when the transaction is committed.
+     */
+    void addBatched(String sql, Parameters params)
+    {
+        transMgrProvider.get().getBatch().add(sql, params);
+    }
+
     String generateUpdateStatement(Column colToUpdate)
     {
         StringBuilder sql = new StringBuilder();
@@ -387,25 +508,25 @@ public class SQLEngine implements DbEngine
 
     <DATA> int setPrimaryValues(
         Map<Column, ExceptionThrowingFunction<DATA, Object, AccessDeniedException>> setters,
-        PreparedStatement stmt,
+        Parameters stmt,
         int startIdxRef,
         DatabaseTable table,
         DATA data
     )
-        throws SQLException, DatabaseException, AccessDeniedException
+        throws DatabaseException, AccessDeniedException
     {
         return setValues(setters, stmt, startIdxRef, table, Column::isPk, data);
     }
 
     <DATA> int setValues(
         Map<Column, ExceptionThrowingFunction<DATA, Object, AccessDeniedException>> setters,
-        PreparedStatement stmt,
+        Parameters stmt,
         int startIdxRef,
         DatabaseTable table,
         Predicate<Column> predicate,
         DATA data
     )
-        throws SQLException, DatabaseException, AccessDeniedException
+        throws DatabaseException, AccessDeniedException
     {
         int idx = startIdxRef;
         for (Column col : table.values())
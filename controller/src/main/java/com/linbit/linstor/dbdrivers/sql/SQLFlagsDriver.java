@@ -10,11 +10,10 @@ import com.linbit.linstor.security.AccessDeniedException;
 import com.linbit.linstor.stateflags.Flags;
 import com.linbit.linstor.stateflags.FlagsHelper;
 import com.linbit.linstor.stateflags.StateFlagsPersistence;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch.Parameters;
 import com.linbit.utils.ExceptionThrowingFunction;
 import com.linbit.utils.StringUtils;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.Map;
 
 class SQLFlagsDriver<DATA, FLAG extends Enum<FLAG> & Flags> implements StateFlagsPersistence<DATA>
@@ -52,7 +51,7 @@ class SQLFlagsDriver<DATA, FLAG extends Enum<FLAG> & Flags> implements StateFlag
     @Override
     public void persist(DATA data, long flagsRef) throws DatabaseException
     {
-        try (PreparedStatement stmt = sqlEngine.getConnection().prepareStatement(updateStatement))
+        try
         {
             String fromFlags = StringUtils.join(
                 FlagsHelper.toStringList(flagsClass, (long) setters.get(flagColumn).accept(data)),
@@ -72,24 +71,20 @@ class SQLFlagsDriver<DATA, FLAG extends Enum<FLAG> & Flags> implements StateFlag
                     toFlags,
                     inlineId
                 );
-            stmt.setLong(1, flagsRef);
-            sqlEngine.setPrimaryValues(setters, stmt, 2, table, data);
-
-            stmt.executeUpdate();
+            Parameters params = new Parameters();
+            params.setLong(1, flagsRef);
+            sqlEngine.setPrimaryValues(setters, params, 2, table, data);
+            sqlEngine.addBatched(updateStatement, params);
 
             errorReporter
                 .logTrace(
-                    "%s's flags updated from [%s] to [%s] %s",
+                    "%s's flags update queued from [%s] to [%s] %s",
                     table.getName(),
                     fromFlags,
                     toFlags,
                     inlineId
                 );
         }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
         catch (AccessDeniedException exc)
         {
             DatabaseLoader.handleAccessDeniedException(exc);
@@ -8,10 +8,9 @@ import com.linbit.linstor.dbdrivers.DbEngine.DataToString;
 import com.linbit.linstor.dbdrivers.interfaces.updater.CollectionDatabaseDriver;
 import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.linstor.security.AccessDeniedException;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch.Parameters;
 import com.linbit.utils.ExceptionThrowingFunction;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Map;
 
@@ -63,7 +62,7 @@ class SQLListToJsonArrayDriver<DATA, LIST_TYPE> implements CollectionDatabaseDri
     private void update(DATA data, Collection<LIST_TYPE> backingCollection)
         throws DatabaseException
     {
-        try (PreparedStatement stmt = sqlEngine.getConnection().prepareStatement(updateStatement))
+        try
         {
             String inlineId = dataToString.toString(data);
             errorReporter.logTrace(
@@ -74,22 +73,19 @@ class SQLListToJsonArrayDriver<DATA, LIST_TYPE> implements CollectionDatabaseDri
                 inlineId
             );
 
-            stmt.setObject(1, columnSetter.accept(data));
-            sqlEngine.setPrimaryValues(setters, stmt, 2, table, data);
+            Parameters params = new Parameters();
+            params.setObject(1, columnSetter.accept(data));
+            sqlEngine.setPrimaryValues(setters, params, 2, table, data);
+            sqlEngine.addBatched(updateStatement, params);
 
-            stmt.executeUpdate();
             errorReporter.logTrace(
-                "%s's %s updated to %s %s",
+                "%s's %s update queued to %s %s",
                 table.getName(),
                 columnToUpdate.getName(),
                 backingCollection.toString(),
                 inlineId
             );
         }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
         catch (AccessDeniedException exc)
         {
             DatabaseLoader.handleAccessDeniedException(exc);
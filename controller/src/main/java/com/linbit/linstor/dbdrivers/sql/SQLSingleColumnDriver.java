@@ -8,10 +8,9 @@ import com.linbit.linstor.dbdrivers.DbEngine.DataToString;
 import com.linbit.linstor.dbdrivers.interfaces.updater.SingleColumnDatabaseDriver;
 import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.linstor.security.AccessDeniedException;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch.Parameters;
 import com.linbit.utils.ExceptionThrowingFunction;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
@@ -63,15 +62,13 @@ class SQLSingleColumnDriver<DATA, INPUT_TYPE, DB_TYPE> implements SingleColumnDa
                 Objects.toString(elementRef),
                 dataToString.toString(parentRef)
             );
-            try (PreparedStatement stmt = sqlEngine.getConnection().prepareStatement(updateStatement))
-            {
-                int idx = fillSetter(stmt, 1, elementRef);
-                sqlEngine.setPrimaryValues(setters, stmt, idx, table, parentRef);
+            Parameters params = new Parameters();
+            int idx = fillSetter(params, 1, elementRef);
+            sqlEngine.setPrimaryValues(setters, params, idx, table, parentRef);
+            sqlEngine.addBatched(updateStatement, params);
 
-                stmt.executeUpdate();
-            }
             errorReporter.logTrace(
-                "%s's %s updated from [%s] to [%s] %s",
+                "%s's %s update queued from [%s] to [%s] %s",
                 table.getName(),
                 colToUpdate.getName(),
                 dataValueToString.accept(parentRef),
@@ -79,10 +76,6 @@ class SQLSingleColumnDriver<DATA, INPUT_TYPE, DB_TYPE> implements SingleColumnDa
                 dataToString.toString(parentRef)
             );
         }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
         catch (AccessDeniedException accDeniedExc)
         {
             DatabaseLoader.handleAccessDeniedException(accDeniedExc);
@@ -96,10 +89,8 @@ class SQLSingleColumnDriver<DATA, INPUT_TYPE, DB_TYPE> implements SingleColumnDa
      * @param startIdx
      * @param element
      * @return the index of the next column which was not yet set.
-     * @throws SQLException
      */
-    protected int fillSetter(PreparedStatement stmt, int startIdx, INPUT_TYPE element)
-        throws SQLException
+    protected int fillSetter(Parameters stmt, int startIdx, INPUT_TYPE element)
     {
         stmt.setObject(startIdx, mapper.apply(element), colToUpdate.getSqlType());
         return startIdx + 1;
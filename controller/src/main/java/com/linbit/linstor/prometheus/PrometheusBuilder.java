@@ -21,6 +21,9 @@ import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.linstor.satellitestate.SatelliteResourceState;
 import com.linbit.linstor.satellitestate.SatelliteState;
 import com.linbit.linstor.storage.kinds.DeviceProviderKind;
+import com.linbit.linstor.transaction.TransactionStatsCollector;
+import com.linbit.linstor.transaction.TransactionStatsCollector.Histogram;
+import com.linbit.linstor.transaction.TransactionStatsCollector.TransactionHistograms;
 import com.linbit.utils.Pair;
 
 import javax.annotation.Nonnull;
@@ -34,6 +37,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import io.prometheus.client.CollectorRegistry;
@@ -41,6 +46,7 @@ import io.prometheus.client.hotspot.DefaultExports;
 
 public class PrometheusBuilder {
     private final ErrorReporter errorReporter;
+    private final TransactionStatsCollector transactionStatsCollector;
 
     private static final String VOLUME_STATE_HELP;
     private static final String NODE_STATE_HELP;
@@ -110,10 +116,12 @@ public class PrometheusBuilder {
 
     @Inject
     public PrometheusBuilder(
-        ErrorReporter errorReporterRef
+        ErrorReporter errorReporterRef,
+        TransactionStatsCollector transactionStatsCollectorRef
     )
     {
         errorReporter = errorReporterRef;
+        transactionStatsCollector = transactionStatsCollectorRef;
         DefaultExports.initialize();
     }
 
@@ -217,6 +225,32 @@ public class PrometheusBuilder {
         return val;
     }
 
+    @Nonnull
+    private static Map<String, String> transactionExport(final TransactionHistograms txHistograms)
+    {
+        // sorted, so that the labels are always written in the same order
+        final TreeMap<String, String> map = new TreeMap<>();
+        map.put("api_call", txHistograms.getName());
+        map.put("result", txHistograms.isCommitted() ? "commit" : "rollback");
+        return map;
+    }
+
+    private static void writeTransactionHistograms(
+        final TextFormat tf,
+        final List<TransactionHistograms> txHistogramsList,
+        final Function<TransactionHistograms, Histogram> histogramGetter)
+    {
+        for (TransactionHistograms txHistograms : txHistogramsList) {
+            Histogram histogram = histogramGetter.apply(txHistograms);
+            tf.writeHistogram(
+                transactionExport(txHistograms),
+                histogram.getUpperBounds(),
+                histogram.getCumulativeCounts(),
+                histogram.getSum(),
+                histogram.getCount());
+        }
+    }
+
     public String build(
         @Nullable final List<NodeApi> nodeApiList,
         @Nullable final List<ResourceDefinitionApi> rscDfns,
@@ -322,6 +356,26 @@ public class PrometheusBuilder {
             });
         }
 
+        List<TransactionHistograms> txHistogramsList = transactionStatsCollector.getHistograms();
+        if (!txHistogramsList.isEmpty())
+        {
+            tf.startHistogram(
+                "linstor_transaction_registered_objects",
+                "Transaction objects registered at the transaction manager");
+            writeTransactionHistograms(tf, txHistogramsList, TransactionHistograms::getRegisteredObjects);
+
+            tf.startHistogram("linstor_transaction_dirty_objects", "Modified transaction objects");
+            writeTransactionHistograms(tf, txHistogramsList, TransactionHistograms::getDirtyObjects);
+
+            tf.startHistogram(
+                "linstor_transaction_db_writes",
+                "Database writes of the transaction, queued SQL statements or ETCD put and delete operations");
+            writeTransactionHistograms(tf, txHistogramsList, TransactionHistograms::getDbWrites);
+
+            tf.startHistogram("linstor_transaction_duration_seconds", "Duration of the commit or rollback");
+            writeTransactionHistograms(tf, txHistogramsList, TransactionHistograms::getDurationSeconds);
+        }
+
         StringWriter sw = new StringWriter();
         io.prometheus.client.exporter.common.TextFormat.write004(
             sw, CollectorRegistry.defaultRegistry.metricFamilySamples());
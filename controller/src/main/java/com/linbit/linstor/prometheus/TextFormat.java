@@ -3,6 +3,7 @@ package com.linbit.linstor.prometheus;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.TreeMap;
 
 import io.prometheus.client.Collector;
 
@@ -49,6 +50,15 @@ public class TextFormat {
         startSection(Type.counter, sectionName, help);
     }
 
+    public void startHistogram(final String sectionName)
+    {
+        startHistogram(sectionName, "");
+    }
+    public void startHistogram(final String sectionName, final String help)
+    {
+        startSection(Type.histogram, sectionName, help);
+    }
+
     private void startSection(final Type type, final String sectionName, @Nullable final String help)
     {
         currentSection = sectionName.trim();
@@ -77,7 +87,37 @@ public class TextFormat {
 
     public void writeSample(@Nullable final Map<String, String> labels, double value)
     {
-        sb.append(currentSection);
+        writeSample(currentSection, labels, value);
+    }
+
+    /**
+     * Writes the _bucket, _sum and _count samples of a histogram
+     *
+     * @param upperBounds upper bounds of the buckets, not including the +Inf bucket
+     * @param cumulativeCounts cumulative bucket counts, the last element is the count of the +Inf bucket
+     */
+    public void writeHistogram(
+        @Nullable final Map<String, String> labels,
+        final double[] upperBounds,
+        final long[] cumulativeCounts,
+        final double sum,
+        final long count)
+    {
+        for (int idx = 0; idx < cumulativeCounts.length; ++idx)
+        {
+            final Map<String, String> bucketLabels = labels == null ? new TreeMap<>() : new TreeMap<>(labels);
+            bucketLabels.put(
+                "le",
+                idx < upperBounds.length ? Collector.doubleToGoString(upperBounds[idx]) : "+Inf");
+            writeSample(currentSection + "_bucket", bucketLabels, cumulativeCounts[idx]);
+        }
+        writeSample(currentSection + "_sum", labels, sum);
+        writeSample(currentSection + "_count", labels, count);
+    }
+
+    private void writeSample(final String name, @Nullable final Map<String, String> labels, double value)
+    {
+        sb.append(name);
         if (labels != null && !labels.isEmpty()) {
             sb.append('{');
             sb.append(formatLabels(labels));
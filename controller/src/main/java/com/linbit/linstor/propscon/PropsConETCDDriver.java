@@ -12,6 +12,8 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -22,6 +24,9 @@ public class PropsConETCDDriver extends BaseEtcdDriver implements PropsConDataba
 {
     private final ErrorReporter errorReporter;
 
+    // instance name -> properties, only set while all objects are loaded
+    private volatile Map<String, Map<String, String>> preloadedProps;
+
     @Inject
     public PropsConETCDDriver(
         ErrorReporter errorReporterRef,
@@ -36,22 +41,76 @@ public class PropsConETCDDriver extends BaseEtcdDriver implements PropsConDataba
     public Map<String, String> loadAll(String instanceName) throws DatabaseException
     {
         errorReporter.logTrace("Loading properties for instance %s", getId(instanceName));
-        String etcdNamespace = getEtcdKey(instanceName, null);
-        Map<String, String> etcdMap = namespace(etcdNamespace).get(true);
-
-        final int propsKeyStart = etcdNamespace.length() + EtcdUtils.PK_DELIMITER.length();
-
         Map<String, String> propsMap = new TreeMap<>();
-        for (Entry<String, String> entry : etcdMap.entrySet())
+        Map<String, Map<String, String>> preloaded = preloadedProps;
+        if (preloaded != null)
+        {
+            Map<String, String> instanceProps = preloaded.get(instanceName);
+            if (instanceProps != null)
+            {
+                propsMap.putAll(instanceProps);
+            }
+        }
+        else
         {
-            propsMap.put(
-                entry.getKey().substring(propsKeyStart),
-                entry.getValue()
-            );
+            String etcdNamespace = getEtcdKey(instanceName, null);
+            Map<String, String> etcdMap = namespace(etcdNamespace).get(true);
+
+            final int propsKeyStart = etcdNamespace.length() + EtcdUtils.PK_DELIMITER.length();
+
+            for (Entry<String, String> entry : etcdMap.entrySet())
+            {
+                propsMap.put(
+                    entry.getKey().substring(propsKeyStart),
+                    entry.getValue()
+                );
+            }
         }
         return propsMap;
     }
 
+    @Override
+    public void preloadAll() throws DatabaseException
+    {
+        String tablePrefix = EtcdUtils.buildKey(GeneratedDatabaseTables.PROPS_CONTAINERS);
+
+        Map<String, Map<String, String>> preloaded = new HashMap<>();
+        int propCount = 0;
+        try
+        {
+            // paginated, so that only the preloaded properties have to be kept in memory
+            Iterator<Entry<String, String>> entryIt = namespace(tablePrefix).getPaged();
+            while (entryIt.hasNext())
+            {
+                Entry<String, String> entry = entryIt.next();
+                // $tablePrefix$instanceName:$key, instance names never contain the delimiter, keys might
+                String instanceAndKey = entry.getKey().substring(tablePrefix.length());
+                int delimiterIdx = instanceAndKey.indexOf(EtcdUtils.PK_DELIMITER);
+                if (delimiterIdx != -1)
+                {
+                    preloaded.computeIfAbsent(instanceAndKey.substring(0, delimiterIdx), ignored -> new TreeMap<>())
+                        .put(
+                            instanceAndKey.substring(delimiterIdx + EtcdUtils.PK_DELIMITER.length()),
+                            entry.getValue()
+                        );
+                }
+                ++propCount;
+            }
+        }
+        catch (io.grpc.StatusRuntimeException grpcExc)
+        {
+            throw new DatabaseException(grpcExc);
+        }
+        errorReporter.logTrace("Preloaded %d properties of %d instances", propCount, preloaded.size());
+        preloadedProps = preloaded;
+    }
+
+    @Override
+    public void clearPreloaded()
+    {
+        preloadedProps = null;
+    }
+
     private String getEtcdKey(String instanceName, String key)
     {
         String etcdKey = EtcdUtils.buildKey(GeneratedDatabaseTables.PROPS_CONTAINERS, instanceName);
@@ -73,6 +132,7 @@ public class PropsConETCDDriver extends BaseEtcdDriver implements PropsConDataba
     public void persist(String instanceName, String key, String value) throws DatabaseException
     {
         errorReporter.logTrace("Storing property %s", getId(instanceName, key, value));
+        clearPreloaded();
         /*
          * DO NOT use
          * namespace(..., instanceName).put(key, value);
@@ -99,6 +159,7 @@ public class PropsConETCDDriver extends BaseEtcdDriver implements PropsConDataba
     public void remove(String instanceName, String key) throws DatabaseException
     {
         errorReporter.logTrace("Removing property %s", getId(instanceName, key));
+        clearPreloaded();
         namespace(getEtcdKey(instanceName, key))
             .delete(false);
     }
@@ -116,6 +177,7 @@ public class PropsConETCDDriver extends BaseEtcdDriver implements PropsConDataba
     public void removeAll(String instanceName) throws DatabaseException
     {
         errorReporter.logTrace("Removing all properties by instance %s", getId(instanceName));
+        clearPreloaded();
 
         namespace(getEtcdKey(instanceName, null))
             .delete(true);
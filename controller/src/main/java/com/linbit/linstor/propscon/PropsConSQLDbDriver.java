@@ -1,18 +1,25 @@
 package com.linbit.linstor.propscon;
 
+import com.linbit.linstor.DatabaseInfo;
 import com.linbit.linstor.dbdrivers.DatabaseException;
 import com.linbit.linstor.dbdrivers.derby.DbConstants;
 import com.linbit.linstor.dbdrivers.interfaces.PropsConDatabaseDriver;
 import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
 import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -38,6 +45,42 @@ public class PropsConSQLDbDriver implements PropsConDatabaseDriver
         " FROM " + TBL_PROP + "\n" +
         " WHERE " + COL_INSTANCE + " = ?";
 
+    private static final String SELECT_ALL_ENTRIES =
+        " SELECT " + COL_INSTANCE + ", " + COL_KEY + ", " + COL_VALUE + "\n" +
+        " FROM " + TBL_PROP;
+
+    private static final int PRELOAD_FETCH_SIZE = 1000;
+
+    private static final String INSERT_ENTRY =
+        " INSERT INTO " + TBL_PROP + "\n" +
+        "    (" + COL_INSTANCE + ", " + COL_KEY + ", " + COL_VALUE + ")\n" +
+        "    VALUES (?, ?, ?)";
+
+    private static final String UPDATE_ENTRY =
+        " UPDATE " + TBL_PROP + "\n" +
+        "    SET " + COL_VALUE + " = ? \n" +
+        "    WHERE " + COL_INSTANCE + " = ? \n" +
+        "        AND " + COL_KEY + " = ?";
+
+    // all upsert statements take the parameters in the same order as INSERT_ENTRY
+    private static final String UPSERT_ENTRY_H2 =
+        " MERGE INTO " + TBL_PROP + "\n" +
+        "    (" + COL_INSTANCE + ", " + COL_KEY + ", " + COL_VALUE + ")\n" +
+        "    KEY (" + COL_INSTANCE + ", " + COL_KEY + ")\n" +
+        "    VALUES (?, ?, ?)";
+
+    private static final String UPSERT_ENTRY_POSTGRESQL =
+        INSERT_ENTRY + "\n" +
+        "    ON CONFLICT (" + COL_INSTANCE + ", " + COL_KEY + ")\n" +
+        "    DO UPDATE SET " + COL_VALUE + " = EXCLUDED." + COL_VALUE;
+
+    private static final String UPSERT_ENTRY_MYSQL =
+        INSERT_ENTRY + "\n" +
+        "    ON DUPLICATE KEY UPDATE " + COL_VALUE + " = VALUES(" + COL_VALUE + ")";
+
+    // INSERT ... ON CONFLICT requires PostgreSQL 9.5
+    private static final int[] POSTGRES_UPSERT_MIN_VERSION = {9, 5};
+
     private static final String REMOVE_ENTRY =
         " DELETE FROM " + TBL_PROP + "\n" +
         "    WHERE " + COL_INSTANCE + " = ? \n" +
@@ -50,6 +93,13 @@ public class PropsConSQLDbDriver implements PropsConDatabaseDriver
     private final ErrorReporter errorReporter;
     private final Provider<TransactionMgrSQL> transMgrProvider;
 
+    // upper case instance name -> properties, only set while all objects are loaded
+    private volatile Map<String, Map<String, String>> preloadedProps;
+
+    // null if the database has no usable upsert statement, only valid if upsertStmtChecked is set
+    private volatile String upsertStmt;
+    private volatile boolean upsertStmtChecked = false;
+
     @Inject
     public PropsConSQLDbDriver(
         ErrorReporter errorReporterRef,
@@ -63,18 +113,173 @@ public class PropsConSQLDbDriver implements PropsConDatabaseDriver
     @Override
     public void persist(String instanceName, String key, String value) throws DatabaseException
     {
-        persistImpl(instanceName, key, value);
+        clearPreloaded();
+        String upsert;
+        try
+        {
+            upsert = getUpsertStatement();
+        }
+        catch (SQLException sqlExc)
+        {
+            throw new DatabaseException(sqlExc);
+        }
+        if (upsert != null)
+        {
+            errorReporter.logTrace("Storing property %s", getId(instanceName, key, value));
+            addUpsert(upsert, instanceName.toUpperCase(), key, value);
+        }
+        else
+        {
+            persistImpl(instanceName, key, value);
+        }
     }
 
     @Override
     public void persist(String instanceName, Map<String, String> props) throws DatabaseException
     {
+        clearPreloaded();
+        if (!props.isEmpty())
+        {
+            errorReporter.logTrace("Storing %d properties %s", props.size(), getId(instanceName));
+            try
+            {
+                String upsert = getUpsertStatement();
+                if (upsert != null)
+                {
+                    upsertBatch(upsert, instanceName, props);
+                }
+                else
+                {
+                    updateOrInsertBatch(instanceName, props);
+                }
+            }
+            catch (SQLException sqlExc)
+            {
+                throw new DatabaseException(sqlExc);
+            }
+            errorReporter.logTrace("Stored %d properties %s", props.size(), getId(instanceName));
+        }
+    }
+
+    private void upsertBatch(String upsert, String instanceName, Map<String, String> props)
+    {
+        String instanceUpper = instanceName.toUpperCase();
         for (Entry<String, String> entry : props.entrySet())
         {
-            persistImpl(instanceName, entry.getKey(), entry.getValue());
+            addUpsert(upsert, instanceUpper, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * The upsert does not depend on the current state of the row, so it can be queued in the transaction's
+     * statement batch instead of being executed on its connection.
+     */
+    private void addUpsert(String upsert, String instanceUpper, String key, String value)
+    {
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, instanceUpper);
+        params.setString(2, key);
+        params.setString(3, value);
+        getBatch().add(upsert, params);
+    }
+
+    /**
+     * For databases without a usable upsert statement: updates all entries in one batch, and inserts the entries
+     * that did not exist yet in a second batch.
+     */
+    private void updateOrInsertBatch(String instanceName, Map<String, String> props)
+        throws SQLException, DatabaseException
+    {
+        String instanceUpper = instanceName.toUpperCase();
+        List<Entry<String, String>> entries = new ArrayList<>(props.entrySet());
+        int[] updateCounts;
+        try (PreparedStatement stmt = getConnection().prepareStatement(UPDATE_ENTRY))
+        {
+            stmt.setString(2, instanceUpper);
+            for (Entry<String, String> entry : entries)
+            {
+                stmt.setString(1, entry.getValue());
+                stmt.setString(3, entry.getKey());
+                stmt.addBatch();
+            }
+            updateCounts = stmt.executeBatch();
+        }
+
+        List<Entry<String, String>> missingEntries = new ArrayList<>();
+        for (int idx = 0; idx < entries.size(); ++idx)
+        {
+            if (updateCounts[idx] == Statement.SUCCESS_NO_INFO)
+            {
+                // the driver does not tell us whether the entry exists, fall back to the slow path
+                Entry<String, String> entry = entries.get(idx);
+                persistImpl(instanceName, entry.getKey(), entry.getValue());
+            }
+            else
+            if (updateCounts[idx] == 0)
+            {
+                missingEntries.add(entries.get(idx));
+            }
+        }
+
+        if (!missingEntries.isEmpty())
+        {
+            try (PreparedStatement stmt = getConnection().prepareStatement(INSERT_ENTRY))
+            {
+                stmt.setString(1, instanceUpper);
+                for (Entry<String, String> entry : missingEntries)
+                {
+                    stmt.setString(2, entry.getKey());
+                    stmt.setString(3, entry.getValue());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
         }
     }
 
+    private String getUpsertStatement() throws SQLException
+    {
+        if (!upsertStmtChecked)
+        {
+            DatabaseMetaData metaData = getConnection().getMetaData();
+            String upsert;
+            switch (DatabaseInfo.getDbProduct(metaData.getDatabaseProductName(), metaData.getDatabaseProductVersion()))
+            {
+                case H2:
+                    upsert = UPSERT_ENTRY_H2;
+                    break;
+                case POSTGRESQL:
+                    int major = metaData.getDatabaseMajorVersion();
+                    int minor = metaData.getDatabaseMinorVersion();
+                    if (
+                        major > POSTGRES_UPSERT_MIN_VERSION[0] ||
+                        major == POSTGRES_UPSERT_MIN_VERSION[0] && minor >= POSTGRES_UPSERT_MIN_VERSION[1]
+                    )
+                    {
+                        upsert = UPSERT_ENTRY_POSTGRESQL;
+                    }
+                    else
+                    {
+                        upsert = null;
+                    }
+                    break;
+                case MYSQL: // fall-through
+                case MARIADB:
+                    upsert = UPSERT_ENTRY_MYSQL;
+                    break;
+                case DERBY: // fall-through
+                case DB2: // fall-through
+                default:
+                    // MERGE of these databases cannot take its source rows from parameters
+                    upsert = null;
+                    break;
+            }
+            upsertStmt = upsert;
+            upsertStmtChecked = true;
+        }
+        return upsertStmt;
+    }
+
     @SuppressWarnings("checkstyle:magicnumber")
     private void persistImpl(String instanceName, String key, String value) throws DatabaseException
     {
@@ -119,18 +324,12 @@ public class PropsConSQLDbDriver implements PropsConDatabaseDriver
     public void remove(String instanceName, String key) throws DatabaseException
     {
         errorReporter.logTrace("Removing property %s", getId(instanceName, key));
+        clearPreloaded();
 
-        try (PreparedStatement stmt = getConnection().prepareStatement(REMOVE_ENTRY))
-        {
-            stmt.setString(1, instanceName.toUpperCase());
-            stmt.setString(2, key);
-
-            stmt.executeUpdate();
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, instanceName.toUpperCase());
+        params.setString(2, key);
+        getBatch().add(REMOVE_ENTRY, params);
 
         errorReporter.logTrace("Property removed %s", getId(instanceName, key));
     }
@@ -138,22 +337,20 @@ public class PropsConSQLDbDriver implements PropsConDatabaseDriver
     @Override
     public void remove(String instanceName, Set<String> keys) throws DatabaseException
     {
-        try (PreparedStatement stmt = getConnection().prepareStatement(REMOVE_ENTRY))
+        clearPreloaded();
+        if (!keys.isEmpty())
         {
-            stmt.setString(1, instanceName.toUpperCase());
+            errorReporter.logTrace("Removing %d properties %s", keys.size(), getId(instanceName));
+            String instanceUpper = instanceName.toUpperCase();
+            SQLStatementBatch batch = getBatch();
             for (String key : keys)
             {
-                errorReporter.logTrace("Removing property %s", getId(instanceName, key));
-
-                stmt.setString(2, key);
-                stmt.executeUpdate();
-
-                errorReporter.logTrace("Property removed %s", getId(instanceName, key));
+                SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+                params.setString(1, instanceUpper);
+                params.setString(2, key);
+                batch.add(REMOVE_ENTRY, params);
             }
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
+            errorReporter.logTrace("Removed %d properties %s", keys.size(), getId(instanceName));
         }
     }
 
@@ -161,32 +358,43 @@ public class PropsConSQLDbDriver implements PropsConDatabaseDriver
     public void removeAll(String instanceName) throws DatabaseException
     {
         errorReporter.logTrace("Removing all properties by instance %s", getId(instanceName));
+        clearPreloaded();
 
-        int rowsUpdated;
-        try (
-            PreparedStatement stmt = getConnection()
-                .prepareStatement(REMOVE_ALL_ENTRIES)
-        )
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, instanceName.toUpperCase());
+        getBatch().add(REMOVE_ALL_ENTRIES, params);
+
+        errorReporter.logTrace("Removed all properties by instance %s", getId(instanceName));
+    }
+
+    @Override
+    public Map<String, String> loadAll(String instanceName) throws DatabaseException
+    {
+        errorReporter.logTrace("Loading properties for instance %s", getId(instanceName));
+        Map<String, String> ret = new TreeMap<>();
+        Map<String, Map<String, String>> preloaded = preloadedProps;
+        if (preloaded != null)
         {
-            stmt.setString(1, instanceName.toUpperCase());
-            rowsUpdated = stmt.executeUpdate();
+            Map<String, String> instanceProps = preloaded.get(instanceName.toUpperCase());
+            if (instanceProps != null)
+            {
+                ret.putAll(instanceProps);
+            }
         }
-        catch (SQLException sqlExc)
+        else
         {
-            throw new DatabaseException(sqlExc);
+            loadAllImpl(instanceName, ret);
         }
         errorReporter.logTrace(
-            "Removed all (%d) properties by instance %s",
-            rowsUpdated,
+            "Loaded all (%d) properties for instance %s",
+            ret.size(),
             getId(instanceName)
         );
+        return ret;
     }
 
-    @Override
-    public Map<String, String> loadAll(String instanceName) throws DatabaseException
+    private void loadAllImpl(String instanceName, Map<String, String> ret) throws DatabaseException
     {
-        errorReporter.logTrace("Loading properties for instance %s", getId(instanceName));
-        Map<String, String> ret = new TreeMap<>();
         Connection connection = getConnection();
         try (PreparedStatement stmt = connection.prepareStatement(SELECT_ALL_ENTRIES_BY_INSTANCE))
         {
@@ -207,12 +415,42 @@ public class PropsConSQLDbDriver implements PropsConDatabaseDriver
         {
             throw new DatabaseException(sqlExc);
         }
-        errorReporter.logTrace(
-            "Loaded all (%d) properties for instance %s",
-            ret.size(),
-            getId(instanceName)
-        );
-        return ret;
+    }
+
+    @Override
+    public void preloadAll() throws DatabaseException
+    {
+        Map<String, Map<String, String>> preloaded = new HashMap<>();
+        int count = 0;
+        try (PreparedStatement stmt = getConnection().prepareStatement(SELECT_ALL_ENTRIES))
+        {
+            // checks the database while the connection is in use anyway, so that the first transaction that
+            // stores properties does not have to take its connection only for that
+            getUpsertStatement();
+
+            stmt.setFetchSize(PRELOAD_FETCH_SIZE);
+            try (ResultSet resultSet = stmt.executeQuery())
+            {
+                while (resultSet.next())
+                {
+                    preloaded.computeIfAbsent(resultSet.getString(1), ignored -> new TreeMap<>())
+                        .put(resultSet.getString(2), resultSet.getString(3));
+                    ++count;
+                }
+            }
+        }
+        catch (SQLException sqlExc)
+        {
+            throw new DatabaseException(sqlExc);
+        }
+        errorReporter.logTrace("Preloaded %d properties of %d instances", count, preloaded.size());
+        preloadedProps = preloaded;
+    }
+
+    @Override
+    public void clearPreloaded()
+    {
+        preloadedProps = null;
     }
 
     private Connection getConnection()
@@ -220,6 +458,11 @@ public class PropsConSQLDbDriver implements PropsConDatabaseDriver
         return transMgrProvider.get().getConnection();
     }
 
+    private SQLStatementBatch getBatch()
+    {
+        return transMgrProvider.get().getBatch();
+    }
+
 
     private String getId(String instanceName)
     {
@@ -8,6 +8,7 @@ import com.linbit.linstor.dbdrivers.derby.DbConstants;
 import com.linbit.linstor.dbdrivers.interfaces.updater.SingleColumnDatabaseDriver;
 import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.linstor.transaction.TransactionObjectFactory;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
 import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
 
 import javax.inject.Inject;
@@ -123,19 +124,12 @@ public class ObjectProtectionSQLDbDriver implements ObjectProtectionDatabaseDriv
     public void insertOp(ObjectProtection objProt) throws DatabaseException
     {
         errorReporter.logTrace("Creating ObjectProtection %s", getObjProtId(objProt.getObjectProtectionPath()));
-        try (PreparedStatement stmt = getConnection().prepareStatement(OP_INSERT))
-        {
-            stmt.setString(1, objProt.getObjectProtectionPath());
-            stmt.setString(2, objProt.getCreator().name.value);
-            stmt.setString(3, objProt.getOwner().name.value);
-            stmt.setString(4, objProt.getSecurityType().name.value);
-
-            stmt.executeUpdate();
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, objProt.getObjectProtectionPath());
+        params.setString(2, objProt.getCreator().name.value);
+        params.setString(3, objProt.getOwner().name.value);
+        params.setString(4, objProt.getSecurityType().name.value);
+        getBatch().add(OP_INSERT, params);
         errorReporter.logTrace("ObjectProtection created %s", getObjProtId(objProt.getObjectProtectionPath()));
     }
 
@@ -143,26 +137,12 @@ public class ObjectProtectionSQLDbDriver implements ObjectProtectionDatabaseDriv
     public void deleteOp(String objectPath) throws DatabaseException
     {
         errorReporter.logTrace("Deleting ObjectProtection %s", getObjProtId(objectPath));
-        try (PreparedStatement stmt = getConnection().prepareStatement(ACL_DELETE_ALL))
-        {
-            stmt.setString(1, objectPath);
-
-            stmt.executeUpdate();
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
-        try (PreparedStatement stmt = getConnection().prepareStatement(OP_DELETE))
-        {
-            stmt.setString(1, objectPath);
-
-            stmt.executeUpdate();
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters aclParams = new SQLStatementBatch.Parameters();
+        aclParams.setString(1, objectPath);
+        getBatch().add(ACL_DELETE_ALL, aclParams);
+        SQLStatementBatch.Parameters opParams = new SQLStatementBatch.Parameters();
+        opParams.setString(1, objectPath);
+        getBatch().add(OP_DELETE, opParams);
 
         errorReporter.logTrace("ObjectProtection deleted %s", getObjProtId(objectPath));
     }
@@ -173,18 +153,11 @@ public class ObjectProtectionSQLDbDriver implements ObjectProtectionDatabaseDriv
         throws DatabaseException
     {
         errorReporter.logTrace("Creating AccessControl entry %s", getAclTraceId(parent, role, grantedAccess));
-        try (PreparedStatement stmt = getConnection().prepareStatement(ACL_INSERT))
-        {
-            stmt.setString(1, parent.getObjectProtectionPath());
-            stmt.setString(2, role.name.value);
-            stmt.setLong(3, grantedAccess.getAccessMask());
-
-            stmt.executeUpdate();
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, parent.getObjectProtectionPath());
+        params.setString(2, role.name.value);
+        params.setLong(3, grantedAccess.getAccessMask());
+        getBatch().add(ACL_INSERT, params);
         errorReporter.logTrace("AccessControl entry created %s", getAclDebugId(parent, role, grantedAccess));
     }
 
@@ -199,18 +172,11 @@ public class ObjectProtectionSQLDbDriver implements ObjectProtectionDatabaseDriv
             grantedAccess,
             getAclTraceId(parent, role)
         );
-        try (PreparedStatement stmt = getConnection().prepareStatement(ACL_UPDATE))
-        {
-            stmt.setLong(1, grantedAccess.getAccessMask());
-            stmt.setString(2, parent.getObjectProtectionPath());
-            stmt.setString(3, role.name.value);
-
-            stmt.executeUpdate();
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setLong(1, grantedAccess.getAccessMask());
+        params.setString(2, parent.getObjectProtectionPath());
+        params.setString(3, role.name.value);
+        getBatch().add(ACL_UPDATE, params);
         errorReporter.logTrace(
             "AccessControl entry updated from %s to %s %s",
             parent.getAcl().getEntry(role),
@@ -223,17 +189,10 @@ public class ObjectProtectionSQLDbDriver implements ObjectProtectionDatabaseDriv
     public void deleteAcl(ObjectProtection parent, Role role) throws DatabaseException
     {
         errorReporter.logTrace("Deleting AccessControl entry %s", getAclTraceId(parent, role));
-        try (PreparedStatement stmt = getConnection().prepareStatement(ACL_DELETE))
-        {
-            stmt.setString(1, parent.getObjectProtectionPath());
-            stmt.setString(2, role.name.value);
-
-            stmt.executeUpdate();
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new DatabaseException(sqlExc);
-        }
+        SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+        params.setString(1, parent.getObjectProtectionPath());
+        params.setString(2, role.name.value);
+        getBatch().add(ACL_DELETE, params);
         errorReporter.logTrace("AccessControl entry deleted %s", getAclDebugId(parent, role));
     }
 
@@ -379,6 +338,11 @@ public class ObjectProtectionSQLDbDriver implements ObjectProtectionDatabaseDriv
         return transMgrProvider.get().getConnection();
     }
 
+    private SQLStatementBatch getBatch()
+    {
+        return transMgrProvider.get().getBatch();
+    }
+
     private String getAclTraceId(ObjectProtection parent, Role role, AccessType grantedAccess)
     {
         return getAclId(
@@ -439,17 +403,10 @@ public class ObjectProtectionSQLDbDriver implements ObjectProtectionDatabaseDriv
                 creator.name.value,
                 getObjProtId(parent.getObjectProtectionPath())
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(OP_UPDATE_IDENTITY))
-            {
-                stmt.setString(1, creator.name.value);
-                stmt.setString(2, parent.getObjectProtectionPath());
-
-                stmt.executeUpdate();
-            }
-            catch (SQLException sqlExc)
-            {
-                throw new DatabaseException(sqlExc);
-            }
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setString(1, creator.name.value);
+            params.setString(2, parent.getObjectProtectionPath());
+            getBatch().add(OP_UPDATE_IDENTITY, params);
             errorReporter.logTrace(
                 "ObjectProtection's Creator updated from %s to %s. %s",
                 parent.getCreator().name.displayValue,
@@ -470,17 +427,10 @@ public class ObjectProtectionSQLDbDriver implements ObjectProtectionDatabaseDriv
                 owner.name.value,
                 getObjProtId(parent.getObjectProtectionPath())
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(OP_UPDATE_ROLE))
-            {
-                stmt.setString(1, owner.name.value);
-                stmt.setString(2, parent.getObjectProtectionPath());
-
-                stmt.executeUpdate();
-            }
-            catch (SQLException sqlExc)
-            {
-                throw new DatabaseException(sqlExc);
-            }
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setString(1, owner.name.value);
+            params.setString(2, parent.getObjectProtectionPath());
+            getBatch().add(OP_UPDATE_ROLE, params);
             errorReporter.logTrace(
                 "ObjectProtection's Creator updated from %s to %s. %s",
                 parent.getCreator().name.displayValue,
@@ -501,17 +451,10 @@ public class ObjectProtectionSQLDbDriver implements ObjectProtectionDatabaseDriv
                 secType.name.value,
                 getObjProtId(parent.getObjectProtectionPath())
             );
-            try (PreparedStatement stmt = getConnection().prepareStatement(OP_UPDATE_SEC_TYPE))
-            {
-                stmt.setString(1, secType.name.value);
-                stmt.setString(2, parent.getObjectProtectionPath());
-
-                stmt.executeUpdate();
-            }
-            catch (SQLException sqlExc)
-            {
-                throw new DatabaseException(sqlExc);
-            }
+            SQLStatementBatch.Parameters params = new SQLStatementBatch.Parameters();
+            params.setString(1, secType.name.value);
+            params.setString(2, parent.getObjectProtectionPath());
+            getBatch().add(OP_UPDATE_SEC_TYPE, params);
             errorReporter.logTrace(
                 "ObjectProtection's SecurityType updated from %s to %s. %s",
                 parent.getCreator().name.displayValue,
@@ -0,0 +1,44 @@
+package com.linbit.linstor.tasks;
+
+import com.linbit.linstor.ControllerDatabase;
+import com.linbit.linstor.dbdrivers.DatabaseException;
+import com.linbit.linstor.logging.ErrorReporter;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Periodically writes the checkpoint of the database, see {@link ControllerDatabase#writeCheckpoint()}
+ */
+@Singleton
+public class DbCheckpointTask implements TaskScheduleService.Task
+{
+    private static final long CHECKPOINT_INTERVAL = 10 * 60 * 1_000;
+
+    private final ErrorReporter errorReporter;
+    private final ControllerDatabase controllerDb;
+
+    @Inject
+    public DbCheckpointTask(
+        ErrorReporter errorReporterRef,
+        ControllerDatabase controllerDbRef
+    )
+    {
+        errorReporter = errorReporterRef;
+        controllerDb = controllerDbRef;
+    }
+
+    @Override
+    public long run()
+    {
+        try
+        {
+            controllerDb.writeCheckpoint();
+        }
+        catch (DatabaseException | RuntimeException exc)
+        {
+            errorReporter.reportError(exc);
+        }
+        return CHECKPOINT_INTERVAL;
+    }
+}
@@ -5,10 +5,12 @@ import com.linbit.linstor.ControllerETCDDatabase;
 import com.linbit.linstor.dbdrivers.etcd.EtcdUtils;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.Consumer;
 
@@ -22,7 +24,6 @@ import com.ibm.etcd.api.RangeResponse;
 import com.ibm.etcd.api.RequestOp;
 import com.ibm.etcd.api.ResponseOp;
 import com.ibm.etcd.api.ResponseOp.ResponseCase;
-import com.ibm.etcd.api.TxnRequest;
 import com.ibm.etcd.api.TxnResponse;
 import com.ibm.etcd.client.KeyUtils;
 import com.ibm.etcd.client.kv.KvClient.FluentTxnOps;
@@ -36,6 +37,8 @@ public class ControllerETCDRollbackMgr
     private static final String VALUE_STATUS_READY = "ready";
     private static final String VALUE_DELETE_DUMMY_STR = ":deleteMe";
     private static final ByteString VALUE_DELETE_DUMMY_BS = KeyUtils.bs(VALUE_DELETE_DUMMY_STR);
+    // below the default request size limit of etcd (--max-request-bytes, 1.5 MiB)
+    static final int MAX_BYTES_PER_TX = 1024 * 1024;
 
     private final int maxOpsPerTx;
     private final ControllerETCDDatabase etcdDb;
@@ -51,19 +54,23 @@ public class ControllerETCDRollbackMgr
     }
 
     /**
-     * Removes duplicate requests to the same key (ETCD does not like those) and performs
-     * preparations for a possible rollback action.
+     * Splits the requests of the given transaction into etcd transactions, see
+     * {@link #splitRequests(List, int, int)}. If more than one etcd transaction is needed, rollback entries are
+     * written first, so that the changes can be rolled back if not all of the etcd transactions succeed.
      *
      * @param currentTransactionRef
      *
-     * @return
+     * @return the etcd transactions that have to be sent in the returned order
      */
     public List<FluentTxnOps<?>> prepare(EtcdTransaction currentTransactionRef)
     {
-        List<FluentTxnOps<?>> txList = removeDuplucateRequests(currentTransactionRef);
+        List<FluentTxnOps<?>> txList = buildTransactions(currentTransactionRef);
 
-        getRollbackMap(currentTransactionRef);
-        writeRollbackEntries();
+        if (txList.size() > 1)
+        {
+            getRollbackMap(currentTransactionRef);
+            writeRollbackEntries();
+        }
 
         return txList;
     }
@@ -84,6 +91,15 @@ public class ControllerETCDRollbackMgr
 
     public void rollback()
     {
+        if (!currentRollbackMap.isEmpty() && !currentRollbackMap.containsKey(KEY_ROLLBACK_STATUS))
+        {
+            /*
+             * a commit that was split into multiple etcd transactions failed. The map still contains the keys of
+             * that commit instead of the rollback entries, so the rollback entries have to be read back from etcd
+             */
+            currentRollbackMap.clear();
+            loadRollbackEntries();
+        }
         if (!currentRollbackMap.isEmpty())
         {
             String rollbackStatus = currentRollbackMap.get(KEY_ROLLBACK_STATUS);
@@ -91,16 +107,20 @@ public class ControllerETCDRollbackMgr
             {
                 FluentTxnOps<?> tx = etcdDb.getKvClient().batch();
                 int ops = 0;
+                int bytes = 0;
                 for (Entry<String, String> entry : currentRollbackMap.entrySet())
                 {
-                    if (ops == maxOpsPerTx)
+                    String value = entry.getValue();
+                    int entryBytes = entry.getKey().length() + (value == null ? 0 : value.length());
+                    if (ops > 0 && (ops >= maxOpsPerTx || bytes + entryBytes > MAX_BYTES_PER_TX))
                     {
                         flush(tx, "Failed to rollback transaction");
                         tx = etcdDb.getKvClient().batch();
                         ops = 0;
+                        bytes = 0;
                     }
+                    bytes += entryBytes;
                     String key = entry.getKey();
-                    String value = entry.getValue();
                     if (key.startsWith(NAMESPACE_ROLLBACK_DEL))
                     {
                         key = key.substring(NAMESPACE_ROLLBACK_DEL.length());
@@ -135,144 +155,235 @@ public class ControllerETCDRollbackMgr
 
     public void loadRollbackEntries()
     {
-        FluentTxnOps<?> tx = etcdDb.getKvClient().batch();
-        tx.get(
-            RangeRequest.newBuilder()
-                .setKey(KeyUtils.bs(NAMESPACE_ROLLBACK))
-                .setRangeEnd(
-                    KeyUtils.plusOne(
-                        KeyUtils.bs(
-                            NAMESPACE_ROLLBACK
-                        )
-                    )
-                )
-                .build()
-        );
-        processGetRequests(tx);
+        // the rollback entries have to be current, a loaded checkpoint must not be used
+        Iterator<Entry<String, String>> entryIt = new EtcdTransaction(etcdDb).getPagedFromServer(NAMESPACE_ROLLBACK);
+        while (entryIt.hasNext())
+        {
+            Entry<String, String> entry = entryIt.next();
+            currentRollbackMap.put(entry.getKey(), entry.getValue());
+        }
     }
 
-    private List<FluentTxnOps<?>> removeDuplucateRequests(EtcdTransaction currentTransaction)
+    private List<FluentTxnOps<?>> buildTransactions(EtcdTransaction currentTransaction)
     {
-        // ETCD does not allow duplicate updates for the same key
-        TxnRequest request = currentTransaction.etcdTx.asRequest();
-        List<RequestOp> successList = new ArrayList<>(request.getSuccessList());
         // we do not use .elseDo(), thus we also only have success entries
+        List<List<RequestOp>> chunks = splitRequests(
+            currentTransaction.etcdTx.asRequest().getSuccessList(),
+            maxOpsPerTx,
+            MAX_BYTES_PER_TX
+        );
 
-        HashMap<String, RequestOp> lastReqMap = new HashMap<>();
-        for (RequestOp req : successList)
+        List<FluentTxnOps<?>> ret = new ArrayList<>();
+        for (List<RequestOp> chunk : chunks)
         {
-            String key;
+            FluentTxnOps<?> curTx = etcdDb.getKvClient().batch();
+            for (RequestOp req : chunk)
+            {
+                switch (req.getRequestCase())
+                {
+                    case REQUEST_DELETE_RANGE:
+                        curTx.delete(req.getRequestDeleteRangeOrBuilder());
+                        break;
+                    case REQUEST_PUT:
+                        curTx.put(req.getRequestPutOrBuilder());
+                        break;
+                    case REQUEST_RANGE:
+                        curTx.get(req.getRequestRangeOrBuilder());
+                        break;
+                    case REQUEST_NOT_SET:
+                    case REQUEST_TXN:
+                        break;
+                    default:
+                        throw new ImplementationError("Unknown ETCD Request case: " + req.getRequestCase());
+                }
+            }
+            ret.add(curTx);
+        }
+        return ret;
+    }
+
+    /**
+     * Splits the requests into chunks that can each be sent as one etcd transaction, keeping their order.
+     *
+     * ETCD rejects transactions with multiple puts of the same key or with a put of a key that is also
+     * deleted. A put overriding a previous put of the same chunk replaces it, any other conflicting request
+     * starts a new chunk. A new chunk is also started if the current one would exceed the given number of
+     * operations or bytes.
+     */
+    static List<List<RequestOp>> splitRequests(List<RequestOp> requests, int maxOps, int maxBytes)
+    {
+        List<List<RequestOp>> ret = new ArrayList<>();
+
+        // order within a chunk does not matter, as the requests of a chunk do not conflict with each other
+        TreeMap<String, RequestOp> chunkPuts = new TreeMap<>();
+        List<RequestOp> chunkOthers = new ArrayList<>();
+        Set<String> chunkDelKeys = new HashSet<>();
+        List<String> chunkDelPrefixes = new ArrayList<>();
+        int chunkBytes = 0;
+
+        for (RequestOp req : requests)
+        {
+            String putKey = null;
+            String delKey = null;
+            boolean recursiveDel = false;
+            boolean conflict;
             switch (req.getRequestCase())
             {
-                case REQUEST_DELETE_RANGE:
-                    key = req.getRequestDeleteRange().getKey().toStringUtf8();
-                    break;
-                case REQUEST_NOT_SET:
-                    key = null;
-                    break;
                 case REQUEST_PUT:
-                    key = req.getRequestPut().getKey().toStringUtf8();
+                    putKey = req.getRequestPut().getKey().toStringUtf8();
+                    conflict = chunkDelKeys.contains(putKey) || startsWithAny(putKey, chunkDelPrefixes);
+                    break;
+                case REQUEST_DELETE_RANGE:
+                    DeleteRangeRequest delReq = req.getRequestDeleteRange();
+                    delKey = delReq.getKey().toStringUtf8();
+                    // the only ranges we delete are prefixes, see EtcdTransaction#delete
+                    recursiveDel = !delReq.getRangeEnd().isEmpty();
+                    if (recursiveDel)
+                    {
+                        String firstPutKey = chunkPuts.ceilingKey(delKey);
+                        conflict = firstPutKey != null && firstPutKey.startsWith(delKey);
+                    }
+                    else
+                    {
+                        conflict = chunkPuts.containsKey(delKey);
+                    }
                     break;
                 case REQUEST_RANGE:
-                    key = req.getRequestRange().getKey().toStringUtf8();
+                    conflict = false;
                     break;
+                case REQUEST_NOT_SET:
                 case REQUEST_TXN:
-                    key = null;
-                    break;
+                    // not sent, see ControllerETCDRollbackMgr#buildTransactions
+                    continue;
                 default:
                     throw new ImplementationError("Unknown ETCD Request case: " + req.getRequestCase());
             }
-            if (key != null)
+
+            RequestOp replacedPut = putKey == null || conflict ? null : chunkPuts.get(putKey);
+            int reqBytes = req.getSerializedSize();
+            int chunkOps = chunkPuts.size() + chunkOthers.size();
+            boolean full;
+            if (replacedPut != null)
+            {
+                full = chunkBytes - replacedPut.getSerializedSize() + reqBytes > maxBytes;
+            }
+            else
             {
-                lastReqMap.put(key, req);
+                full = chunkOps > 0 && (chunkOps >= maxOps || chunkBytes + reqBytes > maxBytes);
             }
-        }
-
-        int ops = 0;
-        FluentTxnOps<?> curTx = etcdDb.getKvClient().batch();
-        List<FluentTxnOps<?>> ret = new ArrayList<>();
-        ret.add(curTx);
-        for (Entry<String, RequestOp> reqEntry : lastReqMap.entrySet())
-        {
-            RequestOp req = reqEntry.getValue();
 
-            if (ops == maxOpsPerTx)
+            if (conflict || full)
             {
-                curTx = etcdDb.getKvClient().batch();
-                ret.add(curTx);
+                ret.add(toChunk(chunkPuts, chunkOthers));
+                chunkPuts.clear();
+                chunkOthers.clear();
+                chunkDelKeys.clear();
+                chunkDelPrefixes.clear();
+                chunkBytes = 0;
+                replacedPut = null;
+            }
 
-                ops = 0;
+            if (putKey != null)
+            {
+                chunkPuts.put(putKey, req);
+                if (replacedPut != null)
+                {
+                    chunkBytes -= replacedPut.getSerializedSize();
+                }
             }
-            switch (req.getRequestCase())
+            else
             {
-                case REQUEST_DELETE_RANGE:
-                    curTx.delete(req.getRequestDeleteRangeOrBuilder());
-                    break;
-                case REQUEST_PUT:
-                    curTx.put(req.getRequestPutOrBuilder());
-                    break;
-                case REQUEST_RANGE:
-                    curTx.get(req.getRequestRangeOrBuilder());
-                    break;
-                case REQUEST_NOT_SET:
-                case REQUEST_TXN:
-                    break;
-                default:
-                    throw new ImplementationError("Unknown ETCD Request case: " + req.getRequestCase());
+                chunkOthers.add(req);
+                if (delKey != null)
+                {
+                    if (recursiveDel)
+                    {
+                        chunkDelPrefixes.add(delKey);
+                    }
+                    else
+                    {
+                        chunkDelKeys.add(delKey);
+                    }
+                }
             }
-            ops++;
+            chunkBytes += reqBytes;
         }
+        if (!chunkPuts.isEmpty() || !chunkOthers.isEmpty())
+        {
+            ret.add(toChunk(chunkPuts, chunkOthers));
+        }
+        return ret;
+    }
 
+    private static List<RequestOp> toChunk(Map<String, RequestOp> chunkPuts, List<RequestOp> chunkOthers)
+    {
+        List<RequestOp> chunk = new ArrayList<>(chunkOthers);
+        chunk.addAll(chunkPuts.values());
+        return chunk;
+    }
+
+    private static boolean startsWithAny(String key, List<String> prefixes)
+    {
+        boolean ret = false;
+        for (String prefix : prefixes)
+        {
+            if (key.startsWith(prefix))
+            {
+                ret = true;
+                break;
+            }
+        }
         return ret;
     }
 
     private void getRollbackMap(EtcdTransaction currentTransaction)
     {
-        if (maxOpsPerTx < currentTransaction.getKeyCount())
+        int ops = 0;
+        FluentTxnOps<?> tmpTx = etcdDb.getKvClient().batch();
+        for (String key : currentTransaction.changedKeys)
         {
-            int ops = 0;
-            FluentTxnOps<?> tmpTx = etcdDb.getKvClient().batch();
-            for (String key : currentTransaction.changedKeys)
+            if (ops >= maxOpsPerTx)
             {
-                if (ops >= maxOpsPerTx)
-                {
-                    processGetRequests(tmpTx);
-                    tmpTx = etcdDb.getKvClient().batch();
-                    ops = 0;
-                }
-
-                tmpTx.get(
-                    RangeRequest.newBuilder()
-                        .setKey(KeyUtils.bs(key))
-                        .build()
-                );
-                currentRollbackMap.put(key, null);
-                ops++;
+                processGetRequests(tmpTx);
+                tmpTx = etcdDb.getKvClient().batch();
+                ops = 0;
             }
 
-            for (Entry<String, Boolean> delKey : currentTransaction.deletedKeys.entrySet())
-            {
-                String key = delKey.getKey();
+            tmpTx.get(
+                RangeRequest.newBuilder()
+                    .setKey(KeyUtils.bs(key))
+                    .build()
+            );
+            currentRollbackMap.put(key, null);
+            ops++;
+        }
 
-                if (ops >= maxOpsPerTx)
-                {
-                    processGetRequests(tmpTx);
-                    tmpTx = etcdDb.getKvClient().batch();
-                    ops = 0;
-                }
+        for (Entry<String, Boolean> delKey : currentTransaction.deletedKeys.entrySet())
+        {
+            String key = delKey.getKey();
 
-                Builder getBuilder = RangeRequest.newBuilder();
-                ByteString keyBs = KeyUtils.bs(key);
-                getBuilder = getBuilder.setKey(keyBs);
-                boolean recursive = delKey.getValue() == null ? false : delKey.getValue();
-                if (recursive)
-                {
-                    getBuilder = getBuilder.setRangeEnd(KeyUtils.plusOne(keyBs));
-                }
-                currentRollbackMap.put(key, null);
-                tmpTx.get(getBuilder.build());
-                ops++;
+            if (ops >= maxOpsPerTx)
+            {
+                processGetRequests(tmpTx);
+                tmpTx = etcdDb.getKvClient().batch();
+                ops = 0;
             }
+
+            Builder getBuilder = RangeRequest.newBuilder();
+            ByteString keyBs = KeyUtils.bs(key);
+            getBuilder = getBuilder.setKey(keyBs);
+            boolean recursive = delKey.getValue() == null ? false : delKey.getValue();
+            if (recursive)
+            {
+                getBuilder = getBuilder.setRangeEnd(KeyUtils.plusOne(keyBs));
+            }
+            currentRollbackMap.put(key, null);
+            tmpTx.get(getBuilder.build());
+            ops++;
+        }
+        if (ops > 0)
+        {
+            processGetRequests(tmpTx);
         }
     }
 
@@ -315,54 +426,52 @@ public class ControllerETCDRollbackMgr
 
             FluentTxnOps<?> tmpTx = etcdDb.getKvClient().batch();
             int ops = 0;
-            boolean writtenRollbackEntries = false;
+            int bytes = 0;
             for (Entry<String, String> entry : currentRollbackMap.entrySet())
             {
-                if (ops == maxOpsPerTx)
-                {
-                    writeOrDie.accept(tmpTx);
-                    writtenRollbackEntries = true;
-                    tmpTx = etcdDb.getKvClient().batch();
-                    ops = 0;
-                }
-
                 String valueToRollback = entry.getValue();
                 String key = entry.getKey();
+                PutRequest putReq;
                 if (valueToRollback == null)
                 {
-                    tmpTx.put(
-                        PutRequest.newBuilder()
-                            .setKey(KeyUtils.bs(NAMESPACE_ROLLBACK_DEL + key))
-                            .setValue(VALUE_DELETE_DUMMY_BS)
-                            .build()
-                    );
+                    putReq = PutRequest.newBuilder()
+                        .setKey(KeyUtils.bs(NAMESPACE_ROLLBACK_DEL + key))
+                        .setValue(VALUE_DELETE_DUMMY_BS)
+                        .build();
                 }
                 else
                 {
-                    tmpTx.put(
-                        PutRequest.newBuilder()
-                            .setKey(KeyUtils.bs(NAMESPACE_ROLLBACK_UPDATE + key))
-                            .setValue(KeyUtils.bs(valueToRollback))
-                            .build()
-                    );
+                    putReq = PutRequest.newBuilder()
+                        .setKey(KeyUtils.bs(NAMESPACE_ROLLBACK_UPDATE + key))
+                        .setValue(KeyUtils.bs(valueToRollback))
+                        .build();
                 }
-                ops++;
-            }
-            if (ops > 0 || writtenRollbackEntries)
-            {
-                if (ops == maxOpsPerTx)
+
+                int reqBytes = putReq.getSerializedSize();
+                if (ops > 0 && (ops >= maxOpsPerTx || bytes + reqBytes > MAX_BYTES_PER_TX))
                 {
                     writeOrDie.accept(tmpTx);
                     tmpTx = etcdDb.getKvClient().batch();
+                    ops = 0;
+                    bytes = 0;
                 }
-                tmpTx.put(
-                    PutRequest.newBuilder()
-                        .setKey(KeyUtils.bs(KEY_ROLLBACK_STATUS))
-                        .setValue(KeyUtils.bs(VALUE_STATUS_READY))
-                        .build()
-                );
+                tmpTx.put(putReq);
+                ops++;
+                bytes += reqBytes;
+            }
+            if (ops >= maxOpsPerTx)
+            {
                 writeOrDie.accept(tmpTx);
+                tmpTx = etcdDb.getKvClient().batch();
             }
+            // written last, rollback() only restores the entries if all of them were written
+            tmpTx.put(
+                PutRequest.newBuilder()
+                    .setKey(KeyUtils.bs(KEY_ROLLBACK_STATUS))
+                    .setValue(KeyUtils.bs(VALUE_STATUS_READY))
+                    .build()
+            );
+            writeOrDie.accept(tmpTx);
         }
     }
 
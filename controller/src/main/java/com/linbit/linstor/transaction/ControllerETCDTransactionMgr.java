@@ -15,15 +15,37 @@ public class ControllerETCDTransactionMgr implements TransactionMgrETCD
     private final TransactionObjectCollection transactionObjectCollection;
     private final int maxOpsPerTx;
     private final ControllerETCDRollbackMgr rollbackMgr;
+    private final TransactionStatsCollector statsCollector;
+    private final String name;
 
+    // only created on first use, so that scopes which never access the database do not send anything to etcd
+    // when they commit
     private EtcdTransaction currentTransaction;
 
     public ControllerETCDTransactionMgr(ControllerETCDDatabase controllerETCDDatabase, int maxOpsPerTxRef)
+    {
+        this(controllerETCDDatabase, maxOpsPerTxRef, null, null);
+    }
+
+    /**
+     * @param statsCollectorRef
+     *     receives the statistics of every commit and rollback, null to not record any statistics
+     * @param nameRef
+     *     name of the API call or task the transaction belongs to
+     */
+    public ControllerETCDTransactionMgr(
+        ControllerETCDDatabase controllerETCDDatabase,
+        int maxOpsPerTxRef,
+        TransactionStatsCollector statsCollectorRef,
+        String nameRef
+    )
     {
         etcdDb = controllerETCDDatabase;
         maxOpsPerTx = maxOpsPerTxRef;
+        statsCollector = statsCollectorRef;
+        name = nameRef;
         transactionObjectCollection = new TransactionObjectCollection();
-        currentTransaction = createNewEtcdTx();
+        currentTransaction = null;
 
         rollbackMgr = new ControllerETCDRollbackMgr(controllerETCDDatabase, maxOpsPerTxRef);
     }
@@ -36,6 +58,10 @@ public class ControllerETCDTransactionMgr implements TransactionMgrETCD
     @Override
     public EtcdTransaction getTransaction()
     {
+        if (currentTransaction == null)
+        {
+            currentTransaction = createNewEtcdTx();
+        }
         return currentTransaction;
     }
 
@@ -48,6 +74,40 @@ public class ControllerETCDTransactionMgr implements TransactionMgrETCD
     @Override
     public void commit() throws TransactionException
     {
+        long startNanos = System.nanoTime();
+        int dirtyObjects = statsCollector == null ? 0 : transactionObjectCollection.countDirty();
+        int registeredObjects = transactionObjectCollection.sizeObjects();
+        int etcdOperations = currentTransaction == null ? 0 : currentTransaction.getKeyCount();
+        boolean committed = false;
+
+        try
+        {
+            boolean etcdTxSent = currentTransaction != null;
+            if (etcdTxSent)
+            {
+                commitEtcdTx();
+            }
+            transactionObjectCollection.commitAll();
+
+            clearTransactionObjects();
+
+            if (etcdTxSent)
+            {
+                rollbackMgr.cleanup();
+            }
+            committed = true;
+        }
+        finally
+        {
+            // failed commits are recorded as well, the following rollback is recorded on its own
+            recordStats(committed, registeredObjects, dirtyObjects, etcdOperations, startNanos);
+        }
+    }
+
+    private void commitEtcdTx() throws TransactionException
+    {
+        // the loaded checkpoint would not contain the changes of this commit
+        etcdDb.dropCheckpoint();
         List<FluentTxnOps<?>> txList = rollbackMgr.prepare(currentTransaction);
 
         boolean allSucceeded = true;
@@ -61,19 +121,9 @@ public class ControllerETCDTransactionMgr implements TransactionMgrETCD
             }
         }
 
-        if (allSucceeded)
+        currentTransaction = null;
+        if (!allSucceeded)
         {
-            transactionObjectCollection.commitAll();
-
-            clearTransactionObjects();
-
-            currentTransaction = createNewEtcdTx();
-
-            rollbackMgr.cleanup();
-        }
-        else
-        {
-            currentTransaction = createNewEtcdTx();
             throw new TransactionException(
                 "ETCD commit failed.",
                 new LinStorDBRuntimeException(txnResponse.toString())
@@ -84,13 +134,39 @@ public class ControllerETCDTransactionMgr implements TransactionMgrETCD
     @Override
     public void rollback() throws TransactionException
     {
-        rollbackMgr.rollback();
+        long startNanos = System.nanoTime();
+        int dirtyObjects = statsCollector == null ? 0 : transactionObjectCollection.countDirty();
+        int registeredObjects = transactionObjectCollection.sizeObjects();
+        int etcdOperations = currentTransaction == null ? 0 : currentTransaction.getKeyCount();
 
-        transactionObjectCollection.rollbackAll();
+        try
+        {
+            rollbackMgr.rollback();
+
+            transactionObjectCollection.rollbackAll();
 
-        currentTransaction = createNewEtcdTx();
+            currentTransaction = null;
 
-        clearTransactionObjects();
+            clearTransactionObjects();
+        }
+        finally
+        {
+            recordStats(false, registeredObjects, dirtyObjects, etcdOperations, startNanos);
+        }
+    }
+
+    private void recordStats(
+        boolean committed,
+        int registeredObjects,
+        int dirtyObjects,
+        int etcdOperations,
+        long startNanos
+    )
+    {
+        if (statsCollector != null)
+        {
+            statsCollector.record(name, committed, registeredObjects, dirtyObjects, etcdOperations, startNanos);
+        }
     }
 
     /**
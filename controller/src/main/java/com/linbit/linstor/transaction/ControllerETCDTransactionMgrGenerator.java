@@ -12,23 +12,34 @@ public class ControllerETCDTransactionMgrGenerator implements TransactionMgrGene
 {
     private final Provider<ControllerETCDDatabase> controllerDatabase;
     private final CtrlConfig ctrlCfg;
+    private final TransactionStatsCollector statsCollector;
 
     @Inject
     public ControllerETCDTransactionMgrGenerator(
         Provider<ControllerETCDDatabase> controllerDatabaseRef,
-        CtrlConfig ctrlCfgRef
+        CtrlConfig ctrlCfgRef,
+        TransactionStatsCollector statsCollectorRef
     )
     {
         ctrlCfg = ctrlCfgRef;
         controllerDatabase = controllerDatabaseRef;
+        statsCollector = statsCollectorRef;
     }
 
     @Override
     public ControllerETCDTransactionMgr startTransaction()
+    {
+        return startTransaction(null);
+    }
+
+    @Override
+    public ControllerETCDTransactionMgr startTransaction(String name)
     {
         return new ControllerETCDTransactionMgr(
             controllerDatabase.get(),
-            ctrlCfg.getEtcdOperationsPerTransaction()
+            ctrlCfg.getEtcdOperationsPerTransaction(),
+            statsCollector,
+            name
         );
     }
 }
@@ -0,0 +1,194 @@
+package com.linbit.linstor.transaction;
+
+import com.linbit.linstor.ControllerSQLDatabase;
+import com.linbit.linstor.core.cfg.CtrlConfig;
+import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.transaction.manager.SQLGroupCommit;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Group commit without a dedicated thread: the first committing transaction becomes the leader and commits the
+ * statements of all transactions that are queued at that time in one database transaction on its own pool
+ * connection. Transactions arriving while the leader is busy wait for it, and one of them becomes the leader of
+ * the next group.
+ *
+ * Every transaction's statements are executed within their own savepoint, so failing statements only fail the
+ * transaction they belong to.
+ */
+@Singleton
+public class ControllerSQLGroupCommitter implements SQLGroupCommit
+{
+    private final ControllerSQLDatabase controllerDatabase;
+    private final ErrorReporter errorReporter;
+    private final boolean enabled;
+
+    private final Object syncObj = new Object();
+    private final List<PendingCommit> queue = new ArrayList<>();
+    private boolean committing = false;
+
+    @Inject
+    public ControllerSQLGroupCommitter(
+        ControllerSQLDatabase controllerDatabaseRef,
+        ErrorReporter errorReporterRef,
+        CtrlConfig ctrlCfgRef
+    )
+    {
+        controllerDatabase = controllerDatabaseRef;
+        errorReporter = errorReporterRef;
+        enabled = ctrlCfgRef.isDbGroupCommitEnabled();
+    }
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Override
+    public void commit(SQLStatementBatch batch) throws TransactionException
+    {
+        PendingCommit own = new PendingCommit(batch);
+        List<PendingCommit> group = null;
+        boolean interrupted = false;
+        synchronized (syncObj)
+        {
+            queue.add(own);
+            while (!own.done && committing)
+            {
+                try
+                {
+                    syncObj.wait();
+                }
+                catch (InterruptedException ignored)
+                {
+                    // the statements might already be part of a running group commit, so wait for the result anyway
+                    interrupted = true;
+                }
+            }
+            if (!own.done)
+            {
+                committing = true;
+                group = new ArrayList<>(queue);
+                queue.clear();
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if (group != null)
+        {
+            try
+            {
+                commitGroup(group);
+            }
+            finally
+            {
+                synchronized (syncObj)
+                {
+                    for (PendingCommit pending : group)
+                    {
+                        pending.done = true;
+                    }
+                    committing = false;
+                    syncObj.notifyAll();
+                }
+            }
+        }
+
+        if (own.failure != null)
+        {
+            throw new TransactionException("Database commit failed.", own.failure);
+        }
+    }
+
+    private void commitGroup(List<PendingCommit> group)
+    {
+        errorReporter.logTrace("Committing %d transactions in one database transaction", group.size());
+        Connection con = null;
+        try
+        {
+            con = controllerDatabase.getConnection();
+            for (PendingCommit pending : group)
+            {
+                Savepoint savepoint = con.setSavepoint();
+                try
+                {
+                    pending.batch.flush(con);
+                    con.releaseSavepoint(savepoint);
+                }
+                catch (SQLException sqlExc)
+                {
+                    con.rollback(savepoint);
+                    pending.failure = sqlExc;
+                }
+            }
+            con.commit();
+        }
+        catch (SQLException sqlExc)
+        {
+            for (PendingCommit pending : group)
+            {
+                if (pending.failure == null)
+                {
+                    pending.failure = sqlExc;
+                }
+                pending.batch.clear();
+            }
+            rollback(con);
+        }
+        catch (RuntimeException runtimeExc)
+        {
+            for (PendingCommit pending : group)
+            {
+                if (pending.failure == null)
+                {
+                    pending.failure = runtimeExc;
+                }
+                pending.batch.clear();
+            }
+            rollback(con);
+        }
+        finally
+        {
+            controllerDatabase.returnConnection(con);
+        }
+    }
+
+    private void rollback(Connection con)
+    {
+        if (con != null)
+        {
+            try
+            {
+                con.rollback();
+            }
+            catch (SQLException sqlExc)
+            {
+                errorReporter.reportError(sqlExc, null, null, "Rollback of a failed group commit failed");
+            }
+        }
+    }
+
+    private static class PendingCommit
+    {
+        private final SQLStatementBatch batch;
+        private boolean done = false;
+        private Exception failure;
+
+        private PendingCommit(SQLStatementBatch batchRef)
+        {
+            batch = batchRef;
+        }
+    }
+}
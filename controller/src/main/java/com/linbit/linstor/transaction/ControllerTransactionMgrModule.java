@@ -2,6 +2,7 @@ package com.linbit.linstor.transaction;
 
 import com.linbit.linstor.dbdrivers.DatabaseDriverInfo;
 import com.linbit.linstor.transaction.manager.ControllerSQLTransactionMgrGenerator;
+import com.linbit.linstor.transaction.manager.SQLGroupCommit;
 import com.linbit.linstor.transaction.manager.TransactionMgrGenerator;
 
 import com.google.inject.AbstractModule;
@@ -22,6 +23,7 @@ public class ControllerTransactionMgrModule extends AbstractModule
         {
             case SQL:
                 bind(TransactionMgrGenerator.class).to(ControllerSQLTransactionMgrGenerator.class);
+                bind(SQLGroupCommit.class).to(ControllerSQLGroupCommitter.class);
                 break;
             case ETCD:
                 bind(TransactionMgrGenerator.class).to(ControllerETCDTransactionMgrGenerator.class);
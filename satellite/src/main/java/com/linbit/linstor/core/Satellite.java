@@ -33,6 +33,8 @@ import com.linbit.linstor.event.serializer.protobuf.common.VolumeDiskStateEventS
 import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventPublisher;
 import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventService;
 import com.linbit.linstor.layer.drbd.drbdstate.DrbdStateModule;
+import com.linbit.linstor.layer.nvme.NvmeConnectService;
+import com.linbit.linstor.layer.storage.WipeHandler;
 import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.linstor.logging.LoggingModule;
 import com.linbit.linstor.logging.StdErrorReporter;
@@ -107,6 +109,10 @@ public final class Satellite
 
     private final SnapshotShippingService snapShipSvc;
 
+    private final WipeHandler wipeHandler;
+
+    private final NvmeConnectService nvmeConnectSvc;
+
     private final SatelliteNetComInitializer satelliteNetComInitializer;
 
     private final StltCoreObjProtInitializer stltCoreObjProtInitializer;
@@ -130,6 +136,8 @@ public final class Satellite
         FileSystemWatch fsWatchSvcRef,
         DrbdEventService drbdEventSvcRef,
         SnapshotShippingService snapShipSvcRef,
+        WipeHandler wipeHandlerRef,
+        NvmeConnectService nvmeConnectSvcRef,
         SatelliteNetComInitializer satelliteNetComInitializerRef,
         StltCoreObjProtInitializer stltCoreObjProtInitializerRef,
         StltConfig stltCfgRef
@@ -147,6 +155,8 @@ public final class Satellite
         fsWatchSvc = fsWatchSvcRef;
         drbdEventSvc = drbdEventSvcRef;
         snapShipSvc = snapShipSvcRef;
+        wipeHandler = wipeHandlerRef;
+        nvmeConnectSvc = nvmeConnectSvcRef;
         satelliteNetComInitializer = satelliteNetComInitializerRef;
         stltCoreObjProtInitializer = stltCoreObjProtInitializerRef;
         stltCfg = stltCfgRef;
@@ -224,6 +234,8 @@ public final class Satellite
                 startOrderlist.add(new ServiceStarter(drbdEventPublisher));
             }
             startOrderlist.add(new ServiceStarter(snapShipSvc));
+            startOrderlist.add(new ServiceStarter(wipeHandler));
+            startOrderlist.add(new ServiceStarter(nvmeConnectSvc));
             startOrderlist.add(new ServiceStarter(devMgrService));
             startOrderlist.add(stltCoreObjProtInitializer);
             errorReporter.logInfo("Initializing main network communications service");
@@ -237,6 +249,8 @@ public final class Satellite
                 systemServicesMap.put(drbdEventPublisher.getInstanceName(), drbdEventPublisher);
             }
             systemServicesMap.put(snapShipSvc.getInstanceName(), snapShipSvc);
+            systemServicesMap.put(wipeHandler.getInstanceName(), wipeHandler);
+            systemServicesMap.put(nvmeConnectSvc.getInstanceName(), nvmeConnectSvc);
             systemServicesMap.put(devMgrService.getInstanceName(), devMgrService);
 
             applicationLifecycleManager.startSystemServices(startOrderlist);
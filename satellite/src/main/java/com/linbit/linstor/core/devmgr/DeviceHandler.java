@@ -63,4 +63,9 @@ public interface DeviceHandler
     void fullSyncApplied(Node localNodeRef) throws StorageException;
 
     SpaceInfo getSpaceInfo(StorPool storPoolRef) throws StorageException;
+
+    /**
+     * Queries the free space of the given storage pools and reports those that changed since the last report
+     */
+    void updateFreeSpaces(Collection<StorPool> storPools);
 }
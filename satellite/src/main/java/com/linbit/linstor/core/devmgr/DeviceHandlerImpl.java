@@ -65,6 +65,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -90,6 +91,9 @@ public class DeviceHandlerImpl implements DeviceHandler
 
     private final SysFsHandler sysFsHandler;
 
+    // free spaces last sent to the controller, only changes are sent again
+    private final Map<StorPool.Key, SpaceInfo> reportedFreeSpaces = new HashMap<>();
+
     @Inject
     public DeviceHandlerImpl(
         @DeviceManagerContext AccessContext wrkCtxRef,
@@ -145,6 +149,7 @@ public class DeviceHandlerImpl implements DeviceHandler
             processResourcesAndSnapshots(
                 rscs,
                 snapshots,
+                SetUtils.mergeIntoHashSet(rscByLayer.keySet(), snapByLayer.keySet()),
                 unprocessedSnapshots,
                 rscListNotifyApplied,
                 rscListNotifyDelete,
@@ -277,6 +282,7 @@ public class DeviceHandlerImpl implements DeviceHandler
     private void processResourcesAndSnapshots(
         Collection<Resource> resourceList,
         Collection<Snapshot> snapshotsRef,
+        Set<DeviceLayer> layersRef,
         List<Snapshot> unprocessedSnapshotsRef,
         List<Resource> rscListNotifyApplied,
         List<Resource> rscListNotifyDelete,
@@ -291,179 +297,241 @@ public class DeviceHandlerImpl implements DeviceHandler
         List<Resource> sysFsUpdateList = new ArrayList<>();
         List<Resource> sysFsDeleteList = new ArrayList<>();
 
+        Map<Resource, ApiCallRcImpl> apiCallRcByRsc = new HashMap<>();
+        Map<Resource, Throwable> failedRscs = new HashMap<>();
         for (Resource rsc : resourceList)
         {
-            ResourceName rscName = rsc.getDefinition().getName();
-
             ApiCallRcImpl apiCallRc = new ApiCallRcImpl();
+            apiCallRcByRsc.put(rsc, apiCallRc);
             try
             {
-                List<Snapshot> snapshots = snapshotsByRscName.get(rscName);
-                if (snapshots == null)
-                {
-                    snapshots = Collections.emptyList();
-                }
+                List<Snapshot> snapshots = getSnapshots(snapshotsByRscName, rsc);
                 unprocessedSnapshotsRef.removeAll(snapshots);
 
-                AbsRscLayerObject<Resource> rscLayerObject = rsc.getLayerData(wrkCtx);
                 process(
-                    rscLayerObject,
+                    rsc.getLayerData(wrkCtx),
                     snapshots,
                     apiCallRc
                 );
+            }
+            catch (AccessDeniedException | DatabaseException exc)
+            {
+                throw new ImplementationError(exc);
+            }
+            catch (Exception | ImplementationError exc)
+            {
+                failedRscs.put(rsc, exc);
+            }
+        }
 
-                StateFlags<Flags> rscFlags = rsc.getStateFlags();
-                if (
-                    rscLayerObject.getLayerKind().isLocalOnly() &&
-                        rscFlags.isUnset(wrkCtx, Resource.Flags.DELETE) &&
-                        rscFlags.isUnset(wrkCtx, Resource.Flags.INACTIVE)
-                )
+        /*
+         * some layers defer work (like DRBD's adjust) in order to batch it across all resources of this run.
+         * Failures of such deferred work are reported for the resource they belong to, just as if they
+         * occurred during the process method
+         */
+        for (DeviceLayer layer : layersRef)
+        {
+            try
+            {
+                Map<AbsRscLayerObject<Resource>, LinStorException> deferredFailures = layer.finishProcessing();
+                for (Entry<AbsRscLayerObject<Resource>, LinStorException> failure : deferredFailures.entrySet())
                 {
-                    MkfsUtils.makeFileSystemOnMarked(errorReporter, extCmdFactory, wrkCtx, rsc);
+                    failedRscs.putIfAbsent(failure.getKey().getAbsResource(), failure.getValue());
                 }
-                for (Snapshot snapshot : snapshots)
+            }
+            catch (AccessDeniedException | DatabaseException exc)
+            {
+                throw new ImplementationError(exc);
+            }
+        }
+
+        for (Resource rsc : resourceList)
+        {
+            ResourceName rscName = rsc.getDefinition().getName();
+
+            ApiCallRcImpl apiCallRc = apiCallRcByRsc.get(rsc);
+            Throwable failure = failedRscs.get(rsc);
+            if (failure != null)
+            {
+                apiCallRc = handleProcessFailure(rsc, failure);
+            }
+            else
+            {
+                try
                 {
-                    if (snapshot.getFlags().isSet(wrkCtx, Snapshot.Flags.DELETE))
+                    List<Snapshot> snapshots = getSnapshots(snapshotsByRscName, rsc);
+                    AbsRscLayerObject<Resource> rscLayerObject = rsc.getLayerData(wrkCtx);
+
+                    StateFlags<Flags> rscFlags = rsc.getStateFlags();
+                    if (
+                        rscLayerObject.getLayerKind().isLocalOnly() &&
+                            rscFlags.isUnset(wrkCtx, Resource.Flags.DELETE) &&
+                            rscFlags.isUnset(wrkCtx, Resource.Flags.INACTIVE)
+                    )
                     {
-                        snapListNotifyDelete.add(snapshot);
-                        // snapshot.delete is done by the deviceManager
+                        MkfsUtils.makeFileSystemOnMarked(errorReporter, extCmdFactory, wrkCtx, rsc);
+                    }
+                    for (Snapshot snapshot : snapshots)
+                    {
+                        if (snapshot.getFlags().isSet(wrkCtx, Snapshot.Flags.DELETE))
+                        {
+                            snapListNotifyDelete.add(snapshot);
+                            // snapshot.delete is done by the deviceManager
+                        }
+                        // start the snapshot-shipping-daemons if necessary
+                        snapshotShippingManager.allSnapshotPartsRegistered(snapshot);
                     }
-                    // start the snapshot-shipping-daemons if necessary
-                    snapshotShippingManager.allSnapshotPartsRegistered(snapshot);
-                }
 
-                /*
-                 * old device manager reported changes of free space after every
-                 * resource operation. As this could require to query the same
-                 * VG or zpool multiple times within the same device manager run,
-                 * we only query the free space after the whole run.
-                 * This also means that we only send the resourceApplied messages
-                 * at the very end
-                 */
-                if (rscFlags.isSet(wrkCtx, Resource.Flags.DELETE))
-                {
-                    rscListNotifyDelete.add(rsc);
-                    notificationListener.get().notifyResourceDeleted(rsc);
-                    // rsc.delete is done by the deviceManager
-                }
-                else
-                {
-                    Iterator<Volume> iterateVolumes = rsc.iterateVolumes();
-                    while (iterateVolumes.hasNext())
+                    /*
+                     * old device manager reported changes of free space after every
+                     * resource operation. As this could require to query the same
+                     * VG or zpool multiple times within the same device manager run,
+                     * we only query the free space after the whole run.
+                     * This also means that we only send the resourceApplied messages
+                     * at the very end
+                     */
+                    if (rscFlags.isSet(wrkCtx, Resource.Flags.DELETE))
                     {
-                        Volume vlm = iterateVolumes.next();
-                        if (vlm.getFlags().isSet(wrkCtx, Volume.Flags.DELETE))
+                        rscListNotifyDelete.add(rsc);
+                        notificationListener.get().notifyResourceDeleted(rsc);
+                        // rsc.delete is done by the deviceManager
+                    }
+                    else
+                    {
+                        Iterator<Volume> iterateVolumes = rsc.iterateVolumes();
+                        while (iterateVolumes.hasNext())
                         {
-                            // verify if all VlmProviderObject were deleted correctly
-                            ensureAllVlmDataDeleted(rscLayerObject, vlm.getVolumeDefinition().getVolumeNumber());
-                            vlmListNotifyDelete.add(vlm);
+                            Volume vlm = iterateVolumes.next();
+                            if (vlm.getFlags().isSet(wrkCtx, Volume.Flags.DELETE))
+                            {
+                                // verify if all VlmProviderObject were deleted correctly
+                                ensureAllVlmDataDeleted(rscLayerObject, vlm.getVolumeDefinition().getVolumeNumber());
+                                vlmListNotifyDelete.add(vlm);
+                            }
                         }
+                        rscListNotifyApplied.add(rsc);
                     }
-                    rscListNotifyApplied.add(rsc);
-                }
 
-                // give the layer the opportunity to send a "resource ready" event
-                resourceFinished(rsc.getLayerData(wrkCtx));
+                    // give the layer the opportunity to send a "resource ready" event
+                    resourceFinished(rsc.getLayerData(wrkCtx));
 
-                if (rscFlags.isUnset(wrkCtx, Resource.Flags.DELETE))
+                    if (rscFlags.isUnset(wrkCtx, Resource.Flags.DELETE))
+                    {
+                        sysFsUpdateList.add(rsc);
+                    }
+                    else
+                    {
+                        sysFsDeleteList.add(rsc);
+                    }
+                }
+                catch (AccessDeniedException | DatabaseException exc)
                 {
-                    sysFsUpdateList.add(rsc);
+                    throw new ImplementationError(exc);
                 }
-                else
+                catch (Exception | ImplementationError exc)
                 {
-                    sysFsDeleteList.add(rsc);
+                    apiCallRc = handleProcessFailure(rsc, exc);
                 }
             }
-            catch (AccessDeniedException | DatabaseException exc)
-            {
-                throw new ImplementationError(exc);
-            }
-            catch (Exception | ImplementationError exc)
-            {
-                String errorId = errorReporter.reportError(
-                    exc,
-                    null,
-                    null,
-                    "An error occurred while processing resource '" + rsc + "'"
-                );
-
-                long rc;
-                String errMsg;
-                String cause;
-                String correction;
-                String details;
-                if (exc instanceof StorageException ||
-                    exc instanceof ResourceException ||
-                    exc instanceof VolumeException
-                )
-                {
-                    LinStorException linExc = (LinStorException) exc;
-                    // TODO add returnCode and message to the classes StorageException, ResourceException and
-                    // VolumeException and include them here
-
-                    rc = ApiConsts.FAIL_UNKNOWN_ERROR;
-                    errMsg = exc.getMessage();
+            notificationListener.get().notifyResourceDispatchResponse(rscName, apiCallRc);
+        }
+        sysFsHandler.updateSysFsSettings(sysFsUpdateList, sysFsDeleteList);
+    }
 
-                    cause = linExc.getCauseText();
-                    correction = linExc.getCorrectionText();
-                    details = linExc.getDetailsText();
-                }
-                else
-                if (exc instanceof AbortLayerProcessingException)
-                {
-                    AbsRscLayerObject<?> rscLayerData = ((AbortLayerProcessingException) exc).rscLayerObject;
-                    rc = ApiConsts.FAIL_UNKNOWN_ERROR;
-                    errMsg = exc.getMessage();
+    private List<Snapshot> getSnapshots(Map<ResourceName, List<Snapshot>> snapshotsByRscName, Resource rsc)
+    {
+        List<Snapshot> snapshots = snapshotsByRscName.get(rsc.getDefinition().getName());
+        if (snapshots == null)
+        {
+            snapshots = Collections.emptyList();
+        }
+        return snapshots;
+    }
 
-                    if (errMsg == null)
-                    {
-                        errMsg = String.format(
-                            "Layer '%s' failed to process resource '%s'. ",
-                            rscLayerData.getLayerKind().name(),
-                            rscLayerData.getSuffixedResourceName()
-                        );
-                    }
+    private ApiCallRcImpl handleProcessFailure(Resource rsc, Throwable exc)
+    {
+        String errorId = errorReporter.reportError(
+            exc,
+            null,
+            null,
+            "An error occurred while processing resource '" + rsc + "'"
+        );
 
-                    cause = null;
-                    correction = null;
+        long rc;
+        String errMsg;
+        String cause;
+        String correction;
+        String details;
+        if (exc instanceof StorageException ||
+            exc instanceof ResourceException ||
+            exc instanceof VolumeException
+        )
+        {
+            LinStorException linExc = (LinStorException) exc;
+            // TODO add returnCode and message to the classes StorageException, ResourceException and
+            // VolumeException and include them here
 
-                    List<String> devLayersAbove = new ArrayList<>();
-                    AbsRscLayerObject<?> parent = rscLayerData.getParent();
-                    while (parent != null)
-                    {
-                        devLayersAbove.add(layerFactory.getDeviceLayer(parent.getLayerKind()).getName());
-                        parent = parent.getParent();
-                    }
-                    details = String.format("Skipping layers above %s", devLayersAbove);
-                }
-                else
-                {
-                    rc = ApiConsts.FAIL_UNKNOWN_ERROR;
-                    errMsg = exc.getMessage();
-                    if (errMsg == null)
-                    {
-                        errMsg = "An unknown exception occurred while processing the resource " + rscName.displayValue;
-                    }
+            rc = ApiConsts.FAIL_UNKNOWN_ERROR;
+            errMsg = exc.getMessage();
 
-                    cause = null;
-                    correction = null;
-                    details = null;
-                }
+            cause = linExc.getCauseText();
+            correction = linExc.getCorrectionText();
+            details = linExc.getDetailsText();
+        }
+        else
+        if (exc instanceof AbortLayerProcessingException)
+        {
+            AbsRscLayerObject<?> rscLayerData = ((AbortLayerProcessingException) exc).rscLayerObject;
+            rc = ApiConsts.FAIL_UNKNOWN_ERROR;
+            errMsg = exc.getMessage();
 
-                apiCallRc = ApiCallRcImpl.singletonApiCallRc(ApiCallRcImpl
-                    .entryBuilder(rc, errMsg)
-                    .setCause(cause)
-                    .setCorrection(correction)
-                    .setDetails(details)
-                    .addErrorId(errorId)
-                    .build()
+            if (errMsg == null)
+            {
+                errMsg = String.format(
+                    "Layer '%s' failed to process resource '%s'. ",
+                    rscLayerData.getLayerKind().name(),
+                    rscLayerData.getSuffixedResourceName()
                 );
+            }
 
-                notificationListener.get().notifyResourceFailed(rsc, apiCallRc);
+            cause = null;
+            correction = null;
+
+            List<String> devLayersAbove = new ArrayList<>();
+            AbsRscLayerObject<?> parent = rscLayerData.getParent();
+            while (parent != null)
+            {
+                devLayersAbove.add(layerFactory.getDeviceLayer(parent.getLayerKind()).getName());
+                parent = parent.getParent();
             }
-            notificationListener.get().notifyResourceDispatchResponse(rscName, apiCallRc);
+            details = String.format("Skipping layers above %s", devLayersAbove);
         }
-        sysFsHandler.updateSysFsSettings(sysFsUpdateList, sysFsDeleteList);
+        else
+        {
+            rc = ApiConsts.FAIL_UNKNOWN_ERROR;
+            errMsg = exc.getMessage();
+            if (errMsg == null)
+            {
+                errMsg = "An unknown exception occurred while processing the resource " +
+                    rsc.getDefinition().getName().displayValue;
+            }
+
+            cause = null;
+            correction = null;
+            details = null;
+        }
+
+        ApiCallRcImpl apiCallRc = ApiCallRcImpl.singletonApiCallRc(ApiCallRcImpl
+            .entryBuilder(rc, errMsg)
+            .setCause(cause)
+            .setCorrection(correction)
+            .setDetails(details)
+            .addErrorId(errorId)
+            .build()
+        );
+
+        notificationListener.get().notifyResourceFailed(rsc, apiCallRc);
+        return apiCallRc;
     }
 
     private void ensureAllVlmDataDeleted(
@@ -834,6 +902,11 @@ public class DeviceHandlerImpl implements DeviceHandler
     public void fullSyncApplied(Node localNode) throws StorageException
     {
         fullSyncApplied.set(true);
+        // the controller might have been restarted, report all free spaces again
+        synchronized (reportedFreeSpaces)
+        {
+            reportedFreeSpaces.clear();
+        }
         try
         {
             Props localNodeProps = localNode.getProps(wrkCtx);
@@ -896,25 +969,44 @@ public class DeviceHandlerImpl implements DeviceHandler
 
     private void updateChangedFreeSpaces()
     {
-        Map<StorPool, SpaceInfo> freeSpaces = new TreeMap<>();
-        for (StorPool storPool : storageLayer.getChangedStorPools())
+        updateFreeSpaces(storageLayer.getChangedStorPools());
+    }
+
+    @Override
+    public void updateFreeSpaces(Collection<StorPool> storPools)
+    {
+        // also called by the wipe workers, once the space of a deleted volume was released
+        synchronized (reportedFreeSpaces)
         {
-            try
+            Map<StorPool, SpaceInfo> freeSpaces = new TreeMap<>();
+            for (StorPool storPool : storPools)
             {
-                freeSpaces.put(
-                    storPool,
-                    storageLayer.getStoragePoolSpaceInfo(storPool)
-                );
-            }
-            catch (StorageException exc)
-            {
-                errorReporter.logError("Failed to query freespace or capacity of storPool " + storPool.getName());
+                try
+                {
+                    SpaceInfo spaceInfo = storageLayer.getAccountedStoragePoolSpaceInfo(storPool);
+                    SpaceInfo reported = reportedFreeSpaces.put(new StorPool.Key(storPool), spaceInfo);
+                    if (
+                        reported == null ||
+                            !Objects.equals(reported.freeCapacity, spaceInfo.freeCapacity) ||
+                            !Objects.equals(reported.totalCapacity, spaceInfo.totalCapacity)
+                    )
+                    {
+                        freeSpaces.put(storPool, spaceInfo);
+                    }
+                }
+                catch (StorageException exc)
+                {
+                    errorReporter.logError("Failed to query freespace or capacity of storPool " + storPool.getName());
+                }
+                catch (AccessDeniedException exc)
+                {
+                    throw new ImplementationError(exc);
+                }
             }
-            catch (AccessDeniedException exc)
+            if (!freeSpaces.isEmpty())
             {
-                throw new ImplementationError(exc);
+                notificationListener.get().notifyFreeSpacesChanged(freeSpaces);
             }
         }
-        notificationListener.get().notifyFreeSpacesChanged(freeSpaces);
     }
 }
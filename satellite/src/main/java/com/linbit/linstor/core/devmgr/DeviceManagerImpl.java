@@ -1372,6 +1372,37 @@ class DeviceManagerImpl implements Runnable, SystemService, DeviceManager, Devic
         }
     }
 
+    @Override
+    public void notifyFreeSpaceReleased(StorPoolName storPoolName)
+    {
+        Lock rcfgRdLock = reconfigurationLock.readLock();
+        Lock nodesMapRdLock = nodesMapLock.readLock();
+        Lock storPoolDfnMapRdLock = storPoolDfnMapLock.readLock();
+        rcfgRdLock.lock();
+        nodesMapRdLock.lock();
+        storPoolDfnMapRdLock.lock();
+        try
+        {
+            Node localNode = controllerPeerConnector.getLocalNode();
+            // the storage pool might have been deleted in the meantime
+            StorPool storPool = localNode == null ? null : localNode.getStorPool(wrkCtx, storPoolName);
+            if (storPool != null)
+            {
+                devHandler.updateFreeSpaces(Collections.singleton(storPool));
+            }
+        }
+        catch (AccessDeniedException accExc)
+        {
+            throw new ImplementationError(accExc);
+        }
+        finally
+        {
+            storPoolDfnMapRdLock.unlock();
+            nodesMapRdLock.unlock();
+            rcfgRdLock.unlock();
+        }
+    }
+
     @Override
     public void notifyResourceFailed(Resource rsc, ApiCallRc apiCallRc)
     {
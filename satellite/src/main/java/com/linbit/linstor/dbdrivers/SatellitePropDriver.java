@@ -19,6 +19,18 @@ public class SatellitePropDriver implements PropsConDatabaseDriver
         return Collections.emptyMap();
     }
 
+    @Override
+    public void preloadAll()
+    {
+        // no-op
+    }
+
+    @Override
+    public void clearPreloaded()
+    {
+        // no-op
+    }
+
     @Override
     public void persist(String instanceName, String key, String value)
     {
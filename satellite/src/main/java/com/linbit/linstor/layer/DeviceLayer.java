@@ -1,6 +1,7 @@
 package com.linbit.linstor.layer;
 
 import com.linbit.ImplementationError;
+import com.linbit.linstor.LinStorException;
 import com.linbit.linstor.LinStorRuntimeException;
 import com.linbit.linstor.api.ApiCallRc;
 import com.linbit.linstor.api.ApiCallRcImpl;
@@ -9,6 +10,7 @@ import com.linbit.linstor.api.SpaceInfo;
 import com.linbit.linstor.core.devmgr.exceptions.ResourceException;
 import com.linbit.linstor.core.devmgr.exceptions.VolumeException;
 import com.linbit.linstor.core.identifier.ResourceName;
+import com.linbit.linstor.core.identifier.StorPoolName;
 import com.linbit.linstor.core.objects.Resource;
 import com.linbit.linstor.core.objects.Snapshot;
 import com.linbit.linstor.core.objects.StorPool;
@@ -22,6 +24,7 @@ import com.linbit.linstor.storage.StorageException;
 import com.linbit.linstor.storage.interfaces.categories.resource.AbsRscLayerObject;
 import com.linbit.linstor.storage.interfaces.categories.resource.VlmProviderObject;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -83,6 +86,23 @@ public interface DeviceLayer
         throws StorageException, ResourceException, VolumeException, AccessDeniedException,
         DatabaseException, AbortLayerProcessingException;
 
+    /**
+     * Called once after {@link #process(AbsRscLayerObject, List, ApiCallRcImpl)} was called for all resources
+     * of the current device manager run.
+     * Most layers will no-op. Layers deferring work in order to batch it across resources (currently
+     * {@link com.linbit.linstor.layer.drbd.DrbdLayer}) have to complete that work here.
+     *
+     * @return The exceptions of all resources whose deferred work failed
+     *
+     * @throws AccessDeniedException
+     * @throws DatabaseException
+     */
+    default Map<AbsRscLayerObject<Resource>, LinStorException> finishProcessing()
+        throws AccessDeniedException, DatabaseException
+    {
+        return Collections.emptyMap();
+    }
+
     void clearCache() throws StorageException;
 
     void setLocalNodeProps(Props localNodeProps);
@@ -133,6 +153,12 @@ public interface DeviceLayer
 
         void notifyFreeSpacesChanged(Map<StorPool, SpaceInfo> spaceInfoMapRef);
 
+        /**
+         * Called outside of the device manager, once the space of an asynchronously deleted volume became
+         * available again
+         */
+        void notifyFreeSpaceReleased(StorPoolName storPoolName);
+
         void notifyResourceFailed(Resource rsc, ApiCallRc apiCallRc);
     }
 
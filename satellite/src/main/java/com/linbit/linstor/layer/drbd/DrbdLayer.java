@@ -11,6 +11,7 @@ import com.linbit.drbd.md.PeerCountException;
 import com.linbit.extproc.ExtCmdFactory;
 import com.linbit.extproc.ExtCmdFailedException;
 import com.linbit.linstor.InternalApiConsts;
+import com.linbit.linstor.LinStorException;
 import com.linbit.linstor.annotation.DeviceManagerContext;
 import com.linbit.linstor.api.ApiCallRcImpl;
 import com.linbit.linstor.api.ApiConsts;
@@ -38,6 +39,7 @@ import com.linbit.linstor.layer.drbd.drbdstate.DrbdVolume;
 import com.linbit.linstor.layer.drbd.drbdstate.DrbdVolume.DiskState;
 import com.linbit.linstor.layer.drbd.drbdstate.NoInitialStateException;
 import com.linbit.linstor.layer.drbd.helper.ReadyForPrimaryNotifier;
+import com.linbit.linstor.layer.drbd.utils.AdjustBatches;
 import com.linbit.linstor.layer.drbd.utils.ConfFileBuilder;
 import com.linbit.linstor.layer.drbd.utils.DrbdAdm;
 import com.linbit.linstor.layer.drbd.utils.MdSuperblockBuffer;
@@ -67,12 +69,18 @@ import javax.inject.Singleton;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -87,6 +95,8 @@ public class DrbdLayer implements DeviceLayer
 
     private static final long HAS_VALID_STATE_FOR_PRIMARY_TIMEOUT = 2000;
 
+    private static final String RES_FILE_HASH_ALGORITHM = "SHA-256";
+
     private final AccessContext workerCtx;
     private final DrbdAdm drbdUtils;
     private final DrbdStateStore drbdState;
@@ -98,6 +108,12 @@ public class DrbdLayer implements DeviceLayer
     private final Provider<DeviceHandler> resourceProcessorProvider;
     private final ExtCmdFactory extCmdFactory;
 
+    // hashes of the .res files that were successfully applied with 'drbdadm adjust', by suffixed resource name
+    private final Map<String, byte[]> appliedResFileHashes = new HashMap<>();
+
+    // resources whose adjust is deferred to finishProcessing
+    private final Map<DrbdRscData<Resource>, PendingAdjust> pendingAdjusts = new LinkedHashMap<>();
+
     // Number of activity log stripes for DRBD meta data; this should be replaced with a property of the
     // resource definition, a property of the volume definition, or otherwise a system-wide default
     public static final int FIXME_AL_STRIPES = 1;
@@ -145,7 +161,8 @@ public class DrbdLayer implements DeviceLayer
     )
         throws StorageException, AccessDeniedException, DatabaseException
     {
-        // no-op
+        // in case the previous run did not reach finishProcessing
+        pendingAdjusts.clear();
     }
 
     @Override
@@ -382,10 +399,14 @@ public class DrbdLayer implements DeviceLayer
             {
                 if (adjustDrbd(drbdRscData, snapshotList, apiCallRc, false))
                 {
-                    addAdjustedMsg(drbdRscData, apiCallRc);
+                    // deferred adjusts are only reported as adjusted by finishProcessing once they succeeded
+                    if (!pendingAdjusts.containsKey(drbdRscData))
+                    {
+                        addAdjustedMsg(drbdRscData, apiCallRc);
 
-                    // this should not be executed if adjusting the drbd resource fails
-                    copyResFileToBackup(drbdRscData);
+                        // this should not be executed if adjusting the drbd resource fails
+                        copyResFileToBackup(drbdRscData);
+                    }
                 }
                 else
                 {
@@ -491,6 +512,7 @@ public class DrbdLayer implements DeviceLayer
         {
             errorReporter.logTrace("Shutting down drbd resource %s", suffixedRscName);
             drbdUtils.down(drbdRscData);
+            appliedResFileHashes.remove(suffixedRscName);
             Path resFile = asResourceFile(drbdRscData, false);
             errorReporter.logTrace("Deleting res file: %s ", resFile);
             Files.deleteIfExists(resFile);
@@ -525,6 +547,11 @@ public class DrbdLayer implements DeviceLayer
 
     /**
      * Adjusts (creates or modifies) a given DRBD resource
+     *
+     * The rendered .res file is hashed and compared with the hash of the configuration that was applied
+     * during the last successful adjust. If that hash matches, the events2 state does not report any
+     * deviation and no other DRBD operation (meta-data creation, resize, forget-peer) is pending, the
+     * rewrite of the .res file, its verification and the {@code drbdadm adjust} are skipped.
      */
     private boolean adjustDrbd(
         DrbdRscData<Resource> drbdRscData,
@@ -538,59 +565,76 @@ public class DrbdLayer implements DeviceLayer
         boolean contProcess = true;
         updateRequiresAdjust(drbdRscData);
 
-        if (drbdRscData.isAdjustRequired())
-        {
-            /*
-             *  we have to split here into several steps:
-             *  - first we have to detach all volumes marked for deletion and delete the DRBD-volumes
-             *  - suspend IO if required by a snapshot
-             *  - call the underlying layer's process method
-             *  - create metaData for new volumes
-             *  -- check which volumes are new
-             *  -- render all res files
-             *  -- create-md only for new volumes (create-md needs already valid .res files)
-             *  - adjust all remaining and newly created volumes
-             *  - resume IO if allowed by all snapshots
-             */
-            updateResourceToCurrentDrbdState(drbdRscData);
+        /*
+         *  we have to split here into several steps:
+         *  - first we have to detach all volumes marked for deletion and delete the DRBD-volumes
+         *  - suspend IO if required by a snapshot
+         *  - call the underlying layer's process method
+         *  - create metaData for new volumes
+         *  -- check which volumes are new
+         *  -- render all res files
+         *  -- create-md only for new volumes (create-md needs already valid .res files)
+         *  - adjust all remaining and newly created volumes (only if anything changed)
+         *  - resume IO if allowed by all snapshots
+         */
+        updateResourceToCurrentDrbdState(drbdRscData);
 
-            List<DrbdVlmData<Resource>> checkMetaData = detachVolumesIfNecessary(drbdRscData);
+        List<DrbdVlmData<Resource>> checkMetaData = detachVolumesIfNecessary(drbdRscData);
 
-            shrinkVolumesIfNecessary(drbdRscData);
+        shrinkVolumesIfNecessary(drbdRscData);
 
-            adjustSuspendIo(drbdRscData, snapshotList);
+        adjustSuspendIo(drbdRscData, snapshotList);
 
-            if (!childAlreadyProcessed)
-            {
-                contProcess = processChild(drbdRscData, snapshotList, apiCallRc);
-            }
+        if (!childAlreadyProcessed)
+        {
+            contProcess = processChild(drbdRscData, snapshotList, apiCallRc);
+        }
 
-            if (contProcess)
+        if (contProcess)
+        {
+            // hasMetaData needs to be run after child-resource processed
+            List<DrbdVlmData<Resource>> createMetaData = new ArrayList<>();
+            if (!drbdRscData.getAbsResource().isDrbdDiskless(workerCtx))
             {
-                // hasMetaData needs to be run after child-resource processed
-                List<DrbdVlmData<Resource>> createMetaData = new ArrayList<>();
-                if (!drbdRscData.getAbsResource().isDrbdDiskless(workerCtx))
+                // do not try to create meta data while the resource is diskless....
+                for (DrbdVlmData<Resource> drbdVlmData : checkMetaData)
                 {
-                    // do not try to create meta data while the resource is diskless....
-                    for (DrbdVlmData<Resource> drbdVlmData : checkMetaData)
+                    if (!hasMetaData(drbdVlmData))
                     {
-                        if (!hasMetaData(drbdVlmData))
-                        {
-                            createMetaData.add(drbdVlmData);
-                        }
+                        createMetaData.add(drbdVlmData);
                     }
                 }
+            }
 
-                regenerateResFile(drbdRscData);
+            String suffixedRscName = drbdRscData.getSuffixedResourceName();
+            String resFileContent = buildResFileContent(drbdRscData);
+            byte[] resFileHash = hashResFileContent(resFileContent);
+            if (
+                !createMetaData.isEmpty() ||
+                    !Arrays.equals(resFileHash, appliedResFileHashes.get(suffixedRscName)) ||
+                    !Files.exists(asResourceFile(drbdRscData, false)) ||
+                    isAnyVlmResizeRequired(drbdRscData) ||
+                    isAnyDiskfulPeerDeleting(drbdRscData)
+            )
+            {
+                drbdRscData.setAdjustRequired(true);
+            }
 
-                // createMetaData needs rendered resFile
-                for (DrbdVlmData<Resource> drbdVlmData : createMetaData)
+            try
+            {
+                if (drbdRscData.isAdjustRequired())
                 {
-                    createMetaData(drbdVlmData);
-                }
+                    // forget the old hash first, in case any of the following steps fails
+                    appliedResFileHashes.remove(suffixedRscName);
+
+                    regenerateResFile(drbdRscData, resFileContent);
+
+                    // createMetaData needs rendered resFile
+                    for (DrbdVlmData<Resource> drbdVlmData : createMetaData)
+                    {
+                        createMetaData(drbdVlmData);
+                    }
 
-                try
-                {
                     for (DrbdVlmData<Resource> drbdVlmData : drbdRscData.getVlmLayerObjects().values())
                     {
                         if (needsResize(drbdVlmData))
@@ -605,105 +649,270 @@ public class DrbdLayer implements DeviceLayer
                         }
                     }
 
-                    if (!drbdRscData.getAbsResource().isDrbdDiskless(workerCtx))
+                    for (DrbdRscData<Resource> otherRsc : drbdRscData.getRscDfnLayerObject().getDrbdRscDataList())
                     {
-                        for (DrbdRscData<Resource> otherRsc : drbdRscData.getRscDfnLayerObject().getDrbdRscDataList())
+                        if (isDiskfulPeerDeleting(drbdRscData, otherRsc))
                         {
-                            if (!otherRsc.equals(drbdRscData) && // skip local rsc
-                                !otherRsc.getAbsResource().isDrbdDiskless(workerCtx) && // skip remote diskless resources
-                                    otherRsc.getAbsResource().getStateFlags().isSet(workerCtx, Resource.Flags.DELETE)
-                            )
+                            /*
+                             * If a peer is getting deleted, we issue a forget-peer (which requires
+                             * a del-peer) so that the bitmap of that peer is reset to day0
+                             */
+                            ExtCmdFailedException delPeerExc = null;
+                            try
                             {
                                 /*
-                                 * If a peer is getting deleted, we issue a forget-peer (which requires
-                                 * a del-peer) so that the bitmap of that peer is reset to day0
+                                 * Race condition:
+                                 * If two linstor-resources are deleted concurrently, and one is much
+                                 * faster than the other, the slower will get an "unknown connection"
+                                 * from the drbd-utils when executing the del-peer command.
+                                 * In that case, we will still try the forget-peer.
+                                 * If the forget-peer command succeeds, ignore the exception of the failed
+                                 * del-peer command.
+                                 * If the forget-peer command also failed we ignore that exception and
+                                 * re-throw the del-peer's exception as there could be a different reason
+                                 * for the del-peer to have failed than this race-condition
+                                 */
+                                drbdUtils.deletePeer(otherRsc);
+                            }
+                            catch (ExtCmdFailedException exc)
+                            {
+                                delPeerExc = exc;
+                            }
+                            try
+                            {
+                                drbdUtils.forgetPeer(otherRsc);
+                            }
+                            catch (ExtCmdFailedException forgetPeerExc)
+                            {
+                                /*
+                                 * let us check our current version of the events2 stream.
+                                 * if the peer we just tried to delete does not exist, we should be fine
                                  */
-                                ExtCmdFailedException delPeerExc = null;
-                                try
-                                {
-                                    /*
-                                     * Race condition:
-                                     * If two linstor-resources are deleted concurrently, and one is much
-                                     * faster than the other, the slower will get an "unknown connection"
-                                     * from the drbd-utils when executing the del-peer command.
-                                     * In that case, we will still try the forget-peer.
-                                     * If the forget-peer command succeeds, ignore the exception of the failed
-                                     * del-peer command.
-                                     * If the forget-peer command also failed we ignore that exception and
-                                     * re-throw the del-peer's exception as there could be a different reason
-                                     * for the del-peer to have failed than this race-condition
-                                     */
-                                    drbdUtils.deletePeer(otherRsc);
-                                }
-                                catch (ExtCmdFailedException exc)
-                                {
-                                    delPeerExc = exc;
-                                }
                                 try
                                 {
-                                    drbdUtils.forgetPeer(otherRsc);
-                                }
-                                catch (ExtCmdFailedException forgetPeerExc)
-                                {
-                                    /*
-                                     * let us check our current version of the events2 stream.
-                                     * if the peer we just tried to delete does not exist, we should be fine
-                                     */
-                                    try
+                                    DrbdResource drbdRscState = drbdState.getDrbdResource(
+                                        drbdRscData.getSuffixedResourceName()
+                                    );
+                                    DrbdConnection peerConnection = drbdRscState.getConnection(
+                                        otherRsc.getAbsResource().getNode().getName().displayValue
+                                    );
+                                    if (peerConnection != null)
                                     {
-                                        DrbdResource drbdRscState = drbdState.getDrbdResource(
-                                            drbdRscData.getSuffixedResourceName()
-                                        );
-                                        DrbdConnection peerConnection = drbdRscState.getConnection(
-                                            otherRsc.getAbsResource().getNode().getName().displayValue
-                                        );
-                                        if (peerConnection != null)
-                                        {
-                                            throw delPeerExc != null ? delPeerExc : forgetPeerExc;
-                                        }
-                                        else
-                                        {
-                                            // ignore the exceptions, the peer does not seem to exist any more
-                                            errorReporter.logDebug(
-                                                "del-peer and forget-peer failed, but we also failed to find the specific peer. noop"
-                                            );
-                                        }
+                                        throw delPeerExc != null ? delPeerExc : forgetPeerExc;
                                     }
-                                    catch (NoInitialStateException exc)
+                                    else
                                     {
-                                        throw new ImplementationError(exc);
+                                        // ignore the exceptions, the peer does not seem to exist any more
+                                        errorReporter.logDebug(
+                                            "del-peer and forget-peer failed, but we also failed to find the specific peer. noop"
+                                        );
                                     }
                                 }
+                                catch (NoInitialStateException exc)
+                                {
+                                    throw new ImplementationError(exc);
+                                }
                             }
                         }
                     }
 
-                    drbdUtils.adjust(
-                        drbdRscData,
-                        false,
-                        false,
-                        false
+                    if (isAdjustDeferrable(drbdRscData, createMetaData))
+                    {
+                        errorReporter.logTrace("Deferring adjust of DRBD resource %s", suffixedRscName);
+                        pendingAdjusts.put(drbdRscData, new PendingAdjust(resFileHash, apiCallRc));
+                    }
+                    else
+                    {
+                        drbdUtils.adjust(
+                            drbdRscData,
+                            false,
+                            false,
+                            false
+                        );
+                        drbdRscData.setAdjustRequired(false);
+                        appliedResFileHashes.put(suffixedRscName, resFileHash);
+                    }
+                }
+                else
+                {
+                    errorReporter.logTrace(
+                        "DRBD resource %s is unchanged, skipping regeneration of .res file and adjust",
+                        suffixedRscName
                     );
-                    drbdRscData.setAdjustRequired(false);
+                    drbdRscData.setResFileExists(true);
+                }
 
-                    // set device paths
-                    for (DrbdVlmData<Resource> drbdVlmData : drbdRscData.getVlmLayerObjects().values())
+                // deferred adjusts are completed in finishProcessing once the adjust succeeded
+                if (!pendingAdjusts.containsKey(drbdRscData))
+                {
+                    completeAdjust(drbdRscData);
+                }
+            }
+            catch (ExtCmdFailedException exc)
+            {
+                throw new ResourceException(
+                    String.format("Failed to adjust DRBD resource %s", drbdRscData.getSuffixedResourceName()),
+                    exc
+                );
+            }
+        }
+        return contProcess;
+    }
+
+    /**
+     * An adjust can only be deferred (and batched with the adjusts of other resources) if the DRBD resource
+     * already exists, no layer above DRBD needs the adjusted device within this run and nothing else
+     * (meta-data creation, initial sync) depends on the adjust.
+     */
+    private boolean isAdjustDeferrable(
+        DrbdRscData<Resource> drbdRscData,
+        List<DrbdVlmData<Resource>> createMetaData
+    )
+        throws AccessDeniedException
+    {
+        boolean deferrable;
+        try
+        {
+            Resource rsc = drbdRscData.getAbsResource();
+            deferrable = drbdRscData.exists() &&
+                drbdRscData.getParent() == null &&
+                createMetaData.isEmpty() &&
+                !rsc.isCreatePrimary() &&
+                rsc.getDefinition().getProps(workerCtx).getProp(InternalApiConsts.PROP_PRIMARY_SET) != null;
+        }
+        catch (InvalidKeyException invalidKeyExc)
+        {
+            throw new ImplementationError("Invalid hardcoded property key", invalidKeyExc);
+        }
+        return deferrable;
+    }
+
+    /**
+     * Adjusts all resources whose adjust was deferred during this run with grouped
+     * {@code drbdadm adjust r1 r2 ...} calls of at most {@link DrbdAdm#MAX_ADJUST_BATCH_SIZE} resources.
+     * If a grouped call fails, the resources of that group are adjusted one by one so that the failure
+     * can be attributed to the correct resource. Only resources whose adjust succeeded are reported as adjusted
+     * and get their device paths set.
+     */
+    @Override
+    public Map<AbsRscLayerObject<Resource>, LinStorException> finishProcessing()
+        throws AccessDeniedException
+    {
+        Map<AbsRscLayerObject<Resource>, LinStorException> failedAdjusts = new HashMap<>();
+        List<AccessDeniedException> accDeniedExcs = new ArrayList<>();
+
+        AdjustBatches.run(
+            new ArrayList<>(pendingAdjusts.keySet()),
+            DrbdAdm.MAX_ADJUST_BATCH_SIZE,
+            batch ->
+            {
+                errorReporter.logTrace("Adjusting %d DRBD resources in one batch", batch.size());
+                drbdUtils.adjust(batch, false, false, false);
+            },
+            new AdjustBatches.ResultHandler<DrbdRscData<Resource>>()
+            {
+                @Override
+                public void succeeded(DrbdRscData<Resource> drbdRscData)
+                {
+                    try
+                    {
+                        finishDeferredAdjust(drbdRscData);
+                    }
+                    catch (StorageException exc)
                     {
-                        drbdVlmData.setDevicePath(generateDevicePath(drbdVlmData));
-                        drbdVlmData.setSizeState(Size.AS_EXPECTED);
+                        failedAdjusts.put(drbdRscData, exc);
+                    }
+                    catch (AccessDeniedException exc)
+                    {
+                        accDeniedExcs.add(exc);
                     }
-                    condInitialOrSkipSync(drbdRscData);
                 }
-                catch (ExtCmdFailedException exc)
+
+                @Override
+                public void failed(DrbdRscData<Resource> drbdRscData, ExtCmdFailedException exc)
                 {
-                    throw new ResourceException(
-                        String.format("Failed to adjust DRBD resource %s", drbdRscData.getSuffixedResourceName()),
-                        exc
+                    failedAdjusts.put(
+                        drbdRscData,
+                        new ResourceException(
+                            String.format(
+                                "Failed to adjust DRBD resource %s",
+                                drbdRscData.getSuffixedResourceName()
+                            ),
+                            exc
+                        )
                     );
                 }
             }
+        );
+        pendingAdjusts.clear();
+
+        if (!accDeniedExcs.isEmpty())
+        {
+            throw accDeniedExcs.get(0);
         }
-        return contProcess;
+        return failedAdjusts;
+    }
+
+    private void finishDeferredAdjust(DrbdRscData<Resource> drbdRscData)
+        throws AccessDeniedException, StorageException
+    {
+        PendingAdjust pendingAdjust = pendingAdjusts.get(drbdRscData);
+        drbdRscData.setAdjustRequired(false);
+        appliedResFileHashes.put(drbdRscData.getSuffixedResourceName(), pendingAdjust.resFileHash);
+        completeAdjust(drbdRscData);
+        addAdjustedMsg(drbdRscData, pendingAdjust.apiCallRc);
+        copyResFileToBackup(drbdRscData);
+    }
+
+    /**
+     * Sets the device paths and triggers the initial sync or its skipping, which must only happen once the
+     * adjust of the resource succeeded
+     */
+    private void completeAdjust(DrbdRscData<Resource> drbdRscData) throws AccessDeniedException, StorageException
+    {
+        for (DrbdVlmData<Resource> drbdVlmData : drbdRscData.getVlmLayerObjects().values())
+        {
+            drbdVlmData.setDevicePath(generateDevicePath(drbdVlmData));
+            drbdVlmData.setSizeState(Size.AS_EXPECTED);
+        }
+        condInitialOrSkipSync(drbdRscData);
+    }
+
+    private boolean isAnyVlmResizeRequired(DrbdRscData<Resource> drbdRscData) throws AccessDeniedException
+    {
+        boolean resizeRequired = false;
+        for (DrbdVlmData<Resource> drbdVlmData : drbdRscData.getVlmLayerObjects().values())
+        {
+            if (needsResize(drbdVlmData))
+            {
+                resizeRequired = true;
+                break;
+            }
+        }
+        return resizeRequired;
+    }
+
+    private boolean isAnyDiskfulPeerDeleting(DrbdRscData<Resource> drbdRscData) throws AccessDeniedException
+    {
+        boolean peerDeleting = false;
+        for (DrbdRscData<Resource> otherRsc : drbdRscData.getRscDfnLayerObject().getDrbdRscDataList())
+        {
+            if (isDiskfulPeerDeleting(drbdRscData, otherRsc))
+            {
+                peerDeleting = true;
+                break;
+            }
+        }
+        return peerDeleting;
+    }
+
+    private boolean isDiskfulPeerDeleting(DrbdRscData<Resource> localRsc, DrbdRscData<Resource> otherRsc)
+        throws AccessDeniedException
+    {
+        return !localRsc.getAbsResource().isDrbdDiskless(workerCtx) &&
+            !otherRsc.equals(localRsc) && // skip local rsc
+            !otherRsc.getAbsResource().isDrbdDiskless(workerCtx) && // skip remote diskless resources
+            otherRsc.getAbsResource().getStateFlags().isSet(workerCtx, Resource.Flags.DELETE);
     }
 
     private boolean needsResize(DrbdVlmData<Resource> drbdVlmData) throws AccessDeniedException
@@ -722,7 +931,11 @@ public class DrbdLayer implements DeviceLayer
 
     private void updateRequiresAdjust(DrbdRscData<?> drbdRscData)
     {
-        drbdRscData.setAdjustRequired(true); // TODO: could be improved :)
+        /*
+         * Reset the flag. It will be set again if the current events2 state deviates from the expected state,
+         * if the rendered .res file differs from the last applied one or if any other DRBD operation is pending
+         */
+        drbdRscData.setAdjustRequired(false);
     }
 
     private List<DrbdVlmData<Resource>> detachVolumesIfNecessary(DrbdRscData<Resource> drbdRscData)
@@ -770,6 +983,10 @@ public class DrbdLayer implements DeviceLayer
                 detachDrbdVolume(drbdVlmData, true);
                 drbdVlmData.setExists(false);
             }
+            if (!volumesToDelete.isEmpty() || !volumesToMakeDiskless.isEmpty())
+            {
+                drbdRscData.setAdjustRequired(true);
+            }
         }
         return checkMetaData;
     }
@@ -818,6 +1035,7 @@ public class DrbdLayer implements DeviceLayer
                             false, // we dont need to --assume-clean when shrinking...
                             drbdVlmData.getUsableSize()
                         );
+                        drbdRscData.setAdjustRequired(true);
                         // DO NOT set size.AS_EXPECTED as we most likely want to grow a little
                         // bit again once the layers below finished shrinking
                     }
@@ -1083,6 +1301,7 @@ public class DrbdLayer implements DeviceLayer
             if (drbdRscState == null)
             {
                 drbdRscData.setExists(false);
+                drbdRscData.setAdjustRequired(true);
             }
             else
             {
@@ -1270,10 +1489,8 @@ public class DrbdLayer implements DeviceLayer
     {
         Resource localResource = drbdRscData.getAbsResource();
 
-        // FIXME: Temporary fix: If the NIC selection property on a storage pool is changed retrospectively,
-        //        then rewriting the DRBD resource configuration file and 'drbdadm adjust' is required,
-        //        but there is not yet a mechanism to notify the device handler to perform an adjust action.
-        drbdRscData.setAdjustRequired(true);
+        // Changes that are only reflected in the .res file (i.e. a retrospectively changed NIC selection property
+        // on a storage pool) are detected by comparing the hash of the rendered .res file in adjustDrbd
 
         boolean isRscDisklessFlagSet = localResource.getStateFlags().isSet(workerCtx, Resource.Flags.DRBD_DISKLESS);
 
@@ -1289,12 +1506,9 @@ public class DrbdLayer implements DeviceLayer
         }
     }
 
-    private void regenerateResFile(DrbdRscData<Resource> drbdRscData)
+    private String buildResFileContent(DrbdRscData<Resource> drbdRscData)
         throws AccessDeniedException, StorageException
     {
-        Path resFile = asResourceFile(drbdRscData, false);
-        Path tmpResFile = asResourceFile(drbdRscData, true);
-
         List<DrbdRscData<Resource>> drbdPeerRscDataList = drbdRscData.getRscDfnLayerObject()
             .getDrbdRscDataList().stream()
             .filter(otherRscData -> !otherRscData.equals(drbdRscData) &&
@@ -1305,17 +1519,38 @@ public class DrbdLayer implements DeviceLayer
             )
             .collect(Collectors.toList());
 
-        String content = new ConfFileBuilder(
+        return new ConfFileBuilder(
             errorReporter,
             workerCtx,
             drbdRscData,
             drbdPeerRscDataList,
             whitelistProps
         ).build();
+    }
+
+    private byte[] hashResFileContent(String content)
+    {
+        byte[] hash;
+        try
+        {
+            hash = MessageDigest.getInstance(RES_FILE_HASH_ALGORITHM).digest(content.getBytes(StandardCharsets.UTF_8));
+        }
+        catch (NoSuchAlgorithmException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        return hash;
+    }
+
+    private void regenerateResFile(DrbdRscData<Resource> drbdRscData, String content)
+        throws StorageException
+    {
+        Path resFile = asResourceFile(drbdRscData, false);
+        Path tmpResFile = asResourceFile(drbdRscData, true);
 
         try (FileOutputStream resFileOut = new FileOutputStream(tmpResFile.toFile()))
         {
-            resFileOut.write(content.getBytes());
+            resFileOut.write(content.getBytes(StandardCharsets.UTF_8));
         }
         catch (IOException ioExc)
         {
@@ -1599,4 +1834,16 @@ public class DrbdLayer implements DeviceLayer
     {
         // ignored
     }
+
+    private static class PendingAdjust
+    {
+        private final byte[] resFileHash;
+        private final ApiCallRcImpl apiCallRc;
+
+        PendingAdjust(byte[] resFileHashRef, ApiCallRcImpl apiCallRcRef)
+        {
+            resFileHash = resFileHashRef;
+            apiCallRc = apiCallRcRef;
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.linbit.linstor.layer.drbd.drbdstate;
 
 import com.linbit.linstor.core.identifier.VolumeNumber;
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.Key;
 
 import java.util.Map;
 import java.util.TreeMap;
@@ -137,10 +138,10 @@ public class DrbdConnection
         return connState;
     }
 
-    protected static DrbdConnection newFromProps(DrbdResource resource, Map<String, String> props)
+    protected static DrbdConnection newFromProps(DrbdResource resource, DrbdEventsLine props)
         throws EventsSourceException
     {
-        String connName = props.get(PROP_KEY_CONN_NAME);
+        String connName = props.get(Key.CONN_NAME);
         if (connName == null)
         {
             throw new EventsSourceException(
@@ -148,7 +149,7 @@ public class DrbdConnection
             );
         }
 
-        String nodeIdStr = props.get(PROP_KEY_PEER_NODE_ID);
+        String nodeIdStr = props.get(Key.PEER_NODE_ID);
         if (nodeIdStr == null)
         {
             throw new EventsSourceException(
@@ -172,9 +173,9 @@ public class DrbdConnection
         return new DrbdConnection(resource, connName, nodeId);
     }
 
-    protected void update(Map<String, String> props, ResourceObserver obs)
+    protected void update(DrbdEventsLine props, ResourceObserver obs)
     {
-        String connLabel = props.get(PROP_KEY_CONNECTION);
+        String connLabel = props.get(Key.CONNECTION);
         if (connLabel != null)
         {
             State prevConnState = connState;
@@ -185,7 +186,7 @@ public class DrbdConnection
             }
         }
 
-        String roleLabel = props.get(DrbdResource.PROP_KEY_ROLE);
+        String roleLabel = props.get(Key.ROLE);
         if (roleLabel != null)
         {
             DrbdResource.Role prevRole = peerResRole;
@@ -4,6 +4,7 @@ import com.linbit.ImplementationError;
 import com.linbit.InvalidNameException;
 import com.linbit.ServiceName;
 import com.linbit.SystemService;
+import com.linbit.linstor.core.cfg.StltConfig;
 import com.linbit.linstor.core.identifier.NodeName;
 import com.linbit.linstor.core.identifier.VolumeNumber;
 import com.linbit.linstor.event.ObjectIdentifier;
@@ -14,11 +15,29 @@ import com.linbit.linstor.event.common.VolumeDiskStateEvent;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import reactor.core.scheduler.Scheduler;
+
 /**
  * Publishes DRBD events as LinStor events.
+ *
+ * Resource and volume state events that are caused by non-critical changes (i.e. resync progress, replication
+ * state changes or recovering disk states) are coalesced per resource within a configurable window, so that
+ * rapid successive changes only result in one event carrying the latest state. Critical transitions (role
+ * changes, degrading disk states, creation and destruction of resources and volumes) are published immediately,
+ * together with all pending changes of the same resource.
+ *
+ * The states are taken while holding {@link #publishLock}, but the events are delivered after releasing it, so
+ * that the DRBD events thread is never blocked by the delivery of events. The states are always taken by the DRBD
+ * events thread, which is the only one modifying them. Coalesced events keep the states taken with the latest
+ * change, so the flush on the scheduler thread does not have to read them.
  */
 @Singleton
 public class DrbdEventPublisher implements SystemService, ResourceObserver
@@ -32,6 +51,18 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
     private final ResourceStateEvent resourceStateEvent;
     private final VolumeDiskStateEvent volumeDiskStateEvent;
     private final ConnectionStateEvent connectionStateEvent;
+    private final Scheduler scheduler;
+    private final long coalesceWindowMs;
+
+    // guards the pending events as well as queueing deliveries, so that a flush can not overtake a newer event
+    private final Object publishLock = new Object();
+    // resources with pending events
+    private final Map<DrbdResource, PendingEvents> pendingEvents = new IdentityHashMap<>();
+    private boolean flushScheduled = false;
+
+    // events with the state at the time they were queued, delivered in order outside of publishLock
+    private final Queue<Runnable> deliveries = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean delivering = new AtomicBoolean(false);
 
     private ServiceName instanceName;
     private boolean started = false;
@@ -53,13 +84,17 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
         DrbdEventService drbdEventServiceRef,
         ResourceStateEvent resourceStateEventRef,
         VolumeDiskStateEvent volumeDiskStateEventRef,
-        ConnectionStateEvent connectionStateEventRef
+        ConnectionStateEvent connectionStateEventRef,
+        Scheduler schedulerRef,
+        StltConfig stltConfigRef
     )
     {
         drbdEventService = drbdEventServiceRef;
         resourceStateEvent = resourceStateEventRef;
         volumeDiskStateEvent = volumeDiskStateEventRef;
         connectionStateEvent = connectionStateEventRef;
+        scheduler = schedulerRef;
+        coalesceWindowMs = stltConfigRef.getDrbdEventsCoalesceWindowMs();
 
         try
         {
@@ -112,6 +147,10 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
     public void shutdown()
     {
         drbdEventService.removeObserver(this);
+        synchronized (publishLock)
+        {
+            pendingEvents.clear();
+        }
         started = false;
     }
 
@@ -126,7 +165,7 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
     {
         if (resource.isKnownByLinstor())
         {
-            triggerResourceStateEvent(resource);
+            publishNow(resource, null);
         }
     }
 
@@ -135,7 +174,14 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
     {
         if (resource.isKnownByLinstor())
         {
-            resourceStateEvent.get().closeStream(ObjectIdentifier.resourceDefinition(resource.getResName()));
+            synchronized (publishLock)
+            {
+                // do not re-open the stream by a pending event
+                pendingEvents.remove(resource);
+                ObjectIdentifier objId = ObjectIdentifier.resourceDefinition(resource.getResName());
+                deliveries.add(() -> resourceStateEvent.get().closeStream(objId));
+            }
+            deliverQueuedEvents();
         }
     }
 
@@ -146,7 +192,11 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
     {
         if (connection == null && resource.isKnownByLinstor())
         {
-            triggerVolumeDiskStateEvent(resource, volume);
+            synchronized (publishLock)
+            {
+                queueVolumeDiskStateEvent(resource, volume);
+            }
+            deliverQueuedEvents();
         }
     }
 
@@ -159,8 +209,18 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
     {
         if (connection == null && resource.isKnownByLinstor())
         {
-            volumeDiskStateEvent.get().closeStream(
-                ObjectIdentifier.volumeDefinition(resource.getResName(), volume.getVolNr()));
+            synchronized (publishLock)
+            {
+                // do not re-open the stream by a pending event
+                PendingEvents pending = pendingEvents.get(resource);
+                if (pending != null)
+                {
+                    pending.diskStateInfos.remove(volume);
+                }
+                ObjectIdentifier objId = ObjectIdentifier.volumeDefinition(resource.getResName(), volume.getVolNr());
+                deliveries.add(() -> volumeDiskStateEvent.get().closeStream(objId));
+            }
+            deliverQueuedEvents();
         }
     }
 
@@ -175,11 +235,15 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
     {
         if (resource.isKnownByLinstor())
         {
-            if (connection == null)
+            DrbdVolume localVolume = connection == null ? volume : null;
+            if (connection == null && previous != current && isCriticalDiskState(current))
+            {
+                publishNow(resource, localVolume);
+            }
+            else
             {
-                triggerVolumeDiskStateEvent(resource, volume);
+                publishCoalesced(resource, localVolume);
             }
-            triggerResourceStateEvent(resource);
         }
     }
 
@@ -194,7 +258,7 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
     {
         if (resource.isKnownByLinstor())
         {
-            triggerResourceStateEvent(resource);
+            publishCoalesced(resource, null);
         }
     }
 
@@ -203,24 +267,168 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
     {
         if (resource.isKnownByLinstor())
         {
-            triggerResourceStateEvent(resource);
+            publishNow(resource, null);
         }
     }
 
-    private void triggerResourceStateEvent(DrbdResource resource)
+    private static boolean isCriticalDiskState(DrbdVolume.DiskState diskState)
     {
-        resourceStateEvent.get().triggerEvent(
-            ObjectIdentifier.resourceDefinition(resource.getResName()),
-            determineUsageState(resource)
-        );
+        boolean critical;
+        switch (diskState)
+        {
+            case DISKLESS: // fall-through
+            case DETACHING: // fall-through
+            case FAILED: // fall-through
+            case OUTDATED:
+                critical = true;
+                break;
+            case ATTACHING: // fall-through
+            case NEGOTIATING: // fall-through
+            case INCONSISTENT: // fall-through
+            case CONSISTENT: // fall-through
+            case UP_TO_DATE: // fall-through
+            case UNKNOWN: // fall-through
+            default:
+                critical = false;
+                break;
+        }
+        return critical;
     }
 
-    private void triggerVolumeDiskStateEvent(DrbdResource resource, DrbdVolume volume)
+    /**
+     * Publishes the resource state (and the disk state of the given local volume, if any) together with all
+     * pending events of the same resource
+     */
+    private void publishNow(DrbdResource resource, DrbdVolume localVolume)
     {
-        volumeDiskStateEvent.get().triggerEvent(
-            ObjectIdentifier.volumeDefinition(resource.getResName(), volume.getVolNr()),
-            volume.diskStateInfo()
-        );
+        synchronized (publishLock)
+        {
+            PendingEvents pending = pendingEvents.remove(resource);
+            if (pending != null)
+            {
+                for (DrbdVolume pendingVolume : pending.diskStateInfos.keySet())
+                {
+                    if (pendingVolume != localVolume)
+                    {
+                        queueVolumeDiskStateEvent(resource, pendingVolume);
+                    }
+                }
+            }
+            if (localVolume != null)
+            {
+                queueVolumeDiskStateEvent(resource, localVolume);
+            }
+            queueResourceStateEvent(resource);
+        }
+        deliverQueuedEvents();
+    }
+
+    private void publishCoalesced(DrbdResource resource, DrbdVolume localVolume)
+    {
+        if (coalesceWindowMs <= 0)
+        {
+            publishNow(resource, localVolume);
+        }
+        else
+        {
+            synchronized (publishLock)
+            {
+                PendingEvents pending = pendingEvents.computeIfAbsent(resource, ignored -> new PendingEvents());
+                pending.usageState = determineUsageState(resource);
+                if (localVolume != null)
+                {
+                    pending.diskStateInfos.put(localVolume, localVolume.diskStateInfo());
+                }
+                if (!flushScheduled)
+                {
+                    flushScheduled = true;
+                    scheduler.schedule(this::flushPendingEvents, coalesceWindowMs, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs on the scheduler thread, so it must only use the states taken by {@link #publishCoalesced}
+     */
+    private void flushPendingEvents()
+    {
+        synchronized (publishLock)
+        {
+            flushScheduled = false;
+            for (Map.Entry<DrbdResource, PendingEvents> pendingEntry : pendingEvents.entrySet())
+            {
+                DrbdResource resource = pendingEntry.getKey();
+                PendingEvents pending = pendingEntry.getValue();
+                for (Map.Entry<DrbdVolume, String> diskStateInfo : pending.diskStateInfos.entrySet())
+                {
+                    queueVolumeDiskStateEvent(resource, diskStateInfo.getKey(), diskStateInfo.getValue());
+                }
+                queueResourceStateEvent(resource, pending.usageState);
+            }
+            pendingEvents.clear();
+        }
+        deliverQueuedEvents();
+    }
+
+    /**
+     * Must be called by the DRBD events thread while holding {@link #publishLock}
+     */
+    private void queueResourceStateEvent(DrbdResource resource)
+    {
+        queueResourceStateEvent(resource, determineUsageState(resource));
+    }
+
+    /**
+     * Must be called while holding {@link #publishLock}
+     */
+    private void queueResourceStateEvent(DrbdResource resource, UsageState usageState)
+    {
+        ObjectIdentifier objId = ObjectIdentifier.resourceDefinition(resource.getResName());
+        deliveries.add(() -> resourceStateEvent.get().triggerEvent(objId, usageState));
+    }
+
+    /**
+     * Must be called by the DRBD events thread while holding {@link #publishLock}
+     */
+    private void queueVolumeDiskStateEvent(DrbdResource resource, DrbdVolume volume)
+    {
+        queueVolumeDiskStateEvent(resource, volume, volume.diskStateInfo());
+    }
+
+    /**
+     * Must be called while holding {@link #publishLock}
+     */
+    private void queueVolumeDiskStateEvent(DrbdResource resource, DrbdVolume volume, String diskStateInfo)
+    {
+        ObjectIdentifier objId = ObjectIdentifier.volumeDefinition(resource.getResName(), volume.getVolNr());
+        deliveries.add(() -> volumeDiskStateEvent.get().triggerEvent(objId, diskStateInfo));
+    }
+
+    /**
+     * Delivers the queued events. Only one thread delivers at a time, so the events are delivered in the order
+     * they were queued. A thread finding another one delivering leaves its queued events to that thread.
+     *
+     * Must not be called while holding {@link #publishLock}
+     */
+    private void deliverQueuedEvents()
+    {
+        while (!deliveries.isEmpty() && delivering.compareAndSet(false, true))
+        {
+            try
+            {
+                Runnable delivery = deliveries.poll();
+                while (delivery != null)
+                {
+                    delivery.run();
+                    delivery = deliveries.poll();
+                }
+            }
+            finally
+            {
+                delivering.set(false);
+            }
+        }
     }
 
     private UsageState determineUsageState(DrbdResource drbdResource)
@@ -289,4 +497,13 @@ public class DrbdEventPublisher implements SystemService, ResourceObserver
         {
         }
     }
+
+    /**
+     * The states of a resource and its local volumes, as of their latest coalesced change
+     */
+    private static class PendingEvents
+    {
+        private UsageState usageState;
+        private final Map<DrbdVolume, String> diskStateInfos = new IdentityHashMap<>();
+    }
 }
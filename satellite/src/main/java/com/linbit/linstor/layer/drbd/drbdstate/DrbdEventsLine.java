@@ -0,0 +1,142 @@
+package com.linbit.linstor.layer.drbd.drbdstate;
+
+import java.util.Arrays;
+
+/**
+ * A single parsed 'drbdsetup events2' line
+ *
+ * Only the values of the keys known to the DRBD state tracker are stored, each in its own slot.
+ * Instances are meant to be reused for every line, see {@link DrbdEventsParser}.
+ */
+public class DrbdEventsLine
+{
+    public enum Action
+    {
+        EXISTS(DrbdEventsMonitor.ACTION_EXISTS),
+        CREATE(DrbdEventsMonitor.ACTION_CREATE),
+        CHANGE(DrbdEventsMonitor.ACTION_CHANGE),
+        DESTROY(DrbdEventsMonitor.ACTION_DESTROY),
+        // other action types, such as a helper script call. Those are not tracked
+        OTHER(null);
+
+        static final Action[] KNOWN = {EXISTS, CREATE, CHANGE, DESTROY};
+
+        final String label;
+
+        Action(String labelRef)
+        {
+            label = labelRef;
+        }
+    }
+
+    public enum ObjType
+    {
+        RESOURCE(DrbdEventsMonitor.OBJ_RESOURCE),
+        VOLUME(DrbdEventsMonitor.OBJ_VOLUME),
+        PEER_VOLUME(DrbdEventsMonitor.OBJ_PEER_VOLUME),
+        CONNECTION(DrbdEventsMonitor.OBJ_CONNECTION),
+        END_OF_INIT(DrbdEventsMonitor.OBJ_END_OF_INIT),
+        // other object types, such as a connection path. Those are currently ignored
+        OTHER(null);
+
+        static final ObjType[] KNOWN = {RESOURCE, VOLUME, PEER_VOLUME, CONNECTION, END_OF_INIT};
+
+        final String label;
+
+        ObjType(String labelRef)
+        {
+            label = labelRef;
+        }
+    }
+
+    public enum Key
+    {
+        RES_NAME(DrbdResource.PROP_KEY_RES_NAME),
+        ROLE(DrbdResource.PROP_KEY_ROLE),
+        SUSPENDED(DrbdResource.PROP_KEY_SUSPENDED),
+        CONNECTION(DrbdConnection.PROP_KEY_CONNECTION),
+        CONN_NAME(DrbdConnection.PROP_KEY_CONN_NAME),
+        PEER_NODE_ID(DrbdConnection.PROP_KEY_PEER_NODE_ID),
+        VOL_NR(DrbdVolume.PROP_KEY_VOL_NR),
+        MINOR(DrbdVolume.PROP_KEY_MINOR),
+        DISK(DrbdVolume.PROP_KEY_DISK),
+        PEER_DISK(DrbdVolume.PROP_KEY_PEER_DISK),
+        REPLICATION(DrbdVolume.PROP_KEY_REPLICATION),
+        CLIENT(DrbdVolume.PROP_KEY_CLIENT),
+        DONE(DrbdVolume.PROP_KEY_DONE);
+
+        static final Key[] KNOWN = values();
+
+        final String label;
+
+        Key(String labelRef)
+        {
+            label = labelRef;
+        }
+    }
+
+    private Action action;
+    private ObjType objType;
+    private final String[] values;
+
+    public DrbdEventsLine()
+    {
+        values = new String[Key.KNOWN.length];
+        reset();
+    }
+
+    private DrbdEventsLine(DrbdEventsLine other)
+    {
+        action = other.action;
+        objType = other.objType;
+        values = Arrays.copyOf(other.values, other.values.length);
+    }
+
+    void reset()
+    {
+        action = Action.OTHER;
+        objType = ObjType.OTHER;
+        Arrays.fill(values, null);
+    }
+
+    void setAction(Action actionRef)
+    {
+        action = actionRef;
+    }
+
+    void setObjType(ObjType objTypeRef)
+    {
+        objType = objTypeRef;
+    }
+
+    void put(Key key, String value)
+    {
+        values[key.ordinal()] = value;
+    }
+
+    public Action getAction()
+    {
+        return action;
+    }
+
+    public ObjType getObjType()
+    {
+        return objType;
+    }
+
+    /**
+     * @return The value of the given key or null if the line did not contain the key
+     */
+    public String get(Key key)
+    {
+        return values[key.ordinal()];
+    }
+
+    /**
+     * @return An independent copy of this line, for lines that have to be kept beyond the next parsed line
+     */
+    public DrbdEventsLine copy()
+    {
+        return new DrbdEventsLine(this);
+    }
+}
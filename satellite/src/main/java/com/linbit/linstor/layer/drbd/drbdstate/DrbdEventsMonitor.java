@@ -5,13 +5,11 @@ import com.linbit.ValueOutOfRangeException;
 import com.linbit.linstor.core.CoreModule.ResourceDefinitionMap;
 import com.linbit.linstor.core.identifier.VolumeNumber;
 import com.linbit.linstor.core.DrbdStateChange;
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.Action;
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.Key;
 import com.linbit.linstor.logging.ErrorReporter;
-import com.linbit.utils.Triple;
 
 import java.util.LinkedList;
-import java.util.Map;
-import java.util.StringTokenizer;
-import java.util.TreeMap;
 
 /**
  * Drbdsetup events monitor
@@ -43,7 +41,10 @@ public class DrbdEventsMonitor
     private final ResourceDefinitionMap rscDfnMap;
 
     private boolean existsFinished = false;
-    private final LinkedList<Triple<String, String, Map<String, String>>> duringExistsQueue = new LinkedList<>();
+    private final LinkedList<DrbdEventsLine> duringExistsQueue = new LinkedList<>();
+
+    // reused for every received line, as all lines are received by the same events2 thread
+    private final DrbdEventsLine scratchLine = new DrbdEventsLine();
 
     public DrbdEventsMonitor(
         DrbdStateTracker trackerRef,
@@ -68,65 +69,35 @@ public class DrbdEventsMonitor
         errorReporter.logTrace("DRBD 'events2': %s", eventString);
 
         // Skip empty lines
-        if (!eventString.isEmpty())
+        if (DrbdEventsParser.parse(eventString, scratchLine))
         {
-            StringTokenizer tokens = new StringTokenizer(eventString, " ");
-            Map<String, String> props = new TreeMap<>();
-
-            if (tokens.hasMoreTokens())
+            if (!existsFinished && scratchLine.getAction() != Action.EXISTS)
             {
-                String action = tokens.nextToken();
-                if (tokens.hasMoreTokens())
-                {
-                    String objType = tokens.nextToken();
-                    while (tokens.hasMoreTokens())
-                    {
-                        String kvPair = tokens.nextToken();
-                        int splitIdx = kvPair.indexOf(':');
-                        if (splitIdx != -1)
-                        {
-                            String key = kvPair.substring(0, splitIdx);
-                            String value = kvPair.substring(splitIdx + 1);
-                            props.put(key, value);
-                        }
-                    }
-
-                    if (!existsFinished && !action.equals(ACTION_EXISTS))
-                    {
-                        duringExistsQueue.add(new Triple<>(action, objType, props));
-                    }
-                    else
-                    {
-                        executeAction(action, objType, props);
-                    }
-                }
-                else
-                {
-                    throw new EventsSourceException("Received an event line without an object type parameter");
-                }
+                duringExistsQueue.add(scratchLine.copy());
             }
             else
             {
-                throw new EventsSourceException("Received an event line without an action parameter");
+                executeAction(scratchLine);
             }
         }
     }
 
-    private void executeAction(String action, String objType, Map<String, String> props) throws EventsSourceException
+    private void executeAction(DrbdEventsLine props) throws EventsSourceException
     {
         // Select action
-        switch (action)
+        switch (props.getAction())
         {
-            case ACTION_EXISTS: // fall-through
-            case ACTION_CREATE:
-                create(props, objType);
+            case EXISTS: // fall-through
+            case CREATE:
+                create(props);
                 break;
-            case ACTION_CHANGE:
-                change(props, objType);
+            case CHANGE:
+                change(props);
                 break;
-            case ACTION_DESTROY:
-                destroy(props, objType);
+            case DESTROY:
+                destroy(props);
                 break;
+            case OTHER: // fall-through
             default:
                 // Other action type, such as a helper script call
                 // Those are not tracked
@@ -134,33 +105,35 @@ public class DrbdEventsMonitor
         }
     }
 
-    private void create(Map<String, String> props, String object) throws EventsSourceException
+    private void create(DrbdEventsLine props) throws EventsSourceException
     {
-        switch (object)
+        switch (props.getObjType())
         {
-            case OBJ_RESOURCE:
+            case RESOURCE:
                 createResource(props);
                 break;
-            case OBJ_CONNECTION:
+            case CONNECTION:
                 createConnection(props);
                 break;
-            case OBJ_VOLUME:
+            case VOLUME:
                 createVolume(props);
                 break;
-            case OBJ_PEER_VOLUME:
+            case PEER_VOLUME:
                 createPeerVolume(props);
                 break;
-            case OBJ_END_OF_INIT:
+            case END_OF_INIT:
                 drbdStateAvailable();
                 if (!existsFinished)
                 {
                     existsFinished = true;
-                    for (Triple<String, String, Map<String, String>> triple : duringExistsQueue)
+                    for (DrbdEventsLine queuedLine : duringExistsQueue)
                     {
-                        executeAction(triple.objA, triple.objB, triple.objC);
+                        executeAction(queuedLine);
                     }
+                    duringExistsQueue.clear();
                 }
                 break;
+            case OTHER: // fall-through
             default:
                 // Other object type, such as a connection path
                 // Those types are currently ignored
@@ -191,22 +164,24 @@ public class DrbdEventsMonitor
         return stateAvailable;
     }
 
-    private void change(Map<String, String> props, String object) throws EventsSourceException
+    private void change(DrbdEventsLine props) throws EventsSourceException
     {
-        switch (object)
+        switch (props.getObjType())
         {
-            case OBJ_RESOURCE:
+            case RESOURCE:
                 changeResource(props);
                 break;
-            case OBJ_CONNECTION:
+            case CONNECTION:
                 changeConnection(props);
                 break;
-            case OBJ_VOLUME:
+            case VOLUME:
                 changeVolume(props);
                 break;
-            case OBJ_PEER_VOLUME:
+            case PEER_VOLUME:
                 changePeerVolume(props);
                 break;
+            case END_OF_INIT: // fall-through
+            case OTHER: // fall-through
             default:
                 // Other object type, such as a connection path
                 // Those types are currently ignored
@@ -214,22 +189,24 @@ public class DrbdEventsMonitor
         }
     }
 
-    private void destroy(Map<String, String> props, String object) throws EventsSourceException
+    private void destroy(DrbdEventsLine props) throws EventsSourceException
     {
-        switch (object)
+        switch (props.getObjType())
         {
-            case OBJ_RESOURCE:
+            case RESOURCE:
                 destroyResource(props);
                 break;
-            case OBJ_CONNECTION:
+            case CONNECTION:
                 destroyConnection(props);
                 break;
-            case OBJ_VOLUME:
+            case VOLUME:
                 destroyVolume(props);
                 break;
-            case OBJ_PEER_VOLUME:
+            case PEER_VOLUME:
                 destroyPeerVolume(props);
                 break;
+            case END_OF_INIT: // fall-through
+            case OTHER: // fall-through
             default:
                 // Other object type, such as a connection path
                 // Those types are currently ignored
@@ -237,7 +214,7 @@ public class DrbdEventsMonitor
         }
     }
 
-    private void createResource(Map<String, String> props) throws EventsSourceException
+    private void createResource(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = DrbdResource.newFromProps(props, rscDfnMap);
         tracker.putResource(resource);
@@ -245,7 +222,7 @@ public class DrbdEventsMonitor
         resource.update(props, tracker.multiplexer);
     }
 
-    private void createConnection(Map<String, String> props) throws EventsSourceException
+    private void createConnection(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = getResource(props, ACTION_CREATE, OBJ_CONNECTION);
         DrbdConnection connection = DrbdConnection.newFromProps(resource, props);
@@ -254,7 +231,7 @@ public class DrbdEventsMonitor
         connection.update(props, tracker.multiplexer);
     }
 
-    private void createVolume(Map<String, String> props) throws EventsSourceException
+    private void createVolume(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = getResource(props, ACTION_CREATE, OBJ_VOLUME);
         DrbdVolume volume = DrbdVolume.newFromProps(resource, null, props);
@@ -263,7 +240,7 @@ public class DrbdEventsMonitor
         volume.update(props, tracker.multiplexer);
     }
 
-    private void createPeerVolume(Map<String, String> props) throws EventsSourceException
+    private void createPeerVolume(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = getResource(props, ACTION_CREATE, OBJ_PEER_VOLUME);
         DrbdConnection connection = getConnection(resource, props, ACTION_CREATE, OBJ_PEER_VOLUME);
@@ -273,27 +250,27 @@ public class DrbdEventsMonitor
         volume.update(props, tracker.multiplexer);
     }
 
-    private void changeResource(Map<String, String> props) throws EventsSourceException
+    private void changeResource(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = getResource(props, ACTION_CHANGE, OBJ_RESOURCE);
         resource.update(props, tracker.multiplexer);
     }
 
-    private void changeConnection(Map<String, String> props) throws EventsSourceException
+    private void changeConnection(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = getResource(props, ACTION_CHANGE, OBJ_CONNECTION);
         DrbdConnection connection = getConnection(resource, props, ACTION_CHANGE, OBJ_CONNECTION);
         connection.update(props, tracker.multiplexer);
     }
 
-    private void changeVolume(Map<String, String> props) throws EventsSourceException
+    private void changeVolume(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = getResource(props, ACTION_CHANGE, OBJ_VOLUME);
         DrbdVolume volume = getVolume(resource, null, props, ACTION_CHANGE, OBJ_VOLUME);
         volume.update(props, tracker.multiplexer);
     }
 
-    private void changePeerVolume(Map<String, String> props) throws EventsSourceException
+    private void changePeerVolume(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = getResource(props, ACTION_CHANGE, OBJ_PEER_VOLUME);
         DrbdConnection connection = getConnection(resource, props, ACTION_CHANGE, OBJ_PEER_VOLUME);
@@ -301,9 +278,9 @@ public class DrbdEventsMonitor
         volume.update(props, tracker.multiplexer);
     }
 
-    private void destroyResource(Map<String, String> props) throws EventsSourceException
+    private void destroyResource(DrbdEventsLine props) throws EventsSourceException
     {
-        String resName = getProp(props, DrbdResource.PROP_KEY_RES_NAME, ACTION_DESTROY, OBJ_RESOURCE);
+        String resName = getProp(props, Key.RES_NAME, ACTION_DESTROY, OBJ_RESOURCE);
         DrbdResource resource = tracker.removeResource(resName);
         if (resource == null)
         {
@@ -315,10 +292,10 @@ public class DrbdEventsMonitor
         }
     }
 
-    private void destroyConnection(Map<String, String> props) throws EventsSourceException
+    private void destroyConnection(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = getResource(props, ACTION_DESTROY, OBJ_CONNECTION);
-        String connName = getProp(props, DrbdConnection.PROP_KEY_CONN_NAME, ACTION_DESTROY, OBJ_CONNECTION);
+        String connName = getProp(props, Key.CONN_NAME, ACTION_DESTROY, OBJ_CONNECTION);
         DrbdConnection connection = resource.removeConnection(connName);
         if (connection == null)
         {
@@ -330,7 +307,7 @@ public class DrbdEventsMonitor
         }
     }
 
-    private void destroyVolume(Map<String, String> props) throws EventsSourceException
+    private void destroyVolume(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = getResource(props, ACTION_DESTROY, OBJ_VOLUME);
         VolumeNumber volNr = getVolumeNr(props, ACTION_DESTROY, OBJ_VOLUME);
@@ -345,7 +322,7 @@ public class DrbdEventsMonitor
         }
     }
 
-    private void destroyPeerVolume(Map<String, String> props) throws EventsSourceException
+    private void destroyPeerVolume(DrbdEventsLine props) throws EventsSourceException
     {
         DrbdResource resource = getResource(props, ACTION_DESTROY, OBJ_PEER_VOLUME);
         DrbdConnection connection = getConnection(resource, props, ACTION_DESTROY, OBJ_PEER_VOLUME);
@@ -361,10 +338,10 @@ public class DrbdEventsMonitor
         }
     }
 
-    private DrbdResource getResource(Map<String, String> props, String action, String objType)
+    private DrbdResource getResource(DrbdEventsLine props, String action, String objType)
         throws EventsSourceException
     {
-        String resName = getProp(props, DrbdResource.PROP_KEY_RES_NAME, action, objType);
+        String resName = getProp(props, Key.RES_NAME, action, objType);
         DrbdResource res = tracker.getResource(resName);
         if (res == null)
         {
@@ -375,13 +352,13 @@ public class DrbdEventsMonitor
 
     private DrbdConnection getConnection(
         DrbdResource resource,
-        Map<String, String> props,
+        DrbdEventsLine props,
         String action,
         String objType
     )
         throws EventsSourceException
     {
-        String connName = getProp(props, DrbdConnection.PROP_KEY_CONN_NAME, action, objType);
+        String connName = getProp(props, Key.CONN_NAME, action, objType);
         DrbdConnection conn = resource.getConnection(connName);
         if (conn == null)
         {
@@ -393,7 +370,7 @@ public class DrbdEventsMonitor
     private DrbdVolume getVolume(
         DrbdResource resource,
         DrbdConnection connection,
-        Map<String, String> props,
+        DrbdEventsLine props,
         String action,
         String objType
     )
@@ -418,8 +395,8 @@ public class DrbdEventsMonitor
     }
 
     private static String getProp(
-        Map<String, String> props,
-        String propKey,
+        DrbdEventsLine props,
+        Key propKey,
         String action,
         String objType
     )
@@ -431,7 +408,7 @@ public class DrbdEventsMonitor
             throw new EventsSourceException(
                 String.format(
                     "Event line for operation '%s %s' does not contain the '%s' argument",
-                    action, objType, propKey
+                    action, objType, propKey.label
                 )
             );
         }
@@ -439,13 +416,13 @@ public class DrbdEventsMonitor
     }
 
     private static VolumeNumber getVolumeNr(
-        Map<String, String> props,
+        DrbdEventsLine props,
         String action,
         String objType
     )
         throws EventsSourceException
     {
-        String volNrText = getProp(props, DrbdVolume.PROP_KEY_VOL_NR, action, objType);
+        String volNrText = getProp(props, Key.VOL_NR, action, objType);
         int parsedNumber;
         VolumeNumber volNr = null;
         try
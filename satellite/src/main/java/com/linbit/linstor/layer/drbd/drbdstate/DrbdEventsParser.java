@@ -0,0 +1,154 @@
+package com.linbit.linstor.layer.drbd.drbdstate;
+
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.Action;
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.Key;
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.ObjType;
+
+/**
+ * Parser for 'drbdsetup events2' lines
+ *
+ * The line is scanned once without tokenizing it. Action, object type and keys are matched in place against
+ * the known labels, so that unknown keys (i.e. the statistics of DRBD) are skipped without creating any objects.
+ * Only the values of known keys are copied into the given {@link DrbdEventsLine}.
+ */
+public final class DrbdEventsParser
+{
+    private static final char FIELD_SEPARATOR = ' ';
+    private static final char KEY_VALUE_SEPARATOR = ':';
+
+    private DrbdEventsParser()
+    {
+    }
+
+    /**
+     * Parses the given line into the given (reused) line object
+     *
+     * @return false if the line is empty, true otherwise
+     *
+     * @throws EventsSourceException if the line does not contain an action or an object type
+     */
+    public static boolean parse(CharSequence eventLine, DrbdEventsLine parsedLine) throws EventsSourceException
+    {
+        parsedLine.reset();
+
+        final int length = eventLine.length();
+        int fieldStart = skipSeparators(eventLine, 0, length);
+        boolean nonEmpty = fieldStart < length;
+        if (nonEmpty)
+        {
+            int fieldEnd = findSeparator(eventLine, fieldStart, length);
+            parsedLine.setAction(matchAction(eventLine, fieldStart, fieldEnd));
+
+            fieldStart = skipSeparators(eventLine, fieldEnd, length);
+            if (fieldStart >= length)
+            {
+                throw new EventsSourceException("Received an event line without an object type parameter");
+            }
+            fieldEnd = findSeparator(eventLine, fieldStart, length);
+            parsedLine.setObjType(matchObjType(eventLine, fieldStart, fieldEnd));
+
+            fieldStart = skipSeparators(eventLine, fieldEnd, length);
+            while (fieldStart < length)
+            {
+                fieldEnd = findSeparator(eventLine, fieldStart, length);
+                int splitIdx = indexOf(eventLine, KEY_VALUE_SEPARATOR, fieldStart, fieldEnd);
+                if (splitIdx != -1)
+                {
+                    Key key = matchKey(eventLine, fieldStart, splitIdx);
+                    if (key != null)
+                    {
+                        parsedLine.put(key, eventLine.subSequence(splitIdx + 1, fieldEnd).toString());
+                    }
+                }
+                fieldStart = skipSeparators(eventLine, fieldEnd, length);
+            }
+        }
+        return nonEmpty;
+    }
+
+    private static Action matchAction(CharSequence seq, int start, int end)
+    {
+        Action result = Action.OTHER;
+        for (Action action : Action.KNOWN)
+        {
+            if (regionEquals(seq, start, end, action.label))
+            {
+                result = action;
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static ObjType matchObjType(CharSequence seq, int start, int end)
+    {
+        ObjType result = ObjType.OTHER;
+        for (ObjType objType : ObjType.KNOWN)
+        {
+            if (regionEquals(seq, start, end, objType.label))
+            {
+                result = objType;
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static Key matchKey(CharSequence seq, int start, int end)
+    {
+        Key result = null;
+        for (Key key : Key.KNOWN)
+        {
+            if (regionEquals(seq, start, end, key.label))
+            {
+                result = key;
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static boolean regionEquals(CharSequence seq, int start, int end, String label)
+    {
+        boolean equal = end - start == label.length();
+        for (int idx = 0; equal && idx < label.length(); ++idx)
+        {
+            equal = seq.charAt(start + idx) == label.charAt(idx);
+        }
+        return equal;
+    }
+
+    private static int skipSeparators(CharSequence seq, int start, int end)
+    {
+        int idx = start;
+        while (idx < end && seq.charAt(idx) == FIELD_SEPARATOR)
+        {
+            ++idx;
+        }
+        return idx;
+    }
+
+    private static int findSeparator(CharSequence seq, int start, int end)
+    {
+        int idx = start;
+        while (idx < end && seq.charAt(idx) != FIELD_SEPARATOR)
+        {
+            ++idx;
+        }
+        return idx;
+    }
+
+    private static int indexOf(CharSequence seq, char chr, int start, int end)
+    {
+        int result = -1;
+        for (int idx = start; idx < end; ++idx)
+        {
+            if (seq.charAt(idx) == chr)
+            {
+                result = idx;
+                break;
+            }
+        }
+        return result;
+    }
+}
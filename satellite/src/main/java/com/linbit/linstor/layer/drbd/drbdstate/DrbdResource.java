@@ -6,6 +6,7 @@ import com.linbit.linstor.core.CoreModule.ResourceDefinitionMap;
 import com.linbit.linstor.core.identifier.ResourceName;
 import com.linbit.linstor.core.identifier.VolumeNumber;
 import com.linbit.linstor.core.objects.ResourceDefinition;
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.Key;
 
 import java.util.Arrays;
 import java.util.Iterator;
@@ -118,12 +119,12 @@ public class DrbdResource
     }
 
     protected static DrbdResource newFromProps(
-        Map<String, String> props,
+        DrbdEventsLine props,
         ResourceDefinitionMap rscDfnMap
     )
         throws EventsSourceException
     {
-        String name = props.get(PROP_KEY_RES_NAME);
+        String name = props.get(Key.RES_NAME);
         if (name == null)
         {
             throw new EventsSourceException(
@@ -145,10 +146,10 @@ public class DrbdResource
         return drbdResource;
     }
 
-    protected void update(Map<String, String> props, ResourceObserver obs)
+    protected void update(DrbdEventsLine props, ResourceObserver obs)
     {
-        String roleLabel = props.get(PROP_KEY_ROLE);
-        String suspendedLabel = props.get(PROP_KEY_SUSPENDED);
+        String roleLabel = props.get(Key.ROLE);
+        String suspendedLabel = props.get(Key.SUSPENDED);
 
         if (roleLabel != null)
         {
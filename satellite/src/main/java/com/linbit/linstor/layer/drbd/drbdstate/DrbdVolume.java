@@ -4,10 +4,9 @@ import com.linbit.Checks;
 import com.linbit.ValueOutOfRangeException;
 import com.linbit.linstor.core.identifier.VolumeNumber;
 import com.linbit.linstor.core.types.MinorNumber;
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.Key;
 import com.linbit.utils.MathUtils;
 
-import java.util.Map;
-
 /**
  * Tracks the state of a kernel DRBD volume or peer volume
  *
@@ -299,11 +298,11 @@ public class DrbdVolume
     protected static DrbdVolume newFromProps(
         DrbdResource resource,
         DrbdConnection connection,
-        Map<String, String> props
+        DrbdEventsLine props
     )
         throws EventsSourceException
     {
-        String volNrStr = props.get(PROP_KEY_VOL_NR);
+        String volNrStr = props.get(Key.VOL_NR);
         if (volNrStr == null)
         {
             throw new EventsSourceException(
@@ -355,19 +354,19 @@ public class DrbdVolume
         connRef = conn;
     }
 
-    protected void update(Map<String, String> props, ResourceObserver obs)
+    protected void update(DrbdEventsLine props, ResourceObserver obs)
         throws EventsSourceException
     {
         donePercentage = null;
-        String minorNrStr = props.get(PROP_KEY_MINOR);
-        String replLabel = props.get(PROP_KEY_REPLICATION);
-        String doneLabel = props.get(PROP_KEY_DONE);
-        String diskLabel = props.get(PROP_KEY_DISK);
-        String clientLabel = props.get(PROP_KEY_CLIENT);
+        String minorNrStr = props.get(Key.MINOR);
+        String replLabel = props.get(Key.REPLICATION);
+        String doneLabel = props.get(Key.DONE);
+        String diskLabel = props.get(Key.DISK);
+        String clientLabel = props.get(Key.CLIENT);
 
         if (diskLabel == null)
         {
-            diskLabel = props.get(PROP_KEY_PEER_DISK);
+            diskLabel = props.get(Key.PEER_DISK);
         }
 
         if (clientLabel != null)
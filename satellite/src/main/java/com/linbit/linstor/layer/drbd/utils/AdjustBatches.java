@@ -0,0 +1,73 @@
+package com.linbit.linstor.layer.drbd.utils;
+
+import com.linbit.extproc.ExtCmdFailedException;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs an action (like {@code drbdadm adjust}) for groups of at most a given number of items. If the action
+ * fails for a group, it is repeated for every item of that group on its own, so that the failure can be
+ * attributed to the correct item.
+ */
+public final class AdjustBatches
+{
+    public interface BatchAction<T>
+    {
+        void run(List<T> batch) throws ExtCmdFailedException;
+    }
+
+    public interface ResultHandler<T>
+    {
+        void succeeded(T item);
+
+        void failed(T item, ExtCmdFailedException exc);
+    }
+
+    private AdjustBatches()
+    {
+    }
+
+    public static <T> void run(
+        List<T> items,
+        int maxBatchSize,
+        BatchAction<T> action,
+        ResultHandler<T> resultHandler
+    )
+    {
+        for (int batchStart = 0; batchStart < items.size(); batchStart += maxBatchSize)
+        {
+            List<T> batch = items.subList(batchStart, Math.min(batchStart + maxBatchSize, items.size()));
+            try
+            {
+                action.run(batch);
+                for (T item : batch)
+                {
+                    resultHandler.succeeded(item);
+                }
+            }
+            catch (ExtCmdFailedException batchExc)
+            {
+                if (batch.size() == 1)
+                {
+                    resultHandler.failed(batch.get(0), batchExc);
+                }
+                else
+                {
+                    for (T item : batch)
+                    {
+                        try
+                        {
+                            action.run(Collections.singletonList(item));
+                            resultHandler.succeeded(item);
+                        }
+                        catch (ExtCmdFailedException exc)
+                        {
+                            resultHandler.failed(item, exc);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
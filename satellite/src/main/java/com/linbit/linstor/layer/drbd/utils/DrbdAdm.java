@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 @Singleton
@@ -40,6 +41,9 @@ public class DrbdAdm
 
     public static final int WAIT_CONNECT_RES_TIME = 10;
 
+    // upper limit of resources adjusted by a single drbdadm call
+    public static final int MAX_ADJUST_BATCH_SIZE = 32;
+
     private final ExtCmdFactory extCmdFactory;
 
     @Inject
@@ -58,6 +62,21 @@ public class DrbdAdm
         boolean discard
     )
         throws ExtCmdFailedException
+    {
+        adjust(Collections.singletonList(drbdRscData), skipNet, skipDisk, discard);
+    }
+
+    /**
+     * Adjusts all given resources with a single drbdadm call.
+     * The caller is responsible to pass at most {@link #MAX_ADJUST_BATCH_SIZE} resources
+     */
+    public void adjust(
+        List<DrbdRscData<Resource>> drbdRscDataList,
+        boolean skipNet,
+        boolean skipDisk,
+        boolean discard
+    )
+        throws ExtCmdFailedException
     {
         List<String> command = new ArrayList<>();
         command.addAll(Arrays.asList(DRBDADM_UTIL, "-vvv", "adjust"));
@@ -85,7 +104,10 @@ public class DrbdAdm
         //     resName += "/" + volNum.value;
         // }
         // command.add(resName);
-        command.add(drbdRscData.getSuffixedResourceName());
+        for (DrbdRscData<Resource> drbdRscData : drbdRscDataList)
+        {
+            command.add(drbdRscData.getSuffixedResourceName());
+        }
         // execute(Arrays.asList("drbdsetup", "show", drbdRscData.getSuffixedResourceName()));
         execute(command);
         // execute(Arrays.asList("drbdsetup", "show", drbdRscData.getSuffixedResourceName()));
@@ -0,0 +1,206 @@
+package com.linbit.linstor.layer.nvme;
+
+import com.linbit.ImplementationError;
+import com.linbit.InvalidNameException;
+import com.linbit.ServiceName;
+import com.linbit.SystemService;
+import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.storage.StorageException;
+import com.linbit.utils.ExceptionThrowingSupplier;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the "nvme discover" and "nvme connect" commands of the NVMe initiators in the background, so that the
+ * initiators of one device manager run connect in parallel.
+ *
+ * The number of threads is limited, further commands wait in the queue. After {@link #shutdown()}, queued and
+ * newly submitted commands are not executed anymore, their futures fail instead.
+ */
+@Singleton
+public class NvmeConnectService implements SystemService
+{
+    private static final ServiceName SERVICE_NAME;
+    private static final String SERVICE_INFO = "Connects NVMe initiators to their targets";
+    private static final String THREAD_NAME_PREFIX = "NvmeConnect";
+    private static final int THREAD_COUNT = 8;
+    private static final long IDLE_TIMEOUT_SEC = 60;
+
+    private final ErrorReporter errorReporter;
+
+    private ServiceName instanceName;
+    private boolean started = false;
+    private boolean stopped = false;
+
+    private ThreadPoolExecutor pool;
+
+    static
+    {
+        try
+        {
+            SERVICE_NAME = new ServiceName("NvmeConnectService");
+        }
+        catch (InvalidNameException invalidNameExc)
+        {
+            throw new ImplementationError(invalidNameExc);
+        }
+    }
+
+    @Inject
+    public NvmeConnectService(ErrorReporter errorReporterRef)
+    {
+        errorReporter = errorReporterRef;
+        instanceName = SERVICE_NAME;
+    }
+
+    @Override
+    public ServiceName getServiceName()
+    {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public String getServiceInfo()
+    {
+        return SERVICE_INFO;
+    }
+
+    @Override
+    public ServiceName getInstanceName()
+    {
+        return instanceName;
+    }
+
+    @Override
+    public boolean isStarted()
+    {
+        return started;
+    }
+
+    @Override
+    public void setServiceInstanceName(ServiceName instanceNameRef)
+    {
+        instanceName = instanceNameRef;
+    }
+
+    @Override
+    public synchronized void start()
+    {
+        stopped = false;
+        started = true;
+    }
+
+    /**
+     * Interrupts the running commands and fails the futures of the queued ones
+     */
+    @Override
+    public synchronized void shutdown()
+    {
+        stopped = true;
+        if (pool != null)
+        {
+            for (Runnable queued : pool.shutdownNow())
+            {
+                ((Task<?>) queued).abort();
+            }
+            pool = null;
+        }
+        started = false;
+    }
+
+    @Override
+    public void awaitShutdown(long timeout)
+    {
+        // Nothing to do
+    }
+
+    /**
+     * Runs the given command by one of the threads of this service
+     *
+     * @return the future of the result of the command
+     */
+    public <T> CompletableFuture<T> submit(ExceptionThrowingSupplier<T, StorageException> command)
+    {
+        Task<T> task = new Task<>(command);
+        ThreadPoolExecutor execPool = getPool();
+        if (execPool == null)
+        {
+            task.abort();
+        }
+        else
+        {
+            try
+            {
+                execPool.execute(task);
+            }
+            catch (RejectedExecutionException exc)
+            {
+                // shut down in the meantime
+                task.abort();
+            }
+        }
+        return task.future;
+    }
+
+    private synchronized ThreadPoolExecutor getPool()
+    {
+        if (pool == null && !stopped)
+        {
+            AtomicInteger threadIdx = new AtomicInteger();
+            pool = new ThreadPoolExecutor(
+                THREAD_COUNT,
+                THREAD_COUNT,
+                IDLE_TIMEOUT_SEC,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable ->
+                {
+                    Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + "-" + threadIdx.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+            // no idle threads are kept between the device manager runs
+            pool.allowCoreThreadTimeOut(true);
+        }
+        return pool;
+    }
+
+    private class Task<T> implements Runnable
+    {
+        private final ExceptionThrowingSupplier<T, StorageException> command;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(ExceptionThrowingSupplier<T, StorageException> commandRef)
+        {
+            command = commandRef;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                future.complete(command.supply());
+            }
+            catch (StorageException | RuntimeException exc)
+            {
+                future.completeExceptionally(exc);
+            }
+        }
+
+        void abort()
+        {
+            errorReporter.logDebug("Not connecting NVMe initiator, the satellite is shutting down");
+            future.completeExceptionally(new StorageException("The satellite is shutting down"));
+        }
+    }
+}
@@ -25,7 +25,6 @@ import com.linbit.linstor.storage.data.adapter.nvme.NvmeVlmData;
 import com.linbit.linstor.storage.interfaces.categories.resource.AbsRscLayerObject;
 import com.linbit.linstor.storage.interfaces.categories.resource.VlmProviderObject;
 
-import static com.linbit.linstor.layer.nvme.NvmeUtils.NVME_SUBSYSTEMS_PATH;
 import static com.linbit.linstor.layer.nvme.NvmeUtils.NVME_SUBSYSTEM_PREFIX;
 
 import javax.inject.Inject;
@@ -78,7 +77,39 @@ public class NvmeLayer implements DeviceLayer
     )
         throws StorageException, AccessDeniedException, DatabaseException
     {
-        // no-op
+        nvmeUtils.clearCache();
+
+        // start connecting all initiators of this run in parallel, process() only waits for the results
+        for (AbsRscLayerObject<Resource> rscData : rscDataList)
+        {
+            NvmeRscData<Resource> nvmeRscData = (NvmeRscData<Resource>) rscData;
+            StateFlags<Flags> rscFlags = nvmeRscData.getAbsResource().getStateFlags();
+            if (
+                nvmeRscData.isInitiator(sysCtx) &&
+                    !rscFlags.isSet(sysCtx, Resource.Flags.DELETE) &&
+                    !rscFlags.isSet(sysCtx, Resource.Flags.INACTIVE)
+            )
+            {
+                try
+                {
+                    final Resource targetRsc = nvmeUtils.getTargetResource(nvmeRscData, sysCtx);
+                    nvmeRscData.setSpdk(nvmeUtils.isSpdkResource(targetRsc.getLayerData(sysCtx)));
+                    if (!nvmeUtils.isConnected(nvmeRscData))
+                    {
+                        nvmeUtils.connectAsync(nvmeRscData, sysCtx);
+                    }
+                }
+                catch (StorageException exc)
+                {
+                    // process() will retry synchronously and report the error for this resource only
+                    errorReporter.logDebug(
+                        "NVMe: could not prepare connect of '%s': %s",
+                        nvmeRscData.getSuffixedResourceName(),
+                        exc.getMessage()
+                    );
+                }
+            }
+        }
     }
 
     /**
@@ -178,7 +209,6 @@ public class NvmeLayer implements DeviceLayer
                     // Update volumes
                     final String subsystemName = NvmeUtils.getNvmeSubsystemPrefix(nvmeRscData)
                             + nvmeRscData.getSuffixedResourceName();
-                    final String subsystemDirectory = NVME_SUBSYSTEMS_PATH + subsystemName;
 
                     try
                     {
@@ -198,7 +228,7 @@ public class NvmeLayer implements DeviceLayer
                                 }
                                 else
                                 {
-                                    nvmeUtils.deleteNamespace(nvmeVlmData, subsystemDirectory);
+                                    nvmeUtils.deleteNamespace(nvmeVlmData, subsystemName);
                                 }
                             }
                             else
@@ -220,7 +250,7 @@ public class NvmeLayer implements DeviceLayer
                                 }
                                 else
                                 {
-                                    nvmeUtils.createNamespace(nvmeVlmData, subsystemDirectory);
+                                    nvmeUtils.createNamespace(nvmeVlmData, subsystemName);
                                 }
                             }
                         }
@@ -284,7 +314,7 @@ public class NvmeLayer implements DeviceLayer
     public void clearCache()
         throws StorageException
     {
-        // no-op
+        nvmeUtils.clearCache();
     }
 
     @Override
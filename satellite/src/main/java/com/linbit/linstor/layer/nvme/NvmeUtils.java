@@ -20,6 +20,7 @@ import com.linbit.linstor.core.objects.StorPool;
 import com.linbit.linstor.core.objects.Volume;
 import com.linbit.linstor.core.types.LsIpAddress;
 import com.linbit.linstor.layer.storage.spdk.utils.SpdkCommands;
+import com.linbit.linstor.layer.storage.spdk.utils.SpdkRpcClient;
 import com.linbit.linstor.layer.storage.spdk.utils.SpdkUtils;
 import com.linbit.linstor.logging.ErrorReporter;
 import com.linbit.linstor.propscon.InvalidKeyException;
@@ -38,6 +39,7 @@ import com.linbit.linstor.storage.interfaces.categories.resource.VlmProviderObje
 import com.linbit.linstor.storage.kinds.DeviceLayerKind;
 import com.linbit.linstor.utils.layer.LayerRscUtils;
 import com.linbit.linstor.utils.layer.LayerVlmUtils;
+import com.linbit.utils.ExceptionThrowingSupplier;
 
 import static com.linbit.linstor.api.ApiConsts.KEY_PREF_NIC;
 import static com.linbit.linstor.layer.storage.spdk.utils.SpdkCommands.SPDK_RPC_SCRIPT;
@@ -47,20 +49,25 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Class for processing NvmeRscData
@@ -75,30 +82,68 @@ public class NvmeUtils
     public static final String STANDARD_NVME_SUBSYSTEM_PREFIX = "nqn.2018-02.linbit.linstor:"; // NQN format aligned to the NVMe Spec
     private static final String NVMET_PATH = "/sys/kernel/config/nvmet/";
     public static final String NVME_SUBSYSTEMS_PATH = NVMET_PATH + "subsystems/";
-    private static final String NVME_PORTS_PATH = NVMET_PATH + "ports/";
-    private static final String NVME_FABRICS_PATH = "/sys/devices/virtual/nvme-fabrics/ctl/nvme";
+    private static final String NVME_FABRICS_CTL_PATH = "/sys/devices/virtual/nvme-fabrics/ctl";
+    private static final String NVME_CTL_PREFIX = "nvme";
+    // device path might be .../nvmeX/nvmeXcYnZ/.. but also .../nvmeX/nvmeXnY/..
+    private static final Pattern NVME_NAMESPACE_DIR_PATTERN = Pattern.compile("nvme\\d+(?:c\\d+)?n(\\d+)");
+
+    private static final String DISCOVER_SUBNQN = "subnqn:";
 
     private static final int IANA_DEFAULT_PORT = 4420;
-    private static final int NVME_IDX_MAX_DIGITS = 5;
-    private static final int NVME_GREP_SLEEP_MAX_WAIT_TIME = 50;
-    private static final long NVME_GREP_SLEEP_INCREMENT = 200L;
+    private static final int NVME_SYSFS_POLL_MAX_TRIES = 50;
+    private static final long NVME_SYSFS_POLL_INTERVAL = 200L;
 
     private final ExtCmdFactory extCmdFactory;
     private final Props stltProps;
     private final ErrorReporter errorReporter;
+    private final SpdkRpcClient spdkRpcClient;
+    private final NvmeConnectService connectService;
+
+    /*
+     * temporary, will be cleared in "clearCache()"
+     */
+    private NvmetConfigfsState configfsState;
+    private final Map<String, CompletableFuture<Set<String>>> discoveredSubsystems = new HashMap<>();
+    private final Map<String, CompletableFuture<Void>> pendingConnects = new HashMap<>();
 
     @Inject
     public NvmeUtils(
         ErrorReporter errorReporterRef,
         ExtCmdFactory extCmdFactoryRef,
-        @Named(LinStor.SATELLITE_PROPS) Props stltPropsRef
+        @Named(LinStor.SATELLITE_PROPS) Props stltPropsRef,
+        SpdkRpcClient spdkRpcClientRef,
+        NvmeConnectService connectServiceRef
     )
     {
         errorReporter = errorReporterRef;
         extCmdFactory = extCmdFactoryRef;
         stltProps = stltPropsRef;
+        spdkRpcClient = spdkRpcClientRef;
+        connectService = connectServiceRef;
+    }
+
+    /**
+     * Drops the configfs snapshot as well as the discovery results of the current device manager run, so that
+     * the next run reads the current state again.
+     */
+    public synchronized void clearCache()
+    {
+        configfsState = null;
+        discoveredSubsystems.clear();
+        pendingConnects.clear();
     }
 
+    /**
+     * Returns the snapshot of the nvmet configfs tree, which is read only once per device manager run
+     */
+    private synchronized NvmetConfigfsState getConfigfsState() throws IOException
+    {
+        if (configfsState == null)
+        {
+            configfsState = NvmetConfigfsState.read(Paths.get(NVMET_PATH));
+        }
+        return configfsState;
+    }
 
     /* compute methods */
 
@@ -113,8 +158,6 @@ public class NvmeUtils
         throws StorageException
     {
         final String subsystemName = getNvmeSubsystemPrefix(nvmeRscData) + nvmeRscData.getSuffixedResourceName();
-        final String subsystemDirectory = NVME_SUBSYSTEMS_PATH + subsystemName;
-        final Path subsystemPath = Paths.get(subsystemDirectory);
 
         errorReporter.logDebug(
             "NVMe: creating subsystem on target: " + NVME_SUBSYSTEM_PREFIX + nvmeRscData.getSuffixedResourceName()
@@ -169,76 +212,47 @@ public class NvmeUtils
             }
             else
             {
-                // create nvmet-rdma subsystem
-                Files.createDirectories(subsystemPath);
+                NvmetConfigfsState state = getConfigfsState();
 
-                // allow any host to be connected
-                Files.write(subsystemPath.resolve("attr_allow_any_host"), "1".getBytes());
+                // create nvmet-rdma subsystem and allow any host to be connected
+                state.ensureSubsystem(subsystemName);
 
                 for (NvmeVlmData<Resource> nvmeVlmData : nvmeRscData.getVlmLayerObjects().values())
                 {
                     // create namespace, set path to nvme device and enable namespace
-                    createNamespace(nvmeVlmData, subsystemDirectory);
+                    createNamespace(nvmeVlmData, subsystemName);
                 }
 
                 // get port directory or create it if the first subsystem is being added
                 LsIpAddress ipAddr = getIpAddr(nvmeRscData.getAbsResource(), accCtx);
-                String portIdx = getPortIdx(ipAddr);
+                Integer portIdx = state.findPortIdx(ipAddr.getAddress());
 
                 if (portIdx == null)
                 {
                     errorReporter.logDebug("NVMe: creating new ports directory on target");
 
-                    // get existing port directories and compute next available index
-                    String[] portDirs = new File(NVME_PORTS_PATH).list();
-                    if (portDirs.length == 0)
-                    {
-                        portIdx = "1";
-                    }
-                    else
-                    {
-                        Arrays.sort(portDirs);
-                        portIdx = Integer.toString(
-                            Integer.parseInt(portDirs[portDirs.length - 1].trim()) + 1
-                        );
-                    }
-
-                    Path portsPath = Paths.get(NVME_PORTS_PATH + portIdx);
-                    Files.createDirectories(portsPath);
-                    Files.write(portsPath.resolve("addr_traddr"), ipAddr.getAddress().getBytes());
-
                     // set the transport type and port
                     String transportType = nvmePrioProps.getProp(ApiConsts.KEY_TR_TYPE);
                     if (transportType == null)
                     {
                         transportType = "rdma";
                     }
-                    Files.write(portsPath.resolve("addr_trtype"), transportType.getBytes());
-
                     String port = nvmePrioProps.getProp(ApiConsts.KEY_PORT);
                     if (port == null)
                     {
                         port = Integer.toString(IANA_DEFAULT_PORT);
                     }
-                    Files.write(portsPath.resolve("addr_trsvcid"), port.getBytes());
 
-                    // set the address family of the port, either IPv4 or IPv6
-                    Files.write(
-                        portsPath.resolve("addr_adrfam"),
-                        ipAddr.getAddressType().toString().toLowerCase().getBytes()
+                    portIdx = state.createPort(
+                        ipAddr.getAddress(),
+                        transportType,
+                        port,
+                        // the address family of the port, either IPv4 or IPv6
+                        ipAddr.getAddressType().toString().toLowerCase()
                     );
                 }
                 // create soft link
-                ExtCmdUtils.checkExitCode(
-                    extCmdFactory.create().exec(
-                        "ln",
-                        "-s",
-                        subsystemDirectory,
-                        NVME_PORTS_PATH + portIdx + "/subsystems/" + subsystemName
-                        ),
-                    StorageException::new,
-                    "Failed to create symbolic link!"
-                );
+                state.ensureLink(portIdx, subsystemName);
             }
             nvmeRscData.setExists(true);
         }
@@ -262,7 +276,6 @@ public class NvmeUtils
         throws StorageException
     {
         final String subsystemName = getNvmeSubsystemPrefix(nvmeRscData) + nvmeRscData.getSuffixedResourceName();
-        final String subsystemDirectory = NVME_SUBSYSTEMS_PATH + subsystemName;
 
         errorReporter.logDebug(
             "NVMe: cleaning up target: " + NVME_SUBSYSTEM_PREFIX + nvmeRscData.getSuffixedResourceName()
@@ -281,8 +294,9 @@ public class NvmeUtils
             }
             else
             {
-                // remove soft link
-                String portIdx = getPortIdx(getIpAddr(nvmeRscData.getAbsResource(), accCtx));
+                NvmetConfigfsState state = getConfigfsState();
+
+                Integer portIdx = state.findPortIdx(getIpAddr(nvmeRscData.getAbsResource(), accCtx).getAddress());
                 if (portIdx == null)
                 {
                     throw new StorageException(
@@ -290,32 +304,17 @@ public class NvmeUtils
                     );
                 }
 
-                if (!(new File(NVME_PORTS_PATH + portIdx + "/subsystems/" + subsystemName).delete()))
-                {
-                    throw new StorageException("Failed to remove symbolic link!");
-                }
-
-                // delete ports directory
-                File subsysDir = new File(NVME_PORTS_PATH + portIdx + "/subsystems");
-                if (!subsysDir.exists())
-                {
-                    if (!(new File(NVME_PORTS_PATH + portIdx).delete()))
-                    {
-                        throw new StorageException("Failed to delete ports directory!");
-                    }
-                }
+                // remove soft link, and the ports directory if this was its last subsystem
+                state.removeLink(portIdx, subsystemName);
 
                 for (NvmeVlmData<Resource> nvmeVlmData : nvmeRscData.getVlmLayerObjects().values())
                 {
                     // delete namespace
-                    deleteNamespace(nvmeVlmData, subsystemDirectory);
+                    deleteNamespace(nvmeVlmData, subsystemName);
                 }
 
                 // delete subsystem directory
-                if (!(new File(subsystemDirectory).delete()))
-                {
-                    throw new StorageException("Failed to delete subsystem directory!");
-                }
+                state.removeSubsystem(subsystemName);
             }
             nvmeRscData.setExists(false);
         }
@@ -340,27 +339,75 @@ public class NvmeUtils
      * @throws StorageException
      */
     public void connect(NvmeRscData<Resource> nvmeRscData, AccessContext accCtx) throws StorageException
+    {
+        connect(
+            nvmeRscData,
+            getNvmeSubsystemPrefix(nvmeRscData) + nvmeRscData.getSuffixedResourceName(),
+            getTargetIpAddr(nvmeRscData, accCtx),
+            accCtx
+        );
+    }
+
+    /**
+     * Starts connecting the NVMe Initiator to the Target in the background and returns immediately.
+     * That way the connects of all initiators of a device manager run are executed in parallel, sharing one
+     * discovery per target. The result is awaited by the subsequent {@link #connect(NvmeRscData, AccessContext)}
+     * of the same resource.
+     *
+     * @param nvmeRscData
+     *     NvmeRscData object containing all needed information for this method
+     * @param accCtx
+     *     AccessContext needed to access properties and Target resource
+     *
+     * @throws StorageException
+     */
+    public void connectAsync(NvmeRscData<Resource> nvmeRscData, AccessContext accCtx) throws StorageException
+    {
+        final String subsystemName = getNvmeSubsystemPrefix(nvmeRscData) + nvmeRscData.getSuffixedResourceName();
+        CompletableFuture<Void> connectFuture = startConnect(
+            subsystemName,
+            getConnectTarget(nvmeRscData, subsystemName, getTargetIpAddr(nvmeRscData, accCtx), accCtx)
+        );
+        synchronized (this)
+        {
+            pendingConnects.put(subsystemName, connectFuture);
+        }
+    }
+
+    /**
+     * Checks whether the NVMe Initiator is already connected to the subsystem of the given resource
+     */
+    public boolean isConnected(NvmeRscData<Resource> nvmeRscData) throws StorageException
+    {
+        try
+        {
+            return findFabricsCtlIdx(getNvmeSubsystemPrefix(nvmeRscData) + nvmeRscData.getSuffixedResourceName()) !=
+                null;
+        }
+        catch (IOException exc)
+        {
+            throw new StorageException("Failed to read NVMe fabrics controllers!", exc);
+        }
+    }
+
+    private String getTargetIpAddr(NvmeRscData<Resource> nvmeRscData, AccessContext accCtx)
+        throws StorageException
     {
         try
         {
-            connect(
-                nvmeRscData,
-                getNvmeSubsystemPrefix(nvmeRscData) + nvmeRscData.getSuffixedResourceName(),
-                getIpAddr(
-                    // TODO: check on controller
-                    nvmeRscData.getAbsResource().getDefinition().getResource(
-                        accCtx,
-                        new NodeName(
-                            nvmeRscData
-                                .getAbsResource()
-                                .getProps(accCtx)
-                                .getProp(InternalApiConsts.PROP_NVME_TARGET_NODE_NAME)
-                        )
-                    ),
-                    accCtx
-                ).getAddress(),
+            return getIpAddr(
+                // TODO: check on controller
+                nvmeRscData.getAbsResource().getDefinition().getResource(
+                    accCtx,
+                    new NodeName(
+                        nvmeRscData
+                            .getAbsResource()
+                            .getProps(accCtx)
+                            .getProp(InternalApiConsts.PROP_NVME_TARGET_NODE_NAME)
+                    )
+                ),
                 accCtx
-            );
+            ).getAddress();
         }
         catch (InvalidKeyException | AccessDeniedException | InvalidNameException exc)
         {
@@ -408,15 +455,56 @@ public class NvmeUtils
         void connect(RSC_DATA rscData, String subsystemName, String ipAddr, AccessContext accCtx)
             throws StorageException
     {
-        try
+        CompletableFuture<Void> connectFuture;
+        synchronized (this)
         {
-            errorReporter.logDebug("NVMe: connecting initiator to: " + subsystemName);
+            connectFuture = pendingConnects.remove(subsystemName);
+        }
+        if (connectFuture == null)
+        {
+            connectFuture = startConnect(subsystemName, getConnectTarget(rscData, subsystemName, ipAddr, accCtx));
+        }
 
-            if (subsystemName == null || subsystemName.trim().isEmpty())
+        try
+        {
+            connectFuture.get();
+        }
+        catch (ExecutionException exc)
+        {
+            Throwable cause = exc.getCause();
+            if (cause instanceof StorageException)
             {
-                throw new ImplementationError("Invalid (empty) subsystem name: '" + subsystemName + "'");
+                throw (StorageException) cause;
             }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new StorageException("Failed to connect to NVMe target!", (Exception) cause);
+        }
+        catch (InterruptedException exc)
+        {
+            Thread.currentThread().interrupt();
+            throw new StorageException("Interrupted while connecting to NVMe target!", exc);
+        }
+    }
+
+    private <
+        VLM_DATA extends VlmProviderObject<Resource>,
+        RSC_DATA extends AbsRscData<Resource, VLM_DATA>>
+        ConnectTarget getConnectTarget(RSC_DATA rscData, String subsystemName, String ipAddr, AccessContext accCtx)
+    {
+        if (subsystemName == null || subsystemName.trim().isEmpty())
+        {
+            throw new ImplementationError("Invalid (empty) subsystem name: '" + subsystemName + "'");
+        }
 
+        try
+        {
             ResourceDefinition rscDfn = rscData.getAbsResource().getResourceDefinition();
             final PriorityProps nvmePrioProps = new PriorityProps(
                 rscDfn.getProps(accCtx),
@@ -435,21 +523,62 @@ public class NvmeUtils
                 transportType = "rdma";
             }
 
-            String nodeName = rscData.getAbsResource().getNode().getName().getDisplayName();
-            List<String> subsystemNames = discover(subsystemName, transportType, ipAddr, port, nodeName);
-            if (!subsystemNames.contains(subsystemName))
-            {
-                throw new StorageException("Failed to discover subsystem name '" + subsystemName + "'!");
-            }
+            return new ConnectTarget(
+                transportType,
+                ipAddr,
+                port,
+                rscData.getAbsResource().getNode().getName().getDisplayName()
+            );
+        }
+        catch (AccessDeniedException | InvalidKeyException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+    }
+
+    /**
+     * Connects to the given subsystem in the background. Only the first connect to a target discovers its
+     * subsystems, all further connects to the same target (within the same device manager run) reuse that result.
+     */
+    private CompletableFuture<Void> startConnect(String subsystemName, ConnectTarget target)
+    {
+        CompletableFuture<Set<String>> discovery;
+        synchronized (this)
+        {
+            discovery = discoveredSubsystems.computeIfAbsent(
+                target.toString(),
+                ignored -> connectService.submit(() -> discover(target))
+            );
+        }
+        return discovery.thenCompose(
+            subsystemNames -> connectService.submit(
+                () ->
+                {
+                    if (!subsystemNames.contains(subsystemName))
+                    {
+                        throw new StorageException("Failed to discover subsystem name '" + subsystemName + "'!");
+                    }
+                    execConnect(subsystemName, target);
+                    return null;
+                }
+            )
+        );
+    }
+
+    private void execConnect(String subsystemName, ConnectTarget target) throws StorageException
+    {
+        try
+        {
+            errorReporter.logDebug("NVMe: connecting initiator to: " + subsystemName);
 
             OutputData output = extCmdFactory.create().exec(
                 "nvme",
                 "connect",
-                "--transport=" + transportType,
+                "--transport=" + target.transportType,
                 "--nqn=" + subsystemName,
-                "--traddr=" + ipAddr,
-                "--trsvcid=" + port,
-                "--hostnqn=" + nodeName
+                "--traddr=" + target.ipAddr,
+                "--trsvcid=" + target.port,
+                "--hostnqn=" + target.hostNqn
             );
             ExtCmdUtils.checkExitCode(output, StorageException::new, "Failed to connect to NVMe target!");
         }
@@ -457,10 +586,6 @@ public class NvmeUtils
         {
             throw new StorageException("Failed to connect to NVMe target!", exc);
         }
-        catch (AccessDeniedException | InvalidKeyException exc)
-        {
-            throw new ImplementationError(exc);
-        }
     }
 
     /**
@@ -573,7 +698,7 @@ public class NvmeUtils
         {
             try
             {
-                isConfigured = SpdkUtils.checkTargetExists(extCmdFactory.create(),subsystemName);
+                isConfigured = SpdkUtils.checkTargetExists(extCmdFactory.create(), spdkRpcClient, subsystemName);
             }
             catch (StorageException exc)
             {
@@ -582,7 +707,14 @@ public class NvmeUtils
         }
         else
         {
-            isConfigured = Files.exists(Paths.get(NVME_SUBSYSTEMS_PATH).resolve(subsystemName));
+            try
+            {
+                isConfigured = getConfigfsState().hasSubsystem(subsystemName);
+            }
+            catch (IOException exc)
+            {
+                errorReporter.reportError(exc);
+            }
         }
 
         return isConfigured;
@@ -645,45 +777,23 @@ public class NvmeUtils
             {
                 throw new ImplementationError("Subsystemname cannot be empty: '" + subsystemName + "'");
             }
-            OutputData output = executeCmdAfterWaiting(
-                isWaiting,
-                "/bin/bash", "-c", "grep -H -r -w " + subsystemName + " " + NVME_FABRICS_PATH + "*/subsysnqn"
-            );
+            final Integer nvmeRscIdx = pollSysfs(isWaiting, () -> findFabricsCtlIdx(subsystemName));
 
-            if (output == null)
+            if (nvmeRscIdx == null)
             {
                 success = false;
                 setDeepExists(rscData, setExistsRscFunc, setExistsVlmFunc, false);
             }
             else
             {
-                final int nvmeRscIdx = Integer.parseInt(
-                    (new String(output.stdoutData))
-                        .substring(NVME_FABRICS_PATH.length(), NVME_FABRICS_PATH.length() + NVME_IDX_MAX_DIGITS)
-                        .split(File.separator)[0]
-                );
-                final String nvmeFabricsVlmPath = NVME_FABRICS_PATH + nvmeRscIdx + "/nvme" + nvmeRscIdx;
-
                 setExistsRscFunc.accept(rscData, true);
 
                 for (VLM_DATA vlmData : rscData.getVlmLayerObjects().values())
                 {
-                    output = executeCmdAfterWaiting(
-                        isWaiting,
-                        "/bin/bash", "-c",
-                        "grep -H -r -w " + (vlmData.getVlmNr().getValue() + 1) + " " +
-                        nvmeFabricsVlmPath + "*n*/nsid"
+                    final int nsid = vlmData.getVlmNr().getValue() + 1;
+                    Integer nvmeVlmIdx = pollSysfs(isWaiting, () -> findNamespaceIdx(nvmeRscIdx, nsid));
 
-                    );
-                    /*
-                     * device path might be
-                     * .../nvmeX/nvmeXcYnZ/..
-                     * but also
-                     * .../nvmeX/nvmeXnY/..
-                     *
-                     */
-
-                    if (output == null)
+                    if (nvmeVlmIdx == null)
                     {
                         success = false;
                         setExistsVlmFunc.accept(vlmData, false);
@@ -691,26 +801,13 @@ public class NvmeUtils
                     }
                     else
                     {
-                        String grepResult = new String(output.stdoutData);
-                        // grepResult looks something like
-                        // /sys/devices/virtual/nvme-fabrics/ctl/nvme0/nvme0c1n1/nsid:1
-                        // either with cY or without
-
-                        String[] nvmePathParts = grepResult.split(File.separator);
-                        // should now only contain "nvme0(c1)?n1"
-                        String nvmeNamespacePart = nvmePathParts[nvmePathParts.length - 2];
-
-                        final int nvmeVlmIdx = Integer.parseInt(
-                            nvmeNamespacePart.substring(nvmeNamespacePart.lastIndexOf('n') + 1)
-                        );
-
                         setDevPathVlmFunc.accept(vlmData, "/dev/nvme" + nvmeRscIdx + "n" + nvmeVlmIdx);
                         setExistsVlmFunc.accept(vlmData, true);
                     }
                 }
             }
         }
-        catch (IOException | ChildProcessTimeoutException | InterruptedException exc)
+        catch (IOException | InterruptedException exc)
         {
             throw new StorageException("Failed to set NVMe device path!", exc);
         }
@@ -751,50 +848,43 @@ public class NvmeUtils
 
 
     /**
-     * Creates a new directory for the given file path, sets the appropriate backing device and enables the namespace
+     * Creates the namespace of the given volume in the subsystem (unless it already exists), sets the
+     * appropriate backing device and enables the namespace
      *
      * @param nvmeVlmData nvmeVlm object containing information for path to the new namespace
+     * @param subsystemName String containing NVMe subsystem name
      */
-    public void createNamespace(NvmeVlmData<Resource> nvmeVlmData, String subsystemDirectory)
+    public void createNamespace(NvmeVlmData<Resource> nvmeVlmData, String subsystemName)
         throws IOException
     {
-        final Path namespacePath = Paths.get(
-            subsystemDirectory + "/namespaces/" + (nvmeVlmData.getVlmNr().getValue() + 1)
-        );
-        if (!Files.exists(namespacePath))
+        final int namespaceNr = nvmeVlmData.getVlmNr().getValue() + 1;
+        final String backingDevice = nvmeVlmData.getBackingDevice();
+        NvmetConfigfsState state = getConfigfsState();
+        if (!state.hasNamespace(subsystemName, namespaceNr))
         {
-            byte[] backingDevice = nvmeVlmData.getBackingDevice().getBytes();
-            errorReporter.logDebug("NVMe: creating namespace: " + namespacePath.getFileName());
-            Files.createDirectories(namespacePath);
-            errorReporter.logDebug("NVMe: exposing device: " + new String(backingDevice));
-            Files.write(namespacePath.resolve("device_path"), backingDevice);
-            Files.write(namespacePath.resolve("enable"), "1".getBytes());
+            errorReporter.logDebug("NVMe: creating namespace: " + namespaceNr);
         }
+        errorReporter.logDebug("NVMe: exposing device: " + backingDevice);
+        state.ensureNamespace(subsystemName, namespaceNr, backingDevice);
         nvmeVlmData.setExists(true);
     }
 
     /**
-     * Disables the namespace at the given file path and deletes the directory
+     * Disables the namespace of the given volume and deletes its directory
      *
      * @param nvmeVlmData nvmeVlm object containing information for path to the new namespace
-     * @param subsystemDirectory
+     * @param subsystemName String containing NVMe subsystem name
      */
-    public void deleteNamespace(NvmeVlmData<Resource> nvmeVlmData, String subsystemDirectory)
-        throws IOException, ChildProcessTimeoutException, StorageException
+    public void deleteNamespace(NvmeVlmData<Resource> nvmeVlmData, String subsystemName)
+        throws IOException
     {
         final int namespaceNr = nvmeVlmData.getVlmNr().getValue() + 1;
-        final Path namespacePath = Paths.get(subsystemDirectory + "/namespaces/" + namespaceNr);
+        NvmetConfigfsState state = getConfigfsState();
 
-        if (Files.exists(namespacePath))
+        if (state.hasNamespace(subsystemName, namespaceNr))
         {
-            errorReporter.logDebug("NVMe: deleting namespace: " + namespacePath.getFileName());
-            Files.write(namespacePath.resolve("enable"), "0".getBytes());
-            OutputData output = extCmdFactory.create().exec("rmdir", namespacePath.toString());
-            ExtCmdUtils.checkExitCode(
-                output,
-                StorageException::new,
-                "Failed to delete namespace directory!"
-            );
+            errorReporter.logDebug("NVMe: deleting namespace: " + namespaceNr);
+            state.removeNamespace(subsystemName, namespaceNr);
         }
         nvmeVlmData.setExists(false);
     }
@@ -809,7 +899,7 @@ public class NvmeUtils
     public void createSpdkNamespace(NvmeVlmData<Resource> nvmeVlmData, String subsystemName)
         throws IOException, StorageException, ChildProcessTimeoutException
     {
-        if (!SpdkUtils.checkNamespaceExists(extCmdFactory.create(), subsystemName,
+        if (!SpdkUtils.checkNamespaceExists(extCmdFactory.create(), spdkRpcClient, subsystemName,
             nvmeVlmData.getVlmNr().getValue() + 1))
         {
             byte[] backingDevice = nvmeVlmData.getBackingDevice().getBytes();
@@ -839,7 +929,7 @@ public class NvmeUtils
     {
         final int namespaceNr = nvmeVlmData.getVlmNr().getValue() + 1;
 
-        if (!SpdkUtils.checkNamespaceExists(extCmdFactory.create(), subsystemName, namespaceNr))
+        if (!SpdkUtils.checkNamespaceExists(extCmdFactory.create(), spdkRpcClient, subsystemName, namespaceNr))
         {
             errorReporter.logDebug("NVMe: deleting namespace: " + subsystemName);
             OutputData output = extCmdFactory.create().exec(
@@ -868,80 +958,124 @@ public class NvmeUtils
     /* helper methods */
 
     /**
-     * Executes the given command immediately or waits for its completion, depending on {@param isWaiting}
+     * Runs the given sysfs lookup once or, if {@param isWaiting}, repeats it until it finds something
      *
-     * @param isWaiting boolean true if the external commands should be waited for in loop
-     * @param command   String... command being executed
-     * @return          OutputData of the executed command or null if something went wrong
+     * @param isWaiting boolean true if the lookup should be retried in a loop
+     * @param lookup    returns the result of the lookup or null if nothing was found
+     * @return          the result of the lookup or null if nothing was found
      */
-    private OutputData executeCmdAfterWaiting(boolean isWaiting, String... command)
-        throws IOException, ChildProcessTimeoutException, InterruptedException
+    private <T> T pollSysfs(boolean isWaiting, ExceptionThrowingSupplier<T, IOException> lookup)
+        throws IOException, InterruptedException
     {
-        int tries = isWaiting ? 0 : NVME_GREP_SLEEP_MAX_WAIT_TIME - 1;
-        OutputData output;
-        boolean extCmdSuccess;
-        do
+        int tries = isWaiting ? 0 : NVME_SYSFS_POLL_MAX_TRIES - 1;
+        T result = lookup.supply();
+        while (result == null && ++tries < NVME_SYSFS_POLL_MAX_TRIES)
         {
-            output = extCmdFactory.create().exec(command);
-            extCmdSuccess = output.exitCode == 0;
-            if (!extCmdSuccess)
+            Thread.sleep(NVME_SYSFS_POLL_INTERVAL);
+            result = lookup.supply();
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the index of the NVMe fabrics controller connected to the given subsystem
+     *
+     * @param subsystemName String, NQN of the subsystem
+     * @return              Integer index X of /sys/devices/virtual/nvme-fabrics/ctl/nvmeX or null if not connected
+     */
+    private Integer findFabricsCtlIdx(String subsystemName) throws IOException
+    {
+        Integer ctlIdx = null;
+        Path ctlPath = Paths.get(NVME_FABRICS_CTL_PATH);
+        if (Files.isDirectory(ctlPath))
+        {
+            try (DirectoryStream<Path> ctlDirs = Files.newDirectoryStream(ctlPath, NVME_CTL_PREFIX + "*"))
             {
-                Thread.sleep(NVME_GREP_SLEEP_INCREMENT);
-                tries++;
+                for (Path ctlDir : ctlDirs)
+                {
+                    if (subsystemName.equals(readSysfsAttr(ctlDir.resolve("subsysnqn"))))
+                    {
+                        ctlIdx = Integer.parseInt(ctlDir.getFileName().toString().substring(NVME_CTL_PREFIX.length()));
+                        break;
+                    }
+                }
+            }
+        }
+        return ctlIdx;
+    }
+
+    /**
+     * Looks up the namespace with the given nsid of the given NVMe fabrics controller
+     *
+     * @param ctlIdx    int index X of the controller /sys/devices/virtual/nvme-fabrics/ctl/nvmeX
+     * @param nsid      int namespace id
+     * @return          Integer index Z of the namespace directory nvmeX(cY)?nZ or null if not found
+     */
+    private Integer findNamespaceIdx(int ctlIdx, int nsid) throws IOException
+    {
+        Integer nsIdx = null;
+        Path ctlDir = Paths.get(NVME_FABRICS_CTL_PATH, NVME_CTL_PREFIX + ctlIdx);
+        if (Files.isDirectory(ctlDir))
+        {
+            String nsidStr = Integer.toString(nsid);
+            try (DirectoryStream<Path> nsDirs = Files.newDirectoryStream(ctlDir, NVME_CTL_PREFIX + "*n*"))
+            {
+                for (Path nsDir : nsDirs)
+                {
+                    Matcher matcher = NVME_NAMESPACE_DIR_PATTERN.matcher(nsDir.getFileName().toString());
+                    if (matcher.matches() && nsidStr.equals(readSysfsAttr(nsDir.resolve("nsid"))))
+                    {
+                        nsIdx = Integer.parseInt(matcher.group(1));
+                        break;
+                    }
+                }
             }
         }
-        while (!extCmdSuccess && tries < NVME_GREP_SLEEP_MAX_WAIT_TIME);
+        return nsIdx;
+    }
 
-        if (isWaiting && tries >= NVME_GREP_SLEEP_MAX_WAIT_TIME || !extCmdSuccess)
+    private static String readSysfsAttr(Path attrPath) throws IOException
+    {
+        String value = null;
+        if (Files.exists(attrPath))
         {
-            output = null;
+            value = new String(Files.readAllBytes(attrPath), StandardCharsets.UTF_8).trim();
         }
-        return output;
+        return value;
     }
 
     /**
      * Executes the nvme-discover command and reads the names of available subsystems from the output
      *
-     * @param nvmeRscData   NvmeRscData, object containing needed NVMe subsystem prefix
-     * @param transportType String, only RDMA featured at the moment
-     * @param ipAddr        String, can be IPv4 or IPv6
-     * @param port          String, default: 4420
-     * @return              List<String> of discovered subsystem names
+     * @param target    ConnectTarget containing the transport type (only RDMA featured at the moment), the IPv4 or
+     *                  IPv6 address, the port (default: 4420) and the host NQN
+     * @return          Set<String> of discovered subsystem names
      */
-    private List<String> discover(
-        String subsystemName,
-        String transportType,
-        String ipAddr,
-        String port,
-        String nodeName
-    )
+    private Set<String> discover(ConnectTarget target)
         throws StorageException
     {
-        List<String> subsystemNames = new ArrayList<>();
+        Set<String> subsystemNames = new HashSet<>();
 
         try
         {
-            errorReporter.logDebug("NVMe: discovering target subsystems.");
+            errorReporter.logDebug("NVMe: discovering target subsystems of %s.", target);
 
             OutputData output = extCmdFactory.create().exec(
                 "nvme",
                 "discover",
-                "--transport=" + transportType,
-                "--traddr=" + ipAddr,
-                "--trsvcid=" + port,
-                "--hostnqn=" + nodeName
+                "--transport=" + target.transportType,
+                "--traddr=" + target.ipAddr,
+                "--trsvcid=" + target.port,
+                "--hostnqn=" + target.hostNqn
             );
             ExtCmdUtils.checkExitCode(output, StorageException::new, "Failed to discover NVMe subsystems!");
 
             for (String outputLine : (new String(output.stdoutData)).split("\n"))
             {
-                if (outputLine.contains("subnqn:"))
+                int idx = outputLine.indexOf(DISCOVER_SUBNQN);
+                if (idx >= 0)
                 {
-                    int idx = outputLine.indexOf(subsystemName);
-                    if (idx >= 0)
-                    {
-                        subsystemNames.add(outputLine.substring(idx));
-                    }
+                    subsystemNames.add(outputLine.substring(idx + DISCOVER_SUBNQN.length()).trim());
                 }
             }
         }
@@ -1016,43 +1150,6 @@ public class NvmeUtils
         return netIf.getAddress(accCtx);
     }
 
-    /**
-     * Retrieves the NVMe-intern port directory index
-     *
-     * @param ipAddr    LsIpAddress, can be IPv4 or IPv6
-     * @return          String port index
-     */
-    private String getPortIdx(LsIpAddress ipAddr)
-        throws StorageException, IOException, ChildProcessTimeoutException
-    {
-        errorReporter.logDebug("NVMe: retrieving port directory index of IP address: " + ipAddr.getAddress());
-
-        OutputData output = extCmdFactory.create().exec(
-            "/bin/bash", "-c", "grep -r -H --color=never " + ipAddr.getAddress() + " " + NVME_PORTS_PATH
-        );
-
-        String portIdx;
-        if (output.exitCode == 0)
-        {
-            String grepPortIdx = new String(output.stdoutData);
-            portIdx = grepPortIdx.substring(
-                NVME_PORTS_PATH.length(),
-                grepPortIdx.indexOf(File.separator, NVME_PORTS_PATH.length() + 1)
-            );
-        }
-        else
-        if (output.exitCode == 1)
-        {
-            portIdx = null;
-        }
-        else
-        {
-            throw new StorageException("Failed to look up port index!");
-        }
-
-        return portIdx;
-    }
-
     /**
      * Checks whether the specified resource belongs to SPDK layer
      *
@@ -1125,4 +1222,29 @@ public class NvmeUtils
     {
         return extCmdFactory;
     }
+
+    /**
+     * Address of an NVMe Target as used by "nvme discover" and "nvme connect"
+     */
+    private static class ConnectTarget
+    {
+        private final String transportType;
+        private final String ipAddr;
+        private final String port;
+        private final String hostNqn;
+
+        ConnectTarget(String transportTypeRef, String ipAddrRef, String portRef, String hostNqnRef)
+        {
+            transportType = transportTypeRef;
+            ipAddr = ipAddrRef;
+            port = portRef;
+            hostNqn = hostNqnRef;
+        }
+
+        @Override
+        public String toString()
+        {
+            return transportType + ":" + ipAddr + ":" + port + " (" + hostNqn + ")";
+        }
+    }
 }
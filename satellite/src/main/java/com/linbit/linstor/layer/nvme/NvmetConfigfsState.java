@@ -0,0 +1,394 @@
+package com.linbit.linstor.layer.nvme;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Snapshot of the nvmet configfs tree, i.e. the subsystems with their namespaces and the ports with their
+ * linked subsystems.
+ *
+ * The snapshot is read once and kept up to date by the modifying methods of this class, which compare the
+ * desired state with the snapshot and only write the attributes and directories that actually differ.
+ * This way, neither checking whether a subsystem exists nor looking up the port of an address requires
+ * rescanning configfs or forking external commands.
+ *
+ * Not thread-safe.
+ */
+class NvmetConfigfsState
+{
+    static final String ATTR_ALLOW_ANY_HOST = "attr_allow_any_host";
+    static final String ATTR_DEVICE_PATH = "device_path";
+    static final String ATTR_ENABLE = "enable";
+    static final String ATTR_ADDR_TRADDR = "addr_traddr";
+    static final String ATTR_ADDR_TRTYPE = "addr_trtype";
+    static final String ATTR_ADDR_TRSVCID = "addr_trsvcid";
+    static final String ATTR_ADDR_ADRFAM = "addr_adrfam";
+
+    private static final String SUBSYSTEMS_DIR = "subsystems";
+    private static final String PORTS_DIR = "ports";
+    private static final String NAMESPACES_DIR = "namespaces";
+    private static final String[] PORT_ATTRS =
+    {
+        ATTR_ADDR_TRADDR, ATTR_ADDR_TRTYPE, ATTR_ADDR_TRSVCID, ATTR_ADDR_ADRFAM
+    };
+    private static final String ENABLED = "1";
+    private static final String DISABLED = "0";
+
+    private final Path subsystemsPath;
+    private final Path portsPath;
+
+    private final Map<String, Subsystem> subsystems = new TreeMap<>();
+    private final TreeMap<Integer, Port> ports = new TreeMap<>();
+
+    private NvmetConfigfsState(Path nvmetPath)
+    {
+        subsystemsPath = nvmetPath.resolve(SUBSYSTEMS_DIR);
+        portsPath = nvmetPath.resolve(PORTS_DIR);
+    }
+
+    /**
+     * Reads the current subsystems, namespaces and ports below the given nvmet configfs directory. If the
+     * directory does not exist (i.e. the nvmet module is not loaded), the returned snapshot is empty.
+     */
+    static NvmetConfigfsState read(Path nvmetPath) throws IOException
+    {
+        NvmetConfigfsState state = new NvmetConfigfsState(nvmetPath);
+        if (Files.isDirectory(state.subsystemsPath))
+        {
+            try (DirectoryStream<Path> subsysDirs = Files.newDirectoryStream(state.subsystemsPath))
+            {
+                for (Path subsysDir : subsysDirs)
+                {
+                    state.subsystems.put(subsysDir.getFileName().toString(), readSubsystem(subsysDir));
+                }
+            }
+        }
+        if (Files.isDirectory(state.portsPath))
+        {
+            try (DirectoryStream<Path> portDirs = Files.newDirectoryStream(state.portsPath))
+            {
+                for (Path portDir : portDirs)
+                {
+                    Integer portIdx = parseInt(portDir.getFileName().toString());
+                    if (portIdx != null)
+                    {
+                        state.ports.put(portIdx, readPort(portDir));
+                    }
+                }
+            }
+        }
+        return state;
+    }
+
+    private static Subsystem readSubsystem(Path subsysDir) throws IOException
+    {
+        Subsystem subsys = new Subsystem();
+        subsys.allowAnyHost = readAttr(subsysDir.resolve(ATTR_ALLOW_ANY_HOST));
+
+        Path namespacesDir = subsysDir.resolve(NAMESPACES_DIR);
+        if (Files.isDirectory(namespacesDir))
+        {
+            try (DirectoryStream<Path> nsDirs = Files.newDirectoryStream(namespacesDir))
+            {
+                for (Path nsDir : nsDirs)
+                {
+                    Integer nsNr = parseInt(nsDir.getFileName().toString());
+                    if (nsNr != null)
+                    {
+                        Namespace ns = new Namespace();
+                        ns.devicePath = readAttr(nsDir.resolve(ATTR_DEVICE_PATH));
+                        ns.enabled = ENABLED.equals(readAttr(nsDir.resolve(ATTR_ENABLE)));
+                        subsys.namespaces.put(nsNr, ns);
+                    }
+                }
+            }
+        }
+        return subsys;
+    }
+
+    private static Port readPort(Path portDir) throws IOException
+    {
+        Port port = new Port();
+        for (String attr : PORT_ATTRS)
+        {
+            String value = readAttr(portDir.resolve(attr));
+            if (value != null)
+            {
+                port.attrs.put(attr, value);
+            }
+        }
+        Path linksDir = portDir.resolve(SUBSYSTEMS_DIR);
+        if (Files.isDirectory(linksDir))
+        {
+            try (DirectoryStream<Path> links = Files.newDirectoryStream(linksDir))
+            {
+                for (Path link : links)
+                {
+                    port.subsystems.add(link.getFileName().toString());
+                }
+            }
+        }
+        return port;
+    }
+
+    boolean hasSubsystem(String subsystemName)
+    {
+        return subsystems.containsKey(subsystemName);
+    }
+
+    boolean hasNamespace(String subsystemName, int namespaceNr)
+    {
+        Subsystem subsys = subsystems.get(subsystemName);
+        return subsys != null && subsys.namespaces.containsKey(namespaceNr);
+    }
+
+    /**
+     * @return the index of the port listening on the given address, or null if there is none
+     */
+    Integer findPortIdx(String traddr)
+    {
+        Integer portIdx = null;
+        for (Entry<Integer, Port> entry : ports.entrySet())
+        {
+            if (traddr.equals(entry.getValue().attrs.get(ATTR_ADDR_TRADDR)))
+            {
+                portIdx = entry.getKey();
+                break;
+            }
+        }
+        return portIdx;
+    }
+
+    /**
+     * Creates the subsystem if it does not exist yet and makes sure any host is allowed to connect
+     */
+    void ensureSubsystem(String subsystemName) throws IOException
+    {
+        Subsystem subsys = subsystems.get(subsystemName);
+        Path subsysDir = subsystemsPath.resolve(subsystemName);
+        if (subsys == null)
+        {
+            Files.createDirectories(subsysDir);
+            subsys = new Subsystem();
+            subsystems.put(subsystemName, subsys);
+        }
+        if (!ENABLED.equals(subsys.allowAnyHost))
+        {
+            writeAttr(subsysDir.resolve(ATTR_ALLOW_ANY_HOST), ENABLED);
+            subsys.allowAnyHost = ENABLED;
+        }
+    }
+
+    /**
+     * Makes sure the given namespace of the (already existing) subsystem exposes the given device and is enabled.
+     * An enabled namespace exposing a different device is disabled first, as the device path of an enabled
+     * namespace cannot be changed.
+     */
+    void ensureNamespace(String subsystemName, int namespaceNr, String devicePath) throws IOException
+    {
+        Subsystem subsys = getSubsystem(subsystemName);
+        Namespace ns = subsys.namespaces.get(namespaceNr);
+        Path nsDir = namespacePath(subsystemName, namespaceNr);
+        if (ns == null)
+        {
+            Files.createDirectories(nsDir);
+            ns = new Namespace();
+            subsys.namespaces.put(namespaceNr, ns);
+        }
+        if (!devicePath.equals(ns.devicePath))
+        {
+            if (ns.enabled)
+            {
+                writeAttr(nsDir.resolve(ATTR_ENABLE), DISABLED);
+                ns.enabled = false;
+            }
+            writeAttr(nsDir.resolve(ATTR_DEVICE_PATH), devicePath);
+            ns.devicePath = devicePath;
+        }
+        if (!ns.enabled)
+        {
+            writeAttr(nsDir.resolve(ATTR_ENABLE), ENABLED);
+            ns.enabled = true;
+        }
+    }
+
+    /**
+     * Disables and removes the given namespace, if it exists
+     */
+    void removeNamespace(String subsystemName, int namespaceNr) throws IOException
+    {
+        Subsystem subsys = subsystems.get(subsystemName);
+        Namespace ns = subsys == null ? null : subsys.namespaces.get(namespaceNr);
+        if (ns != null)
+        {
+            Path nsDir = namespacePath(subsystemName, namespaceNr);
+            if (ns.enabled)
+            {
+                writeAttr(nsDir.resolve(ATTR_ENABLE), DISABLED);
+                ns.enabled = false;
+            }
+            deleteIfExists(nsDir);
+            subsys.namespaces.remove(namespaceNr);
+        }
+    }
+
+    /**
+     * Removes the subsystem including all of its remaining namespaces, if it exists. The subsystem must not be
+     * linked to any port anymore.
+     */
+    void removeSubsystem(String subsystemName) throws IOException
+    {
+        Subsystem subsys = subsystems.get(subsystemName);
+        if (subsys != null)
+        {
+            for (Integer namespaceNr : new TreeSet<>(subsys.namespaces.keySet()))
+            {
+                removeNamespace(subsystemName, namespaceNr);
+            }
+            deleteIfExists(subsystemsPath.resolve(subsystemName));
+            subsystems.remove(subsystemName);
+        }
+    }
+
+    /**
+     * Creates a new port with the next free index and the given address attributes
+     *
+     * @return the index of the new port
+     */
+    int createPort(String traddr, String trtype, String trsvcid, String adrfam) throws IOException
+    {
+        int portIdx = ports.isEmpty() ? 1 : ports.lastKey() + 1;
+        Path portDir = portsPath.resolve(Integer.toString(portIdx));
+        Files.createDirectories(portDir);
+
+        Port port = new Port();
+        ports.put(portIdx, port);
+        String[] values = {traddr, trtype, trsvcid, adrfam};
+        for (int idx = 0; idx < PORT_ATTRS.length; ++idx)
+        {
+            writeAttr(portDir.resolve(PORT_ATTRS[idx]), values[idx]);
+            port.attrs.put(PORT_ATTRS[idx], values[idx]);
+        }
+        return portIdx;
+    }
+
+    /**
+     * Links the subsystem to the port, unless it is already linked
+     */
+    void ensureLink(int portIdx, String subsystemName) throws IOException
+    {
+        Port port = getPort(portIdx);
+        if (!port.subsystems.contains(subsystemName))
+        {
+            Path linksDir = portsPath.resolve(Integer.toString(portIdx)).resolve(SUBSYSTEMS_DIR);
+            Files.createDirectories(linksDir);
+            Files.createSymbolicLink(linksDir.resolve(subsystemName), subsystemsPath.resolve(subsystemName));
+            port.subsystems.add(subsystemName);
+        }
+    }
+
+    /**
+     * Unlinks the subsystem from the port and removes the port if no other subsystem is linked to it anymore
+     */
+    void removeLink(int portIdx, String subsystemName) throws IOException
+    {
+        Port port = getPort(portIdx);
+        Path portDir = portsPath.resolve(Integer.toString(portIdx));
+        if (port.subsystems.contains(subsystemName))
+        {
+            deleteIfExists(portDir.resolve(SUBSYSTEMS_DIR).resolve(subsystemName));
+            port.subsystems.remove(subsystemName);
+        }
+        if (port.subsystems.isEmpty())
+        {
+            deleteIfExists(portDir);
+            ports.remove(portIdx);
+        }
+    }
+
+    private Subsystem getSubsystem(String subsystemName) throws IOException
+    {
+        Subsystem subsys = subsystems.get(subsystemName);
+        if (subsys == null)
+        {
+            throw new NoSuchFileException(subsystemsPath.resolve(subsystemName).toString());
+        }
+        return subsys;
+    }
+
+    private Port getPort(int portIdx) throws IOException
+    {
+        Port port = ports.get(portIdx);
+        if (port == null)
+        {
+            throw new NoSuchFileException(portsPath.resolve(Integer.toString(portIdx)).toString());
+        }
+        return port;
+    }
+
+    private Path namespacePath(String subsystemName, int namespaceNr)
+    {
+        return subsystemsPath.resolve(subsystemName).resolve(NAMESPACES_DIR).resolve(Integer.toString(namespaceNr));
+    }
+
+    private static String readAttr(Path attrPath) throws IOException
+    {
+        String value = null;
+        if (Files.exists(attrPath))
+        {
+            value = new String(Files.readAllBytes(attrPath), StandardCharsets.UTF_8).trim();
+        }
+        return value;
+    }
+
+    private static void writeAttr(Path attrPath, String value) throws IOException
+    {
+        Files.write(attrPath, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteIfExists(Path path) throws IOException
+    {
+        // configfs directories are removed with a plain rmdir, even though they still contain attribute files
+        Files.deleteIfExists(path);
+    }
+
+    private static Integer parseInt(String str)
+    {
+        Integer ret;
+        try
+        {
+            ret = Integer.parseInt(str);
+        }
+        catch (NumberFormatException ignored)
+        {
+            ret = null;
+        }
+        return ret;
+    }
+
+    private static class Subsystem
+    {
+        private String allowAnyHost;
+        private final Map<Integer, Namespace> namespaces = new TreeMap<>();
+    }
+
+    private static class Namespace
+    {
+        private String devicePath;
+        private boolean enabled;
+    }
+
+    private static class Port
+    {
+        private final Map<String, String> attrs = new TreeMap<>();
+        private final TreeSet<String> subsystems = new TreeSet<>();
+    }
+}
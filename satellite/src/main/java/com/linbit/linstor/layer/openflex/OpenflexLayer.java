@@ -324,6 +324,7 @@ public class OpenflexLayer implements DeviceLayer
     public void clearCache() throws StorageException
     {
         changedStorPools.clear();
+        nvmeUtils.clearCache();
     }
 
     @Override
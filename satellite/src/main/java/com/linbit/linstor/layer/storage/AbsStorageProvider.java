@@ -3,7 +3,6 @@ package com.linbit.linstor.layer.storage;
 import com.linbit.ImplementationError;
 import com.linbit.InvalidNameException;
 import com.linbit.extproc.ExtCmdFactory;
-import com.linbit.fsevent.FileObserver;
 import com.linbit.fsevent.FileSystemWatch;
 import com.linbit.fsevent.FileSystemWatch.Event;
 import com.linbit.fsevent.FileSystemWatch.FileEntry;
@@ -18,6 +17,7 @@ import com.linbit.linstor.core.identifier.NetInterfaceName;
 import com.linbit.linstor.core.identifier.NodeName;
 import com.linbit.linstor.core.identifier.ResourceName;
 import com.linbit.linstor.core.identifier.SnapshotName;
+import com.linbit.linstor.core.identifier.StorPoolName;
 import com.linbit.linstor.core.identifier.VolumeNumber;
 import com.linbit.linstor.core.objects.AbsVolume;
 import com.linbit.linstor.core.objects.NetInterface;
@@ -35,6 +35,7 @@ import com.linbit.linstor.core.objects.VolumeDefinition;
 import com.linbit.linstor.dbdrivers.DatabaseException;
 import com.linbit.linstor.layer.DeviceLayer.NotificationListener;
 import com.linbit.linstor.layer.storage.spdk.utils.SpdkCommands;
+import com.linbit.linstor.layer.storage.spdk.utils.SpdkRpcClient;
 import com.linbit.linstor.layer.storage.utils.DmStatCommands;
 import com.linbit.linstor.layer.storage.utils.StltProviderUtils;
 import com.linbit.linstor.logging.ErrorReporter;
@@ -54,6 +55,7 @@ import com.linbit.linstor.storage.kinds.DeviceProviderKind;
 import com.linbit.linstor.transaction.manager.TransactionMgr;
 import com.linbit.linstor.utils.layer.LayerRscUtils;
 import com.linbit.utils.AccessUtils;
+import com.linbit.utils.ExceptionThrowingRunnable;
 import com.linbit.utils.ExceptionThrowingSupplier;
 import com.linbit.utils.Pair;
 
@@ -66,12 +68,19 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -80,6 +89,8 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
 {
     private static final long DFLT_WAIT_UNTIL_DEVICE_CREATED_TIMEOUT_IN_MS = 500;
     public static final long SIZE_OF_NOT_FOUND_STOR_POOL = -1;
+    // accounted free space of thick pools is queried from the storage again at least this often
+    private static final long FREE_SPACE_RECONCILE_INTERVAL_MS = 10 * 60 * 1000;
 
     protected final ErrorReporter errorReporter;
     protected final ExtCmdFactory extCmdFactory;
@@ -99,6 +110,11 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
     protected final DeviceProviderKind kind;
 
     private final Set<StorPool> changedStorPools = new HashSet<>();
+    private final FreeSpaceAccounting freeSpaceAccounting = new FreeSpaceAccounting(FREE_SPACE_RECONCILE_INTERVAL_MS);
+    // devices of deleted volumes queued for or being wiped, accessed by the device manager and the wipe workers
+    private final Set<String> queuedWipes = ConcurrentHashMap.newKeySet();
+    // storages already checked for volumes left behind by wipes interrupted by a shutdown
+    private final Set<String> wipeRecoveredStorageNames = ConcurrentHashMap.newKeySet();
     private boolean prepared;
 
     public AbsStorageProvider(
@@ -146,7 +162,12 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
     {
         infoListCache.clear();
 
-        if (processPostRunVolumeNotifications && !changedStoragePoolStrings.isEmpty())
+        // only query the storage if someone is actually interested in the result
+        if (
+            processPostRunVolumeNotifications &&
+                !changedStoragePoolStrings.isEmpty() &&
+                !postRunVolumeNotifications.isEmpty()
+        )
         {
             Map<String, Long> vgFreeSizes = getFreeSpacesImpl();
             postRunVolumeNotifications.forEach(consumer -> consumer.accept(vgFreeSizes));
@@ -277,7 +298,6 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
             // actually changed anything. The controller simply expects a report of free sizes
             addChangedStorPool(vlmData.getStorPool());
         }
-
         /*
          * first we need to handle snapshots in DELETING state
          *
@@ -296,19 +316,32 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
             apiCallRc
         );
 
-        createVolumes(vlmsToCreate, apiCallRc);
-        resizeVolumes(vlmsToResize, apiCallRc);
-        deleteVolumes(vlmsToDelete, apiCallRc);
-
-        // intentional type erasure
-        typeErasedList = groupedSnapshotVolumesByDeletingFlag.get(false);
-        takeSnapshots(
-            volumesLut,
-            (List<LAYER_SNAP_DATA>) typeErasedList,
-            apiCallRc
-        );
+        boolean success = false;
+        try
+        {
+            createVolumes(vlmsToCreate, apiCallRc);
+            resizeVolumes(vlmsToResize, apiCallRc);
+            deleteVolumes(vlmsToDelete, apiCallRc);
+
+            // intentional type erasure
+            typeErasedList = groupedSnapshotVolumesByDeletingFlag.get(false);
+            takeSnapshots(
+                volumesLut,
+                (List<LAYER_SNAP_DATA>) typeErasedList,
+                apiCallRc
+            );
 
-        handleRollbacks(vlmsToCheckForRollback, apiCallRc);
+            handleRollbacks(vlmsToCheckForRollback, apiCallRc);
+            success = true;
+        }
+        finally
+        {
+            if (!success)
+            {
+                // we do not know how far the failed operation got
+                changedStoragePoolStrings.forEach(freeSpaceAccounting::invalidate);
+            }
+        }
 
         // after we are done, and the resource has the INACTIVE flag, clear the devicepath again
         for (LAYER_DATA vlmData : vlmDataList)
@@ -369,41 +402,78 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
     private void createVolumes(List<LAYER_DATA> vlmsToCreate, ApiCallRcImpl apiCallRc)
         throws StorageException, AccessDeniedException, DatabaseException
     {
-        for (LAYER_DATA vlmData : vlmsToCreate)
+        // pairs of created volume and whether it was restored from a snapshot
+        List<Pair<LAYER_DATA, Boolean>> createdVlms = new ArrayList<>();
+        try
         {
-            String sourceLvId = computeRestoreFromResourceName(vlmData);
-            // sourceLvId ends with "_00000"
+            for (LAYER_DATA vlmData : vlmsToCreate)
+            {
+                String sourceLvId = computeRestoreFromResourceName(vlmData);
+                // sourceLvId ends with "_00000"
 
-            String sourceSnapshotName = computeRestoreFromSnapshotName(vlmData.getVolume());
+                String sourceSnapshotName = computeRestoreFromSnapshotName(vlmData.getVolume());
 
-            boolean snapRestore = sourceLvId != null && sourceSnapshotName != null;
-            if (snapRestore)
+                boolean snapRestore = sourceLvId != null && sourceSnapshotName != null;
+                if (snapRestore)
+                {
+                    errorReporter.logTrace("Restoring from lv: %s, snapshot: %s", sourceLvId, sourceSnapshotName);
+                    restoreSnapshot(sourceLvId, sourceSnapshotName, vlmData);
+                }
+                else
+                {
+                    createLvImpl(vlmData);
+                }
+                vlmData.setExists(true);
+                createdVlms.add(new Pair<>(vlmData, snapRestore));
+
+                String storageName = getStorageName(vlmData);
+                String lvId = asLvIdentifier(vlmData);
+
+                // some providers cannot construct a device path in the next call and therefore return null here
+                String devicePath = getDevicePath(storageName, lvId);
+
+                // those providers will most likely also skip setting the (null) devicePath.
+                setDevicePath(vlmData, devicePath);
+            }
+        }
+        catch (StorageException | AccessDeniedException | DatabaseException | RuntimeException exc)
+        {
+            // also volumes created before a failing one need to be finished, as the next run will only see them
+            // as already existing volumes. the failed creation stays the reported error
+            try
             {
-                errorReporter.logTrace("Restoring from lv: %s, snapshot: %s", sourceLvId, sourceSnapshotName);
-                restoreSnapshot(sourceLvId, sourceSnapshotName, vlmData);
+                finishCreatedVolumes(createdVlms, apiCallRc);
             }
-            else
+            catch (StorageException | AccessDeniedException | DatabaseException | RuntimeException finishExc)
             {
-                createLvImpl(vlmData);
+                exc.addSuppressed(finishExc);
             }
-            vlmData.setExists(true);
-
-            String storageName = getStorageName(vlmData);
-            String lvId = asLvIdentifier(vlmData);
-
-            // some providers cannot construct a device path in the next call and therefore return null here
-            String devicePath = getDevicePath(storageName, lvId);
-
-            // those providers will most likely also skip setting the (null) devicePath.
-            setDevicePath(vlmData, devicePath);
+            throw exc;
+        }
+        finishCreatedVolumes(createdVlms, apiCallRc);
+    }
 
-            // however, those providers have to have a different method in getting the device path which means
-            // the correct device path was already set since the "createLvImpl" or "restoreSnapshot" call.
-            devicePath = vlmData.getDevicePath();
+    /**
+     * Waits for the devices of all given volumes at once and finishes their creation afterwards
+     */
+    private void finishCreatedVolumes(List<Pair<LAYER_DATA, Boolean>> createdVlms, ApiCallRcImpl apiCallRc)
+        throws StorageException, AccessDeniedException, DatabaseException
+    {
+        // providers that could not construct a device path before had to set the correct device path
+        // already during the "createLvImpl" or "restoreSnapshot" call.
+        Map<String, Long> waitTimeoutByDevicePath = new LinkedHashMap<>();
+        for (Pair<LAYER_DATA, Boolean> createdVlm : createdVlms)
+        {
+            LAYER_DATA vlmData = createdVlm.objA;
+            waitTimeoutByDevicePath.put(vlmData.getDevicePath(), getWaitTimeoutAfterCreate(vlmData.getStorPool()));
+        }
+        waitUntilDevicesCreated(waitTimeoutByDevicePath);
 
-            StorPool storPool = vlmData.getStorPool();
-            long waitTimeoutAfterCreate = getWaitTimeoutAfterCreate(storPool);
-            waitUntilDeviceCreated(devicePath, waitTimeoutAfterCreate);
+        for (Pair<LAYER_DATA, Boolean> createdVlm : createdVlms)
+        {
+            LAYER_DATA vlmData = createdVlm.objA;
+            boolean snapRestore = createdVlm.objB;
+            String devicePath = vlmData.getDevicePath();
 
             long allocatedSize = getAllocatedSize(vlmData);
             long minSize = kind.usesThinProvisioning() ? 0 : vlmData.getExepectedSize();
@@ -415,6 +485,14 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
 
             setAllocatedSize(vlmData, allocatedSize);
             setUsableSize(vlmData, allocatedSize);
+            if (snapRestore)
+            {
+                freeSpaceAccounting.invalidate(getStorageName(vlmData.getStorPool()));
+            }
+            else
+            {
+                freeSpaceAccounting.allocated(getStorageName(vlmData.getStorPool()), allocatedSize);
+            }
 
             if (stltConfigAccessor.useDmStats() && updateDmStats())
             {
@@ -468,10 +546,12 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
     {
         for (LAYER_DATA vlmData : vlmsToResize)
         {
+            long oldAllocatedSize = vlmData.getAllocatedSize();
             resizeLvImpl(vlmData);
 
             long allocatedSize = getAllocatedSize(vlmData);
             setAllocatedSize(vlmData, allocatedSize);
+            freeSpaceAccounting.allocated(getStorageName(vlmData.getStorPool()), allocatedSize - oldAllocatedSize);
             setUsableSize(vlmData, allocatedSize);
 
             addResizedMsg(vlmData, apiCallRc);
@@ -491,6 +571,8 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
             }
 
             deleteLvImpl(vlmData, lvId);
+            // providers releasing the space asynchronously invalidate again once the space was released
+            freeSpaceAccounting.invalidate(getStorageName(vlmData.getStorPool()));
 
             if (!vlmData.getVolume().getAbsResource().getStateFlags().isSet(
                 storDriverAccCtx,
@@ -517,6 +599,13 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
                     "Snapshot '%s' not found. Skipping deletion.",
                     snapVlm.toString()
                 );
+                Snapshot snap = snapVlm.getRscLayerObject().getAbsResource();
+                if (snap.getFlags().isSet(storDriverAccCtx, Snapshot.Flags.SHIPPING_TARGET))
+                {
+                    // the receiving might still be running or waiting for the sender to resume
+                    snapShipMgr.abort(snapVlm);
+                    discardShipReceiving(snapVlm);
+                }
             }
             else
             {
@@ -532,6 +621,7 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
                 if (snapshotExists(snapVlm))
                 {
                     deleteSnapshot(snapVlm);
+                    snapshotSpaceChanged(snapVlm.getStorPool());
                 }
                 else
                 {
@@ -572,6 +662,7 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
                 {
                     errorReporter.logTrace("Taking snapshot %s", snapVlm.toString());
                     createSnapshot(vlmData, snapVlm);
+                    snapshotSpaceChanged(snapVlm.getStorPool());
 
                     addSnapCreatedMsg(snapVlm, apiCallRc);
 
@@ -620,10 +711,76 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
                     errorReporter.logTrace("Post shipping cleanup for snapshot %s", snapVlm.toString());
                     finishShipReceiving(vlmData, snapVlm);
                 }
+                else if (isShippingResumed(snap))
+                {
+                    resumeShipping(vlmData, snapVlm);
+                }
+            }
+        }
+    }
+
+    /**
+     * The controller resumes a failed shipping instead of starting over if the receiving satellite reported resume
+     * tokens for all failed volumes
+     */
+    private boolean isShippingResumed(Snapshot snap) throws AccessDeniedException
+    {
+        SnapshotDefinition snapDfn = snap.getSnapshotDefinition();
+        return snapDfn.getFlags().isSet(storDriverAccCtx, SnapshotDefinition.Flags.SHIPPING) &&
+            snapDfn.getFlags().isUnset(
+                storDriverAccCtx,
+                SnapshotDefinition.Flags.SHIPPING_ABORT,
+                SnapshotDefinition.Flags.SHIPPING_CLEANUP
+            ) &&
+            snapDfn.getProps(storDriverAccCtx).getProp(InternalApiConsts.KEY_SNAPSHOT_SHIPPING_RESUME_ATTEMPT) != null;
+    }
+
+    /**
+     * Restarts the daemons of the volumes that are not completely shipped yet. Daemons that are still running are
+     * not restarted, unless they belong to a previous attempt.
+     */
+    private void resumeShipping(LAYER_DATA vlmData, LAYER_SNAP_DATA snapVlm)
+        throws AccessDeniedException, StorageException, DatabaseException
+    {
+        Snapshot snap = snapVlm.getVolume().getAbsResource();
+        if (getShippingResumeToken(snapVlm) != null)
+        {
+            if (snap.getFlags().isSet(storDriverAccCtx, Snapshot.Flags.SHIPPING_TARGET))
+            {
+                if (!snapshotExists(snapVlm))
+                {
+                    errorReporter.logTrace("Resuming receiving of snapshot %s", snapVlm.toString());
+                    startReceiving(vlmData, snapVlm);
+                }
+            }
+            else if (snap.getFlags().isSet(storDriverAccCtx, Snapshot.Flags.SHIPPING_SOURCE_START))
+            {
+                errorReporter.logTrace("Resuming sending of snapshot %s", snapVlm.toString());
+                try
+                {
+                    startSending(snapVlm);
+                }
+                catch (InvalidNameException exc)
+                {
+                    throw new ImplementationError(exc);
+                }
             }
         }
     }
 
+    /**
+     * @return the resume token the receiving satellite reported for the given volume after the last failed
+     * attempt, or null
+     */
+    protected String getShippingResumeToken(LAYER_SNAP_DATA snapVlm) throws AccessDeniedException
+    {
+        return snapVlm.getRscLayerObject().getAbsResource().getSnapshotDefinition().getProps(storDriverAccCtx)
+            .getProp(
+                SnapshotShippingService.getResumeTokenKey(snapVlm),
+                InternalApiConsts.NAMESPC_SNAPSHOT_SHIPPING_RESUME_TOKEN
+            );
+    }
+
     private LAYER_SNAP_DATA getPreviousSnapvlmData(
         LAYER_SNAP_DATA snapVlm,
         ResourceConnection rscCon
@@ -680,7 +837,8 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
             asSnapLvIdentifier(snapVlmData),
             getSnapshotShippingReceivingCommandImpl(snapVlmData),
             socatPort,
-            snapVlmData
+            snapVlmData,
+            () -> getSnapshotShippingResumeToken(snapVlmData)
         );
     }
 
@@ -769,10 +927,21 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
             if (rollbackTargetSnapshotName != null)
             {
                 rollbackImpl(vlmData, rollbackTargetSnapshotName);
+                snapshotSpaceChanged(vlmData.getStorPool());
             }
         }
     }
 
+    /**
+     * The space used by snapshots (and rollbacks to them) cannot be accounted for, the free space has to be
+     * queried again
+     */
+    private void snapshotSpaceChanged(StorPool storPool) throws AccessDeniedException, StorageException
+    {
+        freeSpaceAccounting.invalidate(getStorageName(storPool));
+        addChangedStorPool(storPool);
+    }
+
     /**
      * Default implementation performs a 'blockdev --getsize64 $devicePath'.
      * This method can be overridden by thin-providers to do different calculations
@@ -957,84 +1126,116 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
         return restoreSnapshotName;
     }
 
+    /**
+     * @return the client to query SPDK devices with, or null to use rpc.py
+     */
+    protected SpdkRpcClient getSpdkRpcClient()
+    {
+        return null;
+    }
+
     private void waitUntilDeviceCreated(String devicePath, long waitTimeoutAfterCreateMillis)
         throws StorageException
     {
-        if (!devicePath.startsWith(SPDK_PATH_PREFIX))
+        waitUntilDevicesCreated(Collections.singletonMap(devicePath, waitTimeoutAfterCreateMillis));
+    }
+
+    private void waitUntilDevicesCreated(Map<String, Long> waitTimeoutByDevicePath)
+        throws StorageException
+    {
+        Map<String, Long> nonSpdkDevices = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : waitTimeoutByDevicePath.entrySet())
         {
-            waitUntilNonSpdkCreated(devicePath, waitTimeoutAfterCreateMillis);
+            String devicePath = entry.getKey();
+            if (!devicePath.startsWith(SPDK_PATH_PREFIX))
+            {
+                nonSpdkDevices.put(devicePath, entry.getValue());
+            }
+            else
+            {
+                // wait not required, just confirming LV existence
+                SpdkCommands.lvsByName(
+                    extCmdFactory.create(),
+                    getSpdkRpcClient(),
+                    devicePath.split(SPDK_PATH_PREFIX)[1]
+                );
+            }
         }
-        else
+        if (!nonSpdkDevices.isEmpty())
         {
-            // wait not required, just confirming LV existence
-            SpdkCommands.lvsByName(extCmdFactory.create(), devicePath.split(SPDK_PATH_PREFIX)[1]);
+            waitUntilNonSpdkCreated(nonSpdkDevices);
         }
     }
 
-    private void waitUntilNonSpdkCreated(String devicePath, long waitTimeoutAfterCreateMillis)
+    /**
+     * Registers all given device paths at once and waits until all of them appeared. Each device path
+     * has its own timeout, measured from the start of the whole batch.
+     */
+    private void waitUntilNonSpdkCreated(Map<String, Long> waitTimeoutByDevicePath)
         throws StorageException
     {
-        final Object syncObj = new Object();
-        FileObserver fileObserver = new FileObserver()
+        // no-op if the watch is already running
+        fsWatch.start();
+
+        long start = System.currentTimeMillis();
+        List<String> devicePaths = new ArrayList<>(waitTimeoutByDevicePath.keySet());
+        List<CompletableFuture<FileEntry>> futures;
+        try
         {
-            @Override
-            public void fileEvent(FileEntry watchEntry)
-            {
-                synchronized (syncObj)
-                {
-                    syncObj.notify();
-                }
-            }
-        };
+            futures = fsWatch.newFileEntryFutures(devicePaths, Event.CREATE);
+        }
+        catch (IOException exc)
+        {
+            throw new StorageException(
+                "Unable to register file watch event for devices " + devicePaths + " being created",
+                exc
+            );
+        }
+
         try
         {
-            synchronized (syncObj)
+            errorReporter.logTrace("Waiting until devices %s appear", devicePaths);
+            for (int idx = 0; idx < devicePaths.size(); ++idx)
             {
-                long start = System.currentTimeMillis();
-                fsWatch.addFileEntry(
-                    new FileEntry(
-                        Paths.get(devicePath),
-                        Event.CREATE,
-                        fileObserver
-                    )
-                );
+                String devicePath = devicePaths.get(idx);
+                long waitTimeoutAfterCreateMillis = waitTimeoutByDevicePath.get(devicePath);
+                long remainingMillis = start + waitTimeoutAfterCreateMillis - System.currentTimeMillis();
                 try
                 {
-                    errorReporter.logTrace(
-                        "Waiting until device [%s] appears (up to %dms)",
-                        devicePath,
-                        waitTimeoutAfterCreateMillis
-                    );
-
-                    syncObj.wait(waitTimeoutAfterCreateMillis);
+                    futures.get(idx).get(Math.max(0, remainingMillis), TimeUnit.MILLISECONDS);
+                }
+                catch (TimeoutException | ExecutionException exc)
+                {
+                    if (!Files.exists(Paths.get(devicePath)))
+                    {
+                        throw new StorageException(
+                            "Device '" + devicePath + "' did not show up in " +
+                                waitTimeoutAfterCreateMillis + "ms"
+                        );
+                    }
                 }
                 catch (InterruptedException interruptedExc)
                 {
+                    Thread.currentThread().interrupt();
                     throw new StorageException(
                         "Interrupted exception while waiting for device '" + devicePath + "' to show up",
                         interruptedExc
                     );
                 }
-                if (!Files.exists(Paths.get(devicePath)))
-                {
-                    throw new StorageException(
-                        "Device '" + devicePath + "' did not show up in " +
-                            waitTimeoutAfterCreateMillis + "ms"
-                    );
-                }
-                errorReporter.logTrace(
-                    "Device [%s] appeared after %sms",
-                    devicePath,
-                    System.currentTimeMillis() - start
-                );
             }
+            errorReporter.logTrace(
+                "Devices %s appeared after %sms",
+                devicePaths,
+                System.currentTimeMillis() - start
+            );
         }
-        catch (IOException exc)
+        finally
         {
-            throw new StorageException(
-                "Unable to register file watch event for device '" + devicePath + "' being created",
-                exc
-            );
+            // cancelling removes the file entries of devices we are no longer waiting for
+            for (CompletableFuture<FileEntry> future : futures)
+            {
+                future.cancel(false);
+            }
         }
     }
 
@@ -1062,6 +1263,34 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
     @Override
     public abstract SpaceInfo getSpaceInfo(StorPool storPool) throws StorageException, AccessDeniedException;
 
+    @Override
+    public SpaceInfo getAccountedSpaceInfo(StorPool storPool) throws StorageException, AccessDeniedException
+    {
+        SpaceInfo spaceInfo;
+        if (kind.usesThinProvisioning())
+        {
+            // the space used by thin volumes grows with the data written, we cannot account for that
+            spaceInfo = getSpaceInfo(storPool);
+        }
+        else
+        {
+            String storageName = getStorageName(storPool);
+            long now = System.currentTimeMillis();
+            // a wipe worker invalidating the entry after releasing space has to wait for a running query, so
+            // that the query's result cannot outlive the invalidation
+            synchronized (freeSpaceAccounting)
+            {
+                spaceInfo = freeSpaceAccounting.get(storageName, now);
+                if (spaceInfo == null)
+                {
+                    spaceInfo = getSpaceInfo(storPool);
+                    freeSpaceAccounting.reconciled(storageName, spaceInfo, now);
+                }
+            }
+        }
+        return spaceInfo;
+    }
+
     protected abstract String getStorageName(StorPool storPoolRef) throws AccessDeniedException, StorageException;
 
     @SuppressWarnings("unused")
@@ -1120,6 +1349,27 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
         throw new StorageException("Snapshot shipping is not supported by " + getClass().getSimpleName());
     }
 
+    /**
+     * Called after a failed receive.
+     *
+     * @return the token the sender needs to continue where the receive command stopped, or null if the receive
+     * command cannot continue an interrupted stream
+     */
+    protected String getSnapshotShippingResumeToken(LAYER_SNAP_DATA snapVlmDataRef)
+        throws StorageException
+    {
+        return null;
+    }
+
+    /**
+     * Discards whatever an interrupted receive command left behind to be resumed later
+     */
+    protected void discardShipReceiving(LAYER_SNAP_DATA snapVlmRef)
+        throws StorageException, AccessDeniedException
+    {
+        // noop by default
+    }
+
     protected abstract boolean updateDmStats();
 
     protected abstract Map<String, Long> getFreeSpacesImpl() throws StorageException;
@@ -1142,6 +1392,66 @@ public abstract class AbsStorageProvider<INFO, LAYER_DATA extends AbsStorageVlmD
     protected abstract void deleteLvImpl(LAYER_DATA vlmData, String lvId)
         throws StorageException, AccessDeniedException, DatabaseException;
 
+    /**
+     * Wipes the given device of an already renamed volume by the wipe workers and runs the given delete action
+     * afterwards. As only then the space is released, the free space of the storage pool is reported again
+     * once the delete action finished.
+     */
+    protected void wipeAndDeleteAsync(
+        StorPool storPool,
+        String storageName,
+        String devicePath,
+        WipeHandler.WipeStrategy strategy,
+        ExceptionThrowingRunnable<StorageException> deleteAction
+    )
+    {
+        StorPoolName storPoolName = storPool.getName();
+        queuedWipes.add(devicePath);
+        boolean queued = wipeHandler.asyncWipe(
+            devicePath,
+            strategy,
+            ignored ->
+            {
+                try
+                {
+                    deleteAction.run();
+                }
+                finally
+                {
+                    queuedWipes.remove(devicePath);
+                    freeSpaceAccounting.invalidate(storageName);
+                    notificationListenerProvider.get().notifyFreeSpaceReleased(storPoolName);
+                }
+            }
+        );
+        if (!queued)
+        {
+            // left behind as renamed volume, so that the recovery wipes it after the next start
+            queuedWipes.remove(devicePath);
+        }
+    }
+
+    /**
+     * @return true if the given device is neither queued for nor currently being wiped
+     */
+    protected boolean isWipeLeftover(String devicePath)
+    {
+        return !queuedWipes.contains(devicePath);
+    }
+
+    /**
+     * @return true if the given storage was not yet checked for volumes left behind by interrupted wipes
+     */
+    protected boolean isWipeRecoveryNeeded(String storageName)
+    {
+        return !wipeRecoveredStorageNames.contains(storageName);
+    }
+
+    protected void wipeRecoveryDone(String storageName)
+    {
+        wipeRecoveredStorageNames.add(storageName);
+    }
+
 
     protected String asLvIdentifier(LAYER_DATA vlmData)
     {
@@ -43,6 +43,16 @@ public interface DeviceProvider
     SpaceInfo getSpaceInfo(StorPool storPoolRef)
         throws AccessDeniedException, StorageException;
 
+    /**
+     * Same as {@link #getSpaceInfo(StorPool)}, but providers may answer from their own accounting of the
+     * operations they performed instead of querying the storage.
+     */
+    default SpaceInfo getAccountedSpaceInfo(StorPool storPoolRef)
+        throws AccessDeniedException, StorageException
+    {
+        return getSpaceInfo(storPoolRef);
+    }
+
     /**
      * Checks if the given {@link StorPool} has a valid configuration for all involved {@link DeviceLayer}s.
      *
@@ -0,0 +1,90 @@
+package com.linbit.linstor.layer.storage;
+
+import com.linbit.linstor.api.SpaceInfo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Free space of thick storage pools, derived from the last real query plus the sizes the device manager
+ * allocated since then.
+ *
+ * An entry is only trusted for a limited time. Operations whose effect on the free space cannot be predicted
+ * (deletes, snapshots, failed operations, ...) invalidate the entry, so that the next report queries the
+ * storage again.
+ *
+ * Keyed by storage name (volume group, zpool, ...), as storage pools sharing the same storage also share its
+ * free space. Used by the device manager and by the wipe workers, which invalidate the entry once they
+ * released the space of a deleted volume.
+ */
+public class FreeSpaceAccounting
+{
+    private final long reconcileIntervalMs;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public FreeSpaceAccounting(long reconcileIntervalMsRef)
+    {
+        reconcileIntervalMs = reconcileIntervalMsRef;
+    }
+
+    /**
+     * @return the accounted space info of the given storage, or null if it has to be queried from the storage
+     */
+    public synchronized SpaceInfo get(String storageName, long now)
+    {
+        SpaceInfo ret = null;
+        Entry entry = entries.get(storageName);
+        if (entry != null && now - entry.reconciledAt < reconcileIntervalMs)
+        {
+            ret = new SpaceInfo(entry.totalCapacity, Math.max(0, entry.freeCapacity));
+        }
+        return ret;
+    }
+
+    /**
+     * Replaces the accounted values with the given values just queried from the storage
+     */
+    public synchronized void reconciled(String storageName, SpaceInfo spaceInfo, long now)
+    {
+        if (spaceInfo.totalCapacity != null && spaceInfo.freeCapacity != null)
+        {
+            entries.put(storageName, new Entry(spaceInfo.totalCapacity, spaceInfo.freeCapacity, now));
+        }
+        else
+        {
+            entries.remove(storageName);
+        }
+    }
+
+    /**
+     * @param sizeDiffInKib
+     *     the additionally allocated size, negative if space was released
+     */
+    public synchronized void allocated(String storageName, long sizeDiffInKib)
+    {
+        Entry entry = entries.get(storageName);
+        if (entry != null)
+        {
+            entry.freeCapacity -= sizeDiffInKib;
+        }
+    }
+
+    public synchronized void invalidate(String storageName)
+    {
+        entries.remove(storageName);
+    }
+
+    private static class Entry
+    {
+        private final long totalCapacity;
+        private long freeCapacity;
+        private final long reconciledAt;
+
+        private Entry(long totalCapacityRef, long freeCapacityRef, long reconciledAtRef)
+        {
+            totalCapacity = totalCapacityRef;
+            freeCapacity = freeCapacityRef;
+            reconciledAt = reconciledAtRef;
+        }
+    }
+}
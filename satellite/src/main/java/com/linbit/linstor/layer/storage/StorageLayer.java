@@ -386,6 +386,12 @@ public class StorageLayer implements DeviceLayer
         return deviceProviderMapper.getDeviceProviderByStorPool(storPool).getSpaceInfo(storPool);
     }
 
+    public SpaceInfo getAccountedStoragePoolSpaceInfo(StorPool storPool)
+        throws AccessDeniedException, StorageException
+    {
+        return deviceProviderMapper.getDeviceProviderByStorPool(storPool).getAccountedSpaceInfo(storPool);
+    }
+
     @Override
     public void checkStorPool(StorPool storPool) throws StorageException, AccessDeniedException, DatabaseException
     {
@@ -1,6 +1,12 @@
 package com.linbit.linstor.layer.storage;
 
+import com.linbit.ImplementationError;
+import com.linbit.InvalidNameException;
+import com.linbit.ServiceName;
+import com.linbit.SystemService;
+import com.linbit.WorkerPool;
 import com.linbit.extproc.ExtCmdFactory;
+import com.linbit.linstor.core.cfg.StltConfig;
 import com.linbit.linstor.layer.drbd.utils.MdSuperblockBuffer;
 import com.linbit.linstor.layer.storage.utils.Commands;
 import com.linbit.linstor.logging.ErrorReporter;
@@ -11,22 +17,156 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
+import java.util.Locale;
 
 @Singleton
-public class WipeHandler
+public class WipeHandler implements SystemService
 {
+    public enum WipeStrategy
+    {
+        /** wipefs + DRBD super block */
+        METADATA,
+        /** blkdiscard if the device supports it, {@link #ZERO} otherwise */
+        DISCARD,
+        /** zero out the whole device, limited by the configured bandwidth */
+        ZERO;
+
+        public static WipeStrategy parse(String str)
+        {
+            return valueOf(str.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final ServiceName SERVICE_NAME;
+    private static final String SERVICE_INFO = "Wipes and removes deleted volumes";
+    private static final String WIPE_THREAD_NAME_PREFIX = "WipeWorker";
+    private static final int WIPE_QUEUE_SIZE = 4096;
+    private static final int ZERO_CHUNK_SIZE = 1 << 20; // 1 MiB
+    private static final long SECTOR_SIZE = 512;
+    private static final String SYSFS_BLOCK_DIR = "/sys/class/block";
+    private static final String SYSFS_DISCARD_MAX_BYTES = "queue/discard_max_bytes";
+
     private final ExtCmdFactory extCmdFactory;
     private final ErrorReporter errorReporter;
+    private final WipeStrategy defaultStrategy;
+    private final int workerCount;
+    private final long bandwidthBytesPerSec;
+
+    private ServiceName instanceName;
+    private boolean started = false;
+    // set once the satellite shuts down, wipes are aborted and their volumes are not removed
+    private volatile boolean stopped = false;
+
+    private WorkerPool wipePool;
+
+    static
+    {
+        try
+        {
+            SERVICE_NAME = new ServiceName("WipeHandler");
+        }
+        catch (InvalidNameException invalidNameExc)
+        {
+            throw new ImplementationError(invalidNameExc);
+        }
+    }
 
     @Inject
     public WipeHandler(
         ExtCmdFactory extCmdFactoryRef,
-        ErrorReporter errorReporterRef
+        ErrorReporter errorReporterRef,
+        StltConfig stltConfigRef
     )
     {
         extCmdFactory = extCmdFactoryRef;
         errorReporter = errorReporterRef;
+
+        WipeStrategy strategy;
+        try
+        {
+            strategy = WipeStrategy.parse(stltConfigRef.getWipeStrategy());
+        }
+        catch (IllegalArgumentException exc)
+        {
+            errorReporter.logWarning(
+                "Unknown wipe strategy '%s', falling back to %s",
+                stltConfigRef.getWipeStrategy(),
+                WipeStrategy.METADATA
+            );
+            strategy = WipeStrategy.METADATA;
+        }
+        defaultStrategy = strategy;
+        workerCount = Math.max(1, stltConfigRef.getWipeWorkers());
+        bandwidthBytesPerSec = Math.max(0, stltConfigRef.getWipeBandwidthKib()) * 1024;
+        instanceName = SERVICE_NAME;
+    }
+
+    @Override
+    public ServiceName getServiceName()
+    {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public String getServiceInfo()
+    {
+        return SERVICE_INFO;
+    }
+
+    @Override
+    public ServiceName getInstanceName()
+    {
+        return instanceName;
+    }
+
+    @Override
+    public boolean isStarted()
+    {
+        return started;
+    }
+
+    @Override
+    public void setServiceInstanceName(ServiceName instanceNameRef)
+    {
+        instanceName = instanceNameRef;
+    }
+
+    @Override
+    public synchronized void start()
+    {
+        stopped = false;
+        started = true;
+    }
+
+    /**
+     * Stops the wipe workers. Running wipes are aborted and queued wipes are dropped, in both cases without
+     * removing the volume. The renamed volumes are wiped and removed by the storage providers after the next
+     * start.
+     */
+    @Override
+    public synchronized void shutdown()
+    {
+        stopped = true;
+        if (wipePool != null)
+        {
+            wipePool.shutdown();
+            wipePool = null;
+        }
+        started = false;
+    }
+
+    @Override
+    public void awaitShutdown(long timeout)
+    {
+        // Nothing to do
     }
 
     /**
@@ -52,11 +192,75 @@ public class WipeHandler
         }
     }
 
-    public void asyncWipe(String devicePath, ExceptionThrowingConsumer<String, StorageException> wipeFinishedNotifier)
-        throws StorageException
+    public WipeStrategy getDefaultStrategy()
     {
-        // TODO: this step should be asynchron
+        return defaultStrategy;
+    }
+
+    /**
+     * Wipes the given device with the configured default {@link WipeStrategy}.
+     *
+     * @see #asyncWipe(String, WipeStrategy, ExceptionThrowingConsumer)
+     */
+    public boolean asyncWipe(
+        String devicePath,
+        ExceptionThrowingConsumer<String, StorageException> wipeFinishedNotifier
+    )
+    {
+        return asyncWipe(devicePath, defaultStrategy, wipeFinishedNotifier);
+    }
+
+    /**
+     * Queues the given device for wiping and returns immediately. The wipe itself is performed by the wipe
+     * workers, after which the given notifier is called (also from the wipe worker), regardless whether the
+     * wipe succeeded or not, so that the notifier can free the allocated space.
+     *
+     * After {@link #shutdown()}, nothing is queued and the notifier is not called.
+     *
+     * @return true if the device was queued, false if the satellite is shutting down
+     */
+    public boolean asyncWipe(
+        String devicePath,
+        WipeStrategy strategy,
+        ExceptionThrowingConsumer<String, StorageException> wipeFinishedNotifier
+    )
+    {
+        WorkerPool pool = getWipePool();
+        boolean queued = pool != null;
+        if (queued)
+        {
+            errorReporter.logTrace("Queueing %s wipe of %s", strategy, devicePath);
+            pool.submit(() -> wipe(devicePath, strategy, wipeFinishedNotifier));
+        }
+        else
+        {
+            errorReporter.logDebug("Not wiping %s, the satellite is shutting down", devicePath);
+        }
+        return queued;
+    }
+
+    private synchronized WorkerPool getWipePool()
+    {
+        if (wipePool == null && !stopped)
+        {
+            wipePool = WorkerPool.initialize(
+                workerCount,
+                WIPE_QUEUE_SIZE,
+                true,
+                WIPE_THREAD_NAME_PREFIX,
+                errorReporter,
+                null
+            );
+        }
+        return wipePool;
+    }
 
+    private void wipe(
+        String devicePath,
+        WipeStrategy strategy,
+        ExceptionThrowingConsumer<String, StorageException> wipeFinishedNotifier
+    )
+    {
         /*
          * for security reasons we should wipe (zero out) an lvm / zfs before actually removing it.
          *
@@ -66,16 +270,123 @@ public class WipeHandler
          */
         try
         {
-            MdSuperblockBuffer.wipe(devicePath);
+            long start = System.currentTimeMillis();
+            switch (strategy)
+            {
+                case DISCARD:
+                    if (supportsDiscard(devicePath))
+                    {
+                        Commands.blkDiscard(extCmdFactory.create(), devicePath);
+                        // discarded blocks are not guaranteed to read back as zeroes
+                        MdSuperblockBuffer.wipe(devicePath);
+                    }
+                    else
+                    {
+                        zeroOut(devicePath);
+                    }
+                    break;
+                case ZERO:
+                    zeroOut(devicePath);
+                    break;
+                case METADATA: // fall-through
+                default:
+                    quickWipe(devicePath);
+                    break;
+            }
+            errorReporter.logTrace(
+                "Finished %s wipe of %s in %dms",
+                strategy,
+                devicePath,
+                System.currentTimeMillis() - start
+            );
         }
-        catch (IOException exc)
+        catch (IOException | StorageException | RuntimeException exc)
         {
             errorReporter.reportError(exc);
             // wipe failed, but we still need to free the allocated space
         }
-        finally
+
+        if (stopped)
+        {
+            // the wipe might not have finished. keep the volume, it is wiped again after the next start
+            errorReporter.logInfo("Wipe of %s aborted by shutdown", devicePath);
+        }
+        else
+        {
+            try
+            {
+                wipeFinishedNotifier.accept(devicePath);
+            }
+            catch (StorageException exc)
+            {
+                errorReporter.reportError(exc);
+            }
+        }
+    }
+
+    private boolean supportsDiscard(String devicePath)
+    {
+        boolean supported = false;
+        try
+        {
+            // resolves i.e. /dev/<vg>/<lv> to /dev/dm-<n>
+            Path realPath = Paths.get(devicePath).toRealPath();
+            Path discardMaxBytes = Paths.get(SYSFS_BLOCK_DIR, realPath.getFileName().toString())
+                .resolve(SYSFS_DISCARD_MAX_BYTES);
+            if (Files.exists(discardMaxBytes))
+            {
+                String content = new String(Files.readAllBytes(discardMaxBytes), StandardCharsets.UTF_8).trim();
+                supported = Long.parseLong(content) > 0;
+            }
+        }
+        catch (IOException | NumberFormatException exc)
+        {
+            errorReporter.logDebug("Could not determine discard support of %s: %s", devicePath, exc.getMessage());
+        }
+        return supported;
+    }
+
+    private void zeroOut(String devicePath) throws StorageException, IOException
+    {
+        long size = Commands.getDeviceSizeInSectors(extCmdFactory.create(), devicePath) * SECTOR_SIZE;
+        ByteBuffer zeroes = ByteBuffer.allocateDirect(ZERO_CHUNK_SIZE);
+
+        try (FileChannel chan = FileChannel.open(Paths.get(devicePath), StandardOpenOption.WRITE))
+        {
+            long start = System.nanoTime();
+            long written = 0;
+            while (written < size && !stopped)
+            {
+                zeroes.clear();
+                zeroes.limit((int) Math.min(ZERO_CHUNK_SIZE, size - written));
+                while (zeroes.hasRemaining())
+                {
+                    written += chan.write(zeroes, written);
+                }
+                throttle(start, written);
+            }
+            chan.force(false);
+        }
+    }
+
+    private void throttle(long startNanos, long written) throws IOException
+    {
+        if (bandwidthBytesPerSec > 0)
         {
-            wipeFinishedNotifier.accept(devicePath);
+            long expectedMillis = written * 1000 / bandwidthBytesPerSec;
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            if (expectedMillis > elapsedMillis)
+            {
+                try
+                {
+                    Thread.sleep(expectedMillis - elapsedMillis);
+                }
+                catch (InterruptedException exc)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while wiping", exc);
+                }
+            }
         }
     }
 }
@@ -18,6 +18,7 @@ import com.linbit.linstor.layer.DeviceLayer.NotificationListener;
 import com.linbit.linstor.layer.DeviceLayerUtils;
 import com.linbit.linstor.layer.storage.AbsStorageProvider;
 import com.linbit.linstor.layer.storage.WipeHandler;
+import com.linbit.linstor.layer.storage.WipeHandler.WipeStrategy;
 import com.linbit.linstor.layer.storage.file.utils.FileCommands;
 import com.linbit.linstor.layer.storage.file.utils.FileUtils;
 import com.linbit.linstor.layer.storage.file.utils.FileUtils.FileInfo;
@@ -67,7 +68,8 @@ public class FileProvider extends AbsStorageProvider<FileInfo, FileData<Resource
     private static final String FORMAT_VLM_TO_ID = FORMAT_VLM_TO_ID_BASE + ".img";
     private static final String FORMAT_SNAP_VLM_TO_ID = FORMAT_VLM_TO_ID_BASE + "_%s.img";
 
-    private static final String FORMAT_ID_WIPE_IN_PROGRESS = "%s_linstor_wiping_in_progress";
+    private static final String WIPE_IN_PROGRESS_SUFFIX = "_linstor_wiping_in_progress";
+    private static final String FORMAT_ID_WIPE_IN_PROGRESS = "%s" + WIPE_IN_PROGRESS_SUFFIX;
 
     private static final String LODEV_FILE = "/var/lib/linstor/loop_device_mapping";
     private static final String LODEV_FILE_TMP = LODEV_FILE + ".tmp";
@@ -283,50 +285,80 @@ public class FileProvider extends AbsStorageProvider<FileInfo, FileData<Resource
         String devicePath = fileData.getDevicePath();
         Path storageDirectory = fileData.getStorageDirectory();
 
-        if (true)
-        {
-            wipeHandler.quickWipe(devicePath);
-            LosetupCommands.detach(extCmdFactory.create(), devicePath);
-            FileCommands.delete(
-                storageDirectory,
-                oldId
-            );
-            fileData.setExists(false);
-        }
-        else
+        // just make sure to not colide with any other ongoing wipe-lv-name
+        String newId = String.format(FORMAT_ID_WIPE_IN_PROGRESS, UUID.randomUUID().toString());
+        FileCommands.rename(
+            storageDirectory,
+            oldId,
+            newId
+        );
+
+        fileData.setExists(false);
+
+        wipeAndDeleteFile(fileData.getStorPool(), storageDirectory, newId, devicePath);
+
+        LOSETUP_DEVICES.remove(devicePath);
+    }
+
+    private void wipeAndDeleteFile(StorPool storPool, Path storageDirectory, String id, String loopDevicePath)
+    {
+        // zeroing out a sparse file would only allocate the space we are about to free
+        WipeStrategy wipeStrategy = kind.usesThinProvisioning() ?
+            WipeStrategy.METADATA :
+            wipeHandler.getDefaultStrategy();
+        wipeAndDeleteAsync(
+            storPool,
+            storageDirectory.toString(),
+            loopDevicePath,
+            wipeStrategy,
+            () ->
+            {
+                LosetupCommands.detach(extCmdFactory.create(), loopDevicePath);
+                FileCommands.delete(
+                    storageDirectory,
+                    id
+                );
+            }
+        );
+    }
+
+    /**
+     * Deleted volumes are renamed and wiped and removed by a wipe worker later. Volumes renamed before the
+     * satellite was stopped are wiped and removed again.
+     */
+    private void recoverInterruptedWipes(StorPool storPool, Path storageDirectory) throws StorageException
+    {
+        String storageName = storageDirectory.toString();
+        if (isWipeRecoveryNeeded(storageName))
         {
-            // TODO use this path once async wiping is implemened
-
-            // just make sure to not colide with any other ongoing wipe-lv-name
-            String newId = String.format(FORMAT_ID_WIPE_IN_PROGRESS, UUID.randomUUID().toString());
-            FileCommands.rename(
-                storageDirectory,
-                oldId,
-                newId
+            File[] leftovers = storageDirectory.toFile().listFiles(
+                (dir, name) -> name.endsWith(WIPE_IN_PROGRESS_SUFFIX)
             );
-
-            wipeHandler.asyncWipe(
-                devicePath,
-                ignored ->
+            if (leftovers != null && leftovers.length > 0)
+            {
+                Map<String, FileInfo> loopDevices = FileUtils.getInfoList(extCmdFactory.create(), ignored -> 0L);
+                for (File leftover : leftovers)
                 {
-                    try
+                    String id = leftover.getName();
+                    FileInfo loopDevice = loopDevices.get(leftover.getPath());
+                    if (loopDevice == null)
                     {
-                        LosetupCommands.detach(extCmdFactory.create(), devicePath);
-                        FileCommands.delete(
-                            storageDirectory,
-                            newId
-                        );
-                        fileData.setExists(false);
+                        // the content of a removed file cannot be read through any other file, no need to wipe
+                        errorReporter.logInfo("Removing file %s left behind by an interrupted delete", leftover);
+                        FileCommands.delete(storageDirectory, id);
                     }
-                    catch (DatabaseException exc)
+                    else if (isWipeLeftover(loopDevice.loPath.toString()))
                     {
-                        throw new ImplementationError(exc);
+                        errorReporter.logInfo(
+                            "Wiping and removing file %s left behind by an interrupted delete",
+                            leftover
+                        );
+                        wipeAndDeleteFile(storPool, storageDirectory, id, loopDevice.loPath.toString());
                     }
                 }
-            );
+            }
+            wipeRecoveryDone(storageName);
         }
-
-        LOSETUP_DEVICES.remove(devicePath);
     }
 
     @Override
@@ -666,6 +698,8 @@ public class FileProvider extends AbsStorageProvider<FileInfo, FileData<Resource
         {
             storPool.setPmem(true);
         }
+
+        recoverInterruptedWipes(storPool, storageDirectory);
     }
 
     @Override
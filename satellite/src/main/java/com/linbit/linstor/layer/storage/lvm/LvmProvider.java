@@ -53,7 +53,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.UUID;
 
 @Singleton
 public class LvmProvider extends AbsStorageProvider<LvsInfo, LvmData<Resource>, LvmData<Snapshot>>
@@ -62,13 +62,12 @@ public class LvmProvider extends AbsStorageProvider<LvsInfo, LvmData<Resource>,
     // FIXME: FORMAT should be private, only made public for LayeredSnapshotHelper
     public static final String FORMAT_RSC_TO_LVM_ID = "%s%s_%05d";
     public static final String FORMAT_SNAP_TO_LVM_ID = FORMAT_RSC_TO_LVM_ID + "_%s";
-    private static final String FORMAT_LVM_ID_WIPE_IN_PROGRESS = "%s-linstor_wiping_in_progress-%d";
+    static final String WIPE_IN_PROGRESS_MARKER = "-linstor_wiping_in_progress-";
+    private static final String FORMAT_LVM_ID_WIPE_IN_PROGRESS = "%s" + WIPE_IN_PROGRESS_MARKER + "%s";
     private static final String FORMAT_DEV_PATH = "/dev/%s/%s";
 
     private static final String DFLT_LVCREATE_TYPE = "linear";
 
-    private static final AtomicLong DELETED_ID = new AtomicLong(0);
-
     protected LvmProvider(
         ErrorReporter errorReporter,
         ExtCmdFactory extCmdFactory,
@@ -366,70 +365,79 @@ public class LvmProvider extends AbsStorageProvider<LvsInfo, LvmData<Resource>,
     protected void deleteLvImpl(LvmData<Resource> vlmData, String oldLvmId)
         throws StorageException, DatabaseException, AccessDeniedException
     {
-        String devicePath = vlmData.getDevicePath();
         String volumeGroup = vlmData.getVolumeGroup();
 
-        if (true)
-        {
-            wipeHandler.quickWipe(devicePath);
-            LvmUtils.execWithRetry(
-                extCmdFactory,
-                Collections.singleton(vlmData.getVolumeGroup()),
-                config -> LvmCommands.delete(
-                    extCmdFactory.create(),
-                    volumeGroup,
-                    oldLvmId,
-                    config
-                )
-            );
-            vlmData.setExists(false);
-        }
-        else
-        {
-            // TODO use this path once async wiping is implemented
+        // the suffix has to stay unique across restarts, as renamed volumes might be left behind by a shutdown
+        String newLvmId = String.format(
+            FORMAT_LVM_ID_WIPE_IN_PROGRESS,
+            oldLvmId,
+            UUID.randomUUID().toString().replace("-", "")
+        );
 
-            // devicePath is the "current" devicePath. as we will rename it right now
-            // we will have to adjust the devicePath
-            int lastIndexOf = devicePath.lastIndexOf(oldLvmId);
+        LvmUtils.execWithRetry(
+            extCmdFactory,
+            Collections.singleton(volumeGroup),
+            config -> LvmCommands.rename(
+                extCmdFactory.create(),
+                volumeGroup,
+                oldLvmId,
+                newLvmId,
+                config
+            )
+        );
 
-            // just make sure to not colide with any other ongoing wipe-lv-name
-            String newLvmId = String.format(
-                FORMAT_LVM_ID_WIPE_IN_PROGRESS,
-                asLvIdentifier(vlmData),
-                DELETED_ID.incrementAndGet()
-            );
-            devicePath = devicePath.substring(0, lastIndexOf) + newLvmId;
+        vlmData.setExists(false);
 
-            LvmUtils.execWithRetry(
+        wipeAndDeleteLv(vlmData.getStorPool(), volumeGroup, newLvmId);
+    }
+
+    /**
+     * The wiped LV is deleted later by a wipe worker, which is also when its space becomes available again
+     */
+    private void wipeAndDeleteLv(StorPool storPool, String volumeGroup, String lvmId)
+    {
+        wipeAndDeleteAsync(
+            storPool,
+            volumeGroup,
+            String.format(FORMAT_DEV_PATH, volumeGroup, lvmId),
+            wipeHandler.getDefaultStrategy(),
+            () -> LvmUtils.execWithRetry(
                 extCmdFactory,
-                Collections.singleton(vlmData.getVolumeGroup()),
-                config -> LvmCommands.rename(
+                Collections.singleton(volumeGroup),
+                config -> LvmCommands.delete(
                     extCmdFactory.create(),
                     volumeGroup,
-                    oldLvmId,
-                    newLvmId,
+                    lvmId,
                     config
                 )
-            );
-
-            vlmData.setExists(false);
+            )
+        );
+    }
 
-            wipeHandler.asyncWipe(
-                devicePath,
-                ignored ->
+    /**
+     * Deleted volumes are renamed and wiped and removed by a wipe worker later. Volumes renamed before the
+     * satellite was stopped are wiped and removed again.
+     */
+    void recoverInterruptedWipes(StorPool storPool, String volumeGroup) throws StorageException
+    {
+        if (isWipeRecoveryNeeded(volumeGroup))
+        {
+            for (LvsInfo info : LvmUtils.getLvsInfo(extCmdFactory, Collections.singleton(volumeGroup)).values())
+            {
+                if (
+                    info.identifier.contains(WIPE_IN_PROGRESS_MARKER) &&
+                        isWipeLeftover(String.format(FORMAT_DEV_PATH, volumeGroup, info.identifier))
+                )
                 {
-                    LvmUtils.execWithRetry(
-                        extCmdFactory,
-                        Collections.singleton(vlmData.getVolumeGroup()),
-                        config -> LvmCommands.delete(
-                            extCmdFactory.create(),
-                            volumeGroup,
-                            newLvmId,
-                            config
-                        )
+                    errorReporter.logInfo(
+                        "Wiping and removing volume %s/%s left behind by an interrupted delete",
+                        volumeGroup,
+                        info.identifier
                     );
+                    wipeAndDeleteLv(storPool, volumeGroup, info.identifier);
                 }
-            );
+            }
+            wipeRecoveryDone(volumeGroup);
         }
     }
 
@@ -553,12 +561,19 @@ public class LvmProvider extends AbsStorageProvider<LvsInfo, LvmData<Resource>,
     @Override
     public void update(StorPool storPoolRef) throws AccessDeniedException, DatabaseException, StorageException
     {
-        List<String> pvs = LvmUtils.getPhysicalVolumes(extCmdFactory, getVolumeGroup(storPoolRef));
+        String volumeGroup = getVolumeGroup(storPoolRef);
+        List<String> pvs = LvmUtils.getPhysicalVolumes(extCmdFactory, volumeGroup);
         if (PmemUtils.supportsDax(extCmdFactory.create(), pvs))
         {
             storPoolRef.setPmem(true);
         }
         storPoolRef.setVDO(LsBlkUtils.parentIsVDO(extCmdFactory.create(), pvs));
+
+        if (!kind.usesThinProvisioning())
+        {
+            // thin volumes are removed right away
+            recoverInterruptedWipes(storPoolRef, volumeGroup);
+        }
     }
 
     private Set<String> getAffectedVolumeGroups(
@@ -24,6 +24,7 @@ import com.linbit.linstor.layer.storage.AbsStorageProvider;
 import com.linbit.linstor.layer.storage.WipeHandler;
 import com.linbit.linstor.layer.storage.spdk.utils.SpdkCommands;
 import com.linbit.linstor.layer.storage.spdk.utils.SpdkConfigReader;
+import com.linbit.linstor.layer.storage.spdk.utils.SpdkRpcClient;
 import com.linbit.linstor.layer.storage.spdk.utils.SpdkUtils;
 import com.linbit.linstor.layer.storage.spdk.utils.SpdkUtils.LvsInfo;
 import com.linbit.linstor.logging.ErrorReporter;
@@ -66,6 +67,8 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
 
     private static final String DFLT_LVCREATE_TYPE = "linear";
 
+    private final SpdkRpcClient rpcClient;
+
     protected SpdkProvider(
         ErrorReporter errorReporter,
         ExtCmdFactory extCmdFactory,
@@ -76,7 +79,8 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
         Provider<TransactionMgr> transMgrProvider,
         String subTypeDescr,
         DeviceProviderKind subTypeKind,
-        SnapshotShippingService snapShipMrgRef
+        SnapshotShippingService snapShipMrgRef,
+        SpdkRpcClient rpcClientRef
     )
     {
         super(
@@ -91,6 +95,7 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
             subTypeKind,
             snapShipMrgRef
         );
+        rpcClient = rpcClientRef;
     }
 
     @Inject
@@ -102,7 +107,8 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
         WipeHandler wipeHandler,
         Provider<NotificationListener> notificationListenerProvider,
         Provider<TransactionMgr> transMgrProvider,
-        SnapshotShippingService snapShipMrgRef
+        SnapshotShippingService snapShipMrgRef,
+        SpdkRpcClient rpcClientRef
     )
     {
         super(
@@ -117,6 +123,13 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
             DeviceProviderKind.SPDK,
             snapShipMrgRef
         );
+        rpcClient = rpcClientRef;
+    }
+
+    @Override
+    protected SpdkRpcClient getSpdkRpcClient()
+    {
+        return rpcClient;
     }
 
     @Override
@@ -125,6 +138,7 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
     {
         final Map<String, Long> extentSizes = SpdkUtils.getExtentSize(
             extCmdFactory.create(),
+            rpcClient,
             getAffectedVolumeGroups(vlmDataList, snapshots)
         );
 
@@ -232,6 +246,7 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
     {
         SpdkCommands.createFat(
             extCmdFactory.create(),
+            rpcClient,
             vlmData.getVolumeGroup(),
             asLvIdentifier(vlmData),
             vlmData.getExepectedSize(),
@@ -275,6 +290,7 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
     {
         SpdkCommands.resize(
             extCmdFactory.create(),
+            rpcClient,
             vlmData.getVolumeGroup(),
             asLvIdentifier(vlmData),
             vlmData.getExepectedSize()
@@ -300,6 +316,7 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
 
         SpdkCommands.rename(
             extCmdFactory.create(),
+            rpcClient,
             volumeGroup,
             oldSpdkId,
             newSpdkId
@@ -312,6 +329,7 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
         {
             SpdkCommands.delete(
                 extCmdFactory.create(),
+                rpcClient,
                 volumeGroup,
                 newSpdkId
             );
@@ -326,7 +344,11 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
     @Override
     protected Map<String, Long> getFreeSpacesImpl() throws StorageException
     {
-        Map<String, Long> freeSizes = SpdkUtils.getVgFreeSize(extCmdFactory.create(), changedStoragePoolStrings);
+        Map<String, Long> freeSizes = SpdkUtils.getVgFreeSize(
+            extCmdFactory.create(),
+            rpcClient,
+            changedStoragePoolStrings
+        );
         for (String storPool : changedStoragePoolStrings)
         {
             if (!freeSizes.containsKey(storPool))
@@ -346,6 +368,7 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
     {
         return SpdkUtils.getLvsInfo(
             extCmdFactory.create(),
+            rpcClient,
             getAffectedVolumeGroups(vlmDataList, snapVlms)
         );
     }
@@ -418,10 +441,12 @@ public class SpdkProvider extends AbsStorageProvider<LvsInfo, SpdkData<Resource>
         }
         Long capacity = SpdkUtils.getVgTotalSize(
             extCmdFactory.create(),
+            rpcClient,
             Collections.singleton(vg)
         ).get(vg);
         Long freespace = SpdkUtils.getVgFreeSize(
             extCmdFactory.create(),
+            rpcClient,
             Collections.singleton(vg)
         ).get(vg);
 
@@ -2,6 +2,7 @@ package com.linbit.linstor.layer.storage.spdk.utils;
 
 import com.linbit.extproc.ExtCmd;
 import com.linbit.extproc.ExtCmd.OutputData;
+import com.linbit.extproc.ExtCmdUtils;
 import com.linbit.linstor.layer.storage.utils.Commands;
 import com.linbit.linstor.layer.storage.utils.RetryIfDeviceBusy;
 import com.linbit.linstor.layer.storage.utils.Commands.RetryHandler;
@@ -11,7 +12,11 @@ import com.linbit.utils.StringUtils;
 import static com.linbit.linstor.layer.storage.utils.Commands.genericExecutor;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 public class SpdkCommands
 {
@@ -22,24 +27,36 @@ public class SpdkCommands
     {
     }
 
-    public static OutputData lvs(ExtCmd extCmd) throws StorageException
+    /*
+     * The high-frequency commands below take an optional SpdkRpcClient. If it is given and enabled, the command
+     * is sent to the SPDK target directly instead of forking rpc.py. Callers without access to the injected
+     * client pass null and keep using rpc.py.
+     */
+
+    public static OutputData lvs(ExtCmd extCmd, SpdkRpcClient rpcClient) throws StorageException
     {
-        return genericExecutor(
+        return spdkExecutor(
             extCmd,
+            rpcClient,
             new String[]
             {
                 SPDK_RPC_SCRIPT,
                 "get_bdevs"
             },
+            "get_bdevs",
+            params ->
+            {
+            },
             "Failed to list bdevs",
             "Failed to query 'get_bdevs' info"
         );
     }
 
-    public static OutputData lvsByName(ExtCmd extCmd, String name) throws StorageException
+    public static OutputData lvsByName(ExtCmd extCmd, SpdkRpcClient rpcClient, String name) throws StorageException
     {
-        return genericExecutor(
+        return spdkExecutor(
                 extCmd,
+                rpcClient,
                 new String[]
                 {
                     SPDK_RPC_SCRIPT,
@@ -47,20 +64,27 @@ public class SpdkCommands
                     "--name",
                     name
                 },
+                "get_bdevs",
+                params -> params.put("name", name),
                 "Failed to list bdevs",
                 "Failed to query 'get_bdevs' info"
         );
     }
 
-    public static OutputData getLvolStores(ExtCmd extCmd) throws StorageException
+    public static OutputData getLvolStores(ExtCmd extCmd, SpdkRpcClient rpcClient) throws StorageException
     {
-        return genericExecutor(
+        return spdkExecutor(
             extCmd,
+            rpcClient,
             new String[]
             {
                 SPDK_RPC_SCRIPT,
                 "get_lvol_stores"
             },
+            "get_lvol_stores",
+            params ->
+            {
+            },
             "Failed to query lvol stores extent size",
             "Failed to query extent size of volume group(s)"
         );
@@ -68,6 +92,7 @@ public class SpdkCommands
 
     public static OutputData createFat(
         ExtCmd extCmd,
+        SpdkRpcClient rpcClient,
         String volumeGroup,
         String vlmId,
         long size,
@@ -75,8 +100,9 @@ public class SpdkCommands
     )
         throws StorageException
     {
-        return genericExecutor(
+        return spdkExecutor(
             extCmd,
+            rpcClient,
             new String[]
             {
                 SPDK_RPC_SCRIPT,
@@ -85,6 +111,11 @@ public class SpdkCommands
                 String.valueOf(size/1024), // KiB
                 "--lvs-name", volumeGroup
             },
+            "construct_lvol_bdev",
+            params -> params
+                .put("lvol_name", vlmId)
+                .put("size", toRpcSize(size))
+                .put("lvs_name", volumeGroup),
             "Failed to create lvol bdev",
             "Failed to create new lvol bdev'" + vlmId + "' in lovl store '" + volumeGroup +
             "' with size " + size + "mb"
@@ -93,6 +124,7 @@ public class SpdkCommands
 
     public static OutputData createThin(
         ExtCmd extCmd,
+        SpdkRpcClient rpcClient,
         String volumeGroup,
         String thinPoolName,
         String vlmId,
@@ -101,8 +133,9 @@ public class SpdkCommands
     )
         throws StorageException
     {
-        return genericExecutor(
+        return spdkExecutor(
             extCmd,
+            rpcClient,
             StringUtils.concat(
                 new String[]
                 {
@@ -115,34 +148,50 @@ public class SpdkCommands
                 },
                 additionalParameters
             ),
+            "construct_lvol_bdev",
+            params -> params
+                .put("lvol_name", vlmId)
+                .put("size", toRpcSize(size))
+                .put("lvs_name", volumeGroup)
+                .put("thin_provision", true),
             "Failed to create lvol bdev",
             "Failed to create new lvol bdev'" + vlmId + "' in lovl store '" + volumeGroup +
             "' with size " + size + "mb"
         );
     }
 
-    public static OutputData delete(ExtCmd extCmd, String volumeGroup, String vlmId)
+    public static OutputData delete(ExtCmd extCmd, SpdkRpcClient rpcClient, String volumeGroup, String vlmId)
         throws StorageException
     {
-        return genericExecutor(
+        return spdkExecutor(
             extCmd,
+            rpcClient,
             new String[]
             {
                 SPDK_RPC_SCRIPT,
                 "destroy_lvol_bdev",
                 volumeGroup + File.separator + vlmId
             },
+            "destroy_lvol_bdev",
+            params -> params.put("name", volumeGroup + File.separator + vlmId),
             "Failed to delete lvol bdev",
             "Failed to delete lvm volume '" + vlmId + "' from volume group '" + volumeGroup,
             new RetryIfDeviceBusy()
         );
     }
 
-    public static OutputData resize(ExtCmd extCmd, String volumeGroup, String vlmId, long size)
+    public static OutputData resize(
+        ExtCmd extCmd,
+        SpdkRpcClient rpcClient,
+        String volumeGroup,
+        String vlmId,
+        long size
+    )
         throws StorageException
     {
-        return genericExecutor(
+        return spdkExecutor(
             extCmd,
+            rpcClient,
             new String[]
             {
                 SPDK_RPC_SCRIPT,
@@ -150,16 +199,27 @@ public class SpdkCommands
                 volumeGroup + File.separator + vlmId,
                 String.valueOf(size/1024), // KiB
             },
+            "resize_lvol_bdev",
+            params -> params
+                .put("name", volumeGroup + File.separator + vlmId)
+                .put("size", toRpcSize(size)),
             "Failed to resize lvol bdev",
             "Failed to resize lvol bdev '" + vlmId + "' in lvol store '" + volumeGroup + "' to size " + size
         );
     }
 
-    public static OutputData rename(ExtCmd extCmd, String volumeGroup, String vlmCurrentId, String vlmNewId)
+    public static OutputData rename(
+        ExtCmd extCmd,
+        SpdkRpcClient rpcClient,
+        String volumeGroup,
+        String vlmCurrentId,
+        String vlmNewId
+    )
         throws StorageException
     {
-        return genericExecutor(
+        return spdkExecutor(
             extCmd,
+            rpcClient,
             new String[]
             {
                 SPDK_RPC_SCRIPT,
@@ -167,6 +227,10 @@ public class SpdkCommands
                 volumeGroup + File.separator + vlmCurrentId,
                 vlmNewId
             },
+            "rename_lvol_bdev",
+            params -> params
+                .put("old_name", volumeGroup + File.separator + vlmCurrentId)
+                .put("new_name", vlmNewId),
             "Failed to rename lvm volume from '" + vlmCurrentId + "' to '" + vlmNewId + "'",
             "Failed to rename lvm volume from '" + vlmCurrentId + "' to '" + vlmNewId + "'",
             new RetryHandler()
@@ -237,15 +301,20 @@ public class SpdkCommands
         );
     }
 
-    public static OutputData getNvmfSubsystems(ExtCmd extCmd) throws StorageException
+    public static OutputData getNvmfSubsystems(ExtCmd extCmd, SpdkRpcClient rpcClient) throws StorageException
     {
-        return genericExecutor(
+        return spdkExecutor(
             extCmd,
+            rpcClient,
             new String[]
             {
                     SPDK_RPC_SCRIPT,
                     "get_nvmf_subsystems"
             },
+            "get_nvmf_subsystems",
+            params ->
+            {
+            },
             "Failed to query nvmf subsystems",
             "Failed to query nvmf subsystems"
         );
@@ -392,4 +461,102 @@ public class SpdkCommands
                 "Failed to read RAID bdevs"
         );
     }
+
+    /**
+     * rpc.py expects the size in MiB and sends it in bytes
+     */
+    private static long toRpcSize(long sizeInKib)
+    {
+        return sizeInKib / 1024 * 1024 * 1024;
+    }
+
+    private static OutputData spdkExecutor(
+        ExtCmd extCmd,
+        SpdkRpcClient rpcClient,
+        String[] command,
+        String rpcMethod,
+        Consumer<ObjectNode> rpcParamsSetter,
+        String failMsgExitCode,
+        String failMsgExc
+    )
+        throws StorageException
+    {
+        return spdkExecutor(
+            extCmd,
+            rpcClient,
+            command,
+            rpcMethod,
+            rpcParamsSetter,
+            failMsgExitCode,
+            failMsgExc,
+            Commands.NO_RETRY
+        );
+    }
+
+    /**
+     * Same as {@link Commands#genericExecutor(ExtCmd, String[], String, String, RetryHandler)}, but sends the
+     * given RPC method to the SPDK target directly instead of forking rpc.py if an enabled {@link SpdkRpcClient}
+     * is given
+     */
+    private static OutputData spdkExecutor(
+        ExtCmd extCmd,
+        SpdkRpcClient rpcClient,
+        String[] command,
+        String rpcMethod,
+        Consumer<ObjectNode> rpcParamsSetter,
+        String failMsgExitCode,
+        String failMsgExc,
+        RetryHandler retryHandler
+    )
+        throws StorageException
+    {
+        OutputData outData;
+        if (rpcClient == null || !rpcClient.isEnabled())
+        {
+            outData = genericExecutor(extCmd, command, failMsgExitCode, failMsgExc, retryHandler);
+        }
+        else
+        {
+            ObjectNode params = rpcClient.newParams();
+            rpcParamsSetter.accept(params);
+            try
+            {
+                outData = rpcClient.callAsOutputData(command, rpcMethod, params);
+
+                boolean skipExitCodeCheck = false;
+                while (outData.exitCode != ExtCmdUtils.DEFAULT_RET_CODE_OK)
+                {
+                    if (retryHandler.skip(outData))
+                    {
+                        skipExitCodeCheck = true;
+                        break;
+                    }
+                    if (retryHandler.retry(outData))
+                    {
+                        outData = rpcClient.callAsOutputData(command, rpcMethod, params);
+                    }
+                    else
+                    {
+                        break;
+                    }
+                }
+                if (!skipExitCodeCheck)
+                {
+                    ExtCmdUtils.checkExitCode(outData, StorageException::new, failMsgExitCode);
+                }
+            }
+            catch (IOException exc)
+            {
+                throw new StorageException(
+                    failMsgExc,
+                    null,
+                    "SPDK RPC call failed",
+                    null,
+                    String.format("SPDK RPC method: %s", rpcMethod),
+                    exc
+                );
+            }
+        }
+        return outData;
+    }
 }
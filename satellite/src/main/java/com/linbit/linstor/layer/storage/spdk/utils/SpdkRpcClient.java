@@ -0,0 +1,386 @@
+package com.linbit.linstor.layer.storage.spdk.utils;
+
+import com.linbit.extproc.ExtCmd.OutputData;
+import com.linbit.linstor.core.cfg.StltConfig;
+import com.linbit.linstor.logging.ErrorReporter;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * JSON-RPC 2.0 client for the RPC listener of the SPDK target
+ *
+ * Keeps one persistent connection, which is (re-)established on demand. Requests are written without
+ * waiting for the responses of previous requests (pipelining), responses are matched by their id
+ * by a dedicated reader thread.
+ *
+ * As Java 8 can not connect to unix domain sockets, the SPDK target has to listen on a TCP address
+ * (i.e. {@code spdk_tgt -r 127.0.0.1:5260}).
+ *
+ * If no (valid) RPC address is configured, the client is disabled and the SPDK commands fork rpc.py instead.
+ */
+@Singleton
+public class SpdkRpcClient
+{
+    private static final String JSON_RPC_VERSION = "2.0";
+    private static final int CONNECT_TIMEOUT_MS = 5_000;
+    private static final long DFLT_CALL_TIMEOUT_MS = 60_000;
+    private static final int RPC_ERROR_EXIT_CODE = 1;
+    private static final int MAX_PORT = 65535;
+
+    private final ErrorReporter errorReporter;
+    private final boolean enabled;
+    private final String host;
+    private final int port;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<Long, CompletableFuture<JsonNode>> pendingCalls = new ConcurrentHashMap<>();
+
+    // guards the connection and the request stream
+    private final Object connectionLock = new Object();
+    private Socket socket;
+    private OutputStream requestStream;
+
+    @Inject
+    public SpdkRpcClient(ErrorReporter errorReporterRef, StltConfig stltCfg)
+    {
+        errorReporter = errorReporterRef;
+        objectMapper = new ObjectMapper();
+
+        String address = stltCfg.getSpdkRpcAddress();
+        String parsedHost = null;
+        int parsedPort = -1;
+        if (address != null && !address.isEmpty())
+        {
+            try
+            {
+                int portIdx = parseAddress(address);
+                // only assigned once both parts are valid, otherwise the client has to stay disabled
+                String addressHost = address.substring(0, portIdx);
+                int addressPort = parsePort(address, portIdx);
+                parsedHost = addressHost;
+                parsedPort = addressPort;
+                errorReporter.logInfo("Using SPDK RPC listener at %s instead of rpc.py", address);
+            }
+            catch (IllegalArgumentException exc)
+            {
+                errorReporter.logError("Invalid SPDK RPC address '%s', falling back to rpc.py", address);
+            }
+        }
+        enabled = parsedHost != null;
+        host = parsedHost;
+        port = parsedPort;
+    }
+
+    /**
+     * @param addressRef the TCP address of the SPDK RPC listener, formatted as {@code host:port}
+     */
+    public SpdkRpcClient(ErrorReporter errorReporterRef, String addressRef)
+    {
+        errorReporter = errorReporterRef;
+        int portIdx = parseAddress(addressRef);
+        port = parsePort(addressRef, portIdx);
+        host = addressRef.substring(0, portIdx);
+        enabled = true;
+        objectMapper = new ObjectMapper();
+    }
+
+    private static int parseAddress(String address)
+    {
+        int portIdx = address.lastIndexOf(':');
+        if (portIdx <= 0)
+        {
+            throw new IllegalArgumentException("SPDK RPC address '" + address + "' is not of the form host:port");
+        }
+        return portIdx;
+    }
+
+    private static int parsePort(String address, int portIdx)
+    {
+        int parsedPort;
+        try
+        {
+            parsedPort = Integer.parseInt(address.substring(portIdx + 1));
+        }
+        catch (NumberFormatException exc)
+        {
+            throw new IllegalArgumentException("SPDK RPC address '" + address + "' has no numeric port", exc);
+        }
+        if (parsedPort < 1 || parsedPort > MAX_PORT)
+        {
+            throw new IllegalArgumentException("SPDK RPC address '" + address + "' has a port out of range");
+        }
+        return parsedPort;
+    }
+
+    /**
+     * @return false if no RPC address is configured, i.e. rpc.py has to be used instead
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public ObjectNode newParams()
+    {
+        return objectMapper.createObjectNode();
+    }
+
+    /**
+     * Sends the request without waiting for its response.
+     *
+     * The returned future is completed with the "result" of the response, or exceptionally with an
+     * {@link RpcErrorException} if the SPDK target responded with an error, or with an {@link IOException}
+     * if the connection failed.
+     */
+    public CompletableFuture<JsonNode> callAsync(String method, ObjectNode params)
+    {
+        long id = nextId.incrementAndGet();
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("jsonrpc", JSON_RPC_VERSION);
+        request.put("method", method);
+        request.put("id", id);
+        if (params != null && params.size() > 0)
+        {
+            request.set("params", params);
+        }
+
+        CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        pendingCalls.put(id, future);
+        // also drops calls that were cancelled or timed out, their responses (if any) are ignored by the reader
+        future.whenComplete((ignoredResult, ignoredExc) -> pendingCalls.remove(id, future));
+        synchronized (connectionLock)
+        {
+            try
+            {
+                ensureConnected();
+                requestStream.write(objectMapper.writeValueAsBytes(request));
+                requestStream.flush();
+            }
+            catch (IOException ioExc)
+            {
+                closeConnection(ioExc);
+            }
+            catch (RuntimeException exc)
+            {
+                // e.g. an unresolvable host, the connection was not established
+                future.completeExceptionally(
+                    new IOException("SPDK RPC call '" + method + "' could not be sent", exc)
+                );
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Sends the request and waits for its result
+     *
+     * @throws RpcErrorException if the SPDK target responded with an error
+     * @throws IOException if the connection failed or the response did not arrive in time
+     */
+    public JsonNode call(String method, ObjectNode params) throws IOException
+    {
+        return call(method, params, DFLT_CALL_TIMEOUT_MS);
+    }
+
+    JsonNode call(String method, ObjectNode params, long timeoutMs) throws IOException
+    {
+        CompletableFuture<JsonNode> future = callAsync(method, params);
+        JsonNode result;
+        try
+        {
+            result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        catch (ExecutionException exc)
+        {
+            Throwable cause = exc.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            throw new IOException("SPDK RPC call '" + method + "' failed", cause);
+        }
+        catch (TimeoutException exc)
+        {
+            future.cancel(false);
+            throw new IOException("SPDK RPC call '" + method + "' timed out after " + timeoutMs + "ms");
+        }
+        catch (InterruptedException exc)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for SPDK RPC call '" + method + "'", exc);
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #call(String, ObjectNode)}, but returns the result in the form rpc.py would have printed
+     * it, so that callers can treat it like the output of an external command. An error response is reported
+     * as a failed command with the error message as output.
+     *
+     * @param descrCommand the equivalent rpc.py command, used only for error messages
+     *
+     * @throws IOException if the connection failed or the response did not arrive in time
+     */
+    public OutputData callAsOutputData(String[] descrCommand, String method, ObjectNode params) throws IOException
+    {
+        OutputData outData;
+        try
+        {
+            JsonNode result = call(method, params);
+            outData = new RpcOutputData(descrCommand, objectMapper.writeValueAsBytes(result), new byte[0], 0);
+        }
+        catch (RpcErrorException rpcExc)
+        {
+            byte[] msg = rpcExc.getMessage().getBytes(StandardCharsets.UTF_8);
+            outData = new RpcOutputData(descrCommand, msg, msg, RPC_ERROR_EXIT_CODE);
+        }
+        return outData;
+    }
+
+    int getPendingCallCount()
+    {
+        return pendingCalls.size();
+    }
+
+    public void close()
+    {
+        synchronized (connectionLock)
+        {
+            closeConnection(new IOException("SPDK RPC client closed"));
+        }
+    }
+
+    private void ensureConnected() throws IOException
+    {
+        if (!enabled)
+        {
+            throw new IOException("No SPDK RPC address configured");
+        }
+        if (socket == null)
+        {
+            Socket newSocket = new Socket();
+            newSocket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            newSocket.setTcpNoDelay(true);
+            socket = newSocket;
+            requestStream = newSocket.getOutputStream();
+
+            Thread readerThread = new Thread(() -> readResponses(newSocket), "SpdkRpcReader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+            errorReporter.logDebug("Connected to SPDK RPC listener %s:%d", host, port);
+        }
+    }
+
+    private void readResponses(Socket readSocket)
+    {
+        IOException closeCause;
+        try (MappingIterator<JsonNode> responses = objectMapper.readerFor(JsonNode.class)
+            .readValues(readSocket.getInputStream()))
+        {
+            while (responses.hasNextValue())
+            {
+                JsonNode response = responses.nextValue();
+                CompletableFuture<JsonNode> future = pendingCalls.remove(response.path("id").asLong());
+                if (future != null)
+                {
+                    JsonNode error = response.get("error");
+                    if (error != null)
+                    {
+                        future.completeExceptionally(
+                            new RpcErrorException(error.path("code").asInt(), error.path("message").asText())
+                        );
+                    }
+                    else
+                    {
+                        future.complete(response.path("result"));
+                    }
+                }
+            }
+            closeCause = new IOException("Connection closed by SPDK target");
+        }
+        catch (IOException | RuntimeException exc)
+        {
+            closeCause = exc instanceof IOException ? (IOException) exc : new IOException(exc);
+        }
+        synchronized (connectionLock)
+        {
+            // only close if no new connection was established in the meantime
+            if (socket == readSocket)
+            {
+                closeConnection(closeCause);
+            }
+        }
+    }
+
+    /**
+     * Closes the current connection and fails all pending calls. Must be called while holding the connectionLock
+     */
+    private void closeConnection(IOException cause)
+    {
+        if (socket != null)
+        {
+            try
+            {
+                socket.close();
+            }
+            catch (IOException ignored)
+            {
+            }
+            socket = null;
+            requestStream = null;
+            errorReporter.logDebug("Disconnected from SPDK RPC listener %s:%d: %s", host, port, cause.getMessage());
+        }
+        List<Long> failedIds = new ArrayList<>(pendingCalls.keySet());
+        for (Long failedId : failedIds)
+        {
+            CompletableFuture<JsonNode> future = pendingCalls.remove(failedId);
+            if (future != null)
+            {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    public static class RpcErrorException extends IOException
+    {
+        private static final long serialVersionUID = 4003517404927858216L;
+
+        public final int code;
+
+        RpcErrorException(int codeRef, String message)
+        {
+            super(message);
+            code = codeRef;
+        }
+    }
+
+    private static class RpcOutputData extends OutputData
+    {
+        RpcOutputData(String[] executeCmd, byte[] out, byte[] err, int retCode)
+        {
+            super(executeCmd, out, err, retCode);
+        }
+    }
+}
@@ -73,23 +73,30 @@ public class SpdkUtils
 
     public static HashMap<String, LvsInfo> getLvsInfo(
         final ExtCmd ec,
+        final SpdkRpcClient rpcClient,
         final Set<String> volumeGroups
     )
         throws StorageException
     {
         final HashMap<String, LvsInfo> infoByIdentifier = new HashMap<>();
 
-        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.lvs(ec));
+        // query the lvol stores only once instead of once per logical volume
+        final Map<String, String> vgNameByUuid = getVgNamesByUuid(ec, rpcClient);
+
+        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.lvs(ec, rpcClient));
         while (elements.hasNext())
         {
             JsonNode element = elements.next();
 
             if (element.path(SPDK_PRODUCK_NAME).asText().equals(SPDK_LOGICAL_VOLUME))
             {
-                final String vgStr = SpdkUtils.getVgNameFromUuid(
-                    ec,
-                    element.path(SPDK_DRIVER_SPECIFIC).path(SPDK_LVOL).path(SPDK_LVOL_STORE_UUID).asText()
-                );
+                final String vgUuid = element.path(SPDK_DRIVER_SPECIFIC).path(SPDK_LVOL)
+                    .path(SPDK_LVOL_STORE_UUID).asText();
+                final String vgStr = vgNameByUuid.get(vgUuid.trim());
+                if (vgStr == null)
+                {
+                    throw new StorageException("getVgNameFromUuid Volume group '" + vgUuid + "' not found");
+                }
                 if (volumeGroups.contains(vgStr))
                 {
                     Iterator<JsonNode> aliases = element.path(SPDK_ALIASES).elements();
@@ -126,11 +133,16 @@ public class SpdkUtils
     }
 
 
-    public static Map<String, Long> getExtentSize(ExtCmd extCmd, Set<String> volumeGroups) throws StorageException
+    public static Map<String, Long> getExtentSize(
+        ExtCmd extCmd,
+        SpdkRpcClient rpcClient,
+        Set<String> volumeGroups
+    )
+        throws StorageException
     {
         final Map<String, Long> result = new HashMap<>();
 
-        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd));
+        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd, rpcClient));
         while (elements.hasNext())
         {
             JsonNode element = elements.next();
@@ -147,7 +159,7 @@ public class SpdkUtils
 
     public static Long getBlockSizeByName(ExtCmd extCmd, String name) throws StorageException
     {
-        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.lvsByName(extCmd, name));
+        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.lvsByName(extCmd, null, name));
         while (elements.hasNext())
         {
             JsonNode element = elements.next();
@@ -156,11 +168,16 @@ public class SpdkUtils
         throw new StorageException("Volume not found: " + name);
     }
 
-    public static Map<String, Long> getVgTotalSize(ExtCmd extCmd, Set<String> volumeGroups) throws StorageException
+    public static Map<String, Long> getVgTotalSize(
+        ExtCmd extCmd,
+        SpdkRpcClient rpcClient,
+        Set<String> volumeGroups
+    )
+        throws StorageException
     {
         final Map<String, Long> result = new HashMap<>();
 
-        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd));
+        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd, rpcClient));
         while (elements.hasNext())
         {
             JsonNode element = elements.next();
@@ -175,11 +192,16 @@ public class SpdkUtils
         return result;
     }
 
-    public static Map<String, Long> getVgFreeSize(ExtCmd extCmd, Set<String> volumeGroups) throws StorageException
+    public static Map<String, Long> getVgFreeSize(
+        ExtCmd extCmd,
+        SpdkRpcClient rpcClient,
+        Set<String> volumeGroups
+    )
+        throws StorageException
     {
         final Map<String, Long> result = new HashMap<>();
 
-        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd));
+        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd, rpcClient));
         while (elements.hasNext())
         {
             JsonNode element = elements.next();
@@ -198,7 +220,7 @@ public class SpdkUtils
     {
         boolean found = false;
 
-        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd));
+        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd, null));
         while (elements.hasNext())
         {
             JsonNode element = elements.next();
@@ -218,7 +240,7 @@ public class SpdkUtils
     public static String getVgNameFromUuid(ExtCmd extCmd, String volumeGroup) throws StorageException
     {
         String vgName = null;
-        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd));
+        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd, null));
         while (elements.hasNext())
         {
             JsonNode element = elements.next();
@@ -236,10 +258,23 @@ public class SpdkUtils
         return vgName;
     }
 
-    public static boolean checkTargetExists(ExtCmd extCmd, String nqn) throws StorageException
+    private static Map<String, String> getVgNamesByUuid(ExtCmd extCmd, SpdkRpcClient rpcClient) throws StorageException
+    {
+        final Map<String, String> result = new HashMap<>();
+
+        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getLvolStores(extCmd, rpcClient));
+        while (elements.hasNext())
+        {
+            JsonNode element = elements.next();
+            result.put(element.path(SPDK_UUID).asText(), element.path(SPDK_NAME).asText());
+        }
+        return result;
+    }
+
+    public static boolean checkTargetExists(ExtCmd extCmd, SpdkRpcClient rpcClient, String nqn) throws StorageException
     {
         boolean targetExists = false;
-        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getNvmfSubsystems(extCmd));
+        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getNvmfSubsystems(extCmd, rpcClient));
         while (elements.hasNext() && !targetExists)
         {
             JsonNode element = elements.next();
@@ -252,10 +287,11 @@ public class SpdkUtils
         return targetExists;
     }
 
-    public static boolean checkNamespaceExists(ExtCmd extCmd, String nqn, int nsid) throws StorageException
+    public static boolean checkNamespaceExists(ExtCmd extCmd, SpdkRpcClient rpcClient, String nqn, int nsid)
+        throws StorageException
     {
         boolean namespaceExists = false;
-        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getNvmfSubsystems(extCmd));
+        Iterator<JsonNode> elements = getJsonElements(SpdkCommands.getNvmfSubsystems(extCmd, rpcClient));
         while (elements.hasNext() && !namespaceExists)
         {
             JsonNode element = elements.next();
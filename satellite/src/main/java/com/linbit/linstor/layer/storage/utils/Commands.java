@@ -146,6 +146,23 @@ public class Commands
         );
     }
 
+    public static OutputData blkDiscard(
+        ExtCmd extCmd,
+        String devicePath
+    )
+        throws StorageException
+    {
+        return genericExecutor(
+            extCmd,
+            new String[]
+            {
+                "blkdiscard", devicePath
+            },
+            "Failed to discard " + devicePath,
+            "Failed to discard " + devicePath
+        );
+    }
+
     public static long getDeviceSizeInSectors(
         ExtCmd extCmd,
         String devicePath
@@ -3,6 +3,7 @@ package com.linbit.linstor.layer.storage.zfs;
 import com.linbit.ImplementationError;
 import com.linbit.SizeConv;
 import com.linbit.SizeConv.SizeUnit;
+import com.linbit.extproc.ExtCmd.OutputData;
 import com.linbit.extproc.ExtCmdFactory;
 import com.linbit.linstor.PriorityProps;
 import com.linbit.linstor.annotation.DeviceManagerContext;
@@ -531,7 +532,56 @@ public class ZfsProvider extends AbsStorageProvider<ZfsInfo, ZfsData<Resource>,
     protected String getSnapshotShippingReceivingCommandImpl(ZfsData<Snapshot> snapVlmDataRef)
         throws StorageException, AccessDeniedException
     {
-        return "zfs receive -F " + getZPool(snapVlmDataRef.getStorPool()) + "/" + asSnapLvIdentifier(snapVlmDataRef);
+        // -s: an interrupted receive keeps its partial state, so that the shipping can be resumed
+        return "zfs receive -s -F " + getZPool(snapVlmDataRef.getStorPool()) + "/" +
+            asSnapLvIdentifier(snapVlmDataRef);
+    }
+
+    @Override
+    protected String getSnapshotShippingResumeToken(ZfsData<Snapshot> snapVlmDataRef)
+        throws StorageException
+    {
+        String token;
+        try
+        {
+            OutputData output = ZfsCommands.getReceiveResumeToken(
+                extCmdFactory.create(),
+                getZPool(snapVlmDataRef.getStorPool()),
+                asReceivingLvIdentifier(snapVlmDataRef)
+            );
+            token = new String(output.stdoutData).trim();
+        }
+        catch (AccessDeniedException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        // "-" if there is no partial state
+        return token.isEmpty() || token.equals("-") ? null : token;
+    }
+
+    @Override
+    protected void discardShipReceiving(ZfsData<Snapshot> snapVlmRef)
+        throws StorageException, AccessDeniedException
+    {
+        if (getSnapshotShippingResumeToken(snapVlmRef) != null)
+        {
+            ZfsCommands.abortReceive(
+                extCmdFactory.create(),
+                getZPool(snapVlmRef.getStorPool()),
+                asReceivingLvIdentifier(snapVlmRef)
+            );
+        }
+    }
+
+    /**
+     * The partial state of an interrupted receive belongs to the volume, not to the snapshot
+     */
+    private String asReceivingLvIdentifier(ZfsData<Snapshot> snapVlmDataRef)
+    {
+        return asLvIdentifier(
+            snapVlmDataRef.getRscLayerObject().getResourceNameSuffix(),
+            ((SnapshotVolume) snapVlmDataRef.getVolume()).getSnapshotVolumeDefinition()
+        );
     }
 
     @Override
@@ -542,14 +592,23 @@ public class ZfsProvider extends AbsStorageProvider<ZfsInfo, ZfsData<Resource>,
         throws StorageException, AccessDeniedException
     {
         StringBuilder sb = new StringBuilder("zfs send ");
-        if (lastSnapVlmDataRef != null)
+        String resumeToken = getShippingResumeToken(curSnapVlmDataRef);
+        if (resumeToken != null)
         {
-            sb.append("-i ") // incremental
-                .append(getZPool(lastSnapVlmDataRef.getStorPool())).append("/")
-                .append(asSnapLvIdentifier(lastSnapVlmDataRef)).append(" ");
+            // the token already describes the snapshot(s) and where to continue
+            sb.append("-t ").append(resumeToken);
+        }
+        else
+        {
+            if (lastSnapVlmDataRef != null)
+            {
+                sb.append("-i ") // incremental
+                    .append(getZPool(lastSnapVlmDataRef.getStorPool())).append("/")
+                    .append(asSnapLvIdentifier(lastSnapVlmDataRef)).append(" ");
+            }
+            sb.append(getZPool(curSnapVlmDataRef.getStorPool())).append("/")
+                .append(asSnapLvIdentifier(curSnapVlmDataRef));
         }
-        sb.append(getZPool(curSnapVlmDataRef.getStorPool())).append("/")
-            .append(asSnapLvIdentifier(curSnapVlmDataRef));
         return sb.toString();
     }
 
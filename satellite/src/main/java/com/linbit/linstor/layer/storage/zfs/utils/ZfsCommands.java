@@ -160,6 +160,42 @@ public class ZfsCommands
         );
     }
 
+    public static OutputData getReceiveResumeToken(ExtCmd extCmd, String zPool, String identifier)
+        throws StorageException
+    {
+        String fullQualifiedId = zPool + File.separator + identifier;
+        return genericExecutor(
+            extCmd,
+            new String[] {
+                "zfs",
+                "get",
+                "-H",
+                "-o", "value",
+                "receive_resume_token",
+                fullQualifiedId
+            },
+            "Failed to query receive resume token of '" + fullQualifiedId + "'",
+            "Failed to query receive resume token of '" + fullQualifiedId + "'"
+        );
+    }
+
+    public static OutputData abortReceive(ExtCmd extCmd, String zPool, String identifier)
+        throws StorageException
+    {
+        String fullQualifiedId = zPool + File.separator + identifier;
+        return genericExecutor(
+            extCmd,
+            new String[] {
+                "zfs",
+                "receive",
+                "-A",
+                fullQualifiedId
+            },
+            "Failed to discard partially received state of '" + fullQualifiedId + "'",
+            "Failed to discard partially received state of '" + fullQualifiedId + "'"
+        );
+    }
+
     public static OutputData restoreSnapshot(
         ExtCmd extCmd,
         String zPool,
@@ -1,159 +1,910 @@
 package com.linbit.linstor.snapshotshipping;
 
 import com.linbit.ImplementationError;
-import com.linbit.SystemServiceStartException;
-import com.linbit.extproc.DaemonHandler;
-import com.linbit.extproc.OutputProxy.EOFEvent;
-import com.linbit.extproc.OutputProxy.Event;
-import com.linbit.extproc.OutputProxy.ExceptionEvent;
-import com.linbit.extproc.OutputProxy.StdErrEvent;
-import com.linbit.extproc.OutputProxy.StdOutEvent;
 import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.storage.StorageException;
 
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
+/**
+ * Ships the data of one snapshot volume between two satellites.
+ *
+ * The sending side runs the send command (i.e. "zfs send ..." or "thin_send ...") and streams its stdout
+ * deflate-compressed over a TCP connection. The receiving side listens on the shipping port and feeds the
+ * inflated stream directly into the stdin of the receive command. After the receive command terminated, the
+ * receiver reports its result back to the sender with a status message.
+ *
+ * An aborted or failed sender never finishes the deflate stream, so that the receiver can distinguish an
+ * incomplete stream from a complete one and kills its receive command instead of closing its stdin.
+ *
+ * If the connection breaks while the stream is still incomplete, both sides keep their send and receive commands
+ * running. The receiver waits for the sender to reconnect and tells it how many bytes of the uncompressed stream
+ * it already passed on to its receive command. The sender starts a new deflate stream from exactly that offset.
+ * To be able to do so, the sender keeps the uncompressed data that the receiver has not yet acknowledged in a
+ * replay buffer, and stops reading from the send command while that buffer is full.
+ *
+ * The ACK and status messages and the deflate stream are not understood by satellites of older versions. This is
+ * fine, as the controller only connects to satellites of its own version and therefore never lets two satellites
+ * of different versions ship snapshots to each other.
+ */
 public class SnapshotShippingDaemon implements Runnable
 {
-    private static final int DFLT_DEQUE_CAPACITY = 100;
+    public enum Direction
+    {
+        SEND, RECEIVE
+    }
+
+    private static final int BUFFER_SIZE = 1 << 20; // 1 MiB
+    private static final long ACK_INTERVAL = 4 << 20; // 4 MiB
+    // the receiver acknowledges only every ACK_INTERVAL, the buffer has to hold one interval plus the next read
+    private static final long MIN_REPLAY_BUFFER_SIZE = 2 * ACK_INTERVAL; // 8 MiB
+    private static final long MAX_REPLAY_BUFFER_SIZE = 1 << 30; // 1 GiB
+    private static final long CONNECT_RETRY_TIMEOUT_MS = 30_000;
+    private static final long CONNECT_RETRY_INTERVAL_MS = 500;
+    private static final long RESUME_TIMEOUT_MS = 5 * 60_000;
+    private static final int READ_TIMEOUT_MS = 120_000;
+    private static final long PROGRESS_LOG_INTERVAL_MS = 30_000;
+    private static final long KILL_TIMEOUT_MS = 10_000;
+
+    // messages from the receiver to the sender: one type byte followed by a long
+    private static final int MSG_SIZE = 9;
+    private static final byte MSG_ACK = 0;
+    private static final byte MSG_STATUS = 1;
+    private static final long STATUS_SUCCESS = 0;
+    private static final long STATUS_FAILED = 1;
 
     private final ErrorReporter errorReporter;
     private final Thread thread;
-    private final String[] command;
-
-    private final LinkedBlockingDeque<Event> deque;
-    private final DaemonHandler handler;
+    private final Direction direction;
+    private final String command;
+    private final InetSocketAddress address;
+    private final int compressionLevel;
+    private final long bandwidthBytesPerSec;
+    private final int replayBufferSize;
+    private final SnapshotShippingStats stats;
 
-    private boolean started = false;
+    private volatile boolean started = false;
+    private volatile Process process;
+    private volatile Closeable openChannel;
 
     private final Consumer<Boolean> afterTermination;
 
+    private long lastProgressLog;
+
+    // receiver only: uncompressed bytes passed on to the receive command, and the last offset acknowledged
+    private long recvOffset;
+    private long recvAckedOffset;
+
+    /**
+     * @param commandRef
+     *     the send or receive command, executed by bash
+     * @param addressRef
+     *     the address of the receiving satellite when sending, the local address to listen on when receiving
+     * @param bandwidthKibRef
+     *     maximum rate of the compressed stream in KiB/s, 0 for unlimited. Only enforced by the sender.
+     * @param replayBufferKibRef
+     *     size of the replay buffer in KiB, kept between 8 MiB and 1 GiB. Only allocated by the sender.
+     */
     public SnapshotShippingDaemon(
         ErrorReporter errorReporterRef,
         ThreadGroup threadGroupRef,
         String threadName,
-        String[] commandRef,
+        Direction directionRef,
+        String commandRef,
+        InetSocketAddress addressRef,
+        int compressionLevelRef,
+        long bandwidthKibRef,
+        long replayBufferKibRef,
+        SnapshotShippingStats statsRef,
         Consumer<Boolean> afterTerminationRef
     )
     {
         errorReporter = errorReporterRef;
+        direction = directionRef;
         command = commandRef;
+        address = addressRef;
+        compressionLevel = compressionLevelRef;
+        bandwidthBytesPerSec = Math.max(0, bandwidthKibRef) * 1024;
+        replayBufferSize = (int) Math.min(
+            Math.max(MIN_REPLAY_BUFFER_SIZE, replayBufferKibRef * 1024),
+            MAX_REPLAY_BUFFER_SIZE
+        );
+        stats = statsRef;
         afterTermination = afterTerminationRef;
 
-        deque = new LinkedBlockingDeque<>(DFLT_DEQUE_CAPACITY);
-        handler = new DaemonHandler(deque, command);
-
         thread = new Thread(threadGroupRef, this, threadName);
     }
 
+    public String getCommand()
+    {
+        return command;
+    }
+
+    public SnapshotShippingStats getStats()
+    {
+        return stats;
+    }
+
     public void start()
     {
         started = true;
         thread.start();
+    }
+
+    @Override
+    public void run()
+    {
+        errorReporter.logTrace("starting daemon (%s): %s", direction, command);
+        boolean success = false;
         try
         {
-            handler.start();
+            stats.started();
+            lastProgressLog = System.currentTimeMillis();
+            success = direction == Direction.SEND ? send() : receive();
         }
-        catch (IOException exc)
+        catch (IOException | DataFormatException exc)
+        {
+            if (started)
+            {
+                errorReporter.reportError(
+                    new StorageException("Snapshot shipping failed: " + stats.getShippingDescr(), exc)
+                );
+            }
+        }
+        catch (InterruptedException exc)
+        {
+            if (started)
+            {
+                errorReporter.reportError(new ImplementationError(exc));
+            }
+        }
+        catch (Exception exc)
         {
             errorReporter.reportError(
-                new SystemServiceStartException(
-                    "Unable to daemon for SnapshotShipping",
-                    "I/O error attempting to start '" + Arrays.toString(command) + "'",
-                    exc.getMessage(),
-                    null,
-                    null,
-                    exc,
-                    false
+                new ImplementationError(
+                    "Unknown exception occurred while executing '" + command + "'",
+                    exc
                 )
             );
         }
+        finally
+        {
+            killProcess();
+            closeChannel();
+            stats.finished();
+        }
+
+        if (started)
+        {
+            errorReporter.logInfo("Snapshot shipping %s: %s", success ? "finished" : "failed", stats);
+            afterTermination.accept(success);
+        }
     }
 
-    @Override
-    public void run()
+    private boolean send() throws IOException, InterruptedException
     {
-        errorReporter.logTrace("starting daemon: %s", Arrays.toString(command));
-        while (started)
+        boolean success = false;
+        Process proc = startProcess();
+        proc.getOutputStream().close();
+
+        ReplayBuffer replay = new ReplayBuffer(replayBufferSize);
+        Connection conn = connect(replay, CONNECT_RETRY_TIMEOUT_MS);
+        try
+        {
+            InputStream sendOut = proc.getInputStream();
+            byte[] rawBuf = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = sendOut.read(rawBuf)) != -1)
+            {
+                stats.addRawBytes(read);
+                conn = awaitReplaySpace(conn, replay, read);
+                replay.append(rawBuf, read);
+                try
+                {
+                    conn.deflate(rawBuf, read);
+                }
+                catch (ConnectionLostException exc)
+                {
+                    // the data is already in the replay buffer
+                    conn = resume(conn, replay, exc);
+                }
+                logProgress();
+            }
+
+            int exitCode = proc.waitFor();
+            if (exitCode == 0)
+            {
+                Boolean result = null;
+                while (result == null)
+                {
+                    try
+                    {
+                        result = conn.finish();
+                    }
+                    catch (ConnectionLostException exc)
+                    {
+                        conn = resume(conn, replay, exc);
+                    }
+                }
+                success = result;
+            }
+            else
+            {
+                errorReporter.logWarning("'%s' exited with %d", command, exitCode);
+                // ending the connection without finishing the stream makes the receiver abort
+                conn.abort();
+            }
+        }
+        finally
+        {
+            conn.close();
+        }
+        return success;
+    }
+
+    /**
+     * Waits for acknowledgements of the receiver until the replay buffer can take the given amount of data
+     */
+    private Connection awaitReplaySpace(Connection connRef, ReplayBuffer replay, int len)
+        throws IOException, InterruptedException
+    {
+        Connection conn = connRef;
+        if (replay.getFree() < len)
+        {
+            try
+            {
+                // data still pending in the deflater cannot be acknowledged
+                conn.flush();
+            }
+            catch (ConnectionLostException exc)
+            {
+                conn = resume(conn, replay, exc);
+            }
+        }
+        while (replay.getFree() < len)
         {
-            Event event;
             try
             {
-                event = deque.take();
-                if (event instanceof StdOutEvent)
+                replay.discardUntil(conn.readAck());
+            }
+            catch (ConnectionLostException exc)
+            {
+                conn = resume(conn, replay, exc);
+            }
+        }
+        return conn;
+    }
+
+    private Connection resume(Connection brokenConn, ReplayBuffer replay, ConnectionLostException exc)
+        throws IOException, InterruptedException
+    {
+        brokenConn.close();
+        if (!started)
+        {
+            throw exc;
+        }
+        errorReporter.logWarning(
+            "Lost connection of snapshot shipping %s (%s), trying to resume",
+            stats.getShippingDescr(),
+            exc.getCause().getMessage()
+        );
+        return connect(replay, RESUME_TIMEOUT_MS);
+    }
+
+    /**
+     * Connects to the receiver and replays the data the receiver has not yet passed on to its receive command
+     */
+    private Connection connect(ReplayBuffer replay, long timeoutMs) throws IOException, InterruptedException
+    {
+        long giveUp = System.currentTimeMillis() + timeoutMs;
+        Connection conn = null;
+        while (conn == null)
+        {
+            Connection newConn = new Connection(openSocket(giveUp));
+            try
+            {
+                long offset = newConn.readAck();
+                if (offset < replay.getStart() || offset > replay.getEnd())
                 {
-                    errorReporter.logTrace("stdOut: %s", new String(((StdOutEvent) event).data));
-                    // ignore for now...
+                    throw new IOException(
+                        String.format(
+                            "Cannot resume at offset %d, only %d to %d are available",
+                            offset,
+                            replay.getStart(),
+                            replay.getEnd()
+                        )
+                    );
                 }
-                else
-                if (event instanceof StdErrEvent)
+                replay.discardUntil(offset);
+                if (offset > 0)
                 {
-                    errorReporter.logWarning("stdErr: %s", new String(((StdErrEvent) event).data));
+                    errorReporter.logInfo(
+                        "Resuming snapshot shipping %s at offset %d",
+                        stats.getShippingDescr(),
+                        offset
+                    );
                 }
-                else
-                if (event instanceof ExceptionEvent)
+                byte[] replayBuf = new byte[BUFFER_SIZE];
+                long pos = offset;
+                while (pos < replay.getEnd())
                 {
-                    errorReporter.logTrace("ExceptionEvent in '%s':", Arrays.toString(command));
-                    errorReporter.reportError(((ExceptionEvent) event).exc);
-                    // FIXME: Report the exception to the controller
+                    int len = replay.copy(pos, replayBuf);
+                    newConn.deflate(replayBuf, len);
+                    pos += len;
                 }
-                else
-                if (event instanceof PoisonEvent)
+                conn = newConn;
+            }
+            catch (ConnectionLostException exc)
+            {
+                if (!started || System.currentTimeMillis() > giveUp)
                 {
-                    errorReporter.logTrace("PoisonEvent");
-                    break;
+                    throw exc;
                 }
-                else
-                if (event instanceof EOFEvent)
+                Thread.sleep(CONNECT_RETRY_INTERVAL_MS);
+            }
+            finally
+            {
+                if (conn == null)
                 {
-                    int exitCode = handler.getExitCode();
-                    errorReporter.logTrace("EOF. Exit code: " + exitCode);
-                    afterTermination.accept(exitCode == 0);
+                    newConn.close();
                 }
             }
-            catch (InterruptedException exc)
+        }
+        return conn;
+    }
+
+    private SocketChannel openSocket(long giveUp) throws IOException, InterruptedException
+    {
+        SocketChannel channel = null;
+        while (channel == null)
+        {
+            SocketChannel newChannel = SocketChannel.open();
+            openChannel = newChannel;
+            try
+            {
+                newChannel.connect(address);
+                channel = newChannel;
+            }
+            catch (SocketException exc)
             {
-                if (started)
+                newChannel.close();
+                // the receiver might not be listening (yet or again) or the network might be down
+                if (!started || System.currentTimeMillis() > giveUp)
                 {
-                    errorReporter.reportError(new ImplementationError(exc));
+                    throw exc;
                 }
+                Thread.sleep(CONNECT_RETRY_INTERVAL_MS);
             }
-            catch (Exception exc)
+        }
+        channel.socket().setSoTimeout(READ_TIMEOUT_MS);
+        return channel;
+    }
+
+    private boolean receive() throws IOException, InterruptedException, DataFormatException
+    {
+        boolean success;
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open())
+        {
+            openChannel = serverChannel;
+            serverChannel.bind(address);
+
+            // wait as long as it takes for the sender to start
+            SocketChannel channel = accept(serverChannel, 0);
+            try
             {
-                errorReporter.reportError(
-                    new ImplementationError(
-                        "Unknown exception occurred while executing '" + Arrays.toString(command) + "'",
-                        exc
-                    )
-                );
+                Process proc = startProcess();
+                WritableByteChannel recvIn = Channels.newChannel(proc.getOutputStream());
+
+                boolean streamComplete = false;
+                boolean senderAborted = false;
+                while (!streamComplete && !senderAborted)
+                {
+                    try
+                    {
+                        streamComplete = receiveStream(channel, recvIn);
+                        senderAborted = !streamComplete;
+                    }
+                    catch (ConnectionLostException exc)
+                    {
+                        channel.close();
+                        if (!started)
+                        {
+                            throw exc;
+                        }
+                        errorReporter.logWarning(
+                            "Lost connection of snapshot shipping %s at offset %d (%s), waiting for the sender " +
+                                "to resume",
+                            stats.getShippingDescr(),
+                            recvOffset,
+                            exc.getCause().getMessage()
+                        );
+                        // throws a SocketTimeoutException if the sender does not come back in time
+                        channel = accept(serverChannel, RESUME_TIMEOUT_MS);
+                    }
+                }
+
+                if (streamComplete)
+                {
+                    recvIn.close();
+                    int exitCode = proc.waitFor();
+                    if (exitCode != 0)
+                    {
+                        errorReporter.logWarning("'%s' exited with %d", command, exitCode);
+                    }
+                    success = exitCode == 0;
+                }
+                else
+                {
+                    errorReporter.logWarning("Shipping stream of %s ended prematurely", stats.getShippingDescr());
+                    // do not let the receive command see a regular end of its input
+                    killProcess();
+                    success = false;
+                }
+                try
+                {
+                    writeMessage(channel, MSG_STATUS, success ? STATUS_SUCCESS : STATUS_FAILED);
+                }
+                catch (ConnectionLostException exc)
+                {
+                    errorReporter.logWarning(
+                        "Could not report the result of snapshot shipping %s to the sender",
+                        stats.getShippingDescr()
+                    );
+                }
+            }
+            finally
+            {
+                channel.close();
             }
         }
+        return success;
+    }
+
+    private SocketChannel accept(ServerSocketChannel serverChannel, long timeoutMs) throws IOException
+    {
+        openChannel = serverChannel;
+        serverChannel.socket().setSoTimeout((int) timeoutMs);
+        SocketChannel channel = serverChannel.socket().accept().getChannel();
+        channel.socket().setSoTimeout(READ_TIMEOUT_MS);
+        openChannel = channel;
+        return channel;
     }
 
     /**
-     * Simple event forcing this thread to kill itself
+     * Tells the sender where to (re)start and receives one deflate stream
+     *
+     * @return true if the stream is complete, false if the sender closed the connection without finishing it
      */
-    private static class PoisonEvent implements Event
-    {}
+    private boolean receiveStream(SocketChannel channel, WritableByteChannel recvIn)
+        throws IOException, DataFormatException
+    {
+        writeMessage(channel, MSG_ACK, recvOffset);
+        recvAckedOffset = recvOffset;
+
+        InputStream wireIn = channel.socket().getInputStream();
+        byte[] wireBuf = new byte[BUFFER_SIZE];
+        byte[] rawBuf = new byte[BUFFER_SIZE];
+        Inflater inflater = new Inflater();
+        try
+        {
+            int read;
+            while (!inflater.finished() && (read = readWire(wireIn, wireBuf)) != -1)
+            {
+                stats.addWireBytes(read);
+                inflater.setInput(wireBuf, 0, read);
+                while (!inflater.needsInput() && !inflater.finished())
+                {
+                    int len = inflater.inflate(rawBuf);
+                    if (inflater.needsDictionary())
+                    {
+                        throw new DataFormatException("Unexpected preset dictionary in shipping stream");
+                    }
+                    recvIn.write(ByteBuffer.wrap(rawBuf, 0, len));
+                    recvOffset += len;
+                    stats.addRawBytes(len);
+                }
+                if (recvOffset - recvAckedOffset >= ACK_INTERVAL)
+                {
+                    writeMessage(channel, MSG_ACK, recvOffset);
+                    recvAckedOffset = recvOffset;
+                }
+                logProgress();
+            }
+            return inflater.finished();
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    private Process startProcess() throws IOException
+    {
+        Process proc = new ProcessBuilder("bash", "-c", command).start();
+        process = proc;
+        startLogger(proc.getErrorStream(), true);
+        if (direction == Direction.RECEIVE)
+        {
+            startLogger(proc.getInputStream(), false);
+        }
+        return proc;
+    }
+
+    private void startLogger(InputStream stream, boolean isStdErr)
+    {
+        Thread logger = new Thread(
+            thread.getThreadGroup(),
+            () ->
+            {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)))
+                {
+                    String line;
+                    while ((line = reader.readLine()) != null)
+                    {
+                        if (isStdErr)
+                        {
+                            errorReporter.logWarning("stdErr: %s", line);
+                        }
+                        else
+                        {
+                            errorReporter.logTrace("stdOut: %s", line);
+                        }
+                    }
+                }
+                catch (IOException ignored)
+                {
+                    // process was killed
+                }
+            },
+            thread.getName() + (isStdErr ? "_stderr" : "_stdout")
+        );
+        logger.setDaemon(true);
+        logger.start();
+    }
+
+    private static int readWire(InputStream wireIn, byte[] buf) throws ConnectionLostException
+    {
+        try
+        {
+            return wireIn.read(buf);
+        }
+        catch (IOException exc)
+        {
+            throw new ConnectionLostException(exc);
+        }
+    }
+
+    private static void writeMessage(SocketChannel channel, byte type, long value) throws ConnectionLostException
+    {
+        ByteBuffer msg = ByteBuffer.allocate(MSG_SIZE);
+        msg.put(type).putLong(value).flip();
+        try
+        {
+            while (msg.hasRemaining())
+            {
+                channel.write(msg);
+            }
+        }
+        catch (IOException exc)
+        {
+            throw new ConnectionLostException(exc);
+        }
+    }
+
+    private void throttle() throws InterruptedException
+    {
+        if (bandwidthBytesPerSec > 0)
+        {
+            long expectedMillis = stats.getWireBytes() * 1000 / bandwidthBytesPerSec;
+            long elapsedMillis = stats.getElapsedMillis();
+            if (expectedMillis > elapsedMillis)
+            {
+                Thread.sleep(expectedMillis - elapsedMillis);
+            }
+        }
+    }
+
+    private void logProgress()
+    {
+        long now = System.currentTimeMillis();
+        if (now - lastProgressLog >= PROGRESS_LOG_INTERVAL_MS)
+        {
+            lastProgressLog = now;
+            errorReporter.logDebug("Snapshot shipping progress: %s", stats);
+        }
+    }
+
+    private void killProcess()
+    {
+        Process proc = process;
+        if (proc != null && proc.isAlive())
+        {
+            proc.destroyForcibly();
+            try
+            {
+                // a killed receive command might still be saving the state needed to resume the shipping
+                proc.waitFor(KILL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException exc)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void closeChannel()
+    {
+        Closeable channel = openChannel;
+        if (channel != null)
+        {
+            try
+            {
+                channel.close();
+            }
+            catch (IOException ignored)
+            {
+            }
+        }
+    }
 
     public void shutdown()
     {
         started = false;
-        handler.stop(false);
-        if (thread != null)
+        // unblocks accept(), connect(), read() and write() of the daemon thread
+        closeChannel();
+        killProcess();
+        thread.interrupt();
+    }
+
+    public void awaitShutdown(long timeoutRef) throws InterruptedException
+    {
+        thread.join(timeoutRef);
+    }
+
+    /**
+     * One connection of the sender to the receiver, carrying one deflate stream
+     */
+    private class Connection implements Closeable
+    {
+        private final SocketChannel channel;
+        private final InputStream in;
+        private final Deflater deflater;
+        private final byte[] wireBuf = new byte[BUFFER_SIZE];
+
+        Connection(SocketChannel channelRef) throws IOException
+        {
+            channel = channelRef;
+            in = channelRef.socket().getInputStream();
+            deflater = new Deflater(compressionLevel);
+        }
+
+        void deflate(byte[] buf, int len) throws ConnectionLostException, InterruptedException
+        {
+            deflater.setInput(buf, 0, len);
+            while (!deflater.needsInput())
+            {
+                write(deflater.deflate(wireBuf));
+            }
+        }
+
+        void flush() throws ConnectionLostException, InterruptedException
         {
-            thread.interrupt();
+            int len;
+            do
+            {
+                len = deflater.deflate(wireBuf, 0, wireBuf.length, Deflater.SYNC_FLUSH);
+                write(len);
+            }
+            while (len == wireBuf.length);
+        }
+
+        /**
+         * Finishes the deflate stream and waits for the result of the receiver
+         */
+        boolean finish() throws IOException, InterruptedException
+        {
+            deflater.finish();
+            while (!deflater.finished())
+            {
+                write(deflater.deflate(wireBuf));
+            }
+            try
+            {
+                channel.shutdownOutput();
+            }
+            catch (IOException exc)
+            {
+                throw new ConnectionLostException(exc);
+            }
+            Long status = null;
+            while (status == null)
+            {
+                ByteBuffer msg = readMessage();
+                if (msg.get(0) == MSG_STATUS)
+                {
+                    status = msg.getLong(1);
+                }
+            }
+            return status == STATUS_SUCCESS;
+        }
+
+        /**
+         * Ends the connection without finishing the deflate stream and waits for the receiver to close it, so
+         * that the receiver sees the regular end of the connection instead of a reset
+         */
+        void abort()
+        {
+            try
+            {
+                channel.shutdownOutput();
+                while (in.read(wireBuf) != -1)
+                {
+                    // discard acknowledgements and the status of the receiver
+                }
+            }
+            catch (IOException ignored)
+            {
+            }
+        }
+
+        long readAck() throws IOException
+        {
+            ByteBuffer msg = readMessage();
+            if (msg.get(0) != MSG_ACK)
+            {
+                throw new IOException("Receiver aborted the snapshot shipping");
+            }
+            return msg.getLong(1);
+        }
+
+        private ByteBuffer readMessage() throws ConnectionLostException
+        {
+            byte[] msg = new byte[MSG_SIZE];
+            int off = 0;
+            try
+            {
+                while (off < MSG_SIZE)
+                {
+                    int read = in.read(msg, off, MSG_SIZE - off);
+                    if (read == -1)
+                    {
+                        throw new IOException("Receiver closed the connection");
+                    }
+                    off += read;
+                }
+            }
+            catch (IOException exc)
+            {
+                throw new ConnectionLostException(exc);
+            }
+            return ByteBuffer.wrap(msg);
+        }
+
+        private void write(int len) throws ConnectionLostException, InterruptedException
+        {
+            ByteBuffer byteBuf = ByteBuffer.wrap(wireBuf, 0, len);
+            try
+            {
+                while (byteBuf.hasRemaining())
+                {
+                    channel.write(byteBuf);
+                }
+            }
+            catch (IOException exc)
+            {
+                throw new ConnectionLostException(exc);
+            }
+            stats.addWireBytes(len);
+            throttle();
+        }
+
+        @Override
+        public void close()
+        {
+            deflater.end();
+            try
+            {
+                channel.close();
+            }
+            catch (IOException ignored)
+            {
+            }
         }
-        deque.addFirst(new PoisonEvent());
     }
 
-    public void awaitShutdown(long timeoutRef) throws InterruptedException
+    /**
+     * Ring buffer of the most recent uncompressed data, addressed by the offset within the whole stream
+     */
+    private static class ReplayBuffer
+    {
+        private final byte[] buf;
+        private long start = 0;
+        private long end = 0;
+
+        ReplayBuffer(int size)
+        {
+            buf = new byte[size];
+        }
+
+        long getStart()
+        {
+            return start;
+        }
+
+        long getEnd()
+        {
+            return end;
+        }
+
+        int getFree()
+        {
+            return buf.length - (int) (end - start);
+        }
+
+        void append(byte[] src, int len)
+        {
+            if (len > getFree())
+            {
+                throw new ImplementationError("Replay buffer overflow");
+            }
+            int copied = 0;
+            while (copied < len)
+            {
+                int pos = (int) ((end + copied) % buf.length);
+                int chunk = Math.min(len - copied, buf.length - pos);
+                System.arraycopy(src, copied, buf, pos, chunk);
+                copied += chunk;
+            }
+            end += len;
+        }
+
+        void discardUntil(long offset)
+        {
+            start = Math.max(start, Math.min(offset, end));
+        }
+
+        /**
+         * Copies the data starting at the given offset into the given array, as far as it is available
+         * contiguously
+         *
+         * @return the number of copied bytes
+         */
+        int copy(long offset, byte[] dst)
+        {
+            int pos = (int) (offset % buf.length);
+            int len = (int) Math.min(Math.min(dst.length, end - offset), buf.length - pos);
+            System.arraycopy(buf, pos, dst, 0, len);
+            return len;
+        }
+    }
+
+    /**
+     * The connection to the other satellite broke, the shipping might still be resumed
+     */
+    private static class ConnectionLostException extends IOException
     {
-        if (thread != null)
+        private static final long serialVersionUID = 3592370563154876045L;
+
+        ConnectionLostException(IOException cause)
         {
-            thread.join(timeoutRef);
+            super(cause.getMessage(), cause);
         }
     }
 }
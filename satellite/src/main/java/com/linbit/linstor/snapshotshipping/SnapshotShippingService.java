@@ -1,32 +1,36 @@
 package com.linbit.linstor.snapshotshipping;
 
-import com.linbit.ChildProcessTimeoutException;
 import com.linbit.ImplementationError;
 import com.linbit.InvalidNameException;
 import com.linbit.ServiceName;
 import com.linbit.SystemService;
 import com.linbit.SystemServiceStartException;
-import com.linbit.extproc.ExtCmd.OutputData;
-import com.linbit.extproc.ExtCmdFactory;
 import com.linbit.linstor.InternalApiConsts;
 import com.linbit.linstor.annotation.SystemContext;
 import com.linbit.linstor.api.interfaces.serializer.CtrlStltSerializer;
 import com.linbit.linstor.core.ControllerPeerConnector;
+import com.linbit.linstor.core.cfg.StltConfig;
 import com.linbit.linstor.core.objects.NetInterface;
 import com.linbit.linstor.core.objects.Snapshot;
 import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.propscon.InvalidKeyException;
 import com.linbit.linstor.security.AccessContext;
 import com.linbit.linstor.security.AccessDeniedException;
 import com.linbit.linstor.storage.StorageException;
+import com.linbit.linstor.snapshotshipping.SnapshotShippingDaemon.Direction;
 import com.linbit.linstor.storage.data.provider.AbsStorageVlmData;
+import com.linbit.utils.ExceptionThrowingSupplier;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.TreeMap;
 import java.util.function.Consumer;
 
@@ -36,29 +40,13 @@ public class SnapshotShippingService implements SystemService
     public static final ServiceName SERVICE_NAME;
     public static final String SERVICE_INFO = "SnapshotShippingService";
 
-    private static final String CMD_FORMAT_RECEIVING =
-        "trap 'kill -HUP 0' SIGTERM; " +
-        "set -o pipefail; " +
-        "(" +
-            "socat TCP-LISTEN:%s STDOUT | " +
-            "zstd -d | " +
-            // "pv -s 100m -bnr -i 0.1 | " +
-            "%s ;" +
-        ")& wait -n";
-    private static final String CMD_FORMAT_SENDING =
-        "trap 'kill -HUP 0' SIGTERM; " +
-        "(" +
-            "%s | " +
-            // "pv -s 100m -bnr -i 0.1 | " +
-            "zstd | " +
-            "socat STDIN TCP:%s:%s ;" +
-        ")&\\wait -n";
-
     private final AccessContext storDriverAccCtx;
-    private final ExtCmdFactory extCmdFactory;
     private final ErrorReporter errorReporter;
     private final ControllerPeerConnector controllerPeerConnector;
     private final CtrlStltSerializer interComSerializer;
+    private final int compressionLevel;
+    private final long bandwidthKib;
+    private final long replayBufferKib;
 
     private final Map<Snapshot, ShippingInfo> shippingInfoMap;
     private final ThreadGroup threadGroup;
@@ -81,17 +69,19 @@ public class SnapshotShippingService implements SystemService
     @Inject
     public SnapshotShippingService(
         @SystemContext AccessContext storDriverAccCtxRef,
-        ExtCmdFactory extCmdFactoryRef,
         ErrorReporter errorReporterRef,
         ControllerPeerConnector controllerPeerConnectorRef,
-        CtrlStltSerializer interComSerializerRef
+        CtrlStltSerializer interComSerializerRef,
+        StltConfig stltCfgRef
     )
     {
         storDriverAccCtx = storDriverAccCtxRef;
-        extCmdFactory = extCmdFactoryRef;
         errorReporter = errorReporterRef;
         controllerPeerConnector = controllerPeerConnectorRef;
         interComSerializer = interComSerializerRef;
+        compressionLevel = stltCfgRef.getSnapshotShippingCompressionLevel();
+        bandwidthKib = stltCfgRef.getSnapshotShippingBandwidthKib();
+        replayBufferKib = stltCfgRef.getSnapshotShippingReplayBufferKib();
 
         try
         {
@@ -134,29 +124,42 @@ public class SnapshotShippingService implements SystemService
         }
     }
 
+    /**
+     * Key of the given volume within the {@link InternalApiConsts#NAMESPC_SNAPSHOT_SHIPPING_RESUME_TOKEN} namespace
+     */
+    public static String getResumeTokenKey(AbsStorageVlmData<Snapshot> snapVlmData)
+    {
+        return snapVlmData.getVlmNr().value + snapVlmData.getRscLayerObject().getResourceNameSuffix();
+    }
+
+    /**
+     * @param resumeTokenSupplierRef
+     *     queried after a failed receive, returns the token the sender needs to resume the shipping of this volume
+     *     or null if the shipping cannot be resumed
+     */
     public void startReceiving(
         String shippingDescr,
         String snapshotShippingReceivingCommandRef,
         String port,
-        AbsStorageVlmData<Snapshot> snapVlmData
+        AbsStorageVlmData<Snapshot> snapVlmData,
+        ExceptionThrowingSupplier<String, StorageException> resumeTokenSupplierRef
     )
         throws StorageException
     {
         startDaemon(
+            Direction.RECEIVE,
             snapshotShippingReceivingCommandRef,
-            new String[]
-            {
-                "setsid", "-w",
-                "bash", "-c",
-                String.format(CMD_FORMAT_RECEIVING, port, snapshotShippingReceivingCommandRef)
-            },
+            new InetSocketAddress(Integer.parseInt(port)),
             shippingDescr,
+            0, // only the sender throttles
             success -> postShipping(
                 success,
                 snapVlmData,
                 InternalApiConsts.API_NOTIFY_SNAPSHOT_SHIPPING_RECEIVED,
                 true
-            ), snapVlmData
+            ),
+            snapVlmData,
+            resumeTokenSupplierRef
         );
     }
 
@@ -164,65 +167,117 @@ public class SnapshotShippingService implements SystemService
         String shippingDescr,
         String snapshotShippingSendingCommandRef,
         NetInterface targetNetIfRef,
-        String socatPortRef,
+        String portRef,
         AbsStorageVlmData<Snapshot> snapVlmData
     )
         throws AccessDeniedException, StorageException
     {
         startDaemon(
+            Direction.SEND,
             snapshotShippingSendingCommandRef,
-            new String[]
-            {
-                "setsid", "-w",
-                "bash", "-c",
-                String.format(
-                    CMD_FORMAT_SENDING,
-                    snapshotShippingSendingCommandRef,
-                    targetNetIfRef.getAddress(storDriverAccCtx).getAddress(),
-                    socatPortRef
-                )
-            },
+            new InetSocketAddress(
+                targetNetIfRef.getAddress(storDriverAccCtx).getAddress(),
+                Integer.parseInt(portRef)
+            ),
             shippingDescr,
+            getSendBandwidthKib(snapVlmData),
             success -> postShipping(
                 success,
                 snapVlmData,
                 null,
                 false
             ),
-            snapVlmData
+            snapVlmData,
+            () -> null
         );
     }
 
+    /**
+     * @return the statistics of all shipments that are currently registered, running or not yet started
+     */
+    public List<SnapshotShippingStats> getShippingStats()
+    {
+        List<SnapshotShippingStats> ret = new ArrayList<>();
+        synchronized (shippingInfoMap)
+        {
+            for (ShippingInfo info : shippingInfoMap.values())
+            {
+                for (SnapVlmDataInfo snapVlmDataInfo : info.snapVlmDataInfoMap.values())
+                {
+                    ret.add(snapVlmDataInfo.daemon.getStats());
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * The bandwidth budget the controller assigned to the whole snapshot is split among its volumes, as they are
+     * shipped in parallel. A locally configured limit still applies if it is lower.
+     */
+    private long getSendBandwidthKib(AbsStorageVlmData<Snapshot> snapVlmData) throws AccessDeniedException
+    {
+        long ret = bandwidthKib;
+        Snapshot snap = snapVlmData.getRscLayerObject().getAbsResource();
+        String budgetStr;
+        try
+        {
+            budgetStr = snap.getSnapshotDefinition().getProps(storDriverAccCtx)
+                .getProp(InternalApiConsts.KEY_SNAPSHOT_SHIPPING_BANDWIDTH_KIB);
+        }
+        catch (InvalidKeyException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+        if (budgetStr != null)
+        {
+            int vlmCount = Math.max(1, snapVlmData.getRscLayerObject().getVlmLayerObjects().size());
+            long budget = Math.max(1, Long.parseLong(budgetStr) / vlmCount);
+            ret = ret > 0 ? Math.min(ret, budget) : budget;
+        }
+        return ret;
+    }
+
     private void startDaemon(
+        Direction direction,
         String sendRecvCommand,
-        String[] fullCommand,
+        InetSocketAddress address,
         String shippingDescr,
+        long bandwidthKibRef,
         Consumer<Boolean> postAction,
-        AbsStorageVlmData<Snapshot> snapVlmData
+        AbsStorageVlmData<Snapshot> snapVlmData,
+        ExceptionThrowingSupplier<String, StorageException> resumeTokenSupplier
     )
         throws StorageException
     {
         if (serviceStarted)
         {
+            Snapshot snap = snapVlmData.getRscLayerObject().getAbsResource();
+            shutdownPreviousAttempt(snap);
             if (!alreadyStarted(snapVlmData))
             {
-                killIfRunning(sendRecvCommand);
+                shutdownIfRunning(sendRecvCommand);
 
                 SnapshotShippingDaemon daemon = new SnapshotShippingDaemon(
                     errorReporter,
                     threadGroup,
                     "shipping_" + shippingDescr,
-                    fullCommand,
+                    direction,
+                    sendRecvCommand,
+                    address,
+                    compressionLevel,
+                    bandwidthKibRef,
+                    replayBufferKib,
+                    new SnapshotShippingStats(shippingDescr, snapVlmData.getUsableSize() * 1024),
                     postAction
                 );
-                Snapshot snap = snapVlmData.getRscLayerObject().getAbsResource();
                 ShippingInfo info = shippingInfoMap.get(snap);
                 if (info == null)
                 {
-                    info = new ShippingInfo();
+                    info = new ShippingInfo(getResumeAttempt(snap));
                     shippingInfoMap.put(snap, info);
                 }
-                info.snapVlmDataInfoMap.put(snapVlmData, new SnapVlmDataInfo(daemon));
+                info.snapVlmDataInfoMap.put(snapVlmData, new SnapVlmDataInfo(daemon, resumeTokenSupplier));
             }
         }
         else
@@ -243,9 +298,7 @@ public class SnapshotShippingService implements SystemService
         {
             ShippingInfo shippingInfo = shippingInfoMap.get(snap);
             /*
-             * shippingInfo might be already null as we delete it at the end of this method.
-             * this postShipping will be called twice, from stdErr and from stdOut proxy
-             * thread.
+             * shippingInfo might be already null if the shipping was aborted or killed in the meantime
              */
             if (shippingInfo != null)
             {
@@ -254,13 +307,23 @@ public class SnapshotShippingService implements SystemService
                 {
                     shippingInfo.snapVlmDataFinishedSuccessfully++;
                 }
+                SnapVlmDataInfo snapVlmDataInfo = shippingInfo.snapVlmDataInfoMap.get(snapVlmData);
+                if (snapVlmDataInfo != null)
+                {
+                    snapVlmDataInfo.success = successRef;
+                }
                 if (shippingInfo.snapVlmDataFinishedShipping == shippingInfo.snapVlmDataInfoMap.size())
                 {
                     if (updateCtrlRef)
                     {
                         boolean success = shippingInfo.snapVlmDataFinishedSuccessfully == shippingInfo.snapVlmDataFinishedShipping;
+                        Map<String, String> resumeTokens = success ?
+                            Collections.emptyMap() :
+                            getResumeTokens(shippingInfo);
                         controllerPeerConnector.getControllerPeer().sendMessage(
-                            interComSerializer.onewayBuilder(internalApiName).notifySnapshotShipped(snap, success).build()
+                            interComSerializer.onewayBuilder(internalApiName)
+                                .notifySnapshotShipped(snap, success, resumeTokens)
+                                .build()
                         );
                     }
                     shippingInfoMap.remove(snap);
@@ -269,6 +332,74 @@ public class SnapshotShippingService implements SystemService
         }
     }
 
+    /**
+     * The shipping can only be resumed if every failed volume can be resumed, otherwise the controller has to
+     * start over anyways.
+     *
+     * @return the resume tokens of all failed volumes, or an empty map if the shipping cannot be resumed
+     */
+    private Map<String, String> getResumeTokens(ShippingInfo shippingInfo)
+    {
+        Map<String, String> ret = new TreeMap<>();
+        for (Map.Entry<AbsStorageVlmData<Snapshot>, SnapVlmDataInfo> entry : shippingInfo.snapVlmDataInfoMap.entrySet())
+        {
+            SnapVlmDataInfo snapVlmDataInfo = entry.getValue();
+            if (!snapVlmDataInfo.success)
+            {
+                String token = null;
+                try
+                {
+                    token = snapVlmDataInfo.resumeTokenSupplier.supply();
+                }
+                catch (StorageException exc)
+                {
+                    errorReporter.reportError(exc);
+                }
+                if (token == null)
+                {
+                    ret.clear();
+                    break;
+                }
+                ret.put(getResumeTokenKey(entry.getKey()), token);
+            }
+        }
+        return ret;
+    }
+
+    private String getResumeAttempt(Snapshot snap)
+    {
+        try
+        {
+            return snap.getSnapshotDefinition().getProps(storDriverAccCtx)
+                .getProp(InternalApiConsts.KEY_SNAPSHOT_SHIPPING_RESUME_ATTEMPT);
+        }
+        catch (AccessDeniedException | InvalidKeyException exc)
+        {
+            throw new ImplementationError(exc);
+        }
+    }
+
+    /**
+     * When the controller resumes a failed shipping, daemons of the previous attempt might still be running, i.e. a
+     * sender that is still trying to reconnect. They have to make room for the daemons of the new attempt.
+     */
+    private void shutdownPreviousAttempt(Snapshot snap)
+    {
+        synchronized (snap)
+        {
+            ShippingInfo info = shippingInfoMap.get(snap);
+            if (info != null && !Objects.equals(info.resumeAttempt, getResumeAttempt(snap)))
+            {
+                errorReporter.logDebug("Shutting down previous shipping attempt of snapshot %s", snap);
+                shippingInfoMap.remove(snap);
+                for (SnapVlmDataInfo snapVlmDataInfo : info.snapVlmDataInfoMap.values())
+                {
+                    snapVlmDataInfo.daemon.shutdown();
+                }
+            }
+        }
+    }
+
     public void allSnapshotPartsRegistered(Snapshot snap)
     {
         synchronized (snap)
@@ -297,32 +428,33 @@ public class SnapshotShippingService implements SystemService
         return shippingInfo != null && shippingInfo.snapVlmDataInfoMap.containsKey(snapVlmDataRef);
     }
 
-    private void killIfRunning(String cmdToKill) throws StorageException
+    /**
+     * Shuts down a daemon of a previous shipping attempt that is still running the same command.
+     *
+     * Send and receive commands are only ever started by these daemons and are connected to this process by
+     * pipes only, so commands left over by a previous satellite process terminate on their own as soon as
+     * their pipes break. That is why there is no need to look for them in the process list.
+     */
+    private void shutdownIfRunning(String sendRecvCommand)
     {
-        try
+        List<SnapshotShippingDaemon> staleDaemons = new ArrayList<>();
+        synchronized (shippingInfoMap)
         {
-            OutputData outputData = extCmdFactory.create().exec(
-                "bash",
-                "-c",
-                "ps ax -o pid,command | grep -E '" + cmdToKill + "' | grep -v grep"
-            );
-            if (outputData.exitCode == 0) // != 0 means grep didnt find anything
+            for (ShippingInfo info : shippingInfoMap.values())
             {
-                String out = new String(outputData.stdoutData);
-                String[] lines = out.split("\n");
-                for (String line : lines)
+                for (SnapVlmDataInfo snapVlmDataInfo : info.snapVlmDataInfoMap.values())
                 {
-                    line = line.trim(); // ps prints a trailing space
-                    String pid = line.substring(0, line.indexOf(" "));
-                    extCmdFactory.create().exec("pkill", "-9", "--parent", pid);
-                    // extCmdFactory.create().exec("kill", pid);
+                    if (snapVlmDataInfo.daemon.getCommand().equals(sendRecvCommand))
+                    {
+                        staleDaemons.add(snapVlmDataInfo.daemon);
+                    }
                 }
-                Thread.sleep(500); // wait a bit so not just the process is killed but also the socket is closed
             }
         }
-        catch (ChildProcessTimeoutException | IOException | InterruptedException exc)
+        for (SnapshotShippingDaemon daemon : staleDaemons)
         {
-            throw new StorageException("Failed to determine if command is still running: " + cmdToKill, exc);
+            errorReporter.logDebug("Shutting down stale snapshot shipping: %s", sendRecvCommand);
+            daemon.shutdown();
         }
     }
 
@@ -395,20 +527,32 @@ public class SnapshotShippingService implements SystemService
 
     private static class ShippingInfo
     {
+        private final String resumeAttempt;
         private boolean isStarted = false;
         private Map<AbsStorageVlmData<Snapshot>, SnapVlmDataInfo> snapVlmDataInfoMap = new HashMap<>();
 
         private int snapVlmDataFinishedShipping = 0;
         private int snapVlmDataFinishedSuccessfully = 0;
+
+        private ShippingInfo(String resumeAttemptRef)
+        {
+            resumeAttempt = resumeAttemptRef;
+        }
     }
 
     private static class SnapVlmDataInfo
     {
         private SnapshotShippingDaemon daemon;
+        private ExceptionThrowingSupplier<String, StorageException> resumeTokenSupplier;
+        private boolean success = false;
 
-        private SnapVlmDataInfo(SnapshotShippingDaemon daemonRef)
+        private SnapVlmDataInfo(
+            SnapshotShippingDaemon daemonRef,
+            ExceptionThrowingSupplier<String, StorageException> resumeTokenSupplierRef
+        )
         {
             daemon = daemonRef;
+            resumeTokenSupplier = resumeTokenSupplierRef;
         }
     }
 }
@@ -0,0 +1,135 @@
+package com.linbit.linstor.snapshotshipping;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte counters and derived rate / ETA of a single snapshot shipment (one volume, one direction)
+ */
+public class SnapshotShippingStats
+{
+    private static final long UNKNOWN = -1;
+
+    private final String shippingDescr;
+    private final long expectedBytes;
+
+    /** bytes read from the send command or written to the receive command */
+    private final AtomicLong rawBytes = new AtomicLong();
+    /** compressed bytes sent or received over the network */
+    private final AtomicLong wireBytes = new AtomicLong();
+
+    private volatile long startNanos = UNKNOWN;
+    private volatile long endNanos = UNKNOWN;
+
+    /**
+     * @param expectedBytesRef
+     *     the size of the volume. As only the allocated (or changed) blocks are shipped, this is an upper bound
+     *     and the ETA derived from it is pessimistic. 0 if unknown.
+     */
+    public SnapshotShippingStats(String shippingDescrRef, long expectedBytesRef)
+    {
+        shippingDescr = shippingDescrRef;
+        expectedBytes = expectedBytesRef;
+    }
+
+    void started()
+    {
+        startNanos = System.nanoTime();
+    }
+
+    void finished()
+    {
+        endNanos = System.nanoTime();
+    }
+
+    void addRawBytes(long bytes)
+    {
+        rawBytes.addAndGet(bytes);
+    }
+
+    void addWireBytes(long bytes)
+    {
+        wireBytes.addAndGet(bytes);
+    }
+
+    public String getShippingDescr()
+    {
+        return shippingDescr;
+    }
+
+    public long getExpectedBytes()
+    {
+        return expectedBytes;
+    }
+
+    public long getRawBytes()
+    {
+        return rawBytes.get();
+    }
+
+    public long getWireBytes()
+    {
+        return wireBytes.get();
+    }
+
+    public boolean isFinished()
+    {
+        return endNanos != UNKNOWN;
+    }
+
+    public long getElapsedMillis()
+    {
+        long elapsed = 0;
+        long start = startNanos;
+        if (start != UNKNOWN)
+        {
+            long end = endNanos;
+            elapsed = TimeUnit.NANOSECONDS.toMillis((end == UNKNOWN ? System.nanoTime() : end) - start);
+        }
+        return elapsed;
+    }
+
+    /**
+     * @return the average rate of the uncompressed data since the start of the shipment
+     */
+    public long getBytesPerSecond()
+    {
+        long elapsedMillis = getElapsedMillis();
+        return elapsedMillis == 0 ? 0 : rawBytes.get() * 1000 / elapsedMillis;
+    }
+
+    /**
+     * @return the estimated remaining time in milliseconds, or -1 if it cannot be estimated (yet)
+     */
+    public long getEtaMillis()
+    {
+        long eta = UNKNOWN;
+        long rate = getBytesPerSecond();
+        if (isFinished())
+        {
+            eta = 0;
+        }
+        else
+        if (expectedBytes > 0 && rate > 0)
+        {
+            eta = Math.max(0, expectedBytes - rawBytes.get()) * 1000 / rate;
+        }
+        return eta;
+    }
+
+    @Override
+    public String toString()
+    {
+        long eta = getEtaMillis();
+        return String.format(
+            "%s: %d of %d KiB (%d KiB on the wire) in %ds, %d KiB/s, ETA %s",
+            shippingDescr,
+            rawBytes.get() / 1024,
+            expectedBytes / 1024,
+            wireBytes.get() / 1024,
+            getElapsedMillis() / 1000,
+            getBytesPerSecond() / 1024,
+            eta == UNKNOWN ? "unknown" : (eta / 1000) + "s"
+        );
+    }
+}
@@ -23,6 +23,7 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchEvent.Kind;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -32,6 +33,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -391,6 +393,66 @@ public class FileSystemWatch implements Runnable, SystemService
         }
     }
 
+    /**
+     * Registers a new auto-removed entry for the specified file and event and returns a future that
+     * is completed with the entry once the event occurred.
+     *
+     * Cancelling the returned future (i.e. after a timeout) removes the entry from this FileSystemWatch
+     * instance.
+     *
+     * @param filePath Path to the file that should be watched. This should be an absolute path.
+     * @param event The event to watch for
+     * @return Future that is completed when the event occurred
+     * @throws IOException If a file system related errors occur
+     *
+     * @see #addFileEntry(FileEntry)
+     */
+    public CompletableFuture<FileEntry> newFileEntryFuture(String filePath, Event event) throws IOException
+    {
+        return newFileEntryFutures(Collections.singletonList(filePath), event).get(0);
+    }
+
+    /**
+     * Registers new auto-removed entries for all specified files in a transaction-safe way and
+     * returns one future per file, in the same order as the given paths.
+     *
+     * This allows waiting for a whole batch of files, i.e. device nodes, at once instead of one after another.
+     * The futures are completed by the thread that detected the event, like the callbacks of other
+     * observers, so dependent actions that may block should be run asynchronously.
+     *
+     * @param filePaths Paths to the files that should be watched. These should be absolute paths.
+     * @param event The event to watch for
+     * @return Futures that are completed when the event occurred on the corresponding file
+     * @throws IOException If a file system related errors occur
+     *
+     * @see #addFileEntryList(List)
+     * @see #newFileEntryFuture(String, Event)
+     */
+    public List<CompletableFuture<FileEntry>> newFileEntryFutures(Collection<String> filePaths, Event event)
+        throws IOException
+    {
+        List<CompletableFuture<FileEntry>> futures = new ArrayList<>(filePaths.size());
+        List<FileEntry> entries = new ArrayList<>(filePaths.size());
+        for (String filePath : filePaths)
+        {
+            CompletableFuture<FileEntry> future = new CompletableFuture<>();
+            FileEntry entry = new FileEntry(fileSys.getPath(filePath), event, future::complete, true);
+            future.whenComplete(
+                (ignored, exc) ->
+                {
+                    if (exc != null)
+                    {
+                        removeFileEntry(entry);
+                    }
+                }
+            );
+            futures.add(future);
+            entries.add(entry);
+        }
+        addFileEntryList(entries);
+        return futures;
+    }
+
     /**
      * Adds all listed entries to this FileSystemWatch's instance
      * in a transaction-safe way
@@ -417,7 +479,7 @@ public class FileSystemWatch implements Runnable, SystemService
                 // Add all file entries
                 for (FileEntry entry : entryList)
                 {
-                    addFileEntry(entry);
+                    addFileEntryImpl(entry);
                 }
                 // Check whether files have already been created or deleted
                 for (FileEntry entry : entryList)
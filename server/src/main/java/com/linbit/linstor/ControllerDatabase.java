@@ -33,4 +33,13 @@ public interface ControllerDatabase extends SystemService
      * Throws a DatabaseException if the database cannot be reached
      */
     void checkHealth() throws DatabaseException;
+
+    /**
+     * Writes a checkpoint of the database that speeds up the next start of the controller, if the database
+     * supports checkpoints and they are enabled
+     */
+    default void writeCheckpoint() throws DatabaseException
+    {
+        // no-op
+    }
 }
@@ -1,8 +1,25 @@
 package com.linbit.linstor;
 
+import com.linbit.linstor.transaction.EtcdCheckpoint;
+
 import com.ibm.etcd.client.kv.KvClient;
 
 public interface ControllerETCDDatabase extends ControllerDatabase
 {
     KvClient getKvClient();
+
+    /**
+     * Loads the configured checkpoint if it is still up to date. Until {@link #dropCheckpoint()} is called,
+     * reads of the entries contained in the checkpoint are answered from it instead of the ETCD server.
+     *
+     * @return true if the checkpoint was loaded
+     */
+    boolean loadCheckpoint();
+
+    /**
+     * Returns the checkpoint loaded by {@link #loadCheckpoint()}, or null
+     */
+    EtcdCheckpoint getLoadedCheckpoint();
+
+    void dropCheckpoint();
 }
@@ -96,6 +96,10 @@ public class InternalApiConsts
     public static final String KEY_SNAPSHOT_SHIPPING_SOURCE_NODE = "Shipping/Source";
     public static final String KEY_SNAPSHOT_SHIPPING_PORT = "Shipping/Port";
     public static final String KEY_SNAPSHOT_SHIPPING_PREF_TARGET_NIC = "Shipping/PrefTargetNic";
+    public static final String KEY_SNAPSHOT_SHIPPING_BANDWIDTH_KIB = "Shipping/BandwidthKib";
+    public static final String KEY_SNAPSHOT_SHIPPING_RESUME_ATTEMPT = "Shipping/ResumeAttempt";
+    public static final String NAMESPC_SNAPSHOT_SHIPPING_RESUME_TOKEN = "Shipping/ResumeToken";
+    public static final String NAMESPC_SNAPSHOT_SHIPPING_QUEUED = "Shipping/Queued";
     public static final String KEY_SNAPSHOT_SHIPPING_NEXT_ID = "SnapshotShippingNextId";
 
     // Normal module shutdown, no error
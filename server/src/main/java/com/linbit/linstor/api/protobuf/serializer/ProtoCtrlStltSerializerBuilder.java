@@ -574,7 +574,11 @@ public class ProtoCtrlStltSerializerBuilder extends ProtoCommonSerializerBuilder
     }
 
     @Override
-    public CtrlStltSerializerBuilder notifySnapshotShipped(Snapshot snapRef, boolean success)
+    public CtrlStltSerializerBuilder notifySnapshotShipped(
+        Snapshot snapRef,
+        boolean success,
+        Map<String, String> resumeTokens
+    )
     {
         try
         {
@@ -582,6 +586,7 @@ public class ProtoCtrlStltSerializerBuilder extends ProtoCommonSerializerBuilder
                 .setRscName(snapRef.getResourceName().displayValue)
                 .setSnapName(snapRef.getSnapshotName().displayValue)
                 .setSuccess(success)
+                .putAllResumeTokens(resumeTokens)
                 .build()
                 .writeDelimitedTo(baos);
         }
@@ -122,7 +122,8 @@ public class ScopeRunner
         errorLog.logTrace(
             "%s%s '%s' scope '%s' start", peerDescription, apiCallDescription, apiCallName, scopeDescription);
 
-        TransactionMgr transMgr = transactional ? transactionMgrGenerator.startTransaction() : null;
+        // cheap, the transaction manager only takes a database connection once it is actually used
+        TransactionMgr transMgr = transactional ? transactionMgrGenerator.startTransaction(apiCallName) : null;
 
         apiCallScope.enter();
         lockGuard.lock();
@@ -15,6 +15,17 @@ public class StltConfig extends LinstorConfig
     private boolean openflex;
 
     private Pattern drbdKeepResPattern;
+    private Long drbdEventsCoalesceWindowMs;
+
+    private String wipeStrategy;
+    private Integer wipeWorkers;
+    private Long wipeBandwidthKib;
+
+    private String spdkRpcAddress;
+
+    private Long snapshotShippingBandwidthKib;
+    private Integer snapshotShippingCompressionLevel;
+    private Long snapshotShippingReplayBufferKib;
 
     private String netBindAddress;
     private Integer netPort;
@@ -46,6 +57,16 @@ public class StltConfig extends LinstorConfig
 
         setOpenflex(false);
 
+        setDrbdEventsCoalesceWindowMs(100L);
+
+        setWipeStrategy("metadata");
+        setWipeWorkers(2);
+        setWipeBandwidthKib(0L);
+
+        setSnapshotShippingBandwidthKib(0L);
+        setSnapshotShippingCompressionLevel(1);
+        setSnapshotShippingReplayBufferKib(16384L);
+
         setNetBindAddress("::0");
         setNetPort(3366);
         setNetType("plain");
@@ -115,6 +136,110 @@ public class StltConfig extends LinstorConfig
         }
     }
 
+    public Long getDrbdEventsCoalesceWindowMs()
+    {
+        return drbdEventsCoalesceWindowMs;
+    }
+
+    public void setDrbdEventsCoalesceWindowMs(Long drbdEventsCoalesceWindowMsRef)
+    {
+        if (drbdEventsCoalesceWindowMsRef != null)
+        {
+            drbdEventsCoalesceWindowMs = drbdEventsCoalesceWindowMsRef;
+        }
+    }
+
+    public String getWipeStrategy()
+    {
+        return wipeStrategy;
+    }
+
+    public void setWipeStrategy(String wipeStrategyRef)
+    {
+        if (wipeStrategyRef != null)
+        {
+            wipeStrategy = wipeStrategyRef;
+        }
+    }
+
+    public Integer getWipeWorkers()
+    {
+        return wipeWorkers;
+    }
+
+    public void setWipeWorkers(Integer wipeWorkersRef)
+    {
+        if (wipeWorkersRef != null)
+        {
+            wipeWorkers = wipeWorkersRef;
+        }
+    }
+
+    public Long getWipeBandwidthKib()
+    {
+        return wipeBandwidthKib;
+    }
+
+    public void setWipeBandwidthKib(Long wipeBandwidthKibRef)
+    {
+        if (wipeBandwidthKibRef != null)
+        {
+            wipeBandwidthKib = wipeBandwidthKibRef;
+        }
+    }
+
+    public String getSpdkRpcAddress()
+    {
+        return spdkRpcAddress;
+    }
+
+    public void setSpdkRpcAddress(String spdkRpcAddressRef)
+    {
+        if (spdkRpcAddressRef != null)
+        {
+            spdkRpcAddress = spdkRpcAddressRef;
+        }
+    }
+
+    public Long getSnapshotShippingBandwidthKib()
+    {
+        return snapshotShippingBandwidthKib;
+    }
+
+    public void setSnapshotShippingBandwidthKib(Long snapshotShippingBandwidthKibRef)
+    {
+        if (snapshotShippingBandwidthKibRef != null)
+        {
+            snapshotShippingBandwidthKib = snapshotShippingBandwidthKibRef;
+        }
+    }
+
+    public Integer getSnapshotShippingCompressionLevel()
+    {
+        return snapshotShippingCompressionLevel;
+    }
+
+    public void setSnapshotShippingCompressionLevel(Integer snapshotShippingCompressionLevelRef)
+    {
+        if (snapshotShippingCompressionLevelRef != null)
+        {
+            snapshotShippingCompressionLevel = snapshotShippingCompressionLevelRef;
+        }
+    }
+
+    public Long getSnapshotShippingReplayBufferKib()
+    {
+        return snapshotShippingReplayBufferKib;
+    }
+
+    public void setSnapshotShippingReplayBufferKib(Long snapshotShippingReplayBufferKibRef)
+    {
+        if (snapshotShippingReplayBufferKibRef != null)
+        {
+            snapshotShippingReplayBufferKib = snapshotShippingReplayBufferKibRef;
+        }
+    }
+
     public String getNetBindAddress()
     {
         return netBindAddress;
@@ -43,12 +43,68 @@ public class StltTomlConfig
         }
     }
 
+    public static class Drbd
+    {
+        private Long events_coalesce_window_ms;
+
+        public void applyTo(StltConfig cfg)
+        {
+            cfg.setDrbdEventsCoalesceWindowMs(events_coalesce_window_ms);
+        }
+    }
+
+    public static class Wipe
+    {
+        private String strategy;
+        private Integer workers;
+        private Long bandwidth_kib;
+
+        public void applyTo(StltConfig cfg)
+        {
+            cfg.setWipeStrategy(strategy);
+            cfg.setWipeWorkers(workers);
+            cfg.setWipeBandwidthKib(bandwidth_kib);
+        }
+    }
+
+    public static class Spdk
+    {
+        private String rpc_address;
+
+        public void applyTo(StltConfig cfg)
+        {
+            cfg.setSpdkRpcAddress(rpc_address);
+        }
+    }
+
+    public static class SnapshotShipping
+    {
+        private Long bandwidth_kib;
+        private Integer compression_level;
+        private Long replay_buffer_kib;
+
+        public void applyTo(StltConfig cfg)
+        {
+            cfg.setSnapshotShippingBandwidthKib(bandwidth_kib);
+            cfg.setSnapshotShippingCompressionLevel(compression_level);
+            cfg.setSnapshotShippingReplayBufferKib(replay_buffer_kib);
+        }
+    }
+
     private NETCOM netcom = new NETCOM();
     private Logging logging = new Logging();
+    private Drbd drbd = new Drbd();
+    private Wipe wipe = new Wipe();
+    private Spdk spdk = new Spdk();
+    private SnapshotShipping snapshot_shipping = new SnapshotShipping();
 
     public void applyTo(StltConfig cfg)
     {
         netcom.applyTo(cfg);
         logging.applyTo(cfg);
+        drbd.applyTo(cfg);
+        wipe.applyTo(cfg);
+        spdk.applyTo(cfg);
+        snapshot_shipping.applyTo(cfg);
     }
 }
@@ -20,6 +20,21 @@ public interface PropsConDatabaseDriver
      */
     Map<String, String> loadAll(String instanceName) throws DatabaseException;
 
+    /**
+     * Loads the properties of all instances in one pass. Until {@link #clearPreloaded()} is called,
+     * {@link #loadAll(String)} answers from the preloaded properties instead of querying the database.
+     *
+     * Only meant for loading all objects at once, any modification drops the preloaded properties.
+     *
+     * @throws DatabaseException
+     */
+    void preloadAll() throws DatabaseException;
+
+    /**
+     * Drops the properties loaded by {@link #preloadAll()}
+     */
+    void clearPreloaded();
+
     /**
      * Performs an insert or update for the given key/value pair
      *
@@ -0,0 +1,116 @@
+package com.linbit.linstor.debug;
+
+import com.linbit.linstor.security.AccessContext;
+import com.linbit.linstor.transaction.TransactionStats;
+import com.linbit.linstor.transaction.TransactionStatsCollector;
+
+import javax.inject.Inject;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+public class CmdDisplayTransactions extends BaseDebugCmd
+{
+    private static final String PRM_COUNT = "COUNT";
+    private static final int DFLT_COUNT = 20;
+
+    private static final String TX_FORMAT_HEADER = "%-23s %-8s %8s %8s %8s %10s  %s\n";
+    private static final String TX_FORMAT = "%-23s %-8s %8d %8d %8d %10.3f  %s\n";
+
+    private static final Map<String, String> PARAMETER_DESCRIPTIONS = new TreeMap<>();
+
+    static
+    {
+        PARAMETER_DESCRIPTIONS.put(
+            PRM_COUNT,
+            "Number of transactions to display, default " + DFLT_COUNT
+        );
+    }
+
+    private final TransactionStatsCollector transactionStatsCollector;
+
+    @Inject
+    public CmdDisplayTransactions(TransactionStatsCollector transactionStatsCollectorRef)
+    {
+        super(
+            new String[]
+            {
+                "DspTx"
+            },
+            "Display transactions",
+            "Displays the largest of the last " + TransactionStatsCollector.RECENT_TRANSACTIONS +
+            " committed or rolled back transactions",
+            PARAMETER_DESCRIPTIONS,
+            null
+        );
+
+        transactionStatsCollector = transactionStatsCollectorRef;
+    }
+
+    @Override
+    public void execute(
+        PrintStream debugOut,
+        PrintStream debugErr,
+        AccessContext accCtx,
+        Map<String, String> parameters
+    )
+        throws Exception
+    {
+        int count = DFLT_COUNT;
+        String prmCount = parameters.get(PRM_COUNT);
+        boolean validCount = true;
+        if (prmCount != null)
+        {
+            try
+            {
+                count = Integer.parseInt(prmCount);
+                validCount = count > 0;
+            }
+            catch (NumberFormatException nfExc)
+            {
+                validCount = false;
+            }
+        }
+
+        if (validCount)
+        {
+            List<TransactionStats> largest = transactionStatsCollector.getLargestRecent(count);
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+            debugOut.printf(
+                TX_FORMAT_HEADER,
+                "Time", "Result", "RegObj", "DirtyObj", "DbWrites", "Time (ms)", "API call"
+            );
+            printSectionSeparator(debugOut);
+            for (TransactionStats stats : largest)
+            {
+                debugOut.printf(
+                    TX_FORMAT,
+                    dateFormat.format(new Date(stats.getTimestamp())),
+                    stats.isCommitted() ? "commit" : "rollback",
+                    stats.getRegisteredObjects(),
+                    stats.getDirtyObjects(),
+                    stats.getDbWrites(),
+                    stats.getDurationNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1),
+                    stats.getName()
+                );
+            }
+            printSectionSeparator(debugOut);
+        }
+        else
+        {
+            printError(
+                debugErr,
+                "The value for the parameter " + PRM_COUNT + " is not valid.",
+                String.format("The value '%s' is not a positive number.", prmCount),
+                "Reenter the command using a positive numeric value.",
+                null
+            );
+        }
+    }
+}
@@ -28,6 +28,7 @@ public class DebugModule extends AbstractModule
         commandsBinder.addBinding().to(CmdDisplayResourceDfn.class);
         commandsBinder.addBinding().to(CmdDisplayResource.class);
         commandsBinder.addBinding().to(CmdDisplayLockStatus.class);
+        commandsBinder.addBinding().to(CmdDisplayTransactions.class);
         commandsBinder.addBinding().to(CmdDisplayTraceMode.class);
         commandsBinder.addBinding().to(CmdSetTraceMode.class);
         commandsBinder.addBinding().to(CmdDisplaySecLevel.class);
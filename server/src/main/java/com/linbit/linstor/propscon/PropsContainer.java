@@ -243,24 +243,9 @@ public class PropsContainer extends AbsTransactionObject implements Props
     public String setProp(String key, String value, String namespace)
             throws InvalidKeyException, InvalidValueException, DatabaseException
     {
-        if (value == null)
-        {
-            throw new InvalidValueException(key, value, "Value must not be null");
-        }
-
-        String[] pathElements = splitPath(namespace, key);
-        String actualKey = pathElements[PATH_KEY];
-        checkKey(actualKey);
-        PropsContainer con = ensureNamespaceExists(pathElements[PATH_NAMESPACE]);
-        String oldValue = con.propMap.put(actualKey, value);
-        if (oldValue == null)
-        {
-            con.modifySize(1);
-        }
-        if (!value.equals(oldValue))
-        {
-            dbPersist(con.getPath() + actualKey, value, oldValue);
-        }
+        Map<String, String> changedProps = new TreeMap<>();
+        String oldValue = setPropImpl(key, value, namespace, changedProps);
+        dbPersist(changedProps);
         return oldValue;
     }
 
@@ -274,13 +259,15 @@ public class PropsContainer extends AbsTransactionObject implements Props
             throws InvalidKeyException, InvalidValueException, DatabaseException
     {
         boolean modified = false;
+        // full key -> value, written to the database in one batch
+        Map<String, String> changedProps = new TreeMap<>();
         for (Map.Entry<? extends String, ? extends String> entry : entryMap.entrySet())
         {
-            String key = entry.getKey();
             String value = entry.getValue();
             try
             {
-                if (!value.equalsIgnoreCase(setProp(key, value, namespace)))
+                String oldValue = setPropImpl(entry.getKey(), value, namespace, changedProps);
+                if (!value.equalsIgnoreCase(oldValue))
                 {
                     modified = true;
                 }
@@ -291,9 +278,43 @@ public class PropsContainer extends AbsTransactionObject implements Props
                 throw exc;
             }
         }
+        dbPersist(changedProps);
         return modified;
     }
 
+    /**
+     * Sets the given property without writing it to the database. If the value changed, the old value is cached
+     * for a rollback and the property is added to {@param changedProps}, which the caller has to persist.
+     *
+     * @return The old value or null if no entry was present
+     */
+    private String setPropImpl(String key, String value, String namespace, Map<String, String> changedProps)
+        throws InvalidKeyException, InvalidValueException, DatabaseException
+    {
+        if (value == null)
+        {
+            throw new InvalidValueException(key, value, "Value must not be null");
+        }
+
+        String[] pathElements = splitPath(namespace, key);
+        String actualKey = pathElements[PATH_KEY];
+        checkKey(actualKey);
+        PropsContainer con = ensureNamespaceExists(pathElements[PATH_NAMESPACE]);
+        String oldValue = con.propMap.put(actualKey, value);
+        if (oldValue == null)
+        {
+            con.modifySize(1);
+        }
+        if (!value.equals(oldValue))
+        {
+            String fullKey = con.getPath() + actualKey;
+            rootContainer.activateTransMgr();
+            cache(fullKey, oldValue);
+            changedProps.put(fullKey, value);
+        }
+        return oldValue;
+    }
+
     /**
      * Removes the specified property.
      *
@@ -308,27 +329,15 @@ public class PropsContainer extends AbsTransactionObject implements Props
     public String removeProp(String key, String namespace) throws DatabaseException
     {
         String value = null;
+        Set<String> removedKeys = new TreeSet<>();
         try
         {
-            String[] pathElements = splitPath(namespace, key);
-            String actualKey = pathElements[PATH_KEY];
-            checkKey(actualKey);
-            PropsContainer con = findNamespace(pathElements[PATH_NAMESPACE]).orElse(null);
-            if (con != null)
-            {
-                value = con.propMap.remove(actualKey);
-
-                if (value != null)
-                {
-                    con.modifySize(-1);
-                    con.removeCleanup();
-                    dbRemove(con.getPath() + actualKey, value);
-                }
-            }
+            value = removePropImpl(key, namespace, removedKeys);
         }
         catch (InvalidKeyException ignored)
         {
         }
+        dbRemove(removedKeys);
         return value;
     }
 
@@ -344,16 +353,55 @@ public class PropsContainer extends AbsTransactionObject implements Props
     public boolean removeAllProps(Set<String> selection, String namespace) throws DatabaseException
     {
         boolean changed = false;
+        // full keys, removed from the database in one batch
+        Set<String> removedKeys = new TreeSet<>();
         for (String key : selection)
         {
-            if (removeProp(key, namespace) != null)
+            try
+            {
+                if (removePropImpl(key, namespace, removedKeys) != null)
+                {
+                    changed = true;
+                }
+            }
+            catch (InvalidKeyException ignored)
             {
-                changed = true;
             }
         }
+        dbRemove(removedKeys);
         return changed;
     }
 
+    /**
+     * Removes the given property without removing it from the database. If it existed, its value is cached for a
+     * rollback and its key is added to {@param removedKeys}, which the caller has to remove from the database.
+     *
+     * @return The old value or null if no entry was present
+     */
+    private String removePropImpl(String key, String namespace, Set<String> removedKeys) throws InvalidKeyException
+    {
+        String value = null;
+        String[] pathElements = splitPath(namespace, key);
+        String actualKey = pathElements[PATH_KEY];
+        checkKey(actualKey);
+        PropsContainer con = findNamespace(pathElements[PATH_NAMESPACE]).orElse(null);
+        if (con != null)
+        {
+            value = con.propMap.remove(actualKey);
+            if (value != null)
+            {
+                con.modifySize(-1);
+                con.removeCleanup();
+
+                String fullKey = con.getPath() + actualKey;
+                rootContainer.activateTransMgr();
+                cache(fullKey, value);
+                removedKeys.add(fullKey);
+            }
+        }
+        return value;
+    }
+
     /**
      * Removes the given {@param namespace} and all its properties.
      *
@@ -931,15 +979,24 @@ public class PropsContainer extends AbsTransactionObject implements Props
         root.cachedPropMap.clear();
     }
 
-    private void dbPersist(String key, String value, String oldValue) throws DatabaseException
+    /**
+     * Writes the given properties, which have to be cached already, to the database
+     */
+    private void dbPersist(Map<String, String> changedProps) throws DatabaseException
     {
-        rootContainer.activateTransMgr();
-        cache(key, oldValue);
-        if (dbDriver != null)
+        if (dbDriver != null && !changedProps.isEmpty())
         {
             try
             {
-                dbDriver.persist(rootContainer.instanceName, key, value);
+                if (changedProps.size() == 1)
+                {
+                    Entry<String, String> changedProp = changedProps.entrySet().iterator().next();
+                    dbDriver.persist(rootContainer.instanceName, changedProp.getKey(), changedProp.getValue());
+                }
+                else
+                {
+                    dbDriver.persist(rootContainer.instanceName, changedProps);
+                }
             }
             catch (DatabaseException sqlExc)
             {
@@ -949,15 +1006,23 @@ public class PropsContainer extends AbsTransactionObject implements Props
         }
     }
 
-    private void dbRemove(String key, String oldValue) throws DatabaseException
+    /**
+     * Removes the given keys, whose values have to be cached already, from the database
+     */
+    private void dbRemove(Set<String> keys) throws DatabaseException
     {
-        rootContainer.activateTransMgr();
-        cache(key, oldValue);
-        if (dbDriver != null)
+        if (dbDriver != null && !keys.isEmpty())
         {
             try
             {
-                dbDriver.remove(rootContainer.instanceName, key);
+                if (keys.size() == 1)
+                {
+                    dbDriver.remove(rootContainer.instanceName, keys.iterator().next());
+                }
+                else
+                {
+                    dbDriver.remove(rootContainer.instanceName, keys);
+                }
             }
             catch (DatabaseException sqlExc)
             {
@@ -90,6 +90,9 @@ public abstract class AbsTransactionObject implements TransactionObject
     /**
      * Method which can be overridden for additional tasks after the transMgr was set
      *
+     * The transMgr is not forwarded to nested transaction objects. Every object registers itself with
+     * {@link #activateTransMgr()} once it is modified, so unmodified objects are neither visited nor registered.
+     *
      * @param transMgrRef
      */
     protected void postSetConnection(TransactionMgr transMgrRef)
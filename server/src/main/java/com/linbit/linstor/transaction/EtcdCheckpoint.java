@@ -0,0 +1,313 @@
+package com.linbit.linstor.transaction;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Copy of all ETCD entries below a prefix at a given revision of the ETCD server.
+ *
+ * The revision of the ETCD server is also increased by modifications of keys outside of the prefix. Whether the
+ * checkpoint is still up to date is therefore decided by the {@link State} of the entries below the prefix. While
+ * loaded, {@link EtcdTransaction} answers reads below the prefix from the checkpoint instead of the server.
+ */
+public class EtcdCheckpoint
+{
+    private static final int MAGIC = 0x4C534350; // "LSCP"
+    private static final int FORMAT_VERSION = 2;
+
+    private final long revision;
+    private final long modRevision;
+    private final String prefix;
+    private final NavigableMap<String, String> entries;
+
+    /**
+     * @param revisionRef
+     *     the revision of the ETCD server the entries were read at
+     * @param modRevisionRef
+     *     the highest modification revision of the entries, or {@link State#UNKNOWN_MOD_REVISION}
+     */
+    public EtcdCheckpoint(
+        long revisionRef,
+        long modRevisionRef,
+        String prefixRef,
+        NavigableMap<String, String> entriesRef
+    )
+    {
+        revision = revisionRef;
+        modRevision = modRevisionRef;
+        prefix = prefixRef;
+        entries = Collections.unmodifiableNavigableMap(entriesRef);
+    }
+
+    public long getRevision()
+    {
+        return revision;
+    }
+
+    public State getState()
+    {
+        return new State(modRevision, entries.size());
+    }
+
+    public String getPrefix()
+    {
+        return prefix;
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns true if the checkpoint contains all entries of the ETCD server starting with the given key
+     */
+    public boolean covers(String key)
+    {
+        return key.startsWith(prefix);
+    }
+
+    /**
+     * Same as {@link EtcdTransaction#get(String, boolean)}
+     */
+    public TreeMap<String, String> get(String key, boolean recursive)
+    {
+        TreeMap<String, String> ret = new TreeMap<>();
+        if (recursive)
+        {
+            Iterator<Map.Entry<String, String>> entryIt = iterator(key);
+            while (entryIt.hasNext())
+            {
+                Map.Entry<String, String> entry = entryIt.next();
+                ret.put(entry.getKey(), entry.getValue());
+            }
+        }
+        else
+        {
+            String value = entries.get(key);
+            if (value != null)
+            {
+                ret.put(key, value);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Iterates over all entries starting with the given key prefix, ordered by key
+     */
+    public Iterator<Map.Entry<String, String>> iterator(String keyPrefix)
+    {
+        Iterator<Map.Entry<String, String>> tailIt = entries.tailMap(keyPrefix, true).entrySet().iterator();
+        return new Iterator<Map.Entry<String, String>>()
+        {
+            private Map.Entry<String, String> next = advance();
+
+            private Map.Entry<String, String> advance()
+            {
+                Map.Entry<String, String> entry = tailIt.hasNext() ? tailIt.next() : null;
+                return entry != null && entry.getKey().startsWith(keyPrefix) ? entry : null;
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<String, String> next()
+            {
+                if (next == null)
+                {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<String, String> ret = next;
+                next = advance();
+                return ret;
+            }
+        };
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file next to the given one, which then replaces the given file.
+     * The file is only readable by its owner, as it contains the complete database.
+     */
+    public void write(Path file) throws IOException
+    {
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmpFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try
+        {
+            try (OutputStream fileOut = Files.newOutputStream(tmpFile))
+            {
+                CheckedOutputStream checkedOut = new CheckedOutputStream(
+                    new BufferedOutputStream(fileOut),
+                    new CRC32()
+                );
+                DataOutputStream out = new DataOutputStream(checkedOut);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(revision);
+                out.writeLong(modRevision);
+                writeString(out, prefix);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, String> entry : entries.entrySet())
+                {
+                    writeString(out, entry.getKey());
+                    writeString(out, entry.getValue());
+                }
+                out.writeLong(checkedOut.getChecksum().getValue());
+                out.flush();
+            }
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * Reads a checkpoint written by {@link #write(Path)}
+     *
+     * @throws IOException
+     *     if the file cannot be read, has an unknown format version or is corrupt
+     */
+    public static EtcdCheckpoint read(Path file) throws IOException
+    {
+        EtcdCheckpoint checkpoint;
+        // no string of a valid checkpoint can be longer than the file itself
+        long maxLength = Files.size(file);
+        try (
+            CheckedInputStream checkedIn = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)),
+                new CRC32()
+            )
+        )
+        {
+            DataInputStream in = new DataInputStream(checkedIn);
+            if (in.readInt() != MAGIC)
+            {
+                throw new IOException("Not an ETCD checkpoint: " + file);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION)
+            {
+                throw new IOException("Unsupported ETCD checkpoint format version " + version + ": " + file);
+            }
+            long revision = in.readLong();
+            long modRevision = in.readLong();
+            String prefix = readString(in, maxLength);
+            int count = in.readInt();
+            TreeMap<String, String> entries = new TreeMap<>();
+            for (int idx = 0; idx < count; ++idx)
+            {
+                String key = readString(in, maxLength);
+                entries.put(key, readString(in, maxLength));
+            }
+            long checksum = checkedIn.getChecksum().getValue();
+            if (in.readLong() != checksum || in.read() != -1)
+            {
+                throw new IOException("Corrupt ETCD checkpoint: " + file);
+            }
+            checkpoint = new EtcdCheckpoint(revision, modRevision, prefix, entries);
+        }
+        return checkpoint;
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException
+    {
+        byte[] data = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static String readString(DataInputStream in, long maxLength) throws IOException
+    {
+        int length = in.readInt();
+        if (length < 0 || length > maxLength)
+        {
+            throw new IOException("Invalid length " + length + " in ETCD checkpoint");
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Highest modification revision and number of the entries below a prefix. Every put increases the former and
+     * every delete decreases the latter unless the same modification also puts an entry, so the entries below the
+     * prefix were not modified as long as their state stays the same.
+     */
+    public static final class State
+    {
+        /**
+         * Used if the highest modification revision of the entries is not known. Such a state never equals the
+         * state read from the ETCD server.
+         */
+        public static final long UNKNOWN_MOD_REVISION = -1;
+
+        private final long modRevision;
+        private final long count;
+
+        public State(long modRevisionRef, long countRef)
+        {
+            modRevision = modRevisionRef;
+            count = countRef;
+        }
+
+        public long getModRevision()
+        {
+            return modRevision;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            boolean eq = obj == this;
+            if (!eq && obj instanceof State)
+            {
+                State other = (State) obj;
+                eq = modRevision != UNKNOWN_MOD_REVISION && modRevision == other.modRevision &&
+                    count == other.count;
+            }
+            return eq;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(modRevision, count);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "mod revision " + modRevision + ", " + count + " entries";
+        }
+    }
+}
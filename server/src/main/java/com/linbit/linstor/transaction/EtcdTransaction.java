@@ -4,8 +4,12 @@ import static com.ibm.etcd.client.KeyUtils.bs;
 
 import com.linbit.linstor.ControllerETCDDatabase;
 
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
@@ -16,6 +20,7 @@ import com.google.protobuf.ByteString;
 import com.ibm.etcd.api.DeleteRangeRequest;
 import com.ibm.etcd.api.KeyValue;
 import com.ibm.etcd.api.PutRequest;
+import com.ibm.etcd.api.RangeRequest;
 import com.ibm.etcd.api.RangeResponse;
 import com.ibm.etcd.client.FluentRequest;
 import com.ibm.etcd.client.KeyUtils;
@@ -25,6 +30,8 @@ import com.ibm.etcd.client.kv.KvClient.FluentTxnOps;
 
 public class EtcdTransaction
 {
+    public static final int RANGE_PAGE_SIZE = 1000;
+
     private final ControllerETCDDatabase etcdDb;
     private final KvClient kvClient;
 
@@ -78,24 +85,123 @@ public class EtcdTransaction
 
     public TreeMap<String, String> get(String key, boolean recursive)
     {
-        FluentRangeRequest req = kvClient.get(bs(key));
+        TreeMap<String, String> retMap;
+        EtcdCheckpoint checkpoint = etcdDb.getLoadedCheckpoint();
+        if (checkpoint != null && checkpoint.covers(key))
+        {
+            retMap = checkpoint.get(key, recursive);
+        }
+        else
         if (recursive)
         {
-            req = req.asPrefix();
+            retMap = new TreeMap<>();
+            // paginated, so that large ranges do not exceed the response size limit of etcd
+            Iterator<Map.Entry<String, String>> entryIt = getPaged(key);
+            while (entryIt.hasNext())
+            {
+                Map.Entry<String, String> entry = entryIt.next();
+                retMap.put(entry.getKey(), entry.getValue());
+            }
         }
-        RangeResponse rsp = requestWithRetry(req);
-
-        TreeMap<String, String> retMap = new TreeMap<>();
-        for (KeyValue keyValue : rsp.getKvsList())
+        else
         {
-            // final String recKey = keyValue.getKey().toStringUtf8();
-            // final String columnName = recKey.substring(recKey.lastIndexOf("/") + 1);
-            retMap.put(keyValue.getKey().toStringUtf8(), keyValue.getValue().toStringUtf8());
+            retMap = new TreeMap<>();
+            RangeResponse rsp = requestWithRetry(kvClient.get(bs(key)));
+            for (KeyValue keyValue : rsp.getKvsList())
+            {
+                retMap.put(keyValue.getKey().toStringUtf8(), keyValue.getValue().toStringUtf8());
+            }
         }
 
         return retMap;
     }
 
+    /**
+     * Returns all entries whose key starts with the given prefix, ordered by key. The entries are requested in
+     * pages of {@value #RANGE_PAGE_SIZE} entries while iterating, so that only one page has to be kept in memory.
+     * All pages are read from the revision of the first page, so the iterator returns a consistent view of the
+     * range even if it is modified concurrently.
+     *
+     * Failed requests are thrown as runtime exceptions from {@link Iterator#hasNext()}.
+     */
+    public Iterator<Map.Entry<String, String>> getPaged(String keyPrefix)
+    {
+        return getPaged(keyPrefix, RANGE_PAGE_SIZE);
+    }
+
+    public Iterator<Map.Entry<String, String>> getPaged(String keyPrefix, int pageSize)
+    {
+        Iterator<Map.Entry<String, String>> ret;
+        EtcdCheckpoint checkpoint = etcdDb.getLoadedCheckpoint();
+        if (checkpoint != null && checkpoint.covers(keyPrefix))
+        {
+            ret = checkpoint.iterator(keyPrefix);
+        }
+        else
+        {
+            ret = getPagedFromServer(keyPrefix, pageSize);
+        }
+        return ret;
+    }
+
+    /**
+     * Same as {@link #getPaged(String)}, but always reads the entries from the ETCD server, even if a loaded
+     * checkpoint covers the given prefix
+     */
+    public Iterator<Map.Entry<String, String>> getPagedFromServer(String keyPrefix)
+    {
+        return getPagedFromServer(keyPrefix, RANGE_PAGE_SIZE);
+    }
+
+    public Iterator<Map.Entry<String, String>> getPagedFromServer(String keyPrefix, int pageSize)
+    {
+        ByteString bsKey = bs(keyPrefix);
+        return new PagedRangeIterator(kvClient, bsKey, KeyUtils.plusOne(bsKey), pageSize);
+    }
+
+    /**
+     * Reads all entries starting with the given prefix from the ETCD server, ignoring any loaded checkpoint.
+     * The returned checkpoint contains the entries as of the revision of the first read page.
+     */
+    public EtcdCheckpoint createCheckpoint(String keyPrefix)
+    {
+        ByteString bsKey = bs(keyPrefix);
+        PagedRangeIterator entryIt = new PagedRangeIterator(
+            kvClient,
+            bsKey,
+            KeyUtils.plusOne(bsKey),
+            RANGE_PAGE_SIZE
+        );
+        TreeMap<String, String> entries = new TreeMap<>();
+        while (entryIt.hasNext())
+        {
+            Map.Entry<String, String> entry = entryIt.next();
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        return new EtcdCheckpoint(entryIt.revision, entryIt.modRevision, keyPrefix, entries);
+    }
+
+    /**
+     * Returns the current state of the entries starting with the given prefix. Unlike
+     * {@link #createCheckpoint(String)}, only a single key is read from the ETCD server.
+     */
+    public EtcdCheckpoint.State getState(String keyPrefix)
+    {
+        ByteString bsKey = bs(keyPrefix);
+        RangeResponse rsp = requestWithRetry(
+            kvClient.get(bsKey)
+                .rangeEnd(KeyUtils.plusOne(bsKey))
+                .sorted(RangeRequest.SortTarget.MOD, RangeRequest.SortOrder.DESCEND)
+                .limit(1)
+                .keysOnly()
+        );
+        // the count is not limited by the limit of the request
+        return new EtcdCheckpoint.State(
+            rsp.getKvsCount() == 0 ? 0 : rsp.getKvs(0).getModRevision(),
+            rsp.getCount()
+        );
+    }
+
     /**
      * Simple wrapper of {@link #get(String)} but only returning the value of the first entry
      * (caution - that is dependent of the underlying map-implementation)
@@ -151,4 +257,76 @@ public class EtcdTransaction
     {
         return changedKeys.size() + deletedKeys.size();
     }
+
+    private static class PagedRangeIterator implements Iterator<Map.Entry<String, String>>
+    {
+        private static final ByteString ZERO_BYTE = ByteString.copyFrom(new byte[] {0});
+
+        private final KvClient kvClient;
+        private final ByteString rangeEnd;
+        private final int pageSize;
+
+        private ByteString nextKey;
+        private long revision = 0;
+        private long modRevision = 0;
+        private List<KeyValue> page = Collections.emptyList();
+        private int pageIdx = 0;
+        private boolean more = true;
+
+        private PagedRangeIterator(KvClient kvClientRef, ByteString startKey, ByteString rangeEndRef, int pageSizeRef)
+        {
+            kvClient = kvClientRef;
+            nextKey = startKey;
+            rangeEnd = rangeEndRef;
+            pageSize = pageSizeRef;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while (pageIdx >= page.size() && more)
+            {
+                fetchNextPage();
+            }
+            return pageIdx < page.size();
+        }
+
+        @Override
+        public Map.Entry<String, String> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            KeyValue keyValue = page.get(pageIdx++);
+            modRevision = Math.max(modRevision, keyValue.getModRevision());
+            return new AbstractMap.SimpleImmutableEntry<>(
+                keyValue.getKey().toStringUtf8(),
+                keyValue.getValue().toStringUtf8()
+            );
+        }
+
+        private void fetchNextPage()
+        {
+            FluentRangeRequest req = kvClient.get(nextKey).rangeEnd(rangeEnd).limit(pageSize);
+            if (revision != 0)
+            {
+                req = req.revision(revision);
+            }
+            RangeResponse rsp = requestWithRetry(req);
+            if (revision == 0)
+            {
+                revision = rsp.getHeader().getRevision();
+            }
+
+            page = rsp.getKvsList();
+            pageIdx = 0;
+            more = rsp.getMore() && !page.isEmpty();
+            if (!page.isEmpty())
+            {
+                // the smallest key that is greater than the last key of this page
+                nextKey = page.get(page.size() - 1).getKey().concat(ZERO_BYTE);
+            }
+        }
+    }
 }
@@ -43,19 +43,6 @@ public class TransactionList<PARENT, VALUE>
         immutableBackingList = Collections.unmodifiableList(backingList);
     }
 
-    @Override
-    protected void postSetConnection(TransactionMgr transMgrRef)
-    {
-        // forward transaction manager to values
-        for (VALUE val : backingList)
-        {
-            if (val instanceof TransactionObject)
-            {
-                ((TransactionObject) val).setConnection(transMgrRef);
-            }
-        }
-    }
-
     @Override
     public boolean isDirty()
     {
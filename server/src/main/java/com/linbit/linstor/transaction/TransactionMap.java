@@ -42,18 +42,6 @@ public class TransactionMap<KEY, VALUE extends TransactionObject>
         oldValues = new HashMap<>();
     }
 
-    @Override
-    public void postSetConnection(TransactionMgr transMgrRef)
-    {
-        // forward transaction manager on keys
-        map.keySet().stream()
-            .filter(key -> key instanceof TransactionObject)
-            .forEach(to -> ((TransactionObject) to).setConnection(transMgrRef));
-
-        // forward transaction manager on values
-        map.values().forEach(to -> to.setConnection(transMgrRef));
-    }
-
     @Override
     public void commitImpl()
     {
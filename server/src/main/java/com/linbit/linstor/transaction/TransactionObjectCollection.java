@@ -75,6 +75,19 @@ public class TransactionObjectCollection
         return dirty;
     }
 
+    public int countDirty()
+    {
+        int count = 0;
+        for (TransactionObject transObj : transObjects)
+        {
+            if (transObj.isDirty())
+            {
+                ++count;
+            }
+        }
+        return count;
+    }
+
     public int sizeObjects()
     {
         return transObjects.size();
@@ -39,13 +39,6 @@ public class TransactionSet<PARENT, VALUE extends TransactionObject>
         dbDriver = dbDriverRef == null ? new NoOpCollectionDatabaseDriver<>() : dbDriverRef;
     }
 
-    @Override
-    protected void postSetConnection(TransactionMgr transMgrRef)
-    {
-        // forward transaction manager to values
-        backingSet.forEach(to -> to.setConnection(transMgrRef));
-    }
-
     @Override
     public boolean isDirty()
     {
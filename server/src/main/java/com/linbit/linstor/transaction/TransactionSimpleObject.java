@@ -1,6 +1,5 @@
 package com.linbit.linstor.transaction;
 
-import com.linbit.ImplementationError;
 import com.linbit.linstor.dbdrivers.DatabaseException;
 import com.linbit.linstor.dbdrivers.interfaces.updater.SingleColumnDatabaseDriver;
 import com.linbit.linstor.dbdrivers.noop.NoOpObjectDatabaseDriver;
@@ -55,16 +54,6 @@ public class TransactionSimpleObject<PARENT, ELEMENT> extends AbsTransactionObje
         return object;
     }
 
-    @Override
-    public void postSetConnection(TransactionMgr transMgrRef) throws ImplementationError
-    {
-        // forward transaction manager to simple object
-        if (object instanceof TransactionObject)
-        {
-            ((TransactionObject) object).setConnection(transMgrRef);
-        }
-    }
-
     @Override
     public void commitImpl()
     {
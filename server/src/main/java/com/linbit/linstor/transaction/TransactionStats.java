@@ -0,0 +1,87 @@
+package com.linbit.linstor.transaction;
+
+/**
+ * Size and duration of a single commit or rollback of a transaction manager
+ */
+public class TransactionStats
+{
+    private final String name;
+    private final boolean committed;
+    private final int registeredObjects;
+    private final int dirtyObjects;
+    private final int dbWrites;
+    private final long durationNanos;
+    private final long timestamp;
+
+    /**
+     * @param nameRef
+     *     name of the API call or task the transaction belongs to
+     * @param committedRef
+     *     true for a commit, false for a rollback
+     * @param registeredObjectsRef
+     *     number of transaction objects that were registered at the transaction manager
+     * @param dirtyObjectsRef
+     *     number of registered transaction objects that were modified
+     * @param dbWritesRef
+     *     number of writes the transaction sent to the database, i.e. the statements of the SQL statement batch
+     *     or the ETCD put and delete operations. Reads are not included, neither are the few SQL writes that are
+     *     executed directly on the connection, like property writes on databases without an upsert statement
+     * @param durationNanosRef
+     *     duration of the commit or rollback
+     * @param timestampRef
+     *     time of the commit or rollback in milliseconds since the epoch
+     */
+    public TransactionStats(
+        String nameRef,
+        boolean committedRef,
+        int registeredObjectsRef,
+        int dirtyObjectsRef,
+        int dbWritesRef,
+        long durationNanosRef,
+        long timestampRef
+    )
+    {
+        name = nameRef;
+        committed = committedRef;
+        registeredObjects = registeredObjectsRef;
+        dirtyObjects = dirtyObjectsRef;
+        dbWrites = dbWritesRef;
+        durationNanos = durationNanosRef;
+        timestamp = timestampRef;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public boolean isCommitted()
+    {
+        return committed;
+    }
+
+    public int getRegisteredObjects()
+    {
+        return registeredObjects;
+    }
+
+    public int getDirtyObjects()
+    {
+        return dirtyObjects;
+    }
+
+    public int getDbWrites()
+    {
+        return dbWrites;
+    }
+
+    public long getDurationNanos()
+    {
+        return durationNanos;
+    }
+
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+}
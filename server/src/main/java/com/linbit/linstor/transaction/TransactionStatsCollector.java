@@ -0,0 +1,258 @@
+package com.linbit.linstor.transaction;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the {@link TransactionStats} of the commits and rollbacks of all transaction managers.
+ *
+ * Per API call, the sizes and durations are kept as histograms. Additionally the last
+ * {@value #RECENT_TRANSACTIONS} transactions are kept, so that the largest of them can be inspected.
+ */
+@Singleton
+public class TransactionStatsCollector
+{
+    public static final String UNKNOWN_NAME = "unknown";
+    public static final int RECENT_TRANSACTIONS = 1000;
+
+    // upper bounds of the histogram buckets, the implicit +Inf bucket is not included
+    private static final double[] COUNT_BUCKETS = {0, 1, 5, 10, 50, 100, 500, 1000, 5000, 10000};
+    private static final double[] DURATION_BUCKETS = {0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 10, 30};
+
+    private static final Comparator<TransactionStats> SIZE_COMPARATOR = Comparator
+        .comparingInt(TransactionStats::getDbWrites)
+        .thenComparingInt(TransactionStats::getDirtyObjects)
+        .thenComparingInt(TransactionStats::getRegisteredObjects)
+        .reversed();
+
+    private final Object syncObj = new Object();
+    private final TransactionStats[] recent = new TransactionStats[RECENT_TRANSACTIONS];
+    private int recentIdx = 0;
+    private final Map<String, TransactionHistograms> histograms = new TreeMap<>();
+
+    @Inject
+    public TransactionStatsCollector()
+    {
+    }
+
+    public void record(
+        String name,
+        boolean committed,
+        int registeredObjects,
+        int dirtyObjects,
+        int dbWrites,
+        long startNanos
+    )
+    {
+        record(
+            new TransactionStats(
+                name == null ? UNKNOWN_NAME : name,
+                committed,
+                registeredObjects,
+                dirtyObjects,
+                dbWrites,
+                System.nanoTime() - startNanos,
+                System.currentTimeMillis()
+            )
+        );
+    }
+
+    public void record(TransactionStats stats)
+    {
+        String key = stats.getName() + (stats.isCommitted() ? "/commit" : "/rollback");
+        synchronized (syncObj)
+        {
+            recent[recentIdx] = stats;
+            recentIdx = (recentIdx + 1) % RECENT_TRANSACTIONS;
+
+            TransactionHistograms txHistograms = histograms.get(key);
+            if (txHistograms == null)
+            {
+                txHistograms = new TransactionHistograms(stats.getName(), stats.isCommitted());
+                histograms.put(key, txHistograms);
+            }
+            txHistograms.observe(stats);
+        }
+    }
+
+    /**
+     * Returns the largest of the recently recorded transactions, ordered by the number of database writes,
+     * then by the number of modified and registered objects
+     */
+    public List<TransactionStats> getLargestRecent(int count)
+    {
+        List<TransactionStats> ret = new ArrayList<>();
+        synchronized (syncObj)
+        {
+            for (TransactionStats stats : recent)
+            {
+                if (stats != null)
+                {
+                    ret.add(stats);
+                }
+            }
+        }
+        ret.sort(SIZE_COMPARATOR);
+        return ret.size() > count ? new ArrayList<>(ret.subList(0, count)) : ret;
+    }
+
+    /**
+     * Returns copies of the histograms of all API calls that committed or rolled back a transaction
+     */
+    public List<TransactionHistograms> getHistograms()
+    {
+        List<TransactionHistograms> ret = new ArrayList<>();
+        synchronized (syncObj)
+        {
+            for (TransactionHistograms txHistograms : histograms.values())
+            {
+                ret.add(new TransactionHistograms(txHistograms));
+            }
+        }
+        return ret;
+    }
+
+    public static class TransactionHistograms
+    {
+        private final String name;
+        private final boolean committed;
+        private final Histogram registeredObjects;
+        private final Histogram dirtyObjects;
+        private final Histogram dbWrites;
+        private final Histogram durationSeconds;
+
+        private TransactionHistograms(String nameRef, boolean committedRef)
+        {
+            name = nameRef;
+            committed = committedRef;
+            registeredObjects = new Histogram(COUNT_BUCKETS);
+            dirtyObjects = new Histogram(COUNT_BUCKETS);
+            dbWrites = new Histogram(COUNT_BUCKETS);
+            durationSeconds = new Histogram(DURATION_BUCKETS);
+        }
+
+        private TransactionHistograms(TransactionHistograms other)
+        {
+            name = other.name;
+            committed = other.committed;
+            registeredObjects = new Histogram(other.registeredObjects);
+            dirtyObjects = new Histogram(other.dirtyObjects);
+            dbWrites = new Histogram(other.dbWrites);
+            durationSeconds = new Histogram(other.durationSeconds);
+        }
+
+        private void observe(TransactionStats stats)
+        {
+            registeredObjects.observe(stats.getRegisteredObjects());
+            dirtyObjects.observe(stats.getDirtyObjects());
+            dbWrites.observe(stats.getDbWrites());
+            durationSeconds.observe(stats.getDurationNanos() / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public boolean isCommitted()
+        {
+            return committed;
+        }
+
+        public Histogram getRegisteredObjects()
+        {
+            return registeredObjects;
+        }
+
+        public Histogram getDirtyObjects()
+        {
+            return dirtyObjects;
+        }
+
+        public Histogram getDbWrites()
+        {
+            return dbWrites;
+        }
+
+        public Histogram getDurationSeconds()
+        {
+            return durationSeconds;
+        }
+    }
+
+    public static class Histogram
+    {
+        private final double[] upperBounds;
+        private final long[] bucketCounts;
+        private long count;
+        private double sum;
+
+        private Histogram(double[] upperBoundsRef)
+        {
+            upperBounds = upperBoundsRef;
+            // the last bucket is the +Inf bucket
+            bucketCounts = new long[upperBoundsRef.length + 1];
+        }
+
+        private Histogram(Histogram other)
+        {
+            upperBounds = other.upperBounds;
+            bucketCounts = Arrays.copyOf(other.bucketCounts, other.bucketCounts.length);
+            count = other.count;
+            sum = other.sum;
+        }
+
+        private void observe(double value)
+        {
+            int idx = 0;
+            while (idx < upperBounds.length && value > upperBounds[idx])
+            {
+                ++idx;
+            }
+            ++bucketCounts[idx];
+            ++count;
+            sum += value;
+        }
+
+        /**
+         * Returns the upper bounds of the buckets, not including the +Inf bucket
+         */
+        public double[] getUpperBounds()
+        {
+            return Arrays.copyOf(upperBounds, upperBounds.length);
+        }
+
+        /**
+         * Returns the cumulative count of each bucket, the last element is the count of the +Inf bucket
+         */
+        public long[] getCumulativeCounts()
+        {
+            long[] ret = new long[bucketCounts.length];
+            long cumulative = 0;
+            for (int idx = 0; idx < bucketCounts.length; ++idx)
+            {
+                cumulative += bucketCounts[idx];
+                ret[idx] = cumulative;
+            }
+            return ret;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        public double getSum()
+        {
+            return sum;
+        }
+    }
+}
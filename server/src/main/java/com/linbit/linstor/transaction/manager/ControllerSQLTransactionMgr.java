@@ -1,9 +1,11 @@
 package com.linbit.linstor.transaction.manager;
 
 import com.linbit.linstor.ControllerSQLDatabase;
+import com.linbit.linstor.LinStorDBRuntimeException;
 import com.linbit.linstor.transaction.TransactionException;
 import com.linbit.linstor.transaction.TransactionObject;
 import com.linbit.linstor.transaction.TransactionObjectCollection;
+import com.linbit.linstor.transaction.TransactionStatsCollector;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -11,14 +13,56 @@ import java.sql.SQLException;
 public class ControllerSQLTransactionMgr implements TransactionMgrSQL
 {
     private final ControllerSQLDatabase controllerDatabase;
-    private final Connection dbCon;
     private final TransactionObjectCollection transactionObjectCollection;
+    private final SQLStatementBatch batch;
+    private final SQLGroupCommit groupCommit;
+    private final TransactionStatsCollector statsCollector;
+    private final String name;
 
-    public ControllerSQLTransactionMgr(ControllerSQLDatabase controllerDatabaseRef) throws SQLException
+    // number of statements of the batch sent to the database since the last commit or rollback. Statements
+    // executed directly on the connection are not included
+    private int batchedStatements;
+
+    // taken from the pool on first use, so that scopes which never access the database do not hold a connection
+    // while they are waiting for locks
+    private Connection dbCon;
+
+    public ControllerSQLTransactionMgr(ControllerSQLDatabase controllerDatabaseRef)
+    {
+        this(controllerDatabaseRef, null);
+    }
+
+    /**
+     * @param groupCommitRef
+     *     used to commit the queued statements of transactions that did not access the connection directly,
+     *     null to always commit on the own connection
+     */
+    public ControllerSQLTransactionMgr(ControllerSQLDatabase controllerDatabaseRef, SQLGroupCommit groupCommitRef)
+    {
+        this(controllerDatabaseRef, groupCommitRef, null, null);
+    }
+
+    /**
+     * @param statsCollectorRef
+     *     receives the statistics of every commit and rollback, null to not record any statistics
+     * @param nameRef
+     *     name of the API call or task the transaction belongs to
+     */
+    public ControllerSQLTransactionMgr(
+        ControllerSQLDatabase controllerDatabaseRef,
+        SQLGroupCommit groupCommitRef,
+        TransactionStatsCollector statsCollectorRef,
+        String nameRef
+    )
     {
         controllerDatabase = controllerDatabaseRef;
-        dbCon = controllerDatabaseRef.getConnection();
+        groupCommit = groupCommitRef;
+        statsCollector = statsCollectorRef;
+        name = nameRef;
+        dbCon = null;
+        batchedStatements = 0;
         transactionObjectCollection = new TransactionObjectCollection();
+        batch = new SQLStatementBatch();
     }
 
     @Override
@@ -30,36 +74,91 @@ public class ControllerSQLTransactionMgr implements TransactionMgrSQL
     @Override
     public void commit() throws TransactionException
     {
+        long startNanos = System.nanoTime();
+        int dirtyObjects = statsCollector == null ? 0 : transactionObjectCollection.countDirty();
+        int registeredObjects = transactionObjectCollection.sizeObjects();
+        boolean committed = false;
+
         try
         {
-            dbCon.commit();
+            if (groupCommit != null && dbCon == null)
+            {
+                // everything this transaction wrote is still queued
+                if (!batch.isEmpty())
+                {
+                    batchedStatements += batch.size();
+                    groupCommit.commit(batch);
+                }
+            }
+            else
+            if (dbCon != null || !batch.isEmpty())
+            {
+                try
+                {
+                    Connection con = getOrTakeConnection();
+                    flushBatch(con);
+                    con.commit();
+                    releaseConnection();
+                }
+                catch (SQLException sqlExc)
+                {
+                    throw new TransactionException("Database commit failed.", sqlExc);
+                }
+            }
+
+            transactionObjectCollection.commitAll();
+
+            clearTransactionObjects();
+            committed = true;
         }
-        catch (SQLException sqlExc)
+        finally
         {
-            throw new TransactionException("Database commit failed.", sqlExc);
+            // failed commits are recorded as well, the following rollback is recorded on its own
+            recordStats(committed, registeredObjects, dirtyObjects, startNanos);
         }
-
-        transactionObjectCollection.commitAll();
-
-        clearTransactionObjects();
     }
 
 
     @Override
     public void rollback() throws TransactionException
     {
-        transactionObjectCollection.rollbackAll();
+        long startNanos = System.nanoTime();
+        int dirtyObjects = statsCollector == null ? 0 : transactionObjectCollection.countDirty();
+        int registeredObjects = transactionObjectCollection.sizeObjects();
 
         try
         {
-            dbCon.rollback();
+            batch.clear();
+            transactionObjectCollection.rollbackAll();
+
+            if (dbCon != null)
+            {
+                try
+                {
+                    dbCon.rollback();
+                    releaseConnection();
+                }
+                catch (SQLException sqlExc)
+                {
+                    throw new TransactionException("Database rollback failed.", sqlExc);
+                }
+            }
+
+            clearTransactionObjects();
         }
-        catch (SQLException sqlExc)
+        finally
         {
-            throw new TransactionException("Database rollback failed.", sqlExc);
+            recordStats(false, registeredObjects, dirtyObjects, startNanos);
         }
+    }
 
-        clearTransactionObjects();
+    private void recordStats(boolean committed, int registeredObjects, int dirtyObjects, long startNanos)
+    {
+        if (statsCollector != null)
+        {
+            statsCollector.record(name, committed, registeredObjects, dirtyObjects, batchedStatements, startNanos);
+        }
+        batchedStatements = 0;
     }
 
     @Override
@@ -83,13 +182,73 @@ public class ControllerSQLTransactionMgr implements TransactionMgrSQL
     @Override
     public Connection getConnection()
     {
+        Connection con;
+        try
+        {
+            con = getOrTakeConnection();
+        }
+        catch (SQLException sqlExc)
+        {
+            throw new LinStorDBRuntimeException("Failed to get a connection from the database pool", sqlExc);
+        }
+        if (!batch.isEmpty())
+        {
+            try
+            {
+                flushBatch(con);
+            }
+            catch (SQLException sqlExc)
+            {
+                throw new LinStorDBRuntimeException("Failed to execute the queued database statements", sqlExc);
+            }
+        }
+        return con;
+    }
+
+    private void flushBatch(Connection con) throws SQLException
+    {
+        batchedStatements += batch.size();
+        batch.flush(con);
+    }
+
+    private Connection getOrTakeConnection() throws SQLException
+    {
+        if (dbCon == null)
+        {
+            dbCon = controllerDatabase.getConnection();
+        }
         return dbCon;
     }
 
+    /**
+     * Gives the connection back to the pool once nothing is left to commit or roll back, so that the rest of a
+     * long scope, e.g. reading for an API response, does not keep it. It is taken again on the next use.
+     */
+    private void releaseConnection()
+    {
+        if (batch.isEmpty())
+        {
+            controllerDatabase.returnConnection(dbCon);
+            dbCon = null;
+        }
+    }
+
+    @Override
+    public SQLStatementBatch getBatch()
+    {
+        return batch;
+    }
+
     @Override
     public void returnConnection()
     {
-        controllerDatabase.returnConnection(dbCon);
+        batch.clear();
+        batchedStatements = 0;
+        if (dbCon != null)
+        {
+            controllerDatabase.returnConnection(dbCon);
+            dbCon = null;
+        }
 
         clearTransactionObjects();
     }
@@ -2,35 +2,39 @@ package com.linbit.linstor.transaction.manager;
 
 import com.linbit.linstor.ControllerDatabase;
 import com.linbit.linstor.ControllerSQLDatabase;
-import com.linbit.linstor.transaction.TransactionException;
+import com.linbit.linstor.transaction.TransactionStatsCollector;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.sql.SQLException;
 
 @Singleton
 public class ControllerSQLTransactionMgrGenerator implements TransactionMgrGenerator
 {
     private final ControllerSQLDatabase controllerDatabase;
+    private final SQLGroupCommit groupCommit;
+    private final TransactionStatsCollector statsCollector;
 
     @Inject
-    public ControllerSQLTransactionMgrGenerator(ControllerDatabase controllerDatabaseRef)
+    public ControllerSQLTransactionMgrGenerator(
+        ControllerDatabase controllerDatabaseRef,
+        SQLGroupCommit groupCommitRef,
+        TransactionStatsCollector statsCollectorRef
+    )
     {
         controllerDatabase = (ControllerSQLDatabase) controllerDatabaseRef;
+        groupCommit = groupCommitRef;
+        statsCollector = statsCollectorRef;
     }
 
     @Override
-    public TransactionMgr startTransaction()
+    public TransactionMgr startTransaction(String name)
     {
-        ControllerSQLTransactionMgr controllerSQLTransactionMgr;
-        try
-        {
-            controllerSQLTransactionMgr = new ControllerSQLTransactionMgr(controllerDatabase);
-        }
-        catch (SQLException sqlExc)
-        {
-            throw new TransactionException("Failed to start transaction", sqlExc);
-        }
-        return controllerSQLTransactionMgr;
+        // does not take a connection from the pool yet, see ControllerSQLTransactionMgr#getConnection()
+        return new ControllerSQLTransactionMgr(
+            controllerDatabase,
+            groupCommit.isEnabled() ? groupCommit : null,
+            statsCollector,
+            name
+        );
     }
 }
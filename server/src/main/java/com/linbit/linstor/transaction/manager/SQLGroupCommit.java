@@ -0,0 +1,19 @@
+package com.linbit.linstor.transaction.manager;
+
+import com.linbit.linstor.transaction.TransactionException;
+
+/**
+ * Commits the statements of several transactions together in a single database transaction.
+ */
+public interface SQLGroupCommit
+{
+    boolean isEnabled();
+
+    /**
+     * Executes the given statements and returns once they are durably committed together with the statements of
+     * other transactions that were committed at the same time.
+     *
+     * If the statements of one transaction fail, only that transaction fails.
+     */
+    void commit(SQLStatementBatch batch) throws TransactionException;
+}
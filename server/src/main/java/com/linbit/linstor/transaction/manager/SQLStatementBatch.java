@@ -0,0 +1,148 @@
+package com.linbit.linstor.transaction.manager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Row modifications of a transaction that are not executed right away, but sent to the database as JDBC batches.
+ *
+ * The statements are executed in the order they were added. Consecutive statements with the same SQL are
+ * executed as one batch, so foreign key constraints are checked in the same order as if every statement had
+ * been executed on its own.
+ */
+public class SQLStatementBatch
+{
+    private final List<PendingStatement> pendingStatements = new ArrayList<>();
+
+    public void add(String sql, Parameters params)
+    {
+        pendingStatements.add(new PendingStatement(sql, params));
+    }
+
+    public boolean isEmpty()
+    {
+        return pendingStatements.isEmpty();
+    }
+
+    public int size()
+    {
+        return pendingStatements.size();
+    }
+
+    public void clear()
+    {
+        pendingStatements.clear();
+    }
+
+    /**
+     * Executes all pending statements. The pending statements are dropped even if the execution fails, as the
+     * transaction has to be rolled back in that case anyway.
+     */
+    public void flush(Connection con) throws SQLException
+    {
+        try
+        {
+            int idx = 0;
+            while (idx < pendingStatements.size())
+            {
+                String sql = pendingStatements.get(idx).sql;
+                try (PreparedStatement stmt = con.prepareStatement(sql))
+                {
+                    while (idx < pendingStatements.size() && pendingStatements.get(idx).sql.equals(sql))
+                    {
+                        for (ParameterSetter setter : pendingStatements.get(idx).params.setters)
+                        {
+                            setter.set(stmt);
+                        }
+                        stmt.addBatch();
+                        ++idx;
+                    }
+                    stmt.executeBatch();
+                }
+            }
+        }
+        finally
+        {
+            pendingStatements.clear();
+        }
+    }
+
+    /**
+     * Parameters of a pending statement. The values are taken when they are set, later changes of the object
+     * they were read from do not affect the statement.
+     */
+    public static class Parameters
+    {
+        private final List<ParameterSetter> setters = new ArrayList<>();
+
+        public Parameters()
+        {
+        }
+
+        public void setObject(int idx, Object obj, int sqlType)
+        {
+            setters.add(stmt -> stmt.setObject(idx, obj, sqlType));
+        }
+
+        public void setObject(int idx, Object obj)
+        {
+            setters.add(stmt -> stmt.setObject(idx, obj));
+        }
+
+        public void setNull(int idx, int sqlType)
+        {
+            setters.add(stmt -> stmt.setNull(idx, sqlType));
+        }
+
+        public void setBytes(int idx, byte[] bytes)
+        {
+            setters.add(stmt -> stmt.setBytes(idx, bytes));
+        }
+
+        public void setLong(int idx, long value)
+        {
+            setters.add(stmt -> stmt.setLong(idx, value));
+        }
+
+        public void setInt(int idx, int value)
+        {
+            setters.add(stmt -> stmt.setInt(idx, value));
+        }
+
+        public void setShort(int idx, short value)
+        {
+            setters.add(stmt -> stmt.setShort(idx, value));
+        }
+
+        public void setBoolean(int idx, boolean value)
+        {
+            setters.add(stmt -> stmt.setBoolean(idx, value));
+        }
+
+        public void setString(int idx, String value)
+        {
+            setters.add(stmt -> stmt.setString(idx, value));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ParameterSetter
+    {
+        void set(PreparedStatement stmt) throws SQLException;
+    }
+
+    private static class PendingStatement
+    {
+        private final String sql;
+        private final Parameters params;
+
+        private PendingStatement(String sqlRef, Parameters paramsRef)
+        {
+            sql = sqlRef;
+            params = paramsRef;
+        }
+    }
+}
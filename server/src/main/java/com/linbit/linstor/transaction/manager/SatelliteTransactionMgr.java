@@ -2,13 +2,29 @@ package com.linbit.linstor.transaction.manager;
 
 import com.linbit.linstor.transaction.TransactionObject;
 import com.linbit.linstor.transaction.TransactionObjectCollection;
+import com.linbit.linstor.transaction.TransactionStatsCollector;
 
 public class SatelliteTransactionMgr implements TransactionMgr
 {
     private final TransactionObjectCollection transactionObjectCollection;
+    private final TransactionStatsCollector statsCollector;
+    private final String name;
 
     public SatelliteTransactionMgr()
     {
+        this(null, null);
+    }
+
+    /**
+     * @param statsCollectorRef
+     *     receives the statistics of every commit and rollback, null to not record any statistics
+     * @param nameRef
+     *     name of the API call or task the transaction belongs to
+     */
+    public SatelliteTransactionMgr(TransactionStatsCollector statsCollectorRef, String nameRef)
+    {
+        statsCollector = statsCollectorRef;
+        name = nameRef;
         transactionObjectCollection = new TransactionObjectCollection();
     }
 
@@ -21,16 +37,37 @@ public class SatelliteTransactionMgr implements TransactionMgr
     @Override
     public void commit()
     {
+        long startNanos = System.nanoTime();
+        int dirtyObjects = statsCollector == null ? 0 : transactionObjectCollection.countDirty();
+        int registeredObjects = transactionObjectCollection.sizeObjects();
+
         transactionObjectCollection.commitAll();
         clearTransactionObjects();
+
+        recordStats(true, registeredObjects, dirtyObjects, startNanos);
     }
 
 
     @Override
     public void rollback()
     {
+        long startNanos = System.nanoTime();
+        int dirtyObjects = statsCollector == null ? 0 : transactionObjectCollection.countDirty();
+        int registeredObjects = transactionObjectCollection.sizeObjects();
+
         transactionObjectCollection.rollbackAll();
         clearTransactionObjects();
+
+        recordStats(false, registeredObjects, dirtyObjects, startNanos);
+    }
+
+    private void recordStats(boolean committed, int registeredObjects, int dirtyObjects, long startNanos)
+    {
+        if (statsCollector != null)
+        {
+            // the satellite does not have a database
+            statsCollector.record(name, committed, registeredObjects, dirtyObjects, 0, startNanos);
+        }
     }
 
     @Override
@@ -1,19 +1,24 @@
 package com.linbit.linstor.transaction.manager;
 
+import com.linbit.linstor.transaction.TransactionStatsCollector;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
 public class SatelliteTransactionMgrGenerator implements TransactionMgrGenerator
 {
+    private final TransactionStatsCollector statsCollector;
+
     @Inject
-    public SatelliteTransactionMgrGenerator()
+    public SatelliteTransactionMgrGenerator(TransactionStatsCollector statsCollectorRef)
     {
+        statsCollector = statsCollectorRef;
     }
 
     @Override
-    public TransactionMgr startTransaction()
+    public TransactionMgr startTransaction(String name)
     {
-        return new SatelliteTransactionMgr();
+        return new SatelliteTransactionMgr(statsCollector, name);
     }
 }
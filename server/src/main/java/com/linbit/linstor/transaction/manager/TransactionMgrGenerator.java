@@ -4,6 +4,17 @@ import com.linbit.linstor.transaction.TransactionException;
 
 public interface TransactionMgrGenerator
 {
-    TransactionMgr startTransaction()
+    default TransactionMgr startTransaction()
+        throws TransactionException
+    {
+        return startTransaction(null);
+    }
+
+    /**
+     * @param name
+     *     name of the API call or task the transaction belongs to, used to tag the transaction statistics.
+     *     May be null
+     */
+    TransactionMgr startTransaction(String name)
         throws TransactionException;
 }
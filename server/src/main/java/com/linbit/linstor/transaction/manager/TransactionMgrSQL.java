@@ -4,5 +4,15 @@ import java.sql.Connection;
 
 public interface TransactionMgrSQL extends TransactionMgr
 {
+    /**
+     * Executes the statements queued in {@link #getBatch()} before returning the connection, so that statements
+     * executed directly on the connection see the database in the expected state.
+     */
     Connection getConnection();
+
+    /**
+     * @return the row modifications queued for this transaction. They are executed when the connection is
+     *     requested or when the transaction is committed, whichever comes first.
+     */
+    SQLStatementBatch getBatch();
 }
@@ -7,8 +7,12 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -705,6 +709,73 @@ public class FileSystemWatchTest
         }
     }
 
+    /**
+     * Waits for a batch of files at once, one of them already existing
+     */
+    @Test
+    public void fileEntryFuturesTest() throws Exception
+    {
+        String existingFile = testFilePath("existing");
+        String createFileOne = testFilePath("file1");
+        String createFileTwo = testFilePath("file2");
+        createFile(existingFile);
+
+        List<CompletableFuture<FileEntry>> futures = fsw.newFileEntryFutures(
+            Arrays.asList(existingFile, createFileOne, createFileTwo),
+            FileSystemWatch.Event.CREATE
+        );
+        assertThat(futures).hasSize(3);
+        // completed by the registering thread, like the callbacks of existing files of other observers
+        assertThat(futures.get(0).isDone()).isTrue();
+        assertThat(futures.get(0).get(TEST_DELAY, TimeUnit.MILLISECONDS).getFile().toString())
+            .isEqualTo(existingFile);
+        assertThat(futures.get(1).isDone()).isFalse();
+        assertThat(futures.get(2).isDone()).isFalse();
+
+        createFile(createFileTwo);
+        createFile(createFileOne);
+
+        // each future is completed by the file at the same index
+        assertThat(futures.get(1).get(TEST_DELAY, TimeUnit.MILLISECONDS).getFile().toString())
+            .isEqualTo(createFileOne);
+        assertThat(futures.get(2).get(TEST_DELAY, TimeUnit.MILLISECONDS).getFile().toString())
+            .isEqualTo(createFileTwo);
+    }
+
+    /**
+     * A timed out future is cancelled, which must not affect the other futures of the batch
+     */
+    @Test
+    public void fileEntryFuturesCancelTest() throws Exception
+    {
+        String cancelledFile = testFilePath("file1");
+        String createFile = testFilePath("file2");
+
+        List<CompletableFuture<FileEntry>> futures = fsw.newFileEntryFutures(
+            Arrays.asList(cancelledFile, createFile),
+            FileSystemWatch.Event.CREATE
+        );
+
+        boolean timedOut = false;
+        try
+        {
+            futures.get(0).get(100, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException ignored)
+        {
+            timedOut = true;
+        }
+        assertThat(timedOut).isTrue();
+        assertThat(futures.get(0).cancel(false)).isTrue();
+
+        createFile(cancelledFile);
+        createFile(createFile);
+
+        assertThat(futures.get(1).get(TEST_DELAY, TimeUnit.MILLISECONDS).getFile().toString())
+            .isEqualTo(createFile);
+        assertThat(futures.get(0).isCancelled()).isTrue();
+    }
+
     private static class FileEventReceiver implements FileObserver
     {
         Set<String> expected = new TreeSet<>();
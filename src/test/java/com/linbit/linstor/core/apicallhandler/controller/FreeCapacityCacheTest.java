@@ -0,0 +1,210 @@
+package com.linbit.linstor.core.apicallhandler.controller;
+
+import com.linbit.InvalidNameException;
+import com.linbit.linstor.api.ApiCallRc;
+import com.linbit.linstor.api.SpaceInfo;
+import com.linbit.linstor.core.CoreModule;
+import com.linbit.linstor.core.apicallhandler.ScopeRunner;
+import com.linbit.linstor.core.identifier.NodeName;
+import com.linbit.linstor.core.identifier.StorPoolName;
+import com.linbit.linstor.core.objects.FreeSpaceTracker;
+import com.linbit.linstor.core.objects.Node;
+import com.linbit.linstor.core.objects.StorPool;
+import com.linbit.linstor.core.repository.NodeRepository;
+import com.linbit.linstor.netcom.Peer;
+import com.linbit.linstor.propscon.Props;
+import com.linbit.linstor.proto.common.StorPoolFreeSpaceOuterClass.StorPoolFreeSpace;
+import com.linbit.linstor.proto.javainternal.s2c.MsgIntFreeSpaceOuterClass.MsgIntFreeSpace;
+import com.linbit.linstor.storage.kinds.DeviceProviderKind;
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+import com.linbit.locks.LockGuardFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FreeCapacityCacheTest
+{
+    private static final long TTL_MS = 30_000;
+    private static final long REPORTED_FREE = 1024;
+
+    private long now;
+    private FreeCapacityCache cache;
+
+    private NodeName nodeName;
+    private StorPool.Key storPoolKey;
+    private Peer peer;
+    private FreeCapacityFetcherProto fetcher;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception
+    {
+        now = 1_000_000;
+        cache = new FreeCapacityCache(() -> now);
+
+        nodeName = new NodeName("node");
+        StorPoolName storPoolName = new StorPoolName("thin");
+        storPoolKey = new StorPool.Key(nodeName, storPoolName);
+
+        Node node = mock(Node.class);
+        StorPool storPool = mock(StorPool.class);
+        when(node.getName()).thenReturn(nodeName);
+        when(node.streamStorPools(any())).thenAnswer(ignored -> Stream.of(storPool));
+        when(node.getStorPool(any(), any())).thenReturn(storPool);
+        when(storPool.getNode()).thenReturn(node);
+        when(storPool.getName()).thenReturn(storPoolName);
+        when(storPool.getDeviceProviderKind()).thenReturn(DeviceProviderKind.LVM_THIN);
+        when(storPool.getFreeSpaceTracker()).thenReturn(mock(FreeSpaceTracker.class));
+
+        peer = mock(Peer.class);
+        when(node.getPeer(any())).thenReturn(peer);
+        when(peer.apiCall(anyString(), any())).thenAnswer(ignored -> Flux.just(freeSpaceAnswer()));
+
+        CoreModule.NodesMap nodesMap = mock(CoreModule.NodesMap.class);
+        when(nodesMap.values()).thenReturn(Collections.singletonList(node));
+        NodeRepository nodeRepository = mock(NodeRepository.class);
+        when(nodeRepository.getMapForView(any())).thenReturn(nodesMap);
+        when(nodeRepository.get(any(), any(NodeName.class))).thenReturn(node);
+
+        ScopeRunner scopeRunner = mock(ScopeRunner.class);
+        when(scopeRunner.fluxInTransactionalScope(anyString(), any(), any())).thenAnswer(
+            invocation -> ((Callable<Flux<?>>) invocation.getArgument(2)).call()
+        );
+
+        CtrlPropsHelper propsHelper = mock(CtrlPropsHelper.class);
+        when(propsHelper.getCtrlPropsForView(any())).thenReturn(mock(Props.class));
+
+        fetcher = new FreeCapacityFetcherProto(
+            null,
+            scopeRunner,
+            mock(CtrlTransactionHelper.class),
+            mock(LockGuardFactory.class),
+            mock(CtrlApiDataLoader.class),
+            nodeRepository,
+            () -> null,
+            propsHelper,
+            cache,
+            new EmptyErrorReporter()
+        );
+    }
+
+    private ByteArrayInputStream freeSpaceAnswer() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MsgIntFreeSpace.newBuilder()
+            .addFreeSpaces(
+                StorPoolFreeSpace.newBuilder()
+                    .setStorPoolUuid(UUID.randomUUID().toString())
+                    .setStorPoolName(storPoolKey.getStorPoolName().displayValue)
+                    .setFreeCapacity(REPORTED_FREE)
+                    .setTotalCapacity(4 * REPORTED_FREE)
+                    .build()
+            )
+            .build()
+            .writeDelimitedTo(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private long fetchFreeCapacity()
+    {
+        Map<StorPool.Key, Long> freeCapacities = fetcher.fetchThinFreeCapacities(Collections.emptySet()).block();
+        return freeCapacities.get(storPoolKey);
+    }
+
+    private void push(long freeCapacity)
+    {
+        cache.update(storPoolKey, new SpaceInfo(4 * REPORTED_FREE, freeCapacity), Collections.emptyList());
+    }
+
+    @Test
+    public void testEntriesExpireAfterTtl()
+    {
+        push(REPORTED_FREE);
+        now += TTL_MS;
+        assertNotNull(cache.get(Collections.singleton(storPoolKey), TTL_MS));
+        now += 1;
+        assertNull(cache.get(Collections.singleton(storPoolKey), TTL_MS));
+        // stale values are still available as fallback for satellites that do not answer
+        assertNotNull(cache.get(Collections.singleton(storPoolKey), -1));
+    }
+
+    @Test
+    public void testMissingEntryFailsWholeNode() throws InvalidNameException
+    {
+        push(REPORTED_FREE);
+        StorPool.Key otherKey = new StorPool.Key(nodeName, new StorPoolName("other"));
+        assertNull(cache.get(Arrays.asList(storPoolKey, otherKey), TTL_MS));
+    }
+
+    @Test
+    public void testEviction() throws InvalidNameException
+    {
+        StorPool.Key otherNodeKey = new StorPool.Key(new NodeName("other"), storPoolKey.getStorPoolName());
+        push(REPORTED_FREE);
+        cache.update(otherNodeKey, new SpaceInfo(1, 1), Collections.emptyList());
+
+        cache.evictNode(nodeName);
+        assertNull(cache.get(Collections.singleton(storPoolKey), -1));
+        assertNotNull(cache.get(Collections.singleton(otherNodeKey), -1));
+
+        cache.evict(otherNodeKey);
+        assertNull(cache.get(Collections.singleton(otherNodeKey), -1));
+    }
+
+    @Test
+    public void testFetchOnMiss()
+    {
+        assertEquals(REPORTED_FREE, fetchFreeCapacity());
+        verify(peer, times(1)).apiCall(anyString(), any());
+
+        // the answer was cached
+        List<Tuple2<StorPool.Key, Tuple2<SpaceInfo, List<ApiCallRc>>>> cached =
+            cache.get(Collections.singleton(storPoolKey), TTL_MS);
+        assertEquals(REPORTED_FREE, cached.get(0).getT2().getT1().freeCapacity);
+        assertEquals(REPORTED_FREE, fetchFreeCapacity());
+        verify(peer, times(1)).apiCall(anyString(), any());
+
+        now += TTL_MS + 1;
+        assertEquals(REPORTED_FREE, fetchFreeCapacity());
+        verify(peer, times(2)).apiCall(anyString(), any());
+    }
+
+    @Test
+    public void testPushedReportIsServedWithoutFetch()
+    {
+        push(REPORTED_FREE / 2);
+        assertEquals(REPORTED_FREE / 2, fetchFreeCapacity());
+        verify(peer, never()).apiCall(anyString(), any());
+
+        // a later push replaces the value and restarts the TTL
+        now += TTL_MS;
+        push(REPORTED_FREE / 4);
+        now += TTL_MS;
+        assertEquals(REPORTED_FREE / 4, fetchFreeCapacity());
+        verify(peer, never()).apiCall(anyString(), any());
+    }
+}
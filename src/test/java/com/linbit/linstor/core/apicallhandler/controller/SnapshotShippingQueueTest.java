@@ -0,0 +1,131 @@
+package com.linbit.linstor.core.apicallhandler.controller;
+
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue.Entry;
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue.Limits;
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue.Load;
+import com.linbit.linstor.core.apicallhandler.controller.SnapshotShippingQueue.Priority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotShippingQueueTest
+{
+    private SnapshotShippingQueue queue;
+
+    @Before
+    public void setUp()
+    {
+        queue = new SnapshotShippingQueue();
+    }
+
+    private static Entry entry(String rscName, String fromNode, String toNode, Priority prio)
+    {
+        return new Entry(rscName, fromNode, null, toNode, null, prio);
+    }
+
+    private static Limits limits(int maxPerNode, int maxPerLink)
+    {
+        return new Limits()
+        {
+            @Override
+            public int getMaxPerNode(String nodeName)
+            {
+                return maxPerNode;
+            }
+
+            @Override
+            public int getMaxPerLink(String nodeNameA, String nodeNameB)
+            {
+                return maxPerLink;
+            }
+        };
+    }
+
+    private static List<String> rscNames(List<Entry> entries)
+    {
+        List<String> ret = new ArrayList<>();
+        for (Entry entry : entries)
+        {
+            ret.add(entry.rscName);
+        }
+        return ret;
+    }
+
+    @Test
+    public void testLimits()
+    {
+        Load load = new Load();
+        load.add("alpha", "bravo");
+
+        assertFalse(load.fits(entry("rsc", "bravo", "alpha", Priority.NORMAL), limits(0, 1)));
+        assertTrue(load.fits(entry("rsc", "alpha", "charlie", Priority.NORMAL), limits(2, 1)));
+        assertFalse(load.fits(entry("rsc", "alpha", "charlie", Priority.NORMAL), limits(1, 0)));
+        assertTrue(load.fits(entry("rsc", "ALPHA", "BRAVO", Priority.NORMAL), limits(0, 0)));
+    }
+
+    @Test
+    public void testRoundRobinAcrossResourceDefinitions()
+    {
+        queue.add(entry("rscA", "alpha", "bravo", Priority.NORMAL));
+        queue.add(entry("rscA", "alpha", "charlie", Priority.NORMAL));
+        queue.add(entry("rscA", "alpha", "delta", Priority.NORMAL));
+        queue.add(entry("rscB", "alpha", "bravo", Priority.NORMAL));
+
+        assertEquals(Arrays.asList("rscA", "rscB", "rscA", "rscA"), rscNames(queue.getEntries()));
+
+        // only one shipment at a time from alpha
+        assertEquals(Arrays.asList("rscA"), rscNames(queue.pollRunnable(new Load(), limits(1, 0))));
+        assertEquals(Arrays.asList("rscB"), rscNames(queue.pollRunnable(new Load(), limits(1, 0))));
+        assertEquals(Arrays.asList("rscA"), rscNames(queue.pollRunnable(new Load(), limits(1, 0))));
+        assertEquals(Arrays.asList("rscA"), rscNames(queue.pollRunnable(new Load(), limits(1, 0))));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testHigherPriorityFirst()
+    {
+        queue.add(entry("rscLow", "alpha", "bravo", Priority.LOW));
+        queue.add(entry("rscNormal", "alpha", "bravo", Priority.NORMAL));
+        queue.add(entry("rscHigh", "alpha", "bravo", Priority.HIGH));
+
+        assertEquals(Arrays.asList("rscHigh", "rscNormal", "rscLow"), rscNames(queue.getEntries()));
+        assertEquals(Arrays.asList("rscHigh"), rscNames(queue.pollRunnable(new Load(), limits(1, 1))));
+    }
+
+    @Test
+    public void testBlockedHigherPriorityIsNotStarved()
+    {
+        Load load = new Load();
+        load.add("charlie", "delta");
+
+        // the high priority shipment waits for charlie, the low priority one must not take alpha's slot
+        queue.add(entry("rscHigh", "alpha", "charlie", Priority.HIGH));
+        queue.add(entry("rscLow", "alpha", "bravo", Priority.LOW));
+        assertTrue(queue.pollRunnable(load, limits(1, 0)).isEmpty());
+
+        assertEquals(Arrays.asList("rscHigh"), rscNames(queue.pollRunnable(new Load(), limits(1, 0))));
+    }
+
+    @Test
+    public void testCanStartImmediately()
+    {
+        Load load = new Load();
+        Entry newEntry = entry("rscNew", "alpha", "bravo", Priority.NORMAL);
+        assertTrue(queue.canStartImmediately(newEntry, load, limits(1, 1)));
+
+        // must not overtake a shipment that already waits for the same node
+        queue.add(entry("rscQueued", "charlie", "bravo", Priority.NORMAL));
+        assertFalse(queue.canStartImmediately(newEntry, load, limits(1, 1)));
+        assertTrue(queue.canStartImmediately(entry("rscNew", "alpha", "bravo", Priority.HIGH), load, limits(1, 1)));
+        assertTrue(queue.contains("RSCQUEUED", "charlie", "bravo"));
+        assertFalse(queue.contains("rscQueued", "bravo", "charlie"));
+    }
+}
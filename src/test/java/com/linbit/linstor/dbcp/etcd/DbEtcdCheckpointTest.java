@@ -0,0 +1,127 @@
+package com.linbit.linstor.dbcp.etcd;
+
+import com.linbit.linstor.dbdrivers.etcd.EtcdUtils;
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+import com.linbit.linstor.transaction.EtcdCheckpoint;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class DbEtcdCheckpointTest
+{
+    private static final long MOD_REVISION = 41;
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private Path file;
+    private EtcdCheckpoint checkpoint;
+    private int stateQueries;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        TreeMap<String, String> entries = new TreeMap<>();
+        entries.put(EtcdUtils.LINSTOR_PREFIX + "NODES/NODE1/NODE_TYPE", "2");
+        entries.put(EtcdUtils.LINSTOR_PREFIX + "NODES/NODE2/NODE_TYPE", "3");
+        checkpoint = new EtcdCheckpoint(42, MOD_REVISION, EtcdUtils.LINSTOR_PREFIX, entries);
+
+        file = tmpFolder.getRoot().toPath().resolve("checkpoint");
+        checkpoint.write(file);
+        stateQueries = 0;
+    }
+
+    private EtcdCheckpoint read(EtcdCheckpoint.State currentState)
+    {
+        return DbEtcd.readCheckpoint(
+            new EmptyErrorReporter(),
+            file,
+            () ->
+            {
+                ++stateQueries;
+                return currentState;
+            }
+        );
+    }
+
+    @Test
+    public void testCurrentCheckpointIsUsed()
+    {
+        EtcdCheckpoint readCheckpoint = read(new EtcdCheckpoint.State(MOD_REVISION, 2));
+        assertNotNull(readCheckpoint);
+        assertEquals(
+            checkpoint.get(EtcdUtils.LINSTOR_PREFIX, true),
+            readCheckpoint.get(EtcdUtils.LINSTOR_PREFIX, true)
+        );
+    }
+
+    @Test
+    public void testModifiedEntriesFallBackToFullLoad()
+    {
+        // an entry was put
+        assertNull(read(new EtcdCheckpoint.State(MOD_REVISION + 1, 2)));
+        assertNull(read(new EtcdCheckpoint.State(MOD_REVISION + 1, 3)));
+        // an entry was deleted
+        assertNull(read(new EtcdCheckpoint.State(MOD_REVISION, 1)));
+    }
+
+    @Test
+    public void testUnknownModRevisionIsNeverCurrent()
+    {
+        EtcdCheckpoint.State unknown = new EtcdCheckpoint.State(EtcdCheckpoint.State.UNKNOWN_MOD_REVISION, 2);
+        assertNotEquals(unknown, new EtcdCheckpoint.State(EtcdCheckpoint.State.UNKNOWN_MOD_REVISION, 2));
+    }
+
+    @Test
+    public void testCorruptFileFallsBackToFullLoad() throws IOException
+    {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw"))
+        {
+            raf.seek(raf.length() / 2);
+            int data = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(data ^ 0xFF);
+        }
+        assertNull(read(new EtcdCheckpoint.State(MOD_REVISION, 2)));
+        // the ETCD server is not asked for a checkpoint that cannot be used anyways
+        assertEquals(0, stateQueries);
+    }
+
+    @Test
+    public void testTruncatedFileFallsBackToFullLoad() throws IOException
+    {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw"))
+        {
+            raf.setLength(raf.length() - 3);
+        }
+        assertNull(read(new EtcdCheckpoint.State(MOD_REVISION, 2)));
+    }
+
+    @Test
+    public void testMissingFileFallsBackToFullLoad() throws IOException
+    {
+        Files.delete(file);
+        assertNull(read(new EtcdCheckpoint.State(MOD_REVISION, 2)));
+        assertEquals(0, stateQueries);
+    }
+
+    @Test
+    public void testOtherPrefixFallsBackToFullLoad() throws IOException
+    {
+        new EtcdCheckpoint(42, MOD_REVISION, "/OTHER/", new TreeMap<>()).write(file);
+        assertNull(read(new EtcdCheckpoint.State(MOD_REVISION, 0)));
+    }
+}
@@ -0,0 +1,439 @@
+package com.linbit.linstor.dbcp.etcd;
+
+import com.linbit.linstor.dbdrivers.etcd.EtcdUtils;
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+import com.linbit.linstor.transaction.EtcdCheckpoint;
+
+import static com.ibm.etcd.client.KeyUtils.bs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.etcd.api.Event;
+import com.ibm.etcd.api.KeyValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EtcdControllerStandbyTest
+{
+    private static final long TIMEOUT_MS = 10_000;
+    private static final String NODE_KEY = EtcdUtils.LINSTOR_PREFIX + "NODES/NODE1/NODE_TYPE";
+
+    private FakeEtcd etcd;
+    private AtomicInteger leasesLost;
+
+    @Before
+    public void setUp()
+    {
+        etcd = new FakeEtcd();
+        leasesLost = new AtomicInteger();
+        etcd.put(NODE_KEY, "2", FakeEtcd.NO_LEASE);
+    }
+
+    private EtcdControllerStandby createStandby(String hostName)
+    {
+        return new EtcdControllerStandby(
+            new EmptyErrorReporter(),
+            new FakeClient(etcd),
+            hostName,
+            leasesLost::incrementAndGet
+        );
+    }
+
+    /**
+     * Runs {@link EtcdControllerStandby#awaitLeadership()} in its own thread, as it blocks while waiting
+     */
+    private CountDownLatch awaitLeadershipAsync(EtcdControllerStandby standby)
+    {
+        CountDownLatch promoted = new CountDownLatch(1);
+        Thread thread = new Thread(
+            () ->
+            {
+                try
+                {
+                    standby.awaitLeadership();
+                    promoted.countDown();
+                }
+                catch (Exception exc)
+                {
+                    throw new RuntimeException(exc);
+                }
+            }
+        );
+        thread.setDaemon(true);
+        thread.start();
+        return promoted;
+    }
+
+    @Test(timeout = TIMEOUT_MS)
+    public void testElection() throws Exception
+    {
+        EtcdControllerStandby active = createStandby("ctrl1");
+        active.awaitLeadership();
+        assertEquals("ctrl1", etcd.getValue(EtcdControllerStandby.LEADER_KEY));
+        // this controller did not wait, so the data has to be loaded as usual
+        assertNull(active.takeCheckpoint());
+
+        CountDownLatch promoted = awaitLeadershipAsync(createStandby("ctrl2"));
+        assertFalse(promoted.await(200, TimeUnit.MILLISECONDS));
+        assertEquals("ctrl1", etcd.getValue(EtcdControllerStandby.LEADER_KEY));
+    }
+
+    @Test(timeout = TIMEOUT_MS)
+    public void testTakeoverAfterShutdown() throws Exception
+    {
+        EtcdControllerStandby active = createStandby("ctrl1");
+        active.awaitLeadership();
+
+        EtcdControllerStandby standby = createStandby("ctrl2");
+        CountDownLatch promoted = awaitLeadershipAsync(standby);
+        etcd.awaitWatches(1);
+
+        // modifications of the active controller are kept current by the standby
+        etcd.put(EtcdUtils.LINSTOR_PREFIX + "NODES/NODE2/NODE_TYPE", "3", FakeEtcd.NO_LEASE);
+        etcd.delete(NODE_KEY);
+
+        // the revoked lease deletes the leader key right away
+        active.close();
+        assertTrue(promoted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals("ctrl2", etcd.getValue(EtcdControllerStandby.LEADER_KEY));
+
+        // modified after the promotion, e.g. by the database migration
+        etcd.put(EtcdUtils.LINSTOR_PREFIX + "DBHISTORY/version", "1", FakeEtcd.NO_LEASE);
+
+        EtcdCheckpoint checkpoint = standby.takeCheckpoint();
+        assertEquals(etcd.getEntries(EtcdUtils.LINSTOR_PREFIX), checkpoint.get(EtcdUtils.LINSTOR_PREFIX, true));
+        assertEquals(2, checkpoint.size());
+        assertFalse(checkpoint.covers(EtcdControllerStandby.LEADER_KEY));
+        assertEquals(0, etcd.getWatchCount());
+        assertEquals(0, leasesLost.get());
+    }
+
+    @Test(timeout = TIMEOUT_MS)
+    public void testTakeoverAfterLeaseExpired() throws Exception
+    {
+        FakeClient activeClient = new FakeClient(etcd);
+        EtcdControllerStandby active = new EtcdControllerStandby(
+            new EmptyErrorReporter(),
+            activeClient,
+            "ctrl1",
+            leasesLost::incrementAndGet
+        );
+        active.awaitLeadership();
+
+        CountDownLatch promoted = awaitLeadershipAsync(createStandby("ctrl2"));
+        etcd.awaitWatches(1);
+        etcd.expire(activeClient.leaseId);
+
+        // the controller that lost its lease has to stop
+        assertEquals(1, leasesLost.get());
+        assertTrue(promoted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals("ctrl2", etcd.getValue(EtcdControllerStandby.LEADER_KEY));
+
+        // only reported once, and not for the revoke on shutdown
+        active.close();
+        assertEquals(1, leasesLost.get());
+    }
+
+    @Test(timeout = TIMEOUT_MS)
+    public void testStandbyRenewsExpiredLease() throws Exception
+    {
+        EtcdControllerStandby active = createStandby("ctrl1");
+        active.awaitLeadership();
+
+        FakeClient standbyClient = new FakeClient(etcd);
+        CountDownLatch promoted = awaitLeadershipAsync(
+            new EtcdControllerStandby(new EmptyErrorReporter(), standbyClient, "ctrl2", leasesLost::incrementAndGet)
+        );
+        etcd.awaitWatches(1);
+        long expiredLeaseId = standbyClient.leaseId;
+        etcd.expire(expiredLeaseId);
+        // a standby does not have to stop
+        assertEquals(0, leasesLost.get());
+
+        active.close();
+        assertTrue(promoted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertNotEquals(expiredLeaseId, standbyClient.leaseId);
+        assertEquals(standbyClient.leaseId, etcd.get(EtcdControllerStandby.LEADER_KEY).getLease());
+    }
+
+    @Test
+    public void testLeaderKeyIsOutsideOfPrefix()
+    {
+        assertFalse(EtcdControllerStandby.LEADER_KEY.startsWith(EtcdUtils.LINSTOR_PREFIX));
+        // required for the single watch of the standby
+        assertTrue(EtcdControllerStandby.LEADER_KEY.compareTo(EtcdUtils.LINSTOR_PREFIX) < 0);
+    }
+
+    /**
+     * Minimal in-memory ETCD server. Watches receive every modification as its own update.
+     */
+    private static class FakeEtcd
+    {
+        private static final long NO_LEASE = 0;
+
+        private final TreeMap<String, KeyValue> store = new TreeMap<>();
+        private final List<Event> history = new ArrayList<>();
+        private final List<FakeWatch> watches = new ArrayList<>();
+        private final Map<Long, Runnable> leases = new HashMap<>();
+        private long revision = 1;
+        private long nextLeaseId = 1;
+
+        synchronized long grantLease(Runnable onExpired)
+        {
+            long leaseId = nextLeaseId++;
+            leases.put(leaseId, onExpired);
+            return leaseId;
+        }
+
+        synchronized void revoke(long leaseId)
+        {
+            leases.remove(leaseId);
+            List<String> leaseKeys = new ArrayList<>();
+            for (KeyValue keyValue : store.values())
+            {
+                if (keyValue.getLease() == leaseId)
+                {
+                    leaseKeys.add(keyValue.getKey().toStringUtf8());
+                }
+            }
+            leaseKeys.forEach(this::delete);
+        }
+
+        void expire(long leaseId)
+        {
+            Runnable onExpired;
+            synchronized (this)
+            {
+                onExpired = leases.get(leaseId);
+                revoke(leaseId);
+            }
+            onExpired.run();
+        }
+
+        synchronized long put(String key, String value, long leaseId)
+        {
+            if (leaseId != NO_LEASE && !leases.containsKey(leaseId))
+            {
+                throw new IllegalStateException("requested lease not found");
+            }
+            ++revision;
+            KeyValue keyValue = KeyValue.newBuilder()
+                .setKey(bs(key))
+                .setValue(bs(value))
+                .setLease(leaseId)
+                .setModRevision(revision)
+                .build();
+            store.put(key, keyValue);
+            publish(Event.newBuilder().setType(Event.EventType.PUT).setKv(keyValue).build());
+            return revision;
+        }
+
+        synchronized void delete(String key)
+        {
+            if (store.remove(key) != null)
+            {
+                ++revision;
+                KeyValue keyValue = KeyValue.newBuilder().setKey(bs(key)).setModRevision(revision).build();
+                publish(Event.newBuilder().setType(Event.EventType.DELETE).setKv(keyValue).build());
+            }
+        }
+
+        private void publish(Event event)
+        {
+            history.add(event);
+            for (FakeWatch watch : watches)
+            {
+                watch.offer(event);
+            }
+        }
+
+        synchronized KeyValue get(String key)
+        {
+            return store.get(key);
+        }
+
+        synchronized String getValue(String key)
+        {
+            KeyValue keyValue = store.get(key);
+            return keyValue == null ? null : keyValue.getValue().toStringUtf8();
+        }
+
+        synchronized TreeMap<String, String> getEntries(String keyPrefix)
+        {
+            TreeMap<String, String> entries = new TreeMap<>();
+            for (KeyValue keyValue : store.values())
+            {
+                String key = keyValue.getKey().toStringUtf8();
+                if (key.startsWith(keyPrefix))
+                {
+                    entries.put(key, keyValue.getValue().toStringUtf8());
+                }
+            }
+            return entries;
+        }
+
+        synchronized EtcdCheckpoint readAll(String keyPrefix)
+        {
+            return new EtcdCheckpoint(
+                revision,
+                EtcdCheckpoint.State.UNKNOWN_MOD_REVISION,
+                keyPrefix,
+                getEntries(keyPrefix)
+            );
+        }
+
+        synchronized FakeWatch watch(String fromKey, String toKeyPrefix, long startRevision)
+        {
+            FakeWatch watch = new FakeWatch(fromKey, toKeyPrefix);
+            for (Event event : history)
+            {
+                if (event.getKv().getModRevision() >= startRevision)
+                {
+                    watch.offer(event);
+                }
+            }
+            watches.add(watch);
+            notifyAll();
+            return watch;
+        }
+
+        synchronized void closeWatch(FakeWatch watch)
+        {
+            watches.remove(watch);
+        }
+
+        synchronized int getWatchCount()
+        {
+            return watches.size();
+        }
+
+        synchronized void awaitWatches(int count) throws InterruptedException
+        {
+            while (watches.size() < count)
+            {
+                wait();
+            }
+        }
+
+        private class FakeWatch implements EtcdStandbyClient.Watch
+        {
+            private final String fromKey;
+            private final String toKeyPrefix;
+            private final BlockingQueue<List<Event>> updates = new LinkedBlockingQueue<>();
+
+            private FakeWatch(String fromKeyRef, String toKeyPrefixRef)
+            {
+                fromKey = fromKeyRef;
+                toKeyPrefix = toKeyPrefixRef;
+            }
+
+            private void offer(Event event)
+            {
+                String key = event.getKv().getKey().toStringUtf8();
+                if (key.compareTo(fromKey) >= 0 && (key.compareTo(toKeyPrefix) < 0 || key.startsWith(toKeyPrefix)))
+                {
+                    updates.add(Collections.singletonList(event));
+                }
+            }
+
+            @Override
+            public List<Event> next()
+            {
+                try
+                {
+                    return updates.take();
+                }
+                catch (InterruptedException exc)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(exc);
+                }
+            }
+
+            @Override
+            public void close()
+            {
+                closeWatch(this);
+            }
+        }
+    }
+
+    private static class FakeClient implements EtcdStandbyClient
+    {
+        private final FakeEtcd etcd;
+        private volatile long leaseId = FakeEtcd.NO_LEASE;
+
+        private FakeClient(FakeEtcd etcdRef)
+        {
+            etcd = etcdRef;
+        }
+
+        @Override
+        public long grantLease(Runnable onExpired)
+        {
+            leaseId = etcd.grantLease(onExpired);
+            return leaseId;
+        }
+
+        @Override
+        public void revokeLease(long leaseIdRef)
+        {
+            etcd.revoke(leaseIdRef);
+        }
+
+        @Override
+        public boolean putIfAbsent(String key, String value, long leaseIdRef)
+        {
+            boolean put;
+            synchronized (etcd)
+            {
+                put = etcd.get(key) == null;
+                if (put)
+                {
+                    etcd.put(key, value, leaseIdRef);
+                }
+            }
+            return put;
+        }
+
+        @Override
+        public long put(String key, String value, long leaseIdRef)
+        {
+            return etcd.put(key, value, leaseIdRef);
+        }
+
+        @Override
+        public KeyValue get(String key)
+        {
+            return etcd.get(key);
+        }
+
+        @Override
+        public EtcdCheckpoint readAll(String keyPrefix)
+        {
+            return etcd.readAll(keyPrefix);
+        }
+
+        @Override
+        public Watch watch(String fromKey, String toKeyPrefix, long startRevision)
+        {
+            return etcd.watch(fromKey, toKeyPrefix, startRevision);
+        }
+    }
+}
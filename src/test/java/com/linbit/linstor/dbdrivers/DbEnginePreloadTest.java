@@ -0,0 +1,149 @@
+package com.linbit.linstor.dbdrivers;
+
+import com.linbit.linstor.core.identifier.NodeName;
+import com.linbit.linstor.core.identifier.ResourceName;
+import com.linbit.linstor.core.identifier.StorPoolName;
+import com.linbit.linstor.core.identifier.VolumeNumber;
+import com.linbit.linstor.core.objects.Node;
+import com.linbit.linstor.core.objects.Resource;
+import com.linbit.linstor.core.objects.ResourceDefinition;
+import com.linbit.linstor.core.objects.StorPool;
+import com.linbit.linstor.core.objects.StorPoolDefinition;
+import com.linbit.linstor.core.objects.VolumeDefinition;
+import com.linbit.linstor.dbdrivers.DatabaseTable.Column;
+import com.linbit.linstor.layer.LayerPayload;
+import com.linbit.linstor.security.GenericDbBase;
+import com.linbit.linstor.storage.interfaces.layers.drbd.DrbdRscDfnObject.TransportType;
+import com.linbit.linstor.storage.kinds.DeviceLayerKind;
+import com.linbit.linstor.storage.kinds.DeviceProviderKind;
+import com.linbit.utils.Pair;
+
+import javax.inject.Inject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+public class DbEnginePreloadTest extends GenericDbBase
+{
+    private static final int NODE_COUNT = 3;
+
+    @Inject
+    private DbEngine dbEngine;
+
+    @Before
+    @SuppressWarnings("checkstyle:magicnumber")
+    public void setUp() throws Exception
+    {
+        seedDefaultPeerRule.setDefaultPeerAccessContext(SYS_CTX);
+        super.setUpAndEnterScope();
+
+        ResourceDefinition rscDfn = resourceDefinitionFactory.create(
+            SYS_CTX,
+            new ResourceName("rsc"),
+            null,
+            9001,
+            null,
+            "secret",
+            TransportType.IP,
+            Arrays.asList(DeviceLayerKind.DRBD, DeviceLayerKind.STORAGE),
+            null,
+            createDefaultResourceGroup(SYS_CTX)
+        );
+        VolumeDefinition vlmDfn = volumeDefinitionFactory.create(
+            SYS_CTX, rscDfn, new VolumeNumber(0), 1000, 4096L, null
+        );
+        StorPoolDefinition storPoolDfn = storPoolDefinitionFactory.create(SYS_CTX, new StorPoolName("pool"));
+
+        for (int idx = 0; idx < NODE_COUNT; ++idx)
+        {
+            Node node = nodeFactory.create(SYS_CTX, new NodeName("node" + idx), Node.Type.SATELLITE, null);
+            StorPool storPool = storPoolFactory.create(
+                SYS_CTX, node, storPoolDfn, DeviceProviderKind.LVM, getFreeSpaceMgr(storPoolDfn, node)
+            );
+            LayerPayload payload = new LayerPayload();
+            payload.getDrbdRsc().nodeId = idx;
+            Resource rsc = resourceFactory.create(SYS_CTX, rscDfn, node, payload, null, Collections.emptyList());
+            volumeFactory.create(SYS_CTX, rsc, vlmDfn, null, Collections.singletonMap("", storPool));
+        }
+        commit();
+    }
+
+    @After
+    public void clearPreloaded()
+    {
+        dbEngine.clearPreloadedTables();
+    }
+
+    /**
+     * Returns every row of the given table as a string of all of its columns
+     */
+    private Set<String> load(DatabaseTable table) throws Exception
+    {
+        Map<String, Void> rows = dbEngine.loadAll(
+            table,
+            null,
+            (raw, ignoredParents) ->
+            {
+                StringBuilder row = new StringBuilder();
+                for (Column col : table.values())
+                {
+                    Object value = raw.get(col);
+                    row.append(col.getName()).append('=')
+                        .append(value instanceof byte[] ? Arrays.toString((byte[]) value) : value)
+                        .append(';');
+                }
+                return new Pair<>(row.toString(), null);
+            }
+        );
+        return rows.keySet();
+    }
+
+    private Map<DatabaseTable, Set<String>> loadAllTables() throws Exception
+    {
+        Map<DatabaseTable, Set<String>> ret = new HashMap<>();
+        for (DatabaseTable table : DatabaseLoader.PRELOADED_TABLES)
+        {
+            ret.put(table, load(table));
+        }
+        return ret;
+    }
+
+    @Test
+    public void testPreloadedRowsMatchSequentialLoad() throws Exception
+    {
+        Map<DatabaseTable, Set<String>> sequential = loadAllTables();
+        assertEquals(NODE_COUNT, sequential.get(GeneratedDatabaseTables.NODES).size());
+        assertEquals(NODE_COUNT, sequential.get(GeneratedDatabaseTables.VOLUMES).size());
+        assertFalse(sequential.get(GeneratedDatabaseTables.RESOURCE_GROUPS).isEmpty());
+
+        dbEngine.preloadTables(DatabaseLoader.PRELOADED_TABLES);
+        assertEquals(sequential, loadAllTables());
+    }
+
+    @Test
+    public void testPreloadedRowsAreUsedUntilCleared() throws Exception
+    {
+        dbEngine.preloadTables(DatabaseLoader.PRELOADED_TABLES);
+        Set<String> preloadedNodes = load(GeneratedDatabaseTables.NODES);
+
+        nodeFactory.create(SYS_CTX, new NodeName("late"), Node.Type.SATELLITE, null);
+        commit();
+        // answered from the preloaded rows, otherwise the comparison above would prove nothing
+        assertEquals(preloadedNodes, load(GeneratedDatabaseTables.NODES));
+
+        dbEngine.clearPreloadedTables();
+        assertNotEquals(preloadedNodes, load(GeneratedDatabaseTables.NODES));
+        assertEquals(NODE_COUNT + 1, load(GeneratedDatabaseTables.NODES).size());
+    }
+}
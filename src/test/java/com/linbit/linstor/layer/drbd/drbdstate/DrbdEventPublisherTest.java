@@ -0,0 +1,171 @@
+package com.linbit.linstor.layer.drbd.drbdstate;
+
+import com.linbit.ValueOutOfRangeException;
+import com.linbit.linstor.core.cfg.StltConfig;
+import com.linbit.linstor.core.identifier.VolumeNumber;
+import com.linbit.linstor.event.GenericEvent;
+import com.linbit.linstor.event.ObjectIdentifier;
+import com.linbit.linstor.event.common.ConnectionStateEvent;
+import com.linbit.linstor.event.common.ResourceStateEvent;
+import com.linbit.linstor.event.common.UsageState;
+import com.linbit.linstor.event.common.VolumeDiskStateEvent;
+
+import java.time.Duration;
+
+import org.junit.Before;
+import org.junit.Test;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class DrbdEventPublisherTest
+{
+    private static final long WINDOW_MS = 100;
+
+    private VirtualTimeScheduler scheduler;
+    private GenericEvent<UsageState> rscEvent;
+    private GenericEvent<String> vlmEvent;
+
+    private DrbdResource resource;
+    private DrbdVolume volume;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws ValueOutOfRangeException
+    {
+        scheduler = VirtualTimeScheduler.create();
+        rscEvent = mock(GenericEvent.class);
+        vlmEvent = mock(GenericEvent.class);
+
+        resource = new DrbdResource("rsc");
+        resource.setKnownByLinstor(true);
+        volume = new DrbdVolume(resource, null, new VolumeNumber(0));
+        resource.putVolume(volume);
+    }
+
+    @SuppressWarnings("unchecked")
+    private DrbdEventPublisher createPublisher(long coalesceWindowMs)
+    {
+        StltConfig stltConfig = new StltConfig();
+        stltConfig.setDrbdEventsCoalesceWindowMs(coalesceWindowMs);
+        return new DrbdEventPublisher(
+            mock(DrbdEventService.class),
+            new ResourceStateEvent(rscEvent),
+            new VolumeDiskStateEvent(vlmEvent),
+            new ConnectionStateEvent(mock(GenericEvent.class)),
+            scheduler,
+            stltConfig
+        );
+    }
+
+    private void advance(long millis)
+    {
+        scheduler.advanceTimeBy(Duration.ofMillis(millis));
+    }
+
+    @Test
+    public void testNonCriticalChangesAreCoalesced()
+    {
+        DrbdEventPublisher publisher = createPublisher(WINDOW_MS);
+
+        publisher.replicationStateChanged(resource, null, volume, null, DrbdVolume.ReplState.SYNC_TARGET);
+        publisher.diskStateChanged(
+            resource, null, volume, DrbdVolume.DiskState.INCONSISTENT, DrbdVolume.DiskState.INCONSISTENT
+        );
+        volume.volDiskState = DrbdVolume.DiskState.UP_TO_DATE;
+        publisher.diskStateChanged(
+            resource, null, volume, DrbdVolume.DiskState.INCONSISTENT, DrbdVolume.DiskState.UP_TO_DATE
+        );
+
+        advance(WINDOW_MS - 1);
+        verify(rscEvent, never()).triggerEvent(any(), any());
+        verify(vlmEvent, never()).triggerEvent(any(), any());
+
+        advance(1);
+        verify(rscEvent, times(1)).triggerEvent(any(), any());
+        // only the latest state is published
+        verify(vlmEvent, times(1)).triggerEvent(
+            eq(ObjectIdentifier.volumeDefinition(resource.getResName(), volume.getVolNr())),
+            eq(DrbdVolume.DiskState.UP_TO_DATE.toString())
+        );
+
+        // nothing pending, nothing published
+        advance(WINDOW_MS);
+        verify(rscEvent, times(1)).triggerEvent(any(), any());
+    }
+
+    @Test
+    public void testFlushPublishesStatesOfCoalescedChange()
+    {
+        DrbdEventPublisher publisher = createPublisher(WINDOW_MS);
+
+        volume.volDiskState = DrbdVolume.DiskState.UP_TO_DATE;
+        publisher.diskStateChanged(
+            resource, null, volume, DrbdVolume.DiskState.INCONSISTENT, DrbdVolume.DiskState.UP_TO_DATE
+        );
+        // modified by the DRBD events thread, the change is not yet reported
+        volume.volDiskState = DrbdVolume.DiskState.OUTDATED;
+
+        advance(WINDOW_MS);
+        verify(vlmEvent, times(1)).triggerEvent(
+            eq(ObjectIdentifier.volumeDefinition(resource.getResName(), volume.getVolNr())),
+            eq(DrbdVolume.DiskState.UP_TO_DATE.toString())
+        );
+    }
+
+    @Test
+    public void testCriticalChangeBypassesWindowAndFlushesPending()
+    {
+        DrbdEventPublisher publisher = createPublisher(WINDOW_MS);
+
+        publisher.diskStateChanged(
+            resource, null, volume, DrbdVolume.DiskState.UP_TO_DATE, DrbdVolume.DiskState.UP_TO_DATE
+        );
+        verify(rscEvent, never()).triggerEvent(any(), any());
+
+        resource.resRole = DrbdResource.Role.PRIMARY;
+        publisher.roleChanged(resource, DrbdResource.Role.SECONDARY, DrbdResource.Role.PRIMARY);
+        verify(rscEvent, times(1)).triggerEvent(any(), any());
+        verify(vlmEvent, times(1)).triggerEvent(any(), any());
+
+        volume.volDiskState = DrbdVolume.DiskState.FAILED;
+        publisher.diskStateChanged(
+            resource, null, volume, DrbdVolume.DiskState.UP_TO_DATE, DrbdVolume.DiskState.FAILED
+        );
+        verify(rscEvent, times(2)).triggerEvent(any(), any());
+        verify(vlmEvent, times(1)).triggerEvent(any(), eq(DrbdVolume.DiskState.FAILED.toString()));
+
+        // the pending event was already published with the critical change
+        advance(WINDOW_MS);
+        verify(rscEvent, times(2)).triggerEvent(any(), any());
+        verify(vlmEvent, times(2)).triggerEvent(any(), any());
+    }
+
+    @Test
+    public void testDestroyDropsPendingEvents()
+    {
+        DrbdEventPublisher publisher = createPublisher(WINDOW_MS);
+
+        publisher.replicationStateChanged(resource, null, volume, null, DrbdVolume.ReplState.ESTABLISHED);
+        publisher.resourceDestroyed(resource);
+        verify(rscEvent, times(1)).closeStream(ObjectIdentifier.resourceDefinition(resource.getResName()));
+
+        advance(WINDOW_MS);
+        verify(rscEvent, never()).triggerEvent(any(), any());
+    }
+
+    @Test
+    public void testDisabledWindowPublishesImmediately()
+    {
+        DrbdEventPublisher publisher = createPublisher(0);
+
+        publisher.replicationStateChanged(resource, null, volume, null, DrbdVolume.ReplState.SYNC_TARGET);
+        publisher.replicationStateChanged(resource, null, volume, null, DrbdVolume.ReplState.ESTABLISHED);
+        verify(rscEvent, times(2)).triggerEvent(any(), any());
+    }
+}
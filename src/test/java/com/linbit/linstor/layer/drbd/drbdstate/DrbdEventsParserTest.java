@@ -0,0 +1,110 @@
+package com.linbit.linstor.layer.drbd.drbdstate;
+
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.Action;
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.Key;
+import com.linbit.linstor.layer.drbd.drbdstate.DrbdEventsLine.ObjType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DrbdEventsParserTest
+{
+    private DrbdEventsLine line;
+
+    @Before
+    public void setUp()
+    {
+        line = new DrbdEventsLine();
+    }
+
+    @Test
+    public void testParseResource() throws EventsSourceException
+    {
+        assertTrue(DrbdEventsParser.parse("exists resource name:rsc1 role:Secondary suspended:no", line));
+
+        assertEquals(Action.EXISTS, line.getAction());
+        assertEquals(ObjType.RESOURCE, line.getObjType());
+        assertEquals("rsc1", line.get(Key.RES_NAME));
+        assertEquals("Secondary", line.get(Key.ROLE));
+        assertEquals("no", line.get(Key.SUSPENDED));
+        assertNull(line.get(Key.DISK));
+    }
+
+    @Test
+    public void testParsePeerDeviceIgnoresUnknownKeys() throws EventsSourceException
+    {
+        assertTrue(
+            DrbdEventsParser.parse(
+                "change peer-device name:rsc1 peer-node-id:1 conn-name:node2 volume:0 " +
+                    "replication:SyncTarget peer-disk:UpToDate done:42.17 received:123 sent:0 out-of-sync:4096",
+                line
+            )
+        );
+
+        assertEquals(Action.CHANGE, line.getAction());
+        assertEquals(ObjType.PEER_VOLUME, line.getObjType());
+        assertEquals("rsc1", line.get(Key.RES_NAME));
+        assertEquals("1", line.get(Key.PEER_NODE_ID));
+        assertEquals("node2", line.get(Key.CONN_NAME));
+        assertEquals("0", line.get(Key.VOL_NR));
+        assertEquals("SyncTarget", line.get(Key.REPLICATION));
+        assertEquals("UpToDate", line.get(Key.PEER_DISK));
+        assertEquals("42.17", line.get(Key.DONE));
+    }
+
+    @Test
+    public void testReuseResetsPreviousValues() throws EventsSourceException
+    {
+        DrbdEventsParser.parse("change device name:rsc1 volume:0 minor:1000 disk:UpToDate", line);
+        DrbdEventsLine copy = line.copy();
+        DrbdEventsParser.parse("destroy connection name:rsc2 conn-name:node3", line);
+
+        assertEquals(Action.DESTROY, line.getAction());
+        assertEquals(ObjType.CONNECTION, line.getObjType());
+        assertEquals("rsc2", line.get(Key.RES_NAME));
+        assertNull(line.get(Key.VOL_NR));
+        assertNull(line.get(Key.DISK));
+
+        // copies are not affected by reusing the line
+        assertEquals(ObjType.VOLUME, copy.getObjType());
+        assertEquals("1000", copy.get(Key.MINOR));
+        assertEquals("rsc1", copy.get(Key.RES_NAME));
+    }
+
+    @Test
+    public void testParseOtherActionAndObjType() throws EventsSourceException
+    {
+        assertTrue(DrbdEventsParser.parse("call helper name:rsc1 helper:before-resync-target", line));
+        assertEquals(Action.OTHER, line.getAction());
+        assertEquals(ObjType.OTHER, line.getObjType());
+
+        assertTrue(DrbdEventsParser.parse("exists -", line));
+        assertEquals(Action.EXISTS, line.getAction());
+        assertEquals(ObjType.END_OF_INIT, line.getObjType());
+    }
+
+    @Test
+    public void testValueContainingSeparator() throws EventsSourceException
+    {
+        DrbdEventsParser.parse("create connection name:rsc1 conn-name:node:2 connection:Connecting", line);
+        assertEquals("node:2", line.get(Key.CONN_NAME));
+        assertEquals("Connecting", line.get(Key.CONNECTION));
+    }
+
+    @Test
+    public void testEmptyLine() throws EventsSourceException
+    {
+        assertFalse(DrbdEventsParser.parse("", line));
+    }
+
+    @Test(expected = EventsSourceException.class)
+    public void testMissingObjType() throws EventsSourceException
+    {
+        DrbdEventsParser.parse("change", line);
+    }
+}
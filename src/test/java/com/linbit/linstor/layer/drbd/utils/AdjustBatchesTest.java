@@ -0,0 +1,136 @@
+package com.linbit.linstor.layer.drbd.utils;
+
+import com.linbit.extproc.ExtCmdFailedException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdjustBatchesTest
+{
+    private List<List<String>> calls;
+    private List<String> succeeded;
+    private Map<String, ExtCmdFailedException> failed;
+    private AdjustBatches.ResultHandler<String> resultHandler;
+
+    @Before
+    public void setUp()
+    {
+        calls = new ArrayList<>();
+        succeeded = new ArrayList<>();
+        failed = new HashMap<>();
+        resultHandler = new AdjustBatches.ResultHandler<String>()
+        {
+            @Override
+            public void succeeded(String item)
+            {
+                succeeded.add(item);
+            }
+
+            @Override
+            public void failed(String item, ExtCmdFailedException exc)
+            {
+                failed.put(item, exc);
+            }
+        };
+    }
+
+    private static List<String> items(int count)
+    {
+        List<String> items = new ArrayList<>();
+        for (int idx = 0; idx < count; ++idx)
+        {
+            items.add("rsc" + idx);
+        }
+        return items;
+    }
+
+    private static ExtCmdFailedException adjustFailed()
+    {
+        return new ExtCmdFailedException(new String[] {"drbdadm"}, new IOException("test"));
+    }
+
+    @Test
+    public void testSplitAtMaxBatchSize()
+    {
+        List<String> items = items(2 * DrbdAdm.MAX_ADJUST_BATCH_SIZE + 1);
+        AdjustBatches.run(
+            items,
+            DrbdAdm.MAX_ADJUST_BATCH_SIZE,
+            batch -> calls.add(new ArrayList<>(batch)),
+            resultHandler
+        );
+
+        assertEquals(3, calls.size());
+        assertEquals(items.subList(0, DrbdAdm.MAX_ADJUST_BATCH_SIZE), calls.get(0));
+        assertEquals(
+            items.subList(DrbdAdm.MAX_ADJUST_BATCH_SIZE, 2 * DrbdAdm.MAX_ADJUST_BATCH_SIZE),
+            calls.get(1)
+        );
+        assertEquals(Collections.singletonList(items.get(items.size() - 1)), calls.get(2));
+        assertEquals(items, succeeded);
+        assertTrue(failed.isEmpty());
+    }
+
+    @Test
+    public void testFailureIsAttributedToTheFailingItem()
+    {
+        List<String> items = items(5);
+        ExtCmdFailedException rsc3Exc = adjustFailed();
+        AdjustBatches.run(
+            items,
+            3,
+            batch ->
+            {
+                calls.add(new ArrayList<>(batch));
+                if (batch.contains("rsc3"))
+                {
+                    throw batch.size() == 1 ? rsc3Exc : adjustFailed();
+                }
+            },
+            resultHandler
+        );
+
+        assertEquals(
+            Arrays.asList(
+                Arrays.asList("rsc0", "rsc1", "rsc2"),
+                Arrays.asList("rsc3", "rsc4"),
+                Arrays.asList("rsc3"),
+                Arrays.asList("rsc4")
+            ),
+            calls
+        );
+        assertEquals(Arrays.asList("rsc0", "rsc1", "rsc2", "rsc4"), succeeded);
+        assertEquals(Collections.singletonMap("rsc3", rsc3Exc), failed);
+    }
+
+    @Test
+    public void testFailedSingleBatchIsNotRetried()
+    {
+        ExtCmdFailedException exc = adjustFailed();
+        AdjustBatches.run(
+            items(1),
+            3,
+            batch ->
+            {
+                calls.add(new ArrayList<>(batch));
+                throw exc;
+            },
+            resultHandler
+        );
+
+        assertEquals(1, calls.size());
+        assertTrue(succeeded.isEmpty());
+        assertEquals(Collections.singletonMap("rsc0", exc), failed);
+    }
+}
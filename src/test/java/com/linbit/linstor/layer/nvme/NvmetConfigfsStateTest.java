@@ -0,0 +1,115 @@
+package com.linbit.linstor.layer.nvme;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NvmetConfigfsStateTest
+{
+    private static final String SUBSYS = "LS-NVMe_rsc";
+    private static final String DEVICE = "/dev/scratch/rsc_00000";
+    private static final String ADDR = "10.0.0.1";
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private Path nvmetPath;
+
+    @Before
+    public void setUp()
+    {
+        nvmetPath = testFolder.getRoot().toPath();
+    }
+
+    private int createTarget() throws IOException
+    {
+        NvmetConfigfsState state = NvmetConfigfsState.read(nvmetPath);
+        state.ensureSubsystem(SUBSYS);
+        state.ensureNamespace(SUBSYS, 1, DEVICE);
+        int portIdx = state.createPort(ADDR, "rdma", "4420", "ipv4");
+        state.ensureLink(portIdx, SUBSYS);
+        return portIdx;
+    }
+
+    private String readAttr(String relativePath) throws IOException
+    {
+        return new String(Files.readAllBytes(nvmetPath.resolve(relativePath)), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testReadBackCreatedTarget() throws IOException
+    {
+        int portIdx = createTarget();
+
+        NvmetConfigfsState state = NvmetConfigfsState.read(nvmetPath);
+        assertTrue(state.hasSubsystem(SUBSYS));
+        assertTrue(state.hasNamespace(SUBSYS, 1));
+        assertFalse(state.hasNamespace(SUBSYS, 2));
+        assertEquals(Integer.valueOf(portIdx), state.findPortIdx(ADDR));
+        assertNull(state.findPortIdx("10.0.0.2"));
+        assertEquals("1", readAttr("subsystems/" + SUBSYS + "/attr_allow_any_host"));
+        assertEquals(DEVICE, readAttr("subsystems/" + SUBSYS + "/namespaces/1/device_path"));
+        assertTrue(Files.isSymbolicLink(nvmetPath.resolve("ports/" + portIdx + "/subsystems/" + SUBSYS)));
+    }
+
+    @Test
+    public void testUnchangedTargetIsNotRewritten() throws IOException
+    {
+        int portIdx = createTarget();
+
+        NvmetConfigfsState state = NvmetConfigfsState.read(nvmetPath);
+        // if the namespace were written again, this file would be recreated
+        Path enablePath = nvmetPath.resolve("subsystems/" + SUBSYS + "/namespaces/1/enable");
+        Files.delete(enablePath);
+
+        state.ensureSubsystem(SUBSYS);
+        state.ensureNamespace(SUBSYS, 1, DEVICE);
+        state.ensureLink(portIdx, SUBSYS);
+
+        assertFalse(Files.exists(enablePath));
+    }
+
+    @Test
+    public void testChangedDevicePathIsUpdated() throws IOException
+    {
+        createTarget();
+
+        NvmetConfigfsState state = NvmetConfigfsState.read(nvmetPath);
+        state.ensureNamespace(SUBSYS, 1, "/dev/scratch/other_00000");
+
+        assertEquals("/dev/scratch/other_00000", readAttr("subsystems/" + SUBSYS + "/namespaces/1/device_path"));
+        assertEquals("1", readAttr("subsystems/" + SUBSYS + "/namespaces/1/enable"));
+    }
+
+    @Test
+    public void testRemoveNamespace() throws IOException
+    {
+        createTarget();
+
+        Path nsPath = nvmetPath.resolve("subsystems/" + SUBSYS + "/namespaces/1");
+        Files.write(nsPath.resolve("enable"), "0".getBytes(StandardCharsets.UTF_8));
+
+        NvmetConfigfsState state = NvmetConfigfsState.read(nvmetPath);
+        // unlike a configfs directory, a plain directory can only be removed without its attribute files
+        Files.delete(nsPath.resolve("device_path"));
+        Files.delete(nsPath.resolve("enable"));
+        Files.createDirectories(nsPath.getParent().resolve("2"));
+
+        state.removeNamespace(SUBSYS, 1);
+
+        assertFalse(state.hasNamespace(SUBSYS, 1));
+        assertFalse(Files.exists(nsPath));
+        assertTrue(NvmetConfigfsState.read(nvmetPath).hasNamespace(SUBSYS, 2));
+    }
+}
@@ -0,0 +1,72 @@
+package com.linbit.linstor.layer.storage;
+
+import com.linbit.linstor.api.SpaceInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FreeSpaceAccountingTest
+{
+    private static final long INTERVAL = 1000;
+
+    private FreeSpaceAccounting accounting;
+
+    @Before
+    public void setUp()
+    {
+        accounting = new FreeSpaceAccounting(INTERVAL);
+    }
+
+    @Test
+    public void testUnknownStorage()
+    {
+        assertNull(accounting.get("vg", 0));
+
+        // nothing to account against
+        accounting.allocated("vg", 100);
+        assertNull(accounting.get("vg", 0));
+    }
+
+    @Test
+    public void testAllocations()
+    {
+        accounting.reconciled("vg", new SpaceInfo(1000L, 800L), 0);
+        accounting.allocated("vg", 300);
+        accounting.allocated("vg", -100);
+        accounting.allocated("otherVg", 50);
+
+        SpaceInfo spaceInfo = accounting.get("vg", 10);
+        assertEquals(Long.valueOf(1000), spaceInfo.totalCapacity);
+        assertEquals(Long.valueOf(600), spaceInfo.freeCapacity);
+
+        accounting.allocated("vg", 1000);
+        assertEquals(Long.valueOf(0), accounting.get("vg", 10).freeCapacity);
+    }
+
+    @Test
+    public void testInvalidate()
+    {
+        accounting.reconciled("vg", new SpaceInfo(1000L, 800L), 0);
+        accounting.invalidate("vg");
+        assertNull(accounting.get("vg", 0));
+    }
+
+    @Test
+    public void testReconcileInterval()
+    {
+        accounting.reconciled("vg", new SpaceInfo(1000L, 800L), 0);
+        accounting.allocated("vg", 300);
+        assertEquals(Long.valueOf(500), accounting.get("vg", INTERVAL - 1).freeCapacity);
+        assertNull(accounting.get("vg", INTERVAL));
+
+        // the real value replaces the accounted one
+        accounting.reconciled("vg", new SpaceInfo(1000L, 450L), INTERVAL);
+        assertEquals(Long.valueOf(450), accounting.get("vg", INTERVAL).freeCapacity);
+
+        accounting.reconciled("vg", new SpaceInfo(null, null), INTERVAL);
+        assertNull(accounting.get("vg", INTERVAL));
+    }
+}
@@ -0,0 +1,144 @@
+package com.linbit.linstor.layer.storage;
+
+import com.linbit.extproc.ExtCmd;
+import com.linbit.extproc.ExtCmd.OutputData;
+import com.linbit.extproc.ExtCmdFactory;
+import com.linbit.linstor.core.cfg.StltConfig;
+import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.storage.StorageException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentMatchers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WipeHandlerTest
+{
+    private static final int FILE_SIZE = 1 << 20;
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private WipeHandler wipeHandler;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        ExtCmd extCmd = mock(ExtCmd.class);
+        when(extCmd.exec(ArgumentMatchers.<String>any())).thenAnswer(
+            invocation -> new OutputData(new String[0], new byte[0], new byte[0], 0)
+            {
+            }
+        );
+        ExtCmdFactory extCmdFactory = mock(ExtCmdFactory.class);
+        when(extCmdFactory.create()).thenReturn(extCmd);
+
+        wipeHandler = new WipeHandler(extCmdFactory, mock(ErrorReporter.class), new StltConfig());
+        wipeHandler.start();
+    }
+
+    @After
+    public void tearDown()
+    {
+        wipeHandler.shutdown();
+    }
+
+    private File createDevice() throws IOException
+    {
+        File device = tmpFolder.newFile();
+        try (RandomAccessFile raf = new RandomAccessFile(device, "rw"))
+        {
+            raf.setLength(FILE_SIZE);
+            raf.seek(FILE_SIZE - 1);
+            raf.write(0xFF);
+        }
+        return device;
+    }
+
+    @Test
+    public void testParseIgnoresDefaultLocale()
+    {
+        Locale dfltLocale = Locale.getDefault();
+        try
+        {
+            // the upper case of 'i' is the dotted capital I in turkish
+            Locale.setDefault(new Locale("tr", "TR"));
+            assertEquals(WipeHandler.WipeStrategy.DISCARD, WipeHandler.WipeStrategy.parse(" discard "));
+        }
+        finally
+        {
+            Locale.setDefault(dfltLocale);
+        }
+    }
+
+    @Test
+    public void testNotifierCalledAfterWipe() throws Exception
+    {
+        File device = createDevice();
+        CountDownLatch finished = new CountDownLatch(1);
+        boolean queued = wipeHandler.asyncWipe(
+            device.getPath(),
+            WipeHandler.WipeStrategy.METADATA,
+            devicePath ->
+            {
+                // the DRBD super block at the end of the device has to be wiped by now
+                try (RandomAccessFile raf = new RandomAccessFile(devicePath, "r"))
+                {
+                    raf.seek(FILE_SIZE - 1);
+                    assertEquals(0, raf.read());
+                }
+                catch (IOException exc)
+                {
+                    throw new StorageException("test", exc);
+                }
+                finished.countDown();
+            }
+        );
+        assertTrue(queued);
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testNotifierCalledAfterFailedWipe() throws Exception
+    {
+        // blockdev does not report a size
+        CountDownLatch finished = new CountDownLatch(1);
+        wipeHandler.asyncWipe(
+            new File(tmpFolder.getRoot(), "missing").getPath(),
+            WipeHandler.WipeStrategy.ZERO,
+            ignored -> finished.countDown()
+        );
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testNothingQueuedAfterShutdown() throws Exception
+    {
+        wipeHandler.shutdown();
+
+        CountDownLatch finished = new CountDownLatch(1);
+        boolean queued = wipeHandler.asyncWipe(
+            createDevice().getPath(),
+            WipeHandler.WipeStrategy.METADATA,
+            ignored -> finished.countDown()
+        );
+        assertFalse(queued);
+        // the volume has to be kept, it is wiped again after the next start
+        assertFalse(finished.await(200, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,210 @@
+package com.linbit.linstor.layer.storage.lvm;
+
+import com.linbit.extproc.ExtCmd;
+import com.linbit.extproc.ExtCmd.OutputData;
+import com.linbit.extproc.ExtCmdFactory;
+import com.linbit.linstor.core.StltConfigAccessor;
+import com.linbit.linstor.core.identifier.StorPoolName;
+import com.linbit.linstor.core.objects.Resource;
+import com.linbit.linstor.core.objects.StorPool;
+import com.linbit.linstor.layer.DeviceLayer.NotificationListener;
+import com.linbit.linstor.layer.storage.WipeHandler;
+import com.linbit.linstor.layer.storage.WipeHandler.WipeStrategy;
+import com.linbit.linstor.logging.ErrorReporter;
+import com.linbit.linstor.snapshotshipping.SnapshotShippingService;
+import com.linbit.linstor.storage.StorageException;
+import com.linbit.linstor.storage.data.provider.lvm.LvmData;
+import com.linbit.linstor.transaction.manager.TransactionMgr;
+import com.linbit.utils.ExceptionThrowingConsumer;
+
+import javax.inject.Provider;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LvmProviderWipeTest
+{
+    private static final String VG = "vg";
+    private static final String LV_ID = "rsc_00000";
+
+    private List<List<String>> executedCommands;
+    private String lvsOutput;
+    private StorPoolName storPoolName;
+    private StorPool storPool;
+    private WipeHandler wipeHandler;
+    private NotificationListener notificationListener;
+    private LvmProvider provider;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception
+    {
+        executedCommands = new ArrayList<>();
+        lvsOutput = "";
+
+        ExtCmd extCmd = mock(ExtCmd.class);
+        when(extCmd.exec(ArgumentMatchers.<String>any())).thenAnswer(
+            invocation ->
+            {
+                List<String> command = Arrays.stream(invocation.getArguments())
+                    .map(String.class::cast)
+                    .collect(Collectors.toList());
+                executedCommands.add(command);
+                String stdOut = command.get(0).equals("lvs") ? lvsOutput : "";
+                return new OutputData(
+                    command.toArray(new String[0]),
+                    stdOut.getBytes(StandardCharsets.UTF_8),
+                    new byte[0],
+                    0
+                )
+                {
+                };
+            }
+        );
+        ExtCmdFactory extCmdFactory = mock(ExtCmdFactory.class);
+        when(extCmdFactory.create()).thenReturn(extCmd);
+
+        storPoolName = new StorPoolName("pool");
+        storPool = mock(StorPool.class);
+        when(storPool.getName()).thenReturn(storPoolName);
+
+        wipeHandler = mock(WipeHandler.class);
+        when(wipeHandler.getDefaultStrategy()).thenReturn(WipeStrategy.ZERO);
+        when(wipeHandler.asyncWipe(any(), any(), any())).thenReturn(true);
+
+        notificationListener = mock(NotificationListener.class);
+        Provider<NotificationListener> notificationListenerProvider = mock(Provider.class);
+        when(notificationListenerProvider.get()).thenReturn(notificationListener);
+
+        provider = new LvmProvider(
+            mock(ErrorReporter.class),
+            extCmdFactory,
+            null,
+            mock(StltConfigAccessor.class),
+            wipeHandler,
+            notificationListenerProvider,
+            mock(Provider.class),
+            mock(SnapshotShippingService.class)
+        );
+    }
+
+    private List<List<String>> executed(String cmd)
+    {
+        return executedCommands.stream()
+            .filter(command -> command.get(0).equals(cmd))
+            .collect(Collectors.toList());
+    }
+
+    private static String lvsLine(String lvId)
+    {
+        return String.join(";", lvId, "/dev/" + VG + "/" + lvId, "4096.00", VG, "", "", "-wi-a-----");
+    }
+
+    @SuppressWarnings("unchecked")
+    private ExceptionThrowingConsumer<String, StorageException> verifyWipeQueued(String devicePath)
+    {
+        ArgumentCaptor<ExceptionThrowingConsumer<String, StorageException>> notifier =
+            ArgumentCaptor.forClass(ExceptionThrowingConsumer.class);
+        verify(wipeHandler).asyncWipe(eq(devicePath), eq(WipeStrategy.ZERO), notifier.capture());
+        return notifier.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private String delete() throws Exception
+    {
+        LvmData<Resource> vlmData = mock(LvmData.class);
+        when(vlmData.getVolumeGroup()).thenReturn(VG);
+        when(vlmData.getStorPool()).thenReturn(storPool);
+        int renameCount = executed("lvrename").size();
+        provider.deleteLvImpl(vlmData, LV_ID);
+
+        List<List<String>> renames = executed("lvrename");
+        assertEquals(renameCount + 1, renames.size());
+        List<String> rename = renames.get(renameCount);
+        verify(vlmData).setExists(false);
+        return rename.get(rename.size() - 1);
+    }
+
+    @Test
+    public void testDeleteRenamesAndRemovesAfterWipe() throws Exception
+    {
+        String wipeLvId = delete();
+        assertTrue(wipeLvId.startsWith(LV_ID + LvmProvider.WIPE_IN_PROGRESS_MARKER));
+
+        ExceptionThrowingConsumer<String, StorageException> notifier = verifyWipeQueued("/dev/" + VG + "/" + wipeLvId);
+        assertTrue(executed("lvremove").isEmpty());
+        verify(notificationListener, never()).notifyFreeSpaceReleased(any());
+
+        notifier.accept("/dev/" + VG + "/" + wipeLvId);
+        List<List<String>> removes = executed("lvremove");
+        assertEquals(1, removes.size());
+        assertTrue(removes.get(0).contains(VG + "/" + wipeLvId));
+        // the space is only available once the LV was removed
+        verify(notificationListener).notifyFreeSpaceReleased(storPoolName);
+    }
+
+    @Test
+    public void testRenamedIdsAreUnique() throws Exception
+    {
+        assertNotEquals(delete(), delete());
+    }
+
+    @Test
+    public void testRecoveryWipesLeftovers() throws Exception
+    {
+        String leftover = LV_ID + LvmProvider.WIPE_IN_PROGRESS_MARKER + "0123456789abcdef0123456789abcdef";
+        lvsOutput = lvsLine(LV_ID) + "\n" + lvsLine(leftover) + "\n";
+
+        provider.recoverInterruptedWipes(storPool, VG);
+        ExceptionThrowingConsumer<String, StorageException> notifier = verifyWipeQueued("/dev/" + VG + "/" + leftover);
+        notifier.accept("/dev/" + VG + "/" + leftover);
+        assertEquals(1, executed("lvremove").size());
+        assertTrue(executed("lvremove").get(0).contains(VG + "/" + leftover));
+
+        // only checked once per volume group
+        provider.recoverInterruptedWipes(storPool, VG);
+        verify(wipeHandler, times(1)).asyncWipe(any(), any(), any());
+    }
+
+    @Test
+    public void testRecoverySkipsQueuedWipes() throws Exception
+    {
+        String wipeLvId = delete();
+        lvsOutput = lvsLine(wipeLvId) + "\n";
+
+        provider.recoverInterruptedWipes(storPool, VG);
+        verify(wipeHandler, times(1)).asyncWipe(any(), any(), any());
+        verify(wipeHandler, never()).asyncWipe(any(), any());
+    }
+
+    @Test
+    public void testRecoveryWipesNotQueuedWipes() throws Exception
+    {
+        // shutting down
+        when(wipeHandler.asyncWipe(any(), any(), any())).thenReturn(false);
+        String wipeLvId = delete();
+        lvsOutput = lvsLine(wipeLvId) + "\n";
+
+        provider.recoverInterruptedWipes(storPool, VG);
+        verify(wipeHandler, times(2)).asyncWipe(eq("/dev/" + VG + "/" + wipeLvId), any(), any());
+    }
+}
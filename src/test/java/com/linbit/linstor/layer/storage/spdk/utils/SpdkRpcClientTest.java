@@ -0,0 +1,202 @@
+package com.linbit.linstor.layer.storage.spdk.utils;
+
+import com.linbit.extproc.ExtCmd.OutputData;
+import com.linbit.linstor.core.cfg.StltConfig;
+import com.linbit.linstor.layer.storage.spdk.utils.SpdkRpcClient.RpcErrorException;
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SpdkRpcClientTest
+{
+    private static final int PIPELINED_REQUESTS = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ServerSocket serverSocket;
+    private Thread serverThread;
+    private SpdkRpcClient client;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        serverSocket = new ServerSocket(0);
+        client = new SpdkRpcClient(new EmptyErrorReporter(), "127.0.0.1:" + serverSocket.getLocalPort());
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        client.close();
+        serverSocket.close();
+        if (serverThread != null)
+        {
+            serverThread.join(1000);
+        }
+    }
+
+    /**
+     * The fake SPDK target collects all pipelined requests and answers them in reverse order. Requests for the
+     * "fail" method are answered with an error.
+     */
+    private void startFakeTarget(int expectedRequests)
+    {
+        serverThread = new Thread(() ->
+        {
+            try (Socket socket = serverSocket.accept())
+            {
+                MappingIterator<JsonNode> requests = objectMapper.readerFor(JsonNode.class)
+                    .readValues(socket.getInputStream());
+                List<JsonNode> received = new ArrayList<>();
+                while (received.size() < expectedRequests && requests.hasNextValue())
+                {
+                    received.add(requests.nextValue());
+                }
+                Collections.reverse(received);
+
+                OutputStream out = socket.getOutputStream();
+                for (JsonNode request : received)
+                {
+                    ObjectNode response = objectMapper.createObjectNode();
+                    response.put("jsonrpc", "2.0");
+                    response.set("id", request.get("id"));
+                    if (request.path("method").asText().equals("fail"))
+                    {
+                        ObjectNode error = response.putObject("error");
+                        error.put("code", -32602);
+                        error.put("message", "Device or resource busy");
+                    }
+                    else
+                    {
+                        response.set("result", request.path("params").path("name"));
+                    }
+                    out.write(objectMapper.writeValueAsBytes(response));
+                }
+                out.flush();
+                // keep the connection open until the client is done
+                socket.getInputStream().read();
+            }
+            catch (IOException ignored)
+            {
+            }
+        });
+        serverThread.start();
+    }
+
+    @Test
+    public void testPipelinedResponsesAreMatchedById() throws Exception
+    {
+        startFakeTarget(PIPELINED_REQUESTS);
+
+        List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+        for (int idx = 0; idx < PIPELINED_REQUESTS; ++idx)
+        {
+            ObjectNode params = client.newParams();
+            params.put("name", "lvol" + idx);
+            futures.add(client.callAsync("get_bdevs", params));
+        }
+
+        for (int idx = 0; idx < PIPELINED_REQUESTS; ++idx)
+        {
+            assertEquals("lvol" + idx, futures.get(idx).get(5, TimeUnit.SECONDS).asText());
+        }
+    }
+
+    @Test
+    public void testErrorResponse() throws Exception
+    {
+        startFakeTarget(2);
+
+        CompletableFuture<JsonNode> failing = client.callAsync("fail", client.newParams());
+        OutputData outData = client.callAsOutputData(new String[] {"rpc.py", "get_bdevs"}, "fail", null);
+
+        try
+        {
+            failing.get(5, TimeUnit.SECONDS);
+            fail("RPC error expected");
+        }
+        catch (ExecutionException exc)
+        {
+            assertTrue(exc.getCause() instanceof RpcErrorException);
+            assertEquals(-32602, ((RpcErrorException) exc.getCause()).code);
+        }
+        assertTrue(outData.exitCode != 0);
+        assertTrue(new String(outData.stderrData, StandardCharsets.UTF_8).contains("busy"));
+    }
+
+    @Test
+    public void testTimedOutCallIsDropped() throws Exception
+    {
+        // the fake target waits for a second request that is never sent, so the first one is never answered
+        startFakeTarget(2);
+
+        try
+        {
+            client.call("get_bdevs", client.newParams(), 100);
+            fail("Timeout expected");
+        }
+        catch (IOException exc)
+        {
+            assertTrue(exc.getMessage().contains("timed out"));
+        }
+        assertEquals(0, client.getPendingCallCount());
+    }
+
+    @Test
+    public void testDisabledWithoutAddress()
+    {
+        assertFalse(new SpdkRpcClient(new EmptyErrorReporter(), new StltConfig()).isEnabled());
+        assertTrue(client.isEnabled());
+    }
+
+    @Test
+    public void testDisabledWithInvalidAddress()
+    {
+        for (String address : new String[] {"localhost", "localhost:rpc", "localhost:0", "localhost:65536"})
+        {
+            StltConfig stltCfg = new StltConfig();
+            stltCfg.setSpdkRpcAddress(address);
+            assertFalse(address, new SpdkRpcClient(new EmptyErrorReporter(), stltCfg).isEnabled());
+        }
+    }
+
+    @Test
+    public void testUnreachableTargetFailsCall() throws Exception
+    {
+        SpdkRpcClient unreachableClient = new SpdkRpcClient(new EmptyErrorReporter(), "no-such-host.invalid:5260");
+        CompletableFuture<JsonNode> future = unreachableClient.callAsync("get_bdevs", null);
+        try
+        {
+            future.get(1, TimeUnit.SECONDS);
+            fail("Connection failure expected");
+        }
+        catch (ExecutionException exc)
+        {
+            assertTrue(exc.getCause() instanceof IOException);
+        }
+        assertEquals(0, unreachableClient.getPendingCallCount());
+    }
+}
@@ -8,6 +8,8 @@ import com.linbit.linstor.core.apicallhandler.controller.helpers.ResourceList;
 import com.linbit.linstor.core.apis.NodeApi;
 import com.linbit.linstor.core.apis.ResourceDefinitionApi;
 import com.linbit.linstor.logging.StderrErrorReporter;
+import com.linbit.linstor.transaction.TransactionStats;
+import com.linbit.linstor.transaction.TransactionStatsCollector;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -23,7 +25,7 @@ public class PrometheusBuilderTest {
     public void testNullMetrics() throws IOException {
         long start = System.currentTimeMillis();
         StderrErrorReporter errReporter = new StderrErrorReporter("Test");
-        PrometheusBuilder pmb = new PrometheusBuilder(errReporter);
+        PrometheusBuilder pmb = new PrometheusBuilder(errReporter, new TransactionStatsCollector());
 
         final String promText = pmb.build(
                 null,
@@ -41,7 +43,7 @@ public class PrometheusBuilderTest {
     public void testSampleMetrics() throws IOException {
         long start = System.currentTimeMillis();
         StderrErrorReporter errReporter = new StderrErrorReporter("Test");
-        PrometheusBuilder pmb = new PrometheusBuilder(errReporter);
+        PrometheusBuilder pmb = new PrometheusBuilder(errReporter, new TransactionStatsCollector());
 
         ArrayList<NodeApi> nodeList = new ArrayList<>();
         nodeList.add(
@@ -97,4 +99,24 @@ public class PrometheusBuilderTest {
         Assert.assertTrue(promText.contains("linstor_node_state"));
         Assert.assertTrue(promText.contains("linstor_resource_definition_count 1.0"));
     }
+
+    @Test
+    public void testTransactionMetrics() throws IOException {
+        long start = System.currentTimeMillis();
+        StderrErrorReporter errReporter = new StderrErrorReporter("Test");
+        TransactionStatsCollector statsCollector = new TransactionStatsCollector();
+        statsCollector.record(new TransactionStats("CrtRsc", true, 20, 7, 12, 2_000_000L, start));
+        PrometheusBuilder pmb = new PrometheusBuilder(errReporter, statsCollector);
+
+        final String promText = pmb.build(null, null, null, null, null, 1, start);
+        Assert.assertTrue(promText.contains("# TYPE linstor_transaction_db_writes histogram"));
+        Assert.assertTrue(promText.contains(
+            "linstor_transaction_db_writes_bucket{api_call=\"CrtRsc\",le=\"10.0\",result=\"commit\"} 0.0"));
+        Assert.assertTrue(promText.contains(
+            "linstor_transaction_db_writes_bucket{api_call=\"CrtRsc\",le=\"50.0\",result=\"commit\"} 1.0"));
+        Assert.assertTrue(promText.contains(
+            "linstor_transaction_db_writes_count{api_call=\"CrtRsc\",result=\"commit\"} 1.0"));
+        Assert.assertTrue(promText.contains(
+            "linstor_transaction_duration_seconds_sum{api_call=\"CrtRsc\",result=\"commit\"} 0.002"));
+    }
 }
@@ -4,6 +4,7 @@ import org.junit.Test;
 
 import java.sql.ResultSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -114,6 +115,35 @@ public class PropsConSQLDbDriverTest extends PropsConSQLDbDriverBase
         checkIfPresent(map2, expectedInstanceName2);
     }
 
+    @Test
+    public void testPersistBatch() throws Throwable
+    {
+        insert(DEFAULT_INSTANCE_NAME, "a", "b");
+        insert(DEFAULT_INSTANCE_NAME, "c", "d");
+
+        Map<String, String> map = new HashMap<>();
+        map.put("a", "x");
+        map.put("e", "f");
+        map.put("g/h", "i");
+        dbDriver.persist(DEFAULT_INSTANCE_NAME, map);
+        commit();
+
+        // updated and inserted in the same batch
+        map.put("c", "d");
+        checkIfPresent(map, DEFAULT_INSTANCE_NAME);
+
+        Set<String> removed = new HashSet<>();
+        removed.add("a");
+        removed.add("g/h");
+        removed.add("unknown");
+        dbDriver.remove(DEFAULT_INSTANCE_NAME, removed);
+        commit();
+
+        map.remove("a");
+        map.remove("g/h");
+        checkIfPresent(map, DEFAULT_INSTANCE_NAME);
+    }
+
     @Test
     public void testLoadSimple() throws Throwable
     {
@@ -205,4 +235,54 @@ public class PropsConSQLDbDriverTest extends PropsConSQLDbDriverBase
         checkExpectedMap(map1, props1);
         checkExpectedMap(map2, props2);
     }
+
+    @Test
+    public void testLoadPreloaded() throws Throwable
+    {
+        Map<String, String> map1 = new HashMap<>();
+        map1.put("a", "b");
+        map1.put("a/c", "d");
+        Map<String, String> map2 = new HashMap<>();
+        map2.put("e", "f");
+
+        String instanceName1 = "INSTANCE_1";
+        String instanceName2 = "INSTANCE_2";
+
+        insert(instanceName1, map1);
+        insert(instanceName2, map2);
+
+        // the injected factory uses its own driver instance
+        PropsContainerFactory preloadingFactory = new PropsContainerFactory(dbDriver, () -> transMgrProvider.get());
+        dbDriver.preloadAll();
+
+        // not seen while the preloaded properties are used
+        delete(instanceName2, "e");
+
+        checkExpectedMap(map1, preloadingFactory.getInstance(instanceName1));
+        checkExpectedMap(map2, preloadingFactory.getInstance(instanceName2));
+        assertEquals(0, preloadingFactory.getInstance("INSTANCE_3").size());
+
+        dbDriver.clearPreloaded();
+        map2.clear();
+        checkExpectedMap(map2, preloadingFactory.getInstance(instanceName2));
+    }
+
+    @Test
+    public void testModificationDropsPreloaded() throws Throwable
+    {
+        String instanceName = DEFAULT_INSTANCE_NAME;
+        insert(instanceName, "a", "b");
+
+        PropsContainerFactory preloadingFactory = new PropsContainerFactory(dbDriver, () -> transMgrProvider.get());
+        dbDriver.preloadAll();
+
+        PropsContainer container = preloadingFactory.getInstance(instanceName);
+        container.setProp("c", "d");
+        commit();
+
+        Map<String, String> map = new HashMap<>();
+        map.put("a", "b");
+        map.put("c", "d");
+        checkExpectedMap(map, preloadingFactory.getInstance(instanceName));
+    }
 }
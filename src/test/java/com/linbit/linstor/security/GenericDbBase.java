@@ -4,6 +4,7 @@ import com.linbit.GuiceConfigModule;
 import com.linbit.InvalidNameException;
 import com.linbit.linstor.ControllerDatabase;
 import com.linbit.linstor.ControllerLinstorModule;
+import com.linbit.linstor.ControllerSQLDatabase;
 import com.linbit.linstor.InitializationException;
 import com.linbit.linstor.InternalApiConsts;
 import com.linbit.linstor.annotation.ErrorReporterContext;
@@ -801,6 +802,7 @@ public abstract class GenericDbBase implements GenericDbTestConstants
             bind(DbConnectionPool.class).toInstance(dbConnPool);
 
             bind(ControllerDatabase.class).to(DbConnectionPool.class);
+            bind(ControllerSQLDatabase.class).to(DbConnectionPool.class);
         }
     }
 }
@@ -0,0 +1,275 @@
+package com.linbit.linstor.snapshotshipping;
+
+import com.linbit.linstor.snapshotshipping.SnapshotShippingDaemon.Direction;
+import com.linbit.linstor.testutils.EmptyErrorReporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotShippingDaemonTest
+{
+    private static final int DATA_SIZE = 3 << 20;
+    private static final long REPLAY_BUFFER_KIB = 8192;
+    private static final long TIMEOUT_SEC = 30;
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private File sendFile;
+    private File recvFile;
+    private int port;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        sendFile = testFolder.newFile("send.dat");
+        recvFile = new File(testFolder.getRoot(), "recv.dat");
+
+        byte[] data = new byte[DATA_SIZE];
+        // half random, half compressible
+        new Random(42).nextBytes(data);
+        for (int idx = DATA_SIZE / 2; idx < DATA_SIZE; ++idx)
+        {
+            data[idx] = 0;
+        }
+        Files.write(sendFile.toPath(), data);
+
+        try (ServerSocket socket = new ServerSocket(0))
+        {
+            port = socket.getLocalPort();
+        }
+    }
+
+    private boolean[] ship(String sendCmd) throws Exception
+    {
+        return ship(sendCmd, port);
+    }
+
+    private boolean[] ship(String sendCmd, int sendToPort) throws Exception
+    {
+        ThreadGroup threadGroup = new ThreadGroup("SnapshotShippingDaemonTest");
+        CompletableFuture<Boolean> recvResult = new CompletableFuture<>();
+        CompletableFuture<Boolean> sendResult = new CompletableFuture<>();
+
+        SnapshotShippingDaemon receiver = new SnapshotShippingDaemon(
+            new EmptyErrorReporter(),
+            threadGroup,
+            "test_receiver",
+            Direction.RECEIVE,
+            "cat > " + recvFile.getAbsolutePath(),
+            new InetSocketAddress("127.0.0.1", port),
+            1,
+            0,
+            REPLAY_BUFFER_KIB,
+            new SnapshotShippingStats("test_receiver", DATA_SIZE),
+            recvResult::complete
+        );
+        SnapshotShippingStats sendStats = new SnapshotShippingStats("test_sender", DATA_SIZE);
+        SnapshotShippingDaemon sender = new SnapshotShippingDaemon(
+            new EmptyErrorReporter(),
+            threadGroup,
+            "test_sender",
+            Direction.SEND,
+            sendCmd,
+            new InetSocketAddress("127.0.0.1", sendToPort),
+            1,
+            0,
+            REPLAY_BUFFER_KIB,
+            sendStats,
+            sendResult::complete
+        );
+        // the sender has to retry until the receiver listens
+        sender.start();
+        receiver.start();
+
+        boolean[] ret = new boolean[]
+        {
+            sendResult.get(TIMEOUT_SEC, TimeUnit.SECONDS),
+            recvResult.get(TIMEOUT_SEC, TimeUnit.SECONDS)
+        };
+        assertEquals(DATA_SIZE, sendStats.getRawBytes());
+        if (sendToPort == port)
+        {
+            // a resumed shipping sends the replayed part twice
+            assertTrue(sendStats.getWireBytes() < DATA_SIZE);
+        }
+        return ret;
+    }
+
+    @Test
+    public void testShipping() throws Exception
+    {
+        boolean[] results = ship("cat " + sendFile.getAbsolutePath());
+
+        assertTrue(results[0]);
+        assertTrue(results[1]);
+        assertArrayEquals(Files.readAllBytes(sendFile.toPath()), Files.readAllBytes(recvFile.toPath()));
+    }
+
+    @Test
+    public void testFailingSendCommandAbortsReceiver() throws Exception
+    {
+        boolean[] results = ship("cat " + sendFile.getAbsolutePath() + "; exit 1");
+
+        assertFalse(results[0]);
+        assertFalse(results[1]);
+    }
+
+    @Test
+    public void testResumeAfterConnectionReset() throws Exception
+    {
+        try (ResettingProxy proxy = new ResettingProxy(port, 256 << 10))
+        {
+            boolean[] results = ship("cat " + sendFile.getAbsolutePath(), proxy.getPort());
+
+            assertTrue(results[0]);
+            assertTrue(results[1]);
+            assertTrue(proxy.getConnectionCount() > 1);
+            assertArrayEquals(Files.readAllBytes(sendFile.toPath()), Files.readAllBytes(recvFile.toPath()));
+        }
+    }
+
+    /**
+     * Forwards connections to the receiver, but resets the first connection after the given amount of bytes
+     */
+    private static class ResettingProxy implements AutoCloseable
+    {
+        private final ServerSocket serverSocket;
+        private final int targetPort;
+        private final long resetAfter;
+        private final AtomicInteger connectionCount = new AtomicInteger();
+
+        ResettingProxy(int targetPortRef, long resetAfterRef) throws IOException
+        {
+            targetPort = targetPortRef;
+            resetAfter = resetAfterRef;
+            serverSocket = new ServerSocket(0);
+
+            Thread acceptor = new Thread(this::acceptLoop, "ResettingProxy");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort()
+        {
+            return serverSocket.getLocalPort();
+        }
+
+        int getConnectionCount()
+        {
+            return connectionCount.get();
+        }
+
+        private void acceptLoop()
+        {
+            try
+            {
+                while (true)
+                {
+                    Socket client = serverSocket.accept();
+                    Socket target = connectToTarget();
+                    long limit = connectionCount.incrementAndGet() == 1 ? resetAfter : Long.MAX_VALUE;
+                    pipe(client, target, limit);
+                    pipe(target, client, Long.MAX_VALUE);
+                }
+            }
+            catch (IOException | InterruptedException ignored)
+            {
+                // proxy closed
+            }
+        }
+
+        private Socket connectToTarget() throws IOException, InterruptedException
+        {
+            Socket target = null;
+            while (target == null)
+            {
+                try
+                {
+                    target = new Socket("127.0.0.1", targetPort);
+                }
+                catch (ConnectException exc)
+                {
+                    // receiver not yet listening
+                    Thread.sleep(100);
+                }
+            }
+            return target;
+        }
+
+        private void pipe(Socket from, Socket to, long limit)
+        {
+            Thread thread = new Thread(
+                () ->
+                {
+                    byte[] buf = new byte[64 << 10];
+                    long forwarded = 0;
+                    try
+                    {
+                        InputStream in = from.getInputStream();
+                        OutputStream out = to.getOutputStream();
+                        int read;
+                        while ((read = in.read(buf)) != -1)
+                        {
+                            out.write(buf, 0, read);
+                            forwarded += read;
+                            if (forwarded >= limit)
+                            {
+                                reset(from);
+                                reset(to);
+                            }
+                        }
+                        to.shutdownOutput();
+                    }
+                    catch (IOException ignored)
+                    {
+                        reset(from);
+                        reset(to);
+                    }
+                },
+                "ResettingProxyPipe"
+            );
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private static void reset(Socket socket)
+        {
+            try
+            {
+                socket.setSoLinger(true, 0);
+                socket.close();
+            }
+            catch (IOException ignored)
+            {
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            serverSocket.close();
+        }
+    }
+}
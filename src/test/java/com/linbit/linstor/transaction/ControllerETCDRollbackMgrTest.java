@@ -0,0 +1,134 @@
+package com.linbit.linstor.transaction;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.protobuf.ByteString;
+import com.ibm.etcd.api.DeleteRangeRequest;
+import com.ibm.etcd.api.PutRequest;
+import com.ibm.etcd.api.RequestOp;
+import com.ibm.etcd.client.KeyUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ControllerETCDRollbackMgrTest
+{
+    private static final int NO_BYTE_LIMIT = Integer.MAX_VALUE;
+
+    private static RequestOp put(String key, String value)
+    {
+        return RequestOp.newBuilder()
+            .setRequestPut(PutRequest.newBuilder().setKey(KeyUtils.bs(key)).setValue(KeyUtils.bs(value)))
+            .build();
+    }
+
+    private static RequestOp delete(String key, boolean recursive)
+    {
+        ByteString bsKey = KeyUtils.bs(key);
+        DeleteRangeRequest.Builder delBuilder = DeleteRangeRequest.newBuilder().setKey(bsKey);
+        if (recursive)
+        {
+            delBuilder.setRangeEnd(KeyUtils.plusOne(bsKey));
+        }
+        return RequestOp.newBuilder().setRequestDeleteRange(delBuilder).build();
+    }
+
+    @Test
+    public void testOrderOfConflictingRequestsIsKept()
+    {
+        RequestOp putOld = put("/LINSTOR/T/a/COL", "old");
+        RequestOp delRow = delete("/LINSTOR/T/a/", true);
+        RequestOp putNew = put("/LINSTOR/T/a/COL", "new");
+        RequestOp putOther = put("/LINSTOR/T/b/COL", "other");
+
+        List<List<RequestOp>> chunks = ControllerETCDRollbackMgr.splitRequests(
+            Arrays.asList(putOld, putOther, delRow, putNew),
+            100,
+            NO_BYTE_LIMIT
+        );
+
+        assertEquals(3, chunks.size());
+        assertEquals(Arrays.asList(putOld, putOther), chunks.get(0));
+        assertEquals(Arrays.asList(delRow), chunks.get(1));
+        assertEquals(Arrays.asList(putNew), chunks.get(2));
+    }
+
+    @Test
+    public void testDeleteOfSingleKeyConflicts()
+    {
+        RequestOp putKey = put("/LINSTOR/T/a/COL", "value");
+        RequestOp delKey = delete("/LINSTOR/T/a/COL", false);
+        RequestOp delOtherKey = delete("/LINSTOR/T/a/COL2", false);
+
+        List<List<RequestOp>> chunks = ControllerETCDRollbackMgr.splitRequests(
+            Arrays.asList(putKey, delOtherKey, delKey),
+            100,
+            NO_BYTE_LIMIT
+        );
+
+        assertEquals(2, chunks.size());
+        assertEquals(Arrays.asList(delOtherKey, putKey), chunks.get(0));
+        assertEquals(Arrays.asList(delKey), chunks.get(1));
+    }
+
+    @Test
+    public void testRepeatedPutReplacesPrevious()
+    {
+        RequestOp put1 = put("/LINSTOR/T/a/COL", "1");
+        RequestOp put2 = put("/LINSTOR/T/a/COL", "2");
+
+        List<List<RequestOp>> chunks = ControllerETCDRollbackMgr.splitRequests(
+            Arrays.asList(put1, put2),
+            1,
+            NO_BYTE_LIMIT
+        );
+
+        assertEquals(1, chunks.size());
+        assertEquals(Arrays.asList(put2), chunks.get(0));
+    }
+
+    @Test
+    public void testOperationLimit()
+    {
+        List<List<RequestOp>> chunks = ControllerETCDRollbackMgr.splitRequests(
+            Arrays.asList(
+                put("/LINSTOR/T/a/COL", "1"),
+                put("/LINSTOR/T/b/COL", "2"),
+                put("/LINSTOR/T/c/COL", "3"),
+                put("/LINSTOR/T/d/COL", "4"),
+                put("/LINSTOR/T/e/COL", "5")
+            ),
+            2,
+            NO_BYTE_LIMIT
+        );
+
+        assertEquals(3, chunks.size());
+        assertEquals(2, chunks.get(0).size());
+        assertEquals(2, chunks.get(1).size());
+        assertEquals(1, chunks.get(2).size());
+    }
+
+    @Test
+    public void testByteLimit()
+    {
+        RequestOp put1 = put("/LINSTOR/T/a/COL", "1");
+        RequestOp put2 = put("/LINSTOR/T/b/COL", "2");
+        RequestOp put3 = put("/LINSTOR/T/c/COL", "3");
+        int reqBytes = put1.getSerializedSize();
+
+        List<List<RequestOp>> chunks = ControllerETCDRollbackMgr.splitRequests(
+            Arrays.asList(put1, put2, put3),
+            100,
+            reqBytes * 2
+        );
+
+        assertEquals(2, chunks.size());
+        assertEquals(Arrays.asList(put1, put2), chunks.get(0));
+        assertEquals(Arrays.asList(put3), chunks.get(1));
+
+        // a single request that exceeds the limit still has to be sent
+        chunks = ControllerETCDRollbackMgr.splitRequests(Arrays.asList(put1), 100, 1);
+        assertEquals(1, chunks.size());
+    }
+}
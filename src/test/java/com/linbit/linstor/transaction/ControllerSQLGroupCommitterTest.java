@@ -0,0 +1,188 @@
+package com.linbit.linstor.transaction;
+
+import com.linbit.linstor.core.cfg.CtrlConfig;
+import com.linbit.linstor.propscon.PropsConSQLDbDriver;
+import com.linbit.linstor.security.GenericDbBase;
+import com.linbit.linstor.transaction.manager.ControllerSQLTransactionMgr;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch.Parameters;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ControllerSQLGroupCommitterTest extends GenericDbBase
+{
+    private static final String INSTANCE_NAME = "GROUP_COMMIT_TEST";
+
+    private static final String INSERT =
+        "INSERT INTO " + TBL_PROPS_CONTAINERS + " (" + PROPS_INSTANCE + ", " + PROP_KEY + ", " + PROP_VALUE + ")" +
+        " VALUES (?, ?, ?)";
+    private static final String SELECT =
+        "SELECT " + PROP_VALUE + " FROM " + TBL_PROPS_CONTAINERS +
+        " WHERE " + PROPS_INSTANCE + " = ? AND " + PROP_KEY + " = ?";
+
+    private ControllerSQLGroupCommitter groupCommitter;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        super.setUpAndEnterScope();
+        CtrlConfig ctrlCfg = new CtrlConfig(null);
+        ctrlCfg.setDbGroupCommit(true);
+        groupCommitter = new ControllerSQLGroupCommitter(dbConnPool, errorReporter, ctrlCfg);
+    }
+
+    private ControllerSQLTransactionMgr transMgrWithInsert(String key, String value)
+    {
+        ControllerSQLTransactionMgr transMgr = new ControllerSQLTransactionMgr(dbConnPool, groupCommitter);
+        transMgr.getBatch().add(INSERT, insertParams(key, value));
+        return transMgr;
+    }
+
+    private String select(String key) throws SQLException
+    {
+        String value = null;
+        // connections of getNewConnection() are closed in GenericDbBase#tearDown()
+        Connection con = getNewConnection();
+        try (PreparedStatement stmt = con.prepareStatement(SELECT))
+        {
+            stmt.setString(1, INSTANCE_NAME);
+            stmt.setString(2, key);
+            try (ResultSet resultSet = stmt.executeQuery())
+            {
+                if (resultSet.next())
+                {
+                    value = resultSet.getString(1);
+                }
+            }
+        }
+        return value;
+    }
+
+    @Test
+    public void testCommit() throws Exception
+    {
+        ControllerSQLTransactionMgr transMgr = transMgrWithInsert("a", "b");
+        transMgr.commit();
+        transMgr.returnConnection();
+
+        assertTrue(transMgr.getBatch().isEmpty());
+        assertEquals("b", select("a"));
+    }
+
+    @Test
+    public void testConcurrentCommits() throws Exception
+    {
+        final int count = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int idx = 0; idx < count; ++idx)
+            {
+                ControllerSQLTransactionMgr transMgr = transMgrWithInsert("key" + idx, "value" + idx);
+                futures.add(executor.submit(() ->
+                {
+                    transMgr.commit();
+                    transMgr.returnConnection();
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        for (int idx = 0; idx < count; ++idx)
+        {
+            assertEquals("value" + idx, select("key" + idx));
+        }
+    }
+
+    @Test
+    public void testFailureOnlyAffectsOwnTransaction() throws Exception
+    {
+        transMgrWithInsert("a", "b").commit();
+
+        // duplicate primary key
+        ControllerSQLTransactionMgr failingTransMgr = transMgrWithInsert("a", "c");
+        failingTransMgr.getBatch().add(INSERT, insertParams("d", "e"));
+        try
+        {
+            failingTransMgr.commit();
+            fail("Commit of a duplicate entry should have failed");
+        }
+        catch (TransactionException expected)
+        {
+            // expected
+        }
+        failingTransMgr.rollback();
+
+        transMgrWithInsert("f", "g").commit();
+
+        assertEquals("b", select("a"));
+        assertNull(select("d"));
+        assertEquals("g", select("f"));
+    }
+
+    @Test
+    public void testPropsWritesJoinGroupCommit() throws Exception
+    {
+        ControllerSQLTransactionMgr[] currentTransMgr = new ControllerSQLTransactionMgr[1];
+        PropsConSQLDbDriver propsDriver = new PropsConSQLDbDriver(
+            errorReporter,
+            () -> currentTransMgr[0]
+        );
+
+        // the first use checks which upsert statement the database supports
+        currentTransMgr[0] = new ControllerSQLTransactionMgr(dbConnPool, groupCommitter);
+        propsDriver.preloadAll();
+        currentTransMgr[0].commit();
+        currentTransMgr[0].returnConnection();
+
+        currentTransMgr[0] = new ControllerSQLTransactionMgr(dbConnPool, groupCommitter);
+        propsDriver.persist(INSTANCE_NAME, "a", "b");
+        // queued instead of executed on a connection of the transaction
+        assertFalse(currentTransMgr[0].getBatch().isEmpty());
+        assertNull(select("a"));
+        currentTransMgr[0].commit();
+        currentTransMgr[0].returnConnection();
+        assertEquals("b", select("a"));
+
+        currentTransMgr[0] = new ControllerSQLTransactionMgr(dbConnPool, groupCommitter);
+        propsDriver.remove(INSTANCE_NAME, "a");
+        assertFalse(currentTransMgr[0].getBatch().isEmpty());
+        currentTransMgr[0].commit();
+        currentTransMgr[0].returnConnection();
+        assertNull(select("a"));
+    }
+
+    private static Parameters insertParams(String key, String value)
+    {
+        Parameters params = new Parameters();
+        params.setObject(1, INSTANCE_NAME);
+        params.setObject(2, key);
+        params.setObject(3, value);
+        return params;
+    }
+}
@@ -0,0 +1,65 @@
+package com.linbit.linstor.transaction;
+
+import com.linbit.linstor.ControllerSQLDatabase;
+import com.linbit.linstor.transaction.manager.ControllerSQLTransactionMgr;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ControllerSQLTransactionMgrTest
+{
+    private Connection con;
+    private ControllerSQLDatabase db;
+    private ControllerSQLTransactionMgr transMgr;
+
+    @Before
+    public void setUp() throws SQLException
+    {
+        con = mock(Connection.class);
+        when(con.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        db = mock(ControllerSQLDatabase.class);
+        when(db.getConnection()).thenReturn(con);
+        transMgr = new ControllerSQLTransactionMgr(db);
+    }
+
+    @Test
+    public void testNoConnectionWithoutDatabaseAccess() throws Exception
+    {
+        transMgr.commit();
+        transMgr.rollback();
+        transMgr.returnConnection();
+        verify(db, never()).getConnection();
+    }
+
+    @Test
+    public void testConnectionIsReturnedAfterCommit() throws Exception
+    {
+        transMgr.getBatch().add("UPDATE TEST SET VALUE = ?", new SQLStatementBatch.Parameters());
+        transMgr.commit();
+        verify(con).commit();
+        // not kept for the rest of the scope
+        verify(db).returnConnection(con);
+
+        // taken again if the scope continues to use the database
+        transMgr.getConnection();
+        verify(db, times(2)).getConnection();
+        transMgr.rollback();
+        verify(db, times(2)).returnConnection(con);
+
+        transMgr.returnConnection();
+        verify(db, times(2)).returnConnection(any());
+    }
+}
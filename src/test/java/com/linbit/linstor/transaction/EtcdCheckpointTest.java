@@ -0,0 +1,81 @@
+package com.linbit.linstor.transaction;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EtcdCheckpointTest
+{
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private EtcdCheckpoint checkpoint;
+
+    @Before
+    public void setUp()
+    {
+        TreeMap<String, String> entries = new TreeMap<>();
+        entries.put("/LINSTOR/NODES/NODE1/NODE_TYPE", "2");
+        entries.put("/LINSTOR/NODES/NODE10/NODE_TYPE", "2");
+        entries.put("/LINSTOR/NODES/NODE2/NODE_TYPE", "3");
+        entries.put("/LINSTOR/PROPS_CONTAINERS/NODES/NODE1:Aux/comment", "\u00e4\u00f6\u00fc");
+        checkpoint = new EtcdCheckpoint(42, 41, "/LINSTOR/", entries);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException
+    {
+        Path file = tmpFolder.getRoot().toPath().resolve("checkpoint");
+        checkpoint.write(file);
+
+        EtcdCheckpoint readCheckpoint = EtcdCheckpoint.read(file);
+        assertEquals(42, readCheckpoint.getRevision());
+        assertEquals(checkpoint.getState(), readCheckpoint.getState());
+        assertEquals("/LINSTOR/", readCheckpoint.getPrefix());
+        assertEquals(checkpoint.get("/LINSTOR/", true), readCheckpoint.get("/LINSTOR/", true));
+        assertEquals(1, tmpFolder.getRoot().list().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptFileIsRejected() throws IOException
+    {
+        Path file = tmpFolder.getRoot().toPath().resolve("checkpoint");
+        checkpoint.write(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw"))
+        {
+            raf.seek(raf.length() / 2);
+            int data = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(data ^ 0xFF);
+        }
+        EtcdCheckpoint.read(file);
+    }
+
+    @Test
+    public void testReads()
+    {
+        assertTrue(checkpoint.covers("/LINSTOR/NODES/"));
+        assertFalse(checkpoint.covers("/OTHER/"));
+
+        Iterator<Map.Entry<String, String>> entryIt = checkpoint.iterator("/LINSTOR/NODES/NODE1/");
+        assertTrue(entryIt.hasNext());
+        assertEquals("/LINSTOR/NODES/NODE1/NODE_TYPE", entryIt.next().getKey());
+        assertFalse(entryIt.hasNext());
+
+        assertEquals(3, checkpoint.get("/LINSTOR/NODES/", true).size());
+        assertEquals(1, checkpoint.get("/LINSTOR/NODES/NODE2/NODE_TYPE", false).size());
+        assertTrue(checkpoint.get("/LINSTOR/NODES/NODE2/", false).isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+package com.linbit.linstor.transaction;
+
+import com.linbit.linstor.security.GenericDbBase;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch.Parameters;
+import com.linbit.linstor.transaction.manager.TransactionMgrSQL;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SQLStatementBatchTest extends GenericDbBase
+{
+    private static final String INSTANCE_NAME = "BATCH_TEST";
+
+    private static final String INSERT =
+        "INSERT INTO " + TBL_PROPS_CONTAINERS + " (" + PROPS_INSTANCE + ", " + PROP_KEY + ", " + PROP_VALUE + ")" +
+        " VALUES (?, ?, ?)";
+    private static final String DELETE =
+        "DELETE FROM " + TBL_PROPS_CONTAINERS + " WHERE " + PROPS_INSTANCE + " = ? AND " + PROP_KEY + " = ?";
+    private static final String SELECT =
+        "SELECT " + PROP_VALUE + " FROM " + TBL_PROPS_CONTAINERS +
+        " WHERE " + PROPS_INSTANCE + " = ? AND " + PROP_KEY + " = ?";
+
+    private TransactionMgrSQL transMgr;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        super.setUpAndEnterScope();
+        transMgr = transMgrProvider.get();
+    }
+
+    private void queueInsert(String key, String value)
+    {
+        Parameters params = new Parameters();
+        params.setObject(1, INSTANCE_NAME);
+        params.setObject(2, key);
+        params.setObject(3, value);
+        transMgr.getBatch().add(INSERT, params);
+    }
+
+    private void queueDelete(String key)
+    {
+        Parameters params = new Parameters();
+        params.setObject(1, INSTANCE_NAME);
+        params.setObject(2, key);
+        transMgr.getBatch().add(DELETE, params);
+    }
+
+    private String select(String key) throws SQLException
+    {
+        String value = null;
+        try (PreparedStatement stmt = transMgr.getConnection().prepareStatement(SELECT))
+        {
+            stmt.setString(1, INSTANCE_NAME);
+            stmt.setString(2, key);
+            try (ResultSet resultSet = stmt.executeQuery())
+            {
+                if (resultSet.next())
+                {
+                    value = resultSet.getString(1);
+                }
+            }
+        }
+        return value;
+    }
+
+    @Test
+    public void testFlushOnGetConnection() throws Exception
+    {
+        queueInsert("a", "b");
+        queueInsert("c", "d");
+        SQLStatementBatch batch = transMgr.getBatch();
+        assertEquals(2, batch.size());
+
+        assertEquals("b", select("a"));
+        assertEquals("d", select("c"));
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    public void testOrderIsKept() throws Exception
+    {
+        queueInsert("a", "b");
+        queueDelete("a");
+        queueInsert("a", "c");
+        commit();
+
+        assertEquals("c", select("a"));
+    }
+
+    @Test
+    public void testRollbackDropsQueuedStatements() throws Exception
+    {
+        queueInsert("a", "b");
+        transMgr.rollback();
+
+        assertTrue(transMgr.getBatch().isEmpty());
+        assertNull(select("a"));
+    }
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import com.linbit.linstor.dbdrivers.DatabaseException;
 import com.linbit.linstor.dbdrivers.noop.NoOpMapDatabaseDriver;
 
 import java.util.TreeMap;
@@ -109,4 +110,35 @@ public class TransactionMapTest
         assertTrue(backingMap.isEmpty());
         assertTrue(txMap.isEmpty());
     }
+
+    @Test
+    public void valuesRegisterOnFirstChange() throws DatabaseException
+    {
+        TransactionMap<String, TransactionSimpleObject<Object, String>> simpleObjMap = new TransactionMap<>(
+            new TreeMap<>(),
+            null,
+            () -> dummyTxMgr
+        );
+        TransactionSimpleObject<Object, String> unchanged = new TransactionSimpleObject<>(null, "a", null, null);
+        TransactionSimpleObject<Object, String> changed = new TransactionSimpleObject<>(
+            null,
+            "b",
+            null,
+            () -> dummyTxMgr
+        );
+        simpleObjMap.put("unchanged", unchanged);
+        simpleObjMap.put("changed", changed);
+        // only the map itself was modified
+        assertEquals(1, dummyTxMgr.sizeObjects());
+        assertFalse(unchanged.hasTransMgr());
+
+        changed.set("c");
+        assertEquals(2, dummyTxMgr.sizeObjects());
+        assertTrue(changed.hasTransMgr());
+        assertFalse(unchanged.hasTransMgr());
+
+        dummyTxMgr.rollback();
+        assertTrue(simpleObjMap.isEmpty());
+        assertEquals("b", changed.get());
+    }
 }
@@ -0,0 +1,150 @@
+package com.linbit.linstor.transaction;
+
+import com.linbit.linstor.ControllerSQLDatabase;
+import com.linbit.linstor.dbdrivers.DatabaseException;
+import com.linbit.linstor.transaction.TransactionStatsCollector.Histogram;
+import com.linbit.linstor.transaction.TransactionStatsCollector.TransactionHistograms;
+import com.linbit.linstor.transaction.manager.ControllerSQLTransactionMgr;
+import com.linbit.linstor.transaction.manager.SQLStatementBatch;
+import com.linbit.linstor.transaction.manager.SatelliteTransactionMgr;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TransactionStatsCollectorTest
+{
+    private TransactionStatsCollector collector;
+
+    @Before
+    public void setUp()
+    {
+        collector = new TransactionStatsCollector();
+    }
+
+    private static TransactionStats stats(String name, boolean committed, int dbWrites, int dirtyObjects)
+    {
+        return new TransactionStats(name, committed, dirtyObjects, dirtyObjects, dbWrites, 1000L, 0L);
+    }
+
+    @Test
+    public void testLargestRecent()
+    {
+        collector.record(stats("small", true, 1, 1));
+        collector.record(stats("large", true, 100, 1));
+        collector.record(stats("medium", true, 10, 50));
+        collector.record(stats("mediumMoreObjects", true, 10, 60));
+
+        List<TransactionStats> largest = collector.getLargestRecent(3);
+        assertEquals(3, largest.size());
+        assertEquals("large", largest.get(0).getName());
+        assertEquals("mediumMoreObjects", largest.get(1).getName());
+        assertEquals("medium", largest.get(2).getName());
+    }
+
+    @Test
+    public void testOnlyRecentAreKept()
+    {
+        collector.record(stats("old", true, 1000, 0));
+        for (int idx = 0; idx < TransactionStatsCollector.RECENT_TRANSACTIONS; ++idx)
+        {
+            collector.record(stats("new", true, 1, 0));
+        }
+
+        List<TransactionStats> largest = collector.getLargestRecent(Integer.MAX_VALUE);
+        assertEquals(TransactionStatsCollector.RECENT_TRANSACTIONS, largest.size());
+        assertEquals("new", largest.get(0).getName());
+    }
+
+    @Test
+    public void testHistograms()
+    {
+        collector.record(stats("CrtRsc", true, 0, 0));
+        collector.record(stats("CrtRsc", true, 7, 0));
+        collector.record(stats("CrtRsc", true, 100_000, 0));
+        collector.record(stats("CrtRsc", false, 3, 0));
+
+        List<TransactionHistograms> histogramsList = collector.getHistograms();
+        assertEquals(2, histogramsList.size());
+        TransactionHistograms commitHistograms = histogramsList.get(0);
+        assertEquals("CrtRsc", commitHistograms.getName());
+        assertTrue(commitHistograms.isCommitted());
+        assertFalse(histogramsList.get(1).isCommitted());
+
+        Histogram dbOps = commitHistograms.getDbWrites();
+        assertEquals(3, dbOps.getCount());
+        assertEquals(100_007.0, dbOps.getSum(), 0.0);
+        assertArrayEquals(
+            new long[] {1, 1, 1, 2, 2, 2, 2, 2, 2, 2, 3},
+            dbOps.getCumulativeCounts()
+        );
+    }
+
+    @Test
+    public void testSatelliteTransactionMgr() throws DatabaseException
+    {
+        SatelliteTransactionMgr transMgr = new SatelliteTransactionMgr(collector, "test");
+        TransactionSimpleObject<Object, String> changed = new TransactionSimpleObject<>(
+            null,
+            "a",
+            null,
+            () -> transMgr
+        );
+        changed.set("b");
+        transMgr.commit();
+
+        List<TransactionStats> largest = collector.getLargestRecent(10);
+        assertEquals(1, largest.size());
+        TransactionStats stats = largest.get(0);
+        assertEquals("test", stats.getName());
+        assertTrue(stats.isCommitted());
+        assertEquals(1, stats.getRegisteredObjects());
+        assertEquals(1, stats.getDirtyObjects());
+        assertEquals(0, stats.getDbWrites());
+    }
+
+    @Test
+    public void testFailedCommitIsRecorded() throws Exception
+    {
+        Connection con = mock(Connection.class);
+        when(con.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        doThrow(new SQLException("test")).when(con).commit();
+        ControllerSQLDatabase db = mock(ControllerSQLDatabase.class);
+        when(db.getConnection()).thenReturn(con);
+
+        ControllerSQLTransactionMgr transMgr = new ControllerSQLTransactionMgr(db, null, collector, "test");
+        transMgr.getBatch().add("UPDATE TEST SET VALUE = ?", new SQLStatementBatch.Parameters());
+        try
+        {
+            transMgr.commit();
+            fail("The commit should have failed");
+        }
+        catch (TransactionException expected)
+        {
+            // expected
+        }
+        transMgr.rollback();
+
+        List<TransactionStats> recent = collector.getLargestRecent(10);
+        assertEquals(2, recent.size());
+        // the failed commit, with the statement that was sent, followed by the rollback
+        assertFalse(recent.get(0).isCommitted());
+        assertEquals(1, recent.get(0).getDbWrites());
+        assertFalse(recent.get(1).isCommitted());
+        assertEquals(0, recent.get(1).getDbWrites());
+    }
+}